@@ -0,0 +1,179 @@
+package cz.metacentrum.perun.auditparser;
+
+import cz.metacentrum.perun.core.api.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokenizer of audit messages, which finds serialized beans in the message and splits them to their names
+ * and maps of attribute names to values. For example "Group:[id=&lt;21&gt;, name=&lt;members&gt;]"
+ * is tokenized to the pair "Group" -&gt; {id=21, name=members}.
+ *
+ * Message is processed in a single pass by indexes to the given CharSequence, without regular
+ * expressions and without copying parts of the message. Only names and values of the attributes
+ * are created as new strings. Result is the same as the result of the former regex based parsing,
+ * including all its corner cases (e.g. escaping is considered only for pointy brackets, square
+ * brackets inside pointy brackets are not counted).
+ *
+ * @see AuditParser
+ */
+public final class AuditMessageTokenizer {
+
+	private AuditMessageTokenizer() {
+	}
+
+	/**
+	 * Find all beans in the message and return list of pairs, where left is name of the bean and right is map
+	 * of its attributes and their values. Map is null for beans serialized as null (\0).
+	 *
+	 * @param log audit message
+	 * @return list of pairs name of bean to map of his attributes and values or null if whole message is null (\0)
+	 */
+	public static List<Pair<String, Map<String, String>>> tokenize(CharSequence log) {
+		if (log.length() == 2 && log.charAt(0) == '\\' && log.charAt(1) == '0') return null;
+		List<Pair<String, Map<String, String>>> beans = new ArrayList<>();
+
+		//Counters are shared by all beans in message
+		int squareBrackets = 0;
+		int pointyBrackets = 0;
+		boolean enableCountSquareBrackets = true;
+
+		int startOfBean = findStartOfBean(log, 0);
+		while (startOfBean != -1) {
+			int endOfBean = -1;
+			for (int i = startOfBean + 1; i < log.length(); i++) {
+				char c = log.charAt(i);
+				if (c == '<' || c == '>') {
+					//escaped pointy brackets are skipped
+					if (isEscaped(log, i - 1)) continue;
+					if (c == '<') {
+						enableCountSquareBrackets = false;
+						pointyBrackets++;
+					} else {
+						pointyBrackets--;
+						if (pointyBrackets == 0) enableCountSquareBrackets = true;
+					}
+				} else if (enableCountSquareBrackets && (c == '[' || c == ']') && !isLineTerminator(log.charAt(i - 1))) {
+					if (c == '[') {
+						squareBrackets++;
+					} else {
+						squareBrackets--;
+						if (squareBrackets == 0) {
+							endOfBean = i + 1;
+							break;
+						}
+					}
+				}
+			}
+			//Not closed bean ends the parsing
+			if (endOfBean == -1) break;
+			beans.add(tokenizeBean(log, startOfBean, endOfBean));
+			startOfBean = findStartOfBean(log, endOfBean);
+		}
+		return beans;
+	}
+
+	/**
+	 * Split one bean "Name:[attr=&lt;value&gt;, ...]" in the message to its name and map of attributes.
+	 *
+	 * @param log audit message
+	 * @param start index of first char of the bean name
+	 * @param end index after the closing square bracket of the bean
+	 * @return pair name of bean to map of his attributes and values
+	 */
+	private static Pair<String, Map<String, String>> tokenizeBean(CharSequence log, int start, int end) {
+		int colon = start;
+		while (log.charAt(colon) != ':') colon++;
+		String nameOfBean = log.subSequence(start, colon).toString();
+		//Skip chars ":[" after the name
+		int body = colon + 2;
+
+		Map<String, String> map = null;
+		if (!(log.charAt(body) == '\\' && log.charAt(body + 1) == '0')) {
+			map = new HashMap<>();
+			//Helping variables to find start of attribute name, end of attribute name and the same for attribute value
+			int startName = -1;
+			int endName = -1;
+			int startValue = -1;
+			int endValue = -1;
+			int pointyBrackets = 0;
+			boolean isName = true;
+
+			for (int i = body; i < end; i++) {
+				char c = log.charAt(i);
+				if (Character.isLetter(c) && startName == -1 && isName) {
+					startName = i;
+				} else if (Character.isLetter(c) && endName == -1 && isName) {
+					//Name ends with the last letter before non letter char
+					if (i + 1 != end && !Character.isLetter(log.charAt(i + 1))) {
+						endName = i;
+						isName = false;
+					}
+				} else if (c == '<' && !isName) {
+					if (!isEscaped(log, i - 1)) {
+						if (pointyBrackets == 0) startValue = i;
+						pointyBrackets++;
+					}
+				} else if (pointyBrackets != 0 && c == '>' && !isName) {
+					if (!isEscaped(log, i - 1)) {
+						pointyBrackets--;
+						if (pointyBrackets == 0) {
+							endValue = i;
+							isName = true;
+						}
+					}
+				}
+				if (startName != -1 && endName != -1 && startValue != -1 && endValue != -1) {
+					map.put(log.subSequence(startName, endName + 1).toString(), log.subSequence(startValue + 1, endValue).toString());
+					startName = -1;
+					endName = -1;
+					startValue = -1;
+					endValue = -1;
+				}
+			}
+		}
+		return new Pair<>(nameOfBean, map);
+	}
+
+	/**
+	 * Find start of the first bean "Name:[" in the message, starting from the given index.
+	 *
+	 * @param log audit message
+	 * @param from index to start searching from
+	 * @return index of first char of the bean name or -1 if there is no other bean
+	 */
+	private static int findStartOfBean(CharSequence log, int from) {
+		for (int i = from + 1; i < log.length() - 1; i++) {
+			if (log.charAt(i) == ':' && log.charAt(i + 1) == '[' && isWordChar(log.charAt(i - 1))) {
+				int start = i - 1;
+				while (start > from && isWordChar(log.charAt(start - 1))) start--;
+				return start;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return true, if char on the position is escaped by odd number of '\'.
+	 */
+	private static boolean isEscaped(CharSequence log, int position) {
+		boolean escaped = false;
+		while (position >= 0 && log.charAt(position) == '\\') {
+			escaped = !escaped;
+			position--;
+		}
+		return escaped;
+	}
+
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+}
@@ -13,8 +13,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,11 +24,43 @@ import org.slf4j.LoggerFactory;
  */
 public class AuditParser {
 	private final static Logger loger = LoggerFactory.getLogger(AuditParser.class);
-	static final Pattern perunBeanStartPattern = Pattern.compile("\\w+:\\[");
-	static final Pattern pointyAndSquareBracket = Pattern.compile(".\\[|.\\]|[^\\\\](\\\\\\\\)*(<|>)");
 
+	/**
+	 * Creators of beans by their names. Map is filled once and then only read, so it can be shared by all threads.
+	 */
+	private final static Map<String, Function<Map<String, String>, PerunBean>> beanCreators = new HashMap<String, Function<Map<String, String>, PerunBean>>();
+
+	static {
+		beanCreators.put("Attribute", AuditParser::createAttribute);
+		beanCreators.put("AttributeDefinition", AuditParser::createAttributeDefinition);
+		beanCreators.put("Candidate", AuditParser::createCandidate);
+		beanCreators.put("Destination", AuditParser::createDestination);
+		beanCreators.put("ExtSource", AuditParser::createExtSource);
+		beanCreators.put("RichFacility", AuditParser::createRichFacility);
+		beanCreators.put("Facility", AuditParser::createFacility);
+		beanCreators.put("Group", AuditParser::createGroup);
+		beanCreators.put("Host", AuditParser::createHost);
+		beanCreators.put("Member", AuditParser::createMember);
+		beanCreators.put("Owner", AuditParser::createOwner);
+		beanCreators.put("Resource", AuditParser::createResource);
+		beanCreators.put("RichDestination", AuditParser::createRichDestination);
+		beanCreators.put("RichMember", AuditParser::createRichMember);
+		beanCreators.put("RichUser", AuditParser::createRichUser);
+		beanCreators.put("RichGroup", AuditParser::createRichGroup);
+		beanCreators.put("RichResource", AuditParser::createRichResource);
+		beanCreators.put("Service", AuditParser::createService);
+		beanCreators.put("User", AuditParser::createUser);
+		beanCreators.put("UserExtSource", AuditParser::createUserExtSource);
+		beanCreators.put("Vo", AuditParser::createVo);
+		beanCreators.put("Authorship", AuditParser::createAuthorship);
+		beanCreators.put("ResourceTag", AuditParser::createResourceTag);
+		beanCreators.put("SecurityTeam", AuditParser::createSecurityTeam);
+		beanCreators.put("TaskResult", AuditParser::createTaskResult);
+		beanCreators.put("BanOnResource", AuditParser::createBanOnResource);
+		beanCreators.put("BanOnFacility", AuditParser::createBanOnFacility);
+	}
 
-	public static List<PerunBean> parseLog(String log) throws InternalErrorException {
+	public static List<PerunBean> parseLog(CharSequence log) throws InternalErrorException {
 		List<PerunBean> listPerunBeans = new ArrayList<PerunBean>();
 		PerunBean perunBean = null;
 		//Parse log to List of text Beanss
@@ -39,37 +70,13 @@ public class AuditParser {
 		} catch (RuntimeException ex) {
 			loger.error("Message " + log + " was not correctly parsed to Map<NameOfBean,BodyOfBean>", ex);
 		}
-		//For every bean try to find it and create object from text
+		if(listOfTextBeans == null) return listPerunBeans;
+		//For every bean try to find its creator and create object from text
 		for(Pair<String, Map<String, String>> p: listOfTextBeans) {
 			try {
 				perunBean = null;
-				if(p.getLeft().equals("Attribute")) perunBean = createAttribute(p.getRight());
-				else if(p.getLeft().equals("AttributeDefinition")) perunBean = createAttributeDefinition(p.getRight());
-				else if(p.getLeft().equals("Candidate")) perunBean = createCandidate(p.getRight());
-				else if(p.getLeft().equals("Destination")) perunBean = createDestination(p.getRight());
-				else if(p.getLeft().equals("ExtSource")) perunBean = createExtSource(p.getRight());
-				else if(p.getLeft().equals("RichFacility")) perunBean = createRichFacility(p.getRight());
-				else if(p.getLeft().equals("Facility")) perunBean = createFacility(p.getRight());
-				else if(p.getLeft().equals("Group")) perunBean = createGroup(p.getRight());
-				else if(p.getLeft().equals("Host")) perunBean = createHost(p.getRight());
-				else if(p.getLeft().equals("Member")) perunBean = createMember(p.getRight());
-				else if(p.getLeft().equals("Owner")) perunBean = createOwner(p.getRight());
-				else if(p.getLeft().equals("Resource")) perunBean = createResource(p.getRight());
-				else if(p.getLeft().equals("RichDestination")) perunBean = createRichDestination(p.getRight());
-				else if(p.getLeft().equals("RichMember")) perunBean = createRichMember(p.getRight());
-				else if(p.getLeft().equals("RichUser")) perunBean = createRichUser(p.getRight());
-				else if(p.getLeft().equals("RichGroup")) perunBean = createRichGroup(p.getRight());
-				else if(p.getLeft().equals("RichResource")) perunBean = createRichResource(p.getRight());
-				else if(p.getLeft().equals("Service")) perunBean = createService(p.getRight());
-				else if(p.getLeft().equals("User")) perunBean = createUser(p.getRight());
-				else if(p.getLeft().equals("UserExtSource")) perunBean = createUserExtSource(p.getRight());
-				else if(p.getLeft().equals("Vo")) perunBean = createVo(p.getRight());
-				else if(p.getLeft().equals("Authorship")) perunBean = createAuthorship(p.getRight());
-				else if(p.getLeft().equals("ResourceTag")) perunBean = createResourceTag(p.getRight());
-				else if(p.getLeft().equals("SecurityTeam")) perunBean = createSecurityTeam(p.getRight());
-				else if(p.getLeft().equals("TaskResult")) perunBean = createTaskResult(p.getRight());
-				else if(p.getLeft().equals("BanOnResource")) perunBean = createBanOnResource(p.getRight());
-				else if(p.getLeft().equals("BanOnFacility")) perunBean = createBanOnFacility(p.getRight());
+				Function<Map<String, String>, PerunBean> beanCreator = beanCreators.get(p.getLeft());
+				if(beanCreator != null) perunBean = beanCreator.apply(p.getRight());
 				else loger.debug("Object of this type can't be parsed cause there is no such object in parser's branches. ObjectName:" + p.getLeft());
 				if(perunBean != null) listPerunBeans.add(perunBean);
 			} catch (RuntimeException e) {
@@ -86,189 +93,15 @@ public class AuditParser {
 	 * Example "Group - {id=21, voId=21, description=Group containing VO
 	 * members, name=members}"
 	 *
-	 * This method using for function method parseOfLog to get listOfObjects in
-	 * Strings from log message
-	 *
-	 * @param log log message
-	 * @return list of pairs name of bean to map of his attributes and values
-	 */
-	private static List<Pair<String, Map<String, String>>> beansToMap(String log) {
-		if(log.equals("\\0")) return null;
-		//First get list of beans from log message
-		List<String> listOfNonparsedBeans = parseOfLog(log);
-		List<Pair<String, Map<String, String>>> listOfBeans = new ArrayList<Pair<String, Map<String, String>>>();
-
-		//For every object in list of nonparsed beans try to parse it
-		for (String s : listOfNonparsedBeans) {
-			//Prepare empty map and empty string for name of bean
-			String nameOfBean = null;
-			Map<String, String> map = new HashMap<String, String>();
-
-			//Find, save and cut name of Bean from beanstring
-			for (int i = 0; i < s.length(); i++) {
-				//After correct bean name there is everytime char ":"
-				if (s.charAt(i) == ':') {
-					nameOfBean = s.substring(0, i);
-					//Cut name of Bean + chars ":[" after it
-					s = s.substring(i + 2);
-					break;
-				}
-			}
-
-			if(s.charAt(0) == '\\' && s.charAt(1) == '0') map = null;
-			else {
-				/*
-				//Find name of Bean form beanString
-				String nameOfBean = null;
-				Matcher beanNameMatcher = beanName.matcher(s);
-				beanNameMatcher.find();
-				nameOfBean = s.substring(beanNameMatcher.start(), beanNameMatcher.end()-1);
-				*/
-
-				//From the rest get pair attribute of object / value of attribute and put it to the MAP
-				//Helping variables to find start of attribute name, end of attribute name and the same for attribute value its always quaternion
-				int startName = -1;
-				int endName = -1;
-				int startValue = -1;
-				int endValue = -1;
-				int pointyBrackets = 0;
-				boolean isName = true;
-
-				//For the rest of object String searching for attributes names and their values
-				for (int i = 0; i < s.length(); i++) {
-					//found first Letter when no start still exist and searching for name and save it
-					if(Character.isLetter(s.charAt(i)) && startName == -1 && isName) {
-						startName = i;
-					} //found for last Letter symbol in beans attribute name
-					else if(Character.isLetter(s.charAt(i)) && endName == -1 && isName) {
-						//If there is still some symbol after this one and if it is not Letter, i save my end name position
-						if (i + 1 != s.length()) {
-							if(!Character.isLetter(s.charAt(i+1))) {
-								endName = i;
-								//when i found all name, i will be searching for value
-								isName = false;
-							}
-						}
-					} //If i found name already, trying to find nonescaped < and count it
-					else if (s.charAt(i) == '<' && !isName) {
-						//if its first, its my start of value position and i save it
-						if (pointyBrackets == 0) {
-							if (!BeansUtils.isEscaped(s, i - 1)) {
-								startValue = i;
-							}
-						}
-						//if this bracket is nonescaped so count it
-						if (!BeansUtils.isEscaped(s, i - 1)) {
-							pointyBrackets++;
-						}
-					} //If i found name already, there are some open angle breackets and is nonescaped so count this one off
-					else if (pointyBrackets != 0 && s.charAt(i) == '>' && !isName) {
-						//if this bracket is nonescaped so count it off
-						if (!BeansUtils.isEscaped(s, i - 1)) {
-							pointyBrackets--;
-						}
-						//if there left no brackets after counting off, so its my end bracket and i save it
-						if (pointyBrackets == 0) {
-							if (!BeansUtils.isEscaped(s, i - 1)) {
-								endValue = i;
-								isName = true;
-							}
-						}
-					}
-					//If i have already all quaternion of position i will put this attribute to the map and set helping variables to start
-					if (startName != -1 && endName != -1 && startValue != -1 && endValue != -1) {
-						map.put(s.substring(startName, endName + 1), s.substring(startValue + 1, endValue));
-						startName = -1;
-						endName = -1;
-						startValue = -1;
-						endValue = -1;
-					}
-
-				}
-			}
-			//Put name of object and map of attribute and values to the list of all objects
-			Pair<String, Map<String, String>> pair = new Pair<String, Map<String, String>>();
-			pair.put(nameOfBean, map);
-			listOfBeans.add(pair);
-		}
-		return listOfBeans;
-	}
-
-	/**
-	 * This method get log message and parse it to list of beans in Strings For
-	 * example item in array is everytime something like -> Bean:[*] where * is
-	 * anything
+	 * Log message is tokenized in single pass by AuditMessageTokenizer.
 	 *
-	 * This method using method "CutStartOfLog" for searching beans in log
+	 * @see AuditMessageTokenizer
 	 *
 	 * @param log log message
-	 * @return list of object in String
-	 */
-	private static List<String> parseOfLog(String log) {
-		List<String> results = new ArrayList<String>();
-		//Load helping variables for counting brackets
-		int squareBrackets = 0;
-		int pointyBrackets = 0;
-		boolean enableCountSquareBrackets = true;
-
-		log = CutStartOfLog(log);
-		while(log!=null) {
-			//TODO this regular expresion expect, that never get char <,>,[,] or \ like first char in string log!!!
-			Matcher pointyAndSquareBracketMatcher = pointyAndSquareBracket.matcher(log);
-			int endOfObject = 0;
-			int start = 0;
-			while(pointyAndSquareBracketMatcher.find(start)) {
-				if(log.charAt(pointyAndSquareBracketMatcher.end()-1)=='<') {
-					enableCountSquareBrackets = false;
-					pointyBrackets++;
-				}else if(log.charAt(pointyAndSquareBracketMatcher.end()-1)=='>') {
-					pointyBrackets--;
-					//If it means that this is our searching end anglebracket, so enable counting square brackets again
-					if (pointyBrackets == 0) {
-						enableCountSquareBrackets = true;
-					}
-				}else if(enableCountSquareBrackets && log.charAt(pointyAndSquareBracketMatcher.end()-1)=='[') {
-					squareBrackets++;
-				}else if(enableCountSquareBrackets && log.charAt(pointyAndSquareBracketMatcher.end()-1)==']') {
-					squareBrackets--;
-					if (squareBrackets == 0) {
-						//This is end position of searching object
-						endOfObject = pointyAndSquareBracketMatcher.end();
-						break;
-					}
-				}
-				start = pointyAndSquareBracketMatcher.end()-1;
-			}
-			if(endOfObject != 0) {
-				results.add(log.substring(0, endOfObject));
-				log = log.substring(endOfObject);
-			}else {
-				return results;
-			}
-			log = CutStartOfLog(log);
-		}
-		return results;
-	}
-
-	/**
-	 * Get log message and find first real object thx '*:[' where * is name of
-	 * object cut it on the start of name example 'blabluble ,l;[0Bean:[*'
-	 * return 'Bean:[*'
-	 *
-	 * Warning: If log content bad definition of bean, have *:[ in text without
-	 * bean inside, parsing failed
-	 *
-	 * @param log log message
-	 * @return Message cutted to Start of first real bean in log
+	 * @return list of pairs name of bean to map of his attributes and values
 	 */
-	private static String CutStartOfLog(String log) {
-
-		if(log == null) return null;
-		Matcher perunBeanStartMatcher = perunBeanStartPattern.matcher(log);
-		if(perunBeanStartMatcher.find()) {
-			log = log.substring(perunBeanStartMatcher.start());
-		} else return null;
-		return log;
+	private static List<Pair<String, Map<String, String>>> beansToMap(CharSequence log) {
+		return AuditMessageTokenizer.tokenize(log);
 	}
 
 	//--------------------------------------------------------------------------
@@ -549,6 +382,16 @@ public class AuditParser {
 			} else service = null;
 		}
 		taskResult.setService(service);
+		// histogram is not sent by older engines
+		String latencyHistogram = beanAttr.get("latencyHistogram");
+		if (latencyHistogram != null && !latencyHistogram.equals("\\0")) {
+			String[] counts = latencyHistogram.split(";");
+			long[] histogram = new long[counts.length];
+			for (int i = 0; i < counts.length; i++) {
+				histogram[i] = Long.parseLong(counts[i]);
+			}
+			taskResult.setLatencyHistogram(histogram);
+		}
 
 		return taskResult;
 
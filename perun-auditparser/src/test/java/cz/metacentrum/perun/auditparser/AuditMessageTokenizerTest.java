@@ -0,0 +1,59 @@
+package cz.metacentrum.perun.auditparser;
+
+import cz.metacentrum.perun.core.api.Pair;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AuditMessageTokenizerTest {
+
+	private final String CLASS_NAME = "AuditMessageTokenizer";
+
+	@Test
+	public void tokenizeBeansInText() throws Exception {
+		System.out.println(CLASS_NAME + ":tokenizeBeansInText()");
+
+		String log = "Member:[id=<3899>, userId=<3199>, status=<VALID>] added to Group:[id=<21>, name=<members>, description=<\\0>].";
+		List<Pair<String, Map<String, String>>> beans = AuditMessageTokenizer.tokenize(log);
+
+		assertEquals(2, beans.size());
+		assertEquals("Member", beans.get(0).getLeft());
+		assertEquals("3899", beans.get(0).getRight().get("id"));
+		assertEquals("3199", beans.get(0).getRight().get("userId"));
+		assertEquals("VALID", beans.get(0).getRight().get("status"));
+		assertEquals("Group", beans.get(1).getLeft());
+		assertEquals("members", beans.get(1).getRight().get("name"));
+		assertEquals("\\0", beans.get(1).getRight().get("description"));
+	}
+
+	@Test
+	public void tokenizeEscapedAndNestedValues() throws Exception {
+		System.out.println(CLASS_NAME + ":tokenizeEscapedAndNestedValues()");
+
+		String log = "RichGroup:[id=<1>, description=<text \\<with\\> [brackets]>, "
+				+ "groupAttributes=<[Attribute:[id=<5>, value=<[a, b]>]]>] BanOnFacility:[\\0]";
+		List<Pair<String, Map<String, String>>> beans = AuditMessageTokenizer.tokenize(log);
+
+		assertEquals(2, beans.size());
+		assertEquals("text \\<with\\> [brackets]", beans.get(0).getRight().get("description"));
+		assertEquals("[Attribute:[id=<5>, value=<[a, b]>]]", beans.get(0).getRight().get("groupAttributes"));
+		assertEquals("BanOnFacility", beans.get(1).getLeft());
+		assertNull(beans.get(1).getRight());
+	}
+
+	@Test
+	public void tokenizeWithoutBeans() throws Exception {
+		System.out.println(CLASS_NAME + ":tokenizeWithoutBeans()");
+
+		assertNull(AuditMessageTokenizer.tokenize("\\0"));
+		assertTrue(AuditMessageTokenizer.tokenize("no beans: [here]").isEmpty());
+		// not closed bean is skipped
+		assertTrue(AuditMessageTokenizer.tokenize("Group:[id=<21>, name=<members>").isEmpty());
+	}
+
+}
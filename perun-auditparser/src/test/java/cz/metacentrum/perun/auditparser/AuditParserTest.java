@@ -400,6 +400,11 @@ public class AuditParserTest {
 		TaskResult taskResult2 = (TaskResult)trList.get(0);
 		assertEquals(taskResult1.toString(), taskResult2.toString());
 
+		taskResult1.setLatencyHistogram(new long[] {1, 0, 12, 0, 3, 1});
+		trList = AuditParser.parseLog(taskResult1.serializeToString());
+		assertEquals(taskResult1.toString(), trList.get(0).toString());
+		taskResult1.setLatencyHistogram(null);
+
 
 		//FOR BAN ON RESOURCE
 		List<PerunBean> banOnResourceInList = AuditParser.parseLog(banOnResource1.serializeToString());
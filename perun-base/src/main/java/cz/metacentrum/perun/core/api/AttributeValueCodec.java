@@ -0,0 +1,335 @@
+package cz.metacentrum.perun.core.api;
+
+import cz.metacentrum.perun.core.api.exceptions.ConsistencyErrorException;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion of attribute values to strings stored in DB and back, one codec for each supported type of attribute.
+ *
+ * Items of lists are terminated by ',' and entries of maps are stored as key ':' value ','. Char '\' and delimiters
+ * in items, keys and values are escaped by '\', null is stored as "\0". For example list [a,b, c] is stored as
+ * "a\,b,c," and map {a:b=c} as "a\:b:c,".
+ *
+ * Strings of lists and maps are decoded in a single pass without splitting and regular expressions. Decoding is
+ * compatible with the former implementation, only unterminated rest of the value (after the last delimiter)
+ * is ignored unless it contains escaped delimiter.
+ *
+ * @see BeansUtils#stringToAttributeValue(String, String)
+ * @see BeansUtils#attributeValueToString(Attribute)
+ */
+public enum AttributeValueCodec {
+
+	STRING(String.class.getName()) {
+		@Override
+		public Object decode(String stringValue) {
+			return stringValue;
+		}
+
+		@Override
+		public String encode(Object value) {
+			return (String) value;
+		}
+	},
+
+	LARGE_STRING(BeansUtils.largeStringClassName) {
+		@Override
+		public Object decode(String stringValue) {
+			return stringValue;
+		}
+
+		@Override
+		public String encode(Object value) {
+			return (String) value;
+		}
+	},
+
+	INTEGER(Integer.class.getName()) {
+		@Override
+		public Object decode(String stringValue) {
+			return Integer.parseInt(stringValue);
+		}
+
+		@Override
+		public String encode(Object value) {
+			return Integer.toString((Integer) value);
+		}
+	},
+
+	BOOLEAN(Boolean.class.getName()) {
+		@Override
+		public Object decode(String stringValue) {
+			return Boolean.parseBoolean(stringValue);
+		}
+
+		@Override
+		public String encode(Object value) {
+			return Boolean.toString((Boolean) value);
+		}
+	},
+
+	ARRAY_LIST(ArrayList.class.getName()) {
+		@Override
+		public Object decode(String stringValue) {
+			return decodeList(stringValue);
+		}
+
+		@Override
+		public String encode(Object value) {
+			return encodeList(value);
+		}
+	},
+
+	LARGE_ARRAY_LIST(BeansUtils.largeArrayListClassName) {
+		@Override
+		public Object decode(String stringValue) {
+			return decodeList(stringValue);
+		}
+
+		@Override
+		public String encode(Object value) {
+			return encodeList(value);
+		}
+	},
+
+	LINKED_HASH_MAP(LinkedHashMap.class.getName()) {
+		@Override
+		public Object decode(String stringValue) {
+			return decodeMap(stringValue);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public String encode(Object value) {
+			StringBuilder sb = new StringBuilder();
+			for (Map.Entry<String, String> entry : ((Map<String, String>) value).entrySet()) {
+				appendEscaped(sb, entry.getKey(), true);
+				sb.append(KEY_VALUE_DELIMITER);
+				appendEscaped(sb, entry.getValue(), true);
+				sb.append(LIST_DELIMITER);
+			}
+			return sb.toString();
+		}
+	};
+
+	private static final char LIST_DELIMITER = ',';
+	private static final char KEY_VALUE_DELIMITER = ':';
+	private static final char ESCAPE = '\\';
+	private static final String NULL = "\\0";
+
+	private static final Map<String, AttributeValueCodec> codecsByType = new HashMap<>();
+
+	static {
+		for (AttributeValueCodec codec : values()) {
+			codecsByType.put(codec.type, codec);
+		}
+	}
+
+	private final String type;
+
+	AttributeValueCodec(String type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return type of the attribute (e.g. java.lang.String)
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Converts string representation of the attribute value to java object.
+	 *
+	 * @param stringValue not empty string representation of the value
+	 * @return value of the attribute
+	 */
+	public abstract Object decode(String stringValue);
+
+	/**
+	 * Converts not null value of the attribute to string representation.
+	 *
+	 * @param value value of the attribute of the type of this codec
+	 * @return string representation of the value
+	 */
+	public abstract String encode(Object value);
+
+	/**
+	 * Get codec for the type of the attribute.
+	 *
+	 * @param type type of the attribute (e.g. java.lang.String)
+	 * @return codec for the type
+	 * @throws InternalErrorException if the type is not supported
+	 */
+	public static AttributeValueCodec forType(String type) {
+		AttributeValueCodec codec = type == null ? null : codecsByType.get(type);
+		if (codec == null) throw new InternalErrorException("Unknown attribute type. (" + type + ")");
+		return codec;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String encodeList(Object value) {
+		StringBuilder sb = new StringBuilder();
+		for (String item : (List<String>) value) {
+			appendEscaped(sb, item, false);
+			sb.append(LIST_DELIMITER);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Append escaped text, '\' and ',' are always escaped, ':' only in maps.
+	 */
+	private static void appendEscaped(StringBuilder sb, String text, boolean escapeKeyValueDelimiter) {
+		if (text == null) {
+			sb.append(NULL);
+			return;
+		}
+		int i = 0;
+		while (i < text.length() && !isEscapable(text.charAt(i), escapeKeyValueDelimiter)) i++;
+		// most of values do not contain any escaped char, so they are appended at once
+		if (i == text.length()) {
+			sb.append(text);
+			return;
+		}
+		sb.append(text, 0, i);
+		for (; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (isEscapable(c, escapeKeyValueDelimiter)) sb.append(ESCAPE);
+			sb.append(c);
+		}
+	}
+
+	private static boolean isEscapable(char c, boolean escapeKeyValueDelimiter) {
+		return c == ESCAPE || c == LIST_DELIMITER || (escapeKeyValueDelimiter && c == KEY_VALUE_DELIMITER);
+	}
+
+	private static List<String> decodeList(String stringValue) {
+		List<String> list = new ArrayList<>();
+		Scanner scanner = new Scanner(stringValue, false);
+		while (scanner.hasNext()) {
+			scanner.startEntry();
+			if (!scanner.next(LIST_DELIMITER) && !scanner.isTailWithEscapedDelimiter()) break;
+			list.add(scanner.getToken());
+		}
+		return list;
+	}
+
+	private static Map<String, String> decodeMap(String stringValue) {
+		Map<String, String> map = new LinkedHashMap<>();
+		Scanner scanner = new Scanner(stringValue, true);
+		while (scanner.hasNext()) {
+			int entryStart = scanner.startEntry();
+			if (!scanner.next(KEY_VALUE_DELIMITER)) {
+				if (scanner.isTerminated() || scanner.isTailWithEscapedDelimiter()) {
+					throw new ConsistencyErrorException("Bad format in attribute value. KEY_VALUE_DELIMITER not found. Attribute value='" +
+						stringValue + "', processed entry='" + stringValue.substring(entryStart, scanner.position) + "'");
+				}
+				break;
+			}
+			String key = scanner.getToken();
+			if (!scanner.next(LIST_DELIMITER) && !scanner.isTailWithEscapedDelimiter()) break;
+			map.put(key, scanner.getToken());
+		}
+		return map;
+	}
+
+	/**
+	 * Single pass scanner of escaped tokens (items of list, keys and values of map) terminated by delimiters.
+	 */
+	private static final class Scanner {
+
+		private final String text;
+		private final boolean escapeKeyValueDelimiter;
+		private final StringBuilder token = new StringBuilder();
+		private int position = 0;
+		private int tokenStart;
+		private int tokenEnd;
+		// delimiter, which terminated the last token, 0 if the end of the text was reached
+		private char delimiter;
+		// current entry contains escaped list delimiter
+		private boolean escapedListDelimiter;
+
+		private Scanner(String text, boolean escapeKeyValueDelimiter) {
+			this.text = text;
+			this.escapeKeyValueDelimiter = escapeKeyValueDelimiter;
+		}
+
+		private boolean hasNext() {
+			return position < text.length();
+		}
+
+		/**
+		 * Start reading of the next item of list or entry of map.
+		 *
+		 * @return position of the start of the entry
+		 */
+		private int startEntry() {
+			escapedListDelimiter = false;
+			return position;
+		}
+
+		/**
+		 * Read and unescape the token terminated by not escaped expected delimiter. List delimiter
+		 * always terminates the token.
+		 *
+		 * @param expectedDelimiter delimiter, which should terminate the token
+		 * @return true if the token was terminated by the expected delimiter
+		 */
+		private boolean next(char expectedDelimiter) {
+			token.setLength(0);
+			delimiter = 0;
+			tokenStart = position;
+			tokenEnd = text.length();
+			while (position < text.length()) {
+				char c = text.charAt(position++);
+				if (c == ESCAPE && position < text.length() && isEscapable(text.charAt(position), escapeKeyValueDelimiter)) {
+					c = text.charAt(position++);
+					if (c == LIST_DELIMITER) escapedListDelimiter = true;
+				} else if (c == expectedDelimiter || c == LIST_DELIMITER) {
+					delimiter = c;
+					tokenEnd = position - 1;
+					break;
+				}
+				token.append(c);
+			}
+			return delimiter == expectedDelimiter;
+		}
+
+		/**
+		 * @return true if the last token was terminated by some delimiter
+		 */
+		private boolean isTerminated() {
+			return delimiter != 0;
+		}
+
+		/**
+		 * Rest of the value without terminating list delimiter is part of the value only if the entry contains
+		 * escaped list delimiter (for compatibility with the former implementation).
+		 *
+		 * @return true if the last token is unterminated rest of the value, which is part of the value
+		 * @throws ConsistencyErrorException if such rest ends with escape char
+		 */
+		private boolean isTailWithEscapedDelimiter() {
+			if (isTerminated() || !escapedListDelimiter) return false;
+			int escapes = 0;
+			for (int i = text.length() - 1; i >= 0 && text.charAt(i) == ESCAPE; i--) escapes++;
+			if (escapes % 2 == 1) throw new ConsistencyErrorException("Bad format in attribute value");
+			return true;
+		}
+
+		/**
+		 * @return unescaped last token or null, if it represents null value
+		 */
+		private String getToken() {
+			if (tokenEnd - tokenStart == NULL.length() && text.startsWith(NULL, tokenStart)) return null;
+			return token.toString();
+		}
+	}
+
+}
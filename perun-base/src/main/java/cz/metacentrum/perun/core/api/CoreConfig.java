@@ -34,12 +34,17 @@ public class CoreConfig {
 	private int groupSynchronizationInterval;
 	private int groupSynchronizationTimeout;
 	private int groupMaxConcurentGroupsToSynchronize;
+	private int groupMaxConcurrentGroupsToSynchronizePerExtSource;
+	private int groupFullSynchronizationInterval;
 	private int groupStructureSynchronizationInterval;
 	private int groupStructureSynchronizationTimeout;
 	private int groupMaxConcurrentGroupsStructuresToSynchronize;
 	private int mailchangeValidationWindow;
 	private int pwdresetValidationWindow;
 	private int queryTimeout;
+	private int authzRolesCacheMaxAge;
+	private int attributesCacheMaxEntries;
+	private int attributesCacheTtl;
 	private List<String> admins;
 	private List<String> enginePrincipals;
 	private List<String> generatedLoginNamespaces;
@@ -87,6 +92,22 @@ public class CoreConfig {
 		this.groupMaxConcurentGroupsToSynchronize = groupMaxConcurentGroupsToSynchronize;
 	}
 
+	public int getGroupMaxConcurrentGroupsToSynchronizePerExtSource() {
+		return groupMaxConcurrentGroupsToSynchronizePerExtSource;
+	}
+
+	public void setGroupMaxConcurrentGroupsToSynchronizePerExtSource(int groupMaxConcurrentGroupsToSynchronizePerExtSource) {
+		this.groupMaxConcurrentGroupsToSynchronizePerExtSource = groupMaxConcurrentGroupsToSynchronizePerExtSource;
+	}
+
+	public int getGroupFullSynchronizationInterval() {
+		return groupFullSynchronizationInterval;
+	}
+
+	public void setGroupFullSynchronizationInterval(int groupFullSynchronizationInterval) {
+		this.groupFullSynchronizationInterval = groupFullSynchronizationInterval;
+	}
+
 	private Map<String, List<AttributeDefinition>> attributesForUpdate = new HashMap<>();
 	private Map<String, String> oidcIssuersExtsourceNames = new HashMap<>();
 	private Map<String, String> oidcIssuersExtsourceTypes = new HashMap<>();
@@ -639,4 +660,37 @@ public class CoreConfig {
 	public void setQueryTimeout(int queryTimeout) {
 		this.queryTimeout = queryTimeout;
 	}
+
+	/**
+	 * @return max age of roles of users cached by AuthzResolverBlImpl in seconds, 0 disables the cache
+	 */
+	public int getAuthzRolesCacheMaxAge() {
+		return authzRolesCacheMaxAge;
+	}
+
+	public void setAuthzRolesCacheMaxAge(int authzRolesCacheMaxAge) {
+		this.authzRolesCacheMaxAge = authzRolesCacheMaxAge;
+	}
+
+	/**
+	 * @return max number of attribute definitions and values in the read-through attributes cache, 0 disables the cache
+	 */
+	public int getAttributesCacheMaxEntries() {
+		return attributesCacheMaxEntries;
+	}
+
+	public void setAttributesCacheMaxEntries(int attributesCacheMaxEntries) {
+		this.attributesCacheMaxEntries = attributesCacheMaxEntries;
+	}
+
+	/**
+	 * @return time to live of entries in the read-through attributes cache in seconds
+	 */
+	public int getAttributesCacheTtl() {
+		return attributesCacheTtl;
+	}
+
+	public void setAttributesCacheTtl(int attributesCacheTtl) {
+		this.attributesCacheTtl = attributesCacheTtl;
+	}
 }
@@ -0,0 +1,158 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Query for one page of members or users.
+ *
+ * Items are always ordered by the sort column and then by their id. If items are sorted only by id,
+ * keyset pagination is used: next page is requested by the id of the last item of the previous page (lastId)
+ * and offset is ignored. Otherwise page starts at the offset.
+ *
+ * Items can be filtered by the search string (part of the name or id) and members also by their statuses.
+ */
+public class PageQuery {
+
+	public enum SortColumn {
+		ID, NAME, STATUS
+	}
+
+	public enum SortingOrder {
+		ASCENDING, DESCENDING
+	}
+
+	private int pageSize;
+	private int offset;
+	private Integer lastId;
+	private SortColumn sortColumn = SortColumn.ID;
+	private SortingOrder order = SortingOrder.ASCENDING;
+	private String searchString;
+	private List<String> statuses = new ArrayList<>();
+
+	public PageQuery() {
+	}
+
+	public PageQuery(int pageSize, SortColumn sortColumn, SortingOrder order) {
+		this.pageSize = pageSize;
+		this.sortColumn = sortColumn;
+		this.order = order;
+	}
+
+	/**
+	 * Return maximal number of items on the page.
+	 *
+	 * @return size of the page
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Return number of items to skip. It is not used with keyset pagination.
+	 *
+	 * @return offset of the page
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 * Return id of the last item of the previous page, used only if items are sorted by id.
+	 *
+	 * @return id of the last item or null for the first page
+	 */
+	public Integer getLastId() {
+		return lastId;
+	}
+
+	public void setLastId(Integer lastId) {
+		this.lastId = lastId;
+	}
+
+	public SortColumn getSortColumn() {
+		return sortColumn;
+	}
+
+	public void setSortColumn(SortColumn sortColumn) {
+		this.sortColumn = sortColumn;
+	}
+
+	public SortingOrder getOrder() {
+		return order;
+	}
+
+	public void setOrder(SortingOrder order) {
+		this.order = order;
+	}
+
+	/**
+	 * Return part of the name or id of the items, null or empty means no filtering.
+	 *
+	 * @return searched string
+	 */
+	public String getSearchString() {
+		return searchString;
+	}
+
+	public void setSearchString(String searchString) {
+		this.searchString = searchString;
+	}
+
+	/**
+	 * Return allowed statuses of members (VALID | INVALID | SUSPENDED | EXPIRED | DISABLED), empty means all.
+	 *
+	 * @return allowed statuses
+	 */
+	public List<String> getStatuses() {
+		return statuses;
+	}
+
+	public void setStatuses(List<String> statuses) {
+		this.statuses = statuses;
+	}
+
+	/**
+	 * Return TRUE if keyset pagination is used.
+	 *
+	 * @return TRUE if items are sorted by id and id of the last item is set
+	 */
+	public boolean usesKeyset() {
+		return sortColumn == SortColumn.ID && lastId != null;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		PageQuery pageQuery = (PageQuery) o;
+		return pageSize == pageQuery.pageSize &&
+				offset == pageQuery.offset &&
+				Objects.equals(lastId, pageQuery.lastId) &&
+				sortColumn == pageQuery.sortColumn &&
+				order == pageQuery.order &&
+				Objects.equals(searchString, pageQuery.searchString) &&
+				Objects.equals(statuses, pageQuery.statuses);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(pageSize, offset, lastId, sortColumn, order, searchString, statuses);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[pageSize='" + pageSize + "', offset='" + offset + "', lastId='" + lastId +
+				"', sortColumn='" + sortColumn + "', order='" + order + "', searchString='" + searchString +
+				"', statuses='" + statuses + "']";
+	}
+}
@@ -0,0 +1,87 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of items returned for the PageQuery with the total number of items matching the query.
+ *
+ * @param <T> type of items
+ */
+public class Paginated<T> {
+
+	private List<T> data = new ArrayList<>();
+	private int offset;
+	private int pageSize;
+	private int totalCount;
+
+	public Paginated() {
+	}
+
+	public Paginated(List<T> data, int offset, int pageSize, int totalCount) {
+		this.data = data;
+		this.offset = offset;
+		this.pageSize = pageSize;
+		this.totalCount = totalCount;
+	}
+
+	public List<T> getData() {
+		return data;
+	}
+
+	public void setData(List<T> data) {
+		this.data = data;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Return number of all items matching the query (without paging).
+	 *
+	 * @return total number of items
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public void setTotalCount(int totalCount) {
+		this.totalCount = totalCount;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		Paginated<?> paginated = (Paginated<?>) o;
+		return offset == paginated.offset &&
+				pageSize == paginated.pageSize &&
+				totalCount == paginated.totalCount &&
+				Objects.equals(data, paginated.data);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(data, offset, pageSize, totalCount);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[data='" + data + "', offset='" + offset + "', pageSize='" + pageSize +
+				"', totalCount='" + totalCount + "']";
+	}
+}
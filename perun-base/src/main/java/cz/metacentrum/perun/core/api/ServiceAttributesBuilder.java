@@ -0,0 +1,48 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Writer, which builds the whole {@link ServiceAttributes} tree in memory.
+ * Used when the consumer of the structure can't process it incrementally.
+ */
+public class ServiceAttributesBuilder implements ServiceAttributesWriter {
+
+	private final Deque<ServiceAttributes> openedElements = new ArrayDeque<>();
+	private ServiceAttributes root;
+
+	@Override
+	public void startElement(List<Attribute> attributes) {
+		ServiceAttributes element = new ServiceAttributes();
+		element.addAttributes(attributes);
+		if (openedElements.isEmpty()) {
+			if (root != null) throw new IllegalStateException("Root element was already written.");
+			root = element;
+		} else {
+			openedElements.peek().addChildElement(element);
+		}
+		openedElements.push(element);
+	}
+
+	@Override
+	public void writeElement(ServiceAttributes element) {
+		if (openedElements.isEmpty()) throw new IllegalStateException("There is no opened element.");
+		openedElements.peek().addChildElement(element);
+	}
+
+	@Override
+	public void endElement() {
+		if (openedElements.isEmpty()) throw new IllegalStateException("There is no opened element.");
+		openedElements.pop();
+	}
+
+	/**
+	 * @return built structure or null if no element was written
+	 */
+	public ServiceAttributes getServiceAttributes() {
+		return root;
+	}
+
+}
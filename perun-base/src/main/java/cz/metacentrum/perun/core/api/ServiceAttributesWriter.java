@@ -0,0 +1,36 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.List;
+
+/**
+ * Receives structure of {@link ServiceAttributes} incrementally, so the whole tree
+ * doesn't have to be held in memory at once (eg. when it is written directly to the output).
+ *
+ * Element is opened by {@link #startElement(List)}, followed by any number of its child elements
+ * (either opened by another startElement() or passed as a complete subtree by {@link #writeElement(ServiceAttributes)})
+ * and closed by {@link #endElement()}.
+ *
+ * Implementations signal write failures by unchecked exceptions.
+ */
+public interface ServiceAttributesWriter {
+
+	/**
+	 * Opens new element with given attributes. All following elements are its children until it is closed.
+	 *
+	 * @param attributes attributes of the element
+	 */
+	void startElement(List<Attribute> attributes);
+
+	/**
+	 * Writes complete subtree as a child element of the currently opened element.
+	 *
+	 * @param element subtree to write
+	 */
+	void writeElement(ServiceAttributes element);
+
+	/**
+	 * Closes currently opened element.
+	 */
+	void endElement();
+
+}
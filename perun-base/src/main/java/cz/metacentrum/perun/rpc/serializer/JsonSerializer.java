@@ -124,7 +124,7 @@ public final class JsonSerializer implements Serializer {
 		mapper.setMixIns(mixinMap);
 	}
 
-	private static final JsonFactory jsonFactory = new JsonFactory();
+	static final JsonFactory jsonFactory = new JsonFactory();
 
 	static {
 		//FIXME odstraneno disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
@@ -0,0 +1,80 @@
+package cz.metacentrum.perun.rpc.serializer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes {@link ServiceAttributes} structure as JSON directly to the output stream as it is produced.
+ * Output is the same as serialization of the whole structure by {@link JsonSerializer}.
+ *
+ * Output is flushed after each child of the root element, so the client receives first data early.
+ * Nothing is written to the output until the root element is started.
+ */
+public class JsonServiceAttributesWriter implements ServiceAttributesWriter {
+
+	private final OutputStream out;
+	private JsonGenerator gen;
+	private int depth = 0;
+
+	/**
+	 * @param out {@code OutputStream} to output serialized data
+	 */
+	public JsonServiceAttributesWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void startElement(List<Attribute> attributes) {
+		try {
+			if (gen == null) {
+				gen = JsonSerializer.jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+			} else if (depth == 0) {
+				throw new IllegalStateException("Root element was already written.");
+			}
+			gen.writeStartObject();
+			gen.writeFieldName("attributes");
+			gen.writeObject(attributes);
+			gen.writeFieldName("childElements");
+			gen.writeStartArray();
+			depth++;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void writeElement(ServiceAttributes element) {
+		if (depth == 0) throw new IllegalStateException("There is no opened element.");
+		try {
+			gen.writeObject(element);
+			if (depth == 1) gen.flush();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void endElement() {
+		if (depth == 0) throw new IllegalStateException("There is no opened element.");
+		try {
+			gen.writeEndArray();
+			gen.writeEndObject();
+			depth--;
+			if (depth == 0) {
+				gen.flush();
+				gen.close();
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package cz.metacentrum.perun.taskslib.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch of Task status changes and TaskResults sent from Engine to Dispatcher in one JMS message.
+ *
+ * Batch is serialized to JSON and sent as "batch:engineId:json" message. It is used only if Engine advertised
+ * PROTOCOL in its "register" message and Dispatcher confirmed it, otherwise text messages "task:" and "taskresult:"
+ * are sent one by one.
+ *
+ * Status changes and TaskResults are kept in two lists, each in the order Engine reported them. Unknown JSON properties are ignored,
+ * so new optional properties can be added without changing the VERSION.
+ */
+public class EngineMessageBatch {
+
+	/**
+	 * Current version of the batch format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Name of the protocol negotiated between Engine and Dispatcher on "register".
+	 */
+	public static final String PROTOCOL = "json" + VERSION;
+
+	private static final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private int version = VERSION;
+	private List<TaskStatusChange> statusChanges = new ArrayList<>();
+	private List<TaskResult> taskResults = new ArrayList<>();
+
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	public List<TaskStatusChange> getStatusChanges() {
+		return statusChanges;
+	}
+
+	public void setStatusChanges(List<TaskStatusChange> statusChanges) {
+		this.statusChanges = statusChanges;
+	}
+
+	public List<TaskResult> getTaskResults() {
+		return taskResults;
+	}
+
+	public void setTaskResults(List<TaskResult> taskResults) {
+		this.taskResults = taskResults;
+	}
+
+	/**
+	 * Return TRUE if batch contains nothing to send.
+	 *
+	 * @return TRUE if batch is empty / FALSE otherwise
+	 */
+	public boolean isEmpty() {
+		return statusChanges.isEmpty() && taskResults.isEmpty();
+	}
+
+	/**
+	 * Serialize batch to JSON.
+	 *
+	 * @return JSON representation of the batch
+	 * @throws IOException when batch can't be serialized
+	 */
+	public String toJson() throws IOException {
+		return mapper.writeValueAsString(this);
+	}
+
+	/**
+	 * Deserialize batch from JSON.
+	 *
+	 * @param json JSON representation of the batch
+	 * @return batch
+	 * @throws IOException when JSON is malformed
+	 */
+	public static EngineMessageBatch fromJson(String json) throws IOException {
+		return mapper.readValue(json, EngineMessageBatch.class);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[version='" + version + "', statusChanges='" + statusChanges.size() +
+				"', taskResults='" + taskResults.size() + "']";
+	}
+
+	/**
+	 * Change of Task status in Engine.
+	 */
+	public static class TaskStatusChange {
+
+		private int taskId;
+		private Task.TaskStatus status;
+		private long timestamp;
+
+		public TaskStatusChange() {
+		}
+
+		public TaskStatusChange(int taskId, Task.TaskStatus status, long timestamp) {
+			this.taskId = taskId;
+			this.status = status;
+			this.timestamp = timestamp;
+		}
+
+		public int getTaskId() {
+			return taskId;
+		}
+
+		public void setTaskId(int taskId) {
+			this.taskId = taskId;
+		}
+
+		public Task.TaskStatus getStatus() {
+			return status;
+		}
+
+		public void setStatus(Task.TaskStatus status) {
+			this.status = status;
+		}
+
+		/**
+		 * Return time of the change in milliseconds since epoch.
+		 *
+		 * @return time of the change
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public void setTimestamp(long timestamp) {
+			this.timestamp = timestamp;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + ":[taskId='" + taskId + "', status='" + status + "', timestamp='" + timestamp + "']";
+		}
+	}
+
+}
@@ -39,6 +39,7 @@ public class Task implements Serializable {
 	private TaskStatus status;
 	private boolean sourceUpdated;
 	private boolean propagationForced;
+	private String dataFingerprint;
 
 	@Override
 	public int hashCode() {
@@ -341,4 +342,18 @@ public class Task implements Serializable {
 	public void setPropagationForced(boolean propagationForced) {
 		this.propagationForced = propagationForced;
 	}
+
+	/**
+	 * Fingerprint of data generated for the Task, supplied by the dispatcher (or null, if unknown).
+	 * It is the ID of the last audit message resolved to the Task service and facility.
+	 *
+	 * @return fingerprint of data for service and facility
+	 */
+	public String getDataFingerprint() {
+		return dataFingerprint;
+	}
+
+	public void setDataFingerprint(String dataFingerprint) {
+		this.dataFingerprint = dataFingerprint;
+	}
 }
@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.taskslib.model;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Objects;
 
@@ -25,6 +26,11 @@ public class TaskResult extends PerunBean implements Serializable {
 		DONE, ERROR, FATAL_ERROR, DENIED, WARN
 	}
 
+	/**
+	 * Upper bounds (in milliseconds) of buckets of the latency histogram. Histogram has one more bucket for longer latencies.
+	 */
+	public static final long[] LATENCY_HISTOGRAM_BOUNDS = {1000, 5000, 30000, 120000, 600000};
+
 	private int taskId;
 	private int destinationId;
 	private String errorMessage;
@@ -34,6 +40,7 @@ public class TaskResult extends PerunBean implements Serializable {
 	private TaskResultStatus status;
 	private Destination destination;
 	private Service service;
+	private long[] latencyHistogram;
 
 	@Override
 	public int hashCode() {
@@ -103,6 +110,7 @@ public class TaskResult extends PerunBean implements Serializable {
 			", timestamp=<").append(dateString).append(">").append(
 			", status=<").append(status == null ? "\\0" : BeansUtils.createEscaping(status.toString())).append(">").append(
 			", service=<").append(service == null ? "\\0" : service.serializeToString()).append(">").append(
+			", latencyHistogram=<").append(latencyHistogram == null ? "\\0" : serializeLatencyHistogram()).append(">").append(
 			']').toString();
 	}
 
@@ -118,7 +126,8 @@ public class TaskResult extends PerunBean implements Serializable {
 				.append("', returnCode='").append(returnCode)
 				.append("', timestamp='").append(BeansUtils.getDateFormatter().format(timestamp))
 				.append("', status='").append(status)
-				.append("', service='").append(service).append("']").toString();
+				.append("', service='").append(service)
+				.append("', latencyHistogram='").append(Arrays.toString(latencyHistogram)).append("']").toString();
 	}
 
 	public int getTaskId() {
@@ -193,6 +202,29 @@ public class TaskResult extends PerunBean implements Serializable {
 		this.service = service;
 	}
 
+	/**
+	 * Counts of SEND latencies of the destination in buckets defined by {@link #LATENCY_HISTOGRAM_BOUNDS},
+	 * as observed by the engine (or null, if not reported).
+	 *
+	 * @return latency histogram of the destination
+	 */
+	public long[] getLatencyHistogram() {
+		return latencyHistogram;
+	}
+
+	public void setLatencyHistogram(long[] latencyHistogram) {
+		this.latencyHistogram = latencyHistogram;
+	}
+
+	private String serializeLatencyHistogram() {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < latencyHistogram.length; i++) {
+			if (i > 0) str.append(';');
+			str.append(latencyHistogram[i]);
+		}
+		return str.toString();
+	}
+
 	public String getBeanName(){
 		return this.getClass().getSimpleName();
 	}
@@ -0,0 +1,31 @@
+package cz.metacentrum.perun.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts JMH with all given options. Unless result format is specified by option -rf,
+ * results are written as JSON to perun-benchmarks-result.json (or file specified by -rff),
+ * so they can be compared between releases by any JMH results viewer or own scripts.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar [JMH options] [benchmark regexp]
+ */
+public class BenchmarksMain {
+
+	private static final String DEFAULT_RESULT_FILE = "perun-benchmarks-result.json";
+
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<>(Arrays.asList(args));
+		if (!options.contains("-rf")) {
+			options.add(0, "json");
+			options.add(0, "-rf");
+			if (!options.contains("-rff")) {
+				options.add(0, DEFAULT_RESULT_FILE);
+				options.add(0, "-rff");
+			}
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+	}
+
+}
@@ -0,0 +1,117 @@
+package cz.metacentrum.perun.benchmarks.auditparser;
+
+import cz.metacentrum.perun.auditparser.AuditMessageTokenizer;
+import cz.metacentrum.perun.auditparser.AuditParser;
+import cz.metacentrum.perun.core.api.Pair;
+import cz.metacentrum.perun.core.api.PerunBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing audit messages by AuditParser.
+ *
+ * Messages in the corpus have the same format as real messages processed by dispatcher, ldapc and notifications
+ * (simple bean, beans in text, list of beans, rich beans with nested beans and attributes).
+ * Tokenizing is measured both for the current AuditMessageTokenizer and for the former regex based tokenizer.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar AuditParserBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditParserBenchmark {
+
+	private static final String[] CORPUS = {
+		"Member:[id=<3899>, userId=<3199>, voId=<21>, status=<VALID>, sourceGroupId=<\\0>, sponsored=<false>, suspendedTo=<\\0>] added to "
+			+ "Group:[id=<21>, parentGroupId=<\\0>, name=<members>, description=<Group containing VO members>, voId=<21>, uuid=<\\0>].",
+		"Attribute:[id=<146>, friendlyName=<login-namespace:einfra>, namespace=<urn:perun:user:attribute-def:def>, type=<java.lang.String>, "
+			+ "value=<tejral>, unique=<false>] set for User:[id=<9181>, uuid=<\\0>, titleBefore=<\\0>, firstName=<Gracian>, lastName=<Tejral>, "
+			+ "middleName=<\\0>, titleAfter=<\\0>, serviceAccount=<false>, sponsoredAccount=<false>].",
+		"Attribute:[id=<800>, friendlyName=<kerberosLogins>, namespace=<urn:perun:user:attribute-def:def>, type=<java.util.ArrayList>, "
+			+ "value=<[tejral@META, tejral@EINFRA, escaped\\,value]>, unique=<false>] set for User:[id=<9181>, uuid=<\\0>, titleBefore=<\\0>, "
+			+ "firstName=<Gracian>, lastName=<Tejral>, middleName=<\\0>, titleAfter=<\\0>, serviceAccount=<false>, sponsoredAccount=<false>].",
+		"Hosts [Host:[id=<982>, hostname=<konos37.fav.zcu.cz>], Host:[id=<981>, hostname=<konos36.fav.zcu.cz>], "
+			+ "Host:[id=<980>, hostname=<konos34.fav.zcu.cz>], Host:[id=<979>, hostname=<konos33.fav.zcu.cz>]] removed from cluster "
+			+ "Facility:[id=<371>, name=<konos.fav.zcu.cz>, description=<\\0>]",
+		"Service:[id=<29>, name=<passwd>, description=<\\0>, delay=<10>, recurrence=<2>, enabled=<true>, script=<./passwd>] "
+			+ "removed from Resource:[id=<19>, voId=<15>, facilityId=<13>, name=<cluster>, description=<\\0>, uuid=<\\0>].",
+		"Destination:[id=<32>, destination=<konos37.fav.zcu.cz>, type=<host>, propagationType=<PARALLEL>] added to "
+			+ "Service:[id=<29>, name=<passwd>, description=<\\0>, delay=<10>, recurrence=<2>, enabled=<true>, script=<./passwd>] on "
+			+ "Facility:[id=<371>, name=<konos.fav.zcu.cz>, description=<\\0>].",
+		"RichMember:[id=<12521>, userId=<9181>, voId=<21>, status=<DISABLED>, sourceGroupId=<\\0>, sponsored=<true>, suspendedTo=<\\0>, "
+			+ "user=<User:[id=<9181>,titleBefore=<null>,firstName=<Gracian>,lastName=<Tejral>,middleName=<null>,titleAfter=<null>]>, "
+			+ "userExtSources=<[UserExtSource:[id=<13621>, login=<8087>, source=<ExtSource:[id=<2>, name=<PERUNPEOPLE>, "
+			+ "type=<cz.metacentrum.perun.core.impl.ExtSourceSql>]>, userId=<-1> loa=<0>, lastAccess=<2019-06-17 00:00:00.000000>]]>, "
+			+ "userAttributes=<[Attribute:[id=<800>, friendlyName=<kerberosLogins>, namespace=<urn:perun:user:attribute-def:def>, "
+			+ "type=<java.util.ArrayList>, value=<[tejral@META, tejral@EINFRA]>], "
+			+ "Attribute:[id=<49>, friendlyName=<id>, namespace=<urn:perun:user:attribute-def:core>, type=<java.lang.Integer>, value=<9181>], "
+			+ "Attribute:[id=<1140>, friendlyName=<displayName>, namespace=<urn:perun:user:attribute-def:core>, type=<java.lang.String>, value=<Gracian Tejral>], "
+			+ "Attribute:[id=<440>, friendlyName=<userCertDNs>, namespace=<urn:perun:user:attribute-def:def>, type=<java.util.LinkedHashMap>, "
+			+ "value=<{/C=CZ/O=Masarykova univerzita/CN=Ji\\\\xC5\\\\x99\\\\xC3\\\\xAD Nov\\\\xC3\\\\xA1\\\\xC4\\\\x8Dek=/C=NL/O=TERENA/CN=TERENA Personal CA}>]]>, "
+			+ "memberAttributes=<[Attribute:[id=<32>, friendlyName=<id>, namespace=<urn:perun:member:attribute-def:core>, type=<java.lang.Integer>, value=<12521>], "
+			+ "Attribute:[id=<860>, friendlyName=<membershipExpiration>, namespace=<urn:perun:member:attribute-def:def>, type=<java.lang.String>, value=<2010-12-31>], "
+			+ "Attribute:[id=<60>, friendlyName=<mail>, namespace=<urn:perun:member:attribute-def:def>, type=<java.lang.String>, value=<gracian.tejral@centrum.cz>]]>] "
+			+ "validated",
+		"Ban : BanOnFacility:[id=<6>, userId=<10>, facilityId=<12>, validityTo=<1589450400000>, description=<Unpaid fees \\<2019\\>>] was set."
+	};
+
+	/**
+	 * Index of the message in the corpus, -1 means all messages.
+	 */
+	@Param({"-1", "0", "6"})
+	public int message;
+
+	private String[] messages;
+
+	@Setup
+	public void setUp() {
+		messages = message < 0 ? CORPUS : new String[] { CORPUS[message] };
+	}
+
+	@Benchmark
+	public int tokenize() {
+		int beans = 0;
+		for (String log : messages) {
+			List<Pair<String, Map<String, String>>> tokens = AuditMessageTokenizer.tokenize(log);
+			beans += tokens.size();
+		}
+		return beans;
+	}
+
+	@Benchmark
+	public int tokenizeLegacy() {
+		int beans = 0;
+		for (String log : messages) {
+			List<Pair<String, Map<String, String>>> tokens = LegacyAuditMessageTokenizer.tokenize(log);
+			beans += tokens.size();
+		}
+		return beans;
+	}
+
+	@Benchmark
+	public int parseLog() {
+		int beans = 0;
+		for (String log : messages) {
+			List<PerunBean> parsed = AuditParser.parseLog(log);
+			beans += parsed.size();
+		}
+		return beans;
+	}
+
+}
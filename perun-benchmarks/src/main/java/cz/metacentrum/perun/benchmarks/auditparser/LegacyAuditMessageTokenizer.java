@@ -0,0 +1,216 @@
+package cz.metacentrum.perun.benchmarks.auditparser;
+
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Former regex based tokenizer of audit messages, kept only as a baseline for AuditParserBenchmark.
+ *
+ * @see cz.metacentrum.perun.auditparser.AuditMessageTokenizer
+ */
+public final class LegacyAuditMessageTokenizer {
+	static final Pattern perunBeanStartPattern = Pattern.compile("\\w+:\\[");
+	static final Pattern pointyAndSquareBracket = Pattern.compile(".\\[|.\\]|[^\\\\](\\\\\\\\)*(<|>)");
+
+	private LegacyAuditMessageTokenizer() {
+	}
+
+	/**
+	 * This method take log message and return List of Pair where left is Name
+	 * of object and right is Map of object attributes and their values. For
+	 * Example "Group - {id=21, voId=21, description=Group containing VO
+	 * members, name=members}"
+	 *
+	 * This method using for function method parseOfLog to get listOfObjects in
+	 * Strings from log message
+	 *
+	 * @param log log message
+	 * @return list of pairs name of bean to map of his attributes and values
+	 */
+	public static List<Pair<String, Map<String, String>>> tokenize(String log) {
+		if(log.equals("\\0")) return null;
+		//First get list of beans from log message
+		List<String> listOfNonparsedBeans = parseOfLog(log);
+		List<Pair<String, Map<String, String>>> listOfBeans = new ArrayList<Pair<String, Map<String, String>>>();
+
+		//For every object in list of nonparsed beans try to parse it
+		for (String s : listOfNonparsedBeans) {
+			//Prepare empty map and empty string for name of bean
+			String nameOfBean = null;
+			Map<String, String> map = new HashMap<String, String>();
+
+			//Find, save and cut name of Bean from beanstring
+			for (int i = 0; i < s.length(); i++) {
+				//After correct bean name there is everytime char ":"
+				if (s.charAt(i) == ':') {
+					nameOfBean = s.substring(0, i);
+					//Cut name of Bean + chars ":[" after it
+					s = s.substring(i + 2);
+					break;
+				}
+			}
+
+			if(s.charAt(0) == '\\' && s.charAt(1) == '0') map = null;
+			else {
+				/*
+				//Find name of Bean form beanString
+				String nameOfBean = null;
+				Matcher beanNameMatcher = beanName.matcher(s);
+				beanNameMatcher.find();
+				nameOfBean = s.substring(beanNameMatcher.start(), beanNameMatcher.end()-1);
+				*/
+
+				//From the rest get pair attribute of object / value of attribute and put it to the MAP
+				//Helping variables to find start of attribute name, end of attribute name and the same for attribute value its always quaternion
+				int startName = -1;
+				int endName = -1;
+				int startValue = -1;
+				int endValue = -1;
+				int pointyBrackets = 0;
+				boolean isName = true;
+
+				//For the rest of object String searching for attributes names and their values
+				for (int i = 0; i < s.length(); i++) {
+					//found first Letter when no start still exist and searching for name and save it
+					if(Character.isLetter(s.charAt(i)) && startName == -1 && isName) {
+						startName = i;
+					} //found for last Letter symbol in beans attribute name
+					else if(Character.isLetter(s.charAt(i)) && endName == -1 && isName) {
+						//If there is still some symbol after this one and if it is not Letter, i save my end name position
+						if (i + 1 != s.length()) {
+							if(!Character.isLetter(s.charAt(i+1))) {
+								endName = i;
+								//when i found all name, i will be searching for value
+								isName = false;
+							}
+						}
+					} //If i found name already, trying to find nonescaped < and count it
+					else if (s.charAt(i) == '<' && !isName) {
+						//if its first, its my start of value position and i save it
+						if (pointyBrackets == 0) {
+							if (!BeansUtils.isEscaped(s, i - 1)) {
+								startValue = i;
+							}
+						}
+						//if this bracket is nonescaped so count it
+						if (!BeansUtils.isEscaped(s, i - 1)) {
+							pointyBrackets++;
+						}
+					} //If i found name already, there are some open angle breackets and is nonescaped so count this one off
+					else if (pointyBrackets != 0 && s.charAt(i) == '>' && !isName) {
+						//if this bracket is nonescaped so count it off
+						if (!BeansUtils.isEscaped(s, i - 1)) {
+							pointyBrackets--;
+						}
+						//if there left no brackets after counting off, so its my end bracket and i save it
+						if (pointyBrackets == 0) {
+							if (!BeansUtils.isEscaped(s, i - 1)) {
+								endValue = i;
+								isName = true;
+							}
+						}
+					}
+					//If i have already all quaternion of position i will put this attribute to the map and set helping variables to start
+					if (startName != -1 && endName != -1 && startValue != -1 && endValue != -1) {
+						map.put(s.substring(startName, endName + 1), s.substring(startValue + 1, endValue));
+						startName = -1;
+						endName = -1;
+						startValue = -1;
+						endValue = -1;
+					}
+
+				}
+			}
+			//Put name of object and map of attribute and values to the list of all objects
+			Pair<String, Map<String, String>> pair = new Pair<String, Map<String, String>>();
+			pair.put(nameOfBean, map);
+			listOfBeans.add(pair);
+		}
+		return listOfBeans;
+	}
+
+	/**
+	 * This method get log message and parse it to list of beans in Strings For
+	 * example item in array is everytime something like -> Bean:[*] where * is
+	 * anything
+	 *
+	 * This method using method "CutStartOfLog" for searching beans in log
+	 *
+	 * @param log log message
+	 * @return list of object in String
+	 */
+	private static List<String> parseOfLog(String log) {
+		List<String> results = new ArrayList<String>();
+		//Load helping variables for counting brackets
+		int squareBrackets = 0;
+		int pointyBrackets = 0;
+		boolean enableCountSquareBrackets = true;
+
+		log = CutStartOfLog(log);
+		while(log!=null) {
+			//TODO this regular expresion expect, that never get char <,>,[,] or \ like first char in string log!!!
+			Matcher pointyAndSquareBracketMatcher = pointyAndSquareBracket.matcher(log);
+			int endOfObject = 0;
+			int start = 0;
+			while(pointyAndSquareBracketMatcher.find(start)) {
+				if(log.charAt(pointyAndSquareBracketMatcher.end()-1)=='<') {
+					enableCountSquareBrackets = false;
+					pointyBrackets++;
+				}else if(log.charAt(pointyAndSquareBracketMatcher.end()-1)=='>') {
+					pointyBrackets--;
+					//If it means that this is our searching end anglebracket, so enable counting square brackets again
+					if (pointyBrackets == 0) {
+						enableCountSquareBrackets = true;
+					}
+				}else if(enableCountSquareBrackets && log.charAt(pointyAndSquareBracketMatcher.end()-1)=='[') {
+					squareBrackets++;
+				}else if(enableCountSquareBrackets && log.charAt(pointyAndSquareBracketMatcher.end()-1)==']') {
+					squareBrackets--;
+					if (squareBrackets == 0) {
+						//This is end position of searching object
+						endOfObject = pointyAndSquareBracketMatcher.end();
+						break;
+					}
+				}
+				start = pointyAndSquareBracketMatcher.end()-1;
+			}
+			if(endOfObject != 0) {
+				results.add(log.substring(0, endOfObject));
+				log = log.substring(endOfObject);
+			}else {
+				return results;
+			}
+			log = CutStartOfLog(log);
+		}
+		return results;
+	}
+
+	/**
+	 * Get log message and find first real object thx '*:[' where * is name of
+	 * object cut it on the start of name example 'blabluble ,l;[0Bean:[*'
+	 * return 'Bean:[*'
+	 *
+	 * Warning: If log content bad definition of bean, have *:[ in text without
+	 * bean inside, parsing failed
+	 *
+	 * @param log log message
+	 * @return Message cutted to Start of first real bean in log
+	 */
+	private static String CutStartOfLog(String log) {
+
+		if(log == null) return null;
+		Matcher perunBeanStartMatcher = perunBeanStartPattern.matcher(log);
+		if(perunBeanStartMatcher.find()) {
+			log = log.substring(perunBeanStartMatcher.start());
+		} else return null;
+		return log;
+	}
+
+}
@@ -0,0 +1,98 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.BeansUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of attribute values to strings stored in DB and back by BeansUtils (AttributeValueCodec)
+ * compared to the former split and regex based implementation.
+ *
+ * Values look like real values of list and map attributes (logins, certificate DNs, mails), some of them
+ * contain escaped delimiters.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar AttributeValueCodecBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttributeValueCodecBenchmark {
+
+	/**
+	 * Type of the attribute value.
+	 */
+	@Param({"java.util.ArrayList", "java.util.LinkedHashMap"})
+	public String type;
+
+	/**
+	 * Number of items of the list or entries of the map.
+	 */
+	@Param({"5", "50"})
+	public int size;
+
+	private Attribute attribute;
+	private String stringValue;
+
+	@Setup
+	public void setUp() {
+		Object value;
+		if (ArrayList.class.getName().equals(type)) {
+			List<String> list = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				list.add(i % 5 == 0 ? "login" + i + "@META,EINFRA" : "login" + i + "@EINFRA");
+			}
+			value = list;
+		} else {
+			Map<String, String> map = new LinkedHashMap<>();
+			for (int i = 0; i < size; i++) {
+				map.put("/C=CZ/O=Masarykova univerzita/CN=User " + i + (i % 5 == 0 ? ", Ph.D." : ""),
+					"/C=NL/O=TERENA/CN=TERENA Personal CA:" + i);
+			}
+			value = map;
+		}
+		attribute = new Attribute();
+		attribute.setType(type);
+		attribute.setValue(value);
+		stringValue = BeansUtils.attributeValueToString(attribute);
+	}
+
+	@Benchmark
+	public Object decode() {
+		return BeansUtils.stringToAttributeValue(stringValue, type);
+	}
+
+	@Benchmark
+	public Object decodeLegacy() {
+		return LegacyAttributeValueCodec.stringToAttributeValue(stringValue, type);
+	}
+
+	@Benchmark
+	public String encode() {
+		return BeansUtils.attributeValueToString(attribute);
+	}
+
+	@Benchmark
+	public String encodeLegacy() {
+		return LegacyAttributeValueCodec.attributeValueToString(attribute);
+	}
+
+}
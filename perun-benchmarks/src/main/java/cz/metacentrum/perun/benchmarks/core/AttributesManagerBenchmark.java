@@ -0,0 +1,59 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of AttributesManagerBl.getRequiredAttributes() variants used by generating of service data.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar AttributesManagerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributesManagerBenchmark {
+
+	@Benchmark
+	public List<Attribute> getRequiredFacilityAttributes(SyntheticDataset dataset) {
+		return dataset.getPerun().getAttributesManagerBl().getRequiredAttributes(dataset.getSess(), dataset.getService(), dataset.getFacility());
+	}
+
+	@Benchmark
+	public List<Attribute> getRequiredMemberResourceAttributes(SyntheticDataset dataset) throws Exception {
+		Member member = dataset.getMembers().get(0);
+		User user = dataset.getUsers().get(0);
+		Resource resource = dataset.getResources().get(0);
+		return dataset.getPerun().getAttributesManagerBl().getRequiredAttributes(dataset.getSess(), dataset.getService(),
+				dataset.getFacility(), resource, user, member);
+	}
+
+	@Benchmark
+	public Map<Member, List<Attribute>> getRequiredAttributesOfMembers(SyntheticDataset dataset) throws Exception {
+		Resource resource = dataset.getResources().get(0);
+		List<Member> members = dataset.getPerun().getResourcesManagerBl().getAllowedMembers(dataset.getSess(), resource);
+		return dataset.getPerun().getAttributesManagerBl().getRequiredAttributes(dataset.getSess(), dataset.getService(),
+				dataset.getFacility(), resource, members, true);
+	}
+
+	@Benchmark
+	public Map<User, List<Attribute>> getRequiredAttributesOfUsers(SyntheticDataset dataset) {
+		return dataset.getPerun().getAttributesManagerBl().getRequiredAttributes(dataset.getSess(), dataset.getService(),
+				dataset.getFacility(), dataset.getUsers());
+	}
+
+}
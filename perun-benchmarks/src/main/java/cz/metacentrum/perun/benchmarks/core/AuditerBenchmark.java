@@ -0,0 +1,64 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.audit.events.MembersManagerEvents.MemberValidated;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.impl.Auditer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of transaction, which logs given number of audit messages. Messages are stored
+ * to the DB by Auditer.flush() when transaction is committed.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar AuditerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditerBenchmark {
+
+	/**
+	 * Number of messages logged in one transaction.
+	 */
+	@Param({"1", "100"})
+	public int messages;
+
+	private Auditer auditer;
+	private TransactionTemplate transactionTemplate;
+
+	@Setup
+	public void setUp(SyntheticDataset dataset) {
+		auditer = dataset.getPerun().getAuditer();
+		transactionTemplate = new TransactionTemplate(
+				dataset.getSpringCtx().getBean("perunTransactionManager", PlatformTransactionManager.class));
+	}
+
+	@Benchmark
+	public int logAndFlush(SyntheticDataset dataset) {
+		List<Member> members = dataset.getMembers();
+		return transactionTemplate.execute(status -> {
+			for (int i = 0; i < messages; i++) {
+				auditer.log(dataset.getSess(), new MemberValidated(members.get(i % members.size())));
+			}
+			return messages;
+		});
+	}
+
+}
@@ -0,0 +1,64 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.PerunBean;
+import cz.metacentrum.perun.core.api.Role;
+import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of authorization checks by AuthzResolverBlImpl for the session of VO admin,
+ * which is not resolved by PERUNADMIN shortcut.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar AuthzResolverBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthzResolverBenchmark {
+
+	/**
+	 * Policy checked by authorized(), default is policy from perun-roles.yml used by tests (VO admin or group admin).
+	 */
+	@Param({"test_authorized_group_admin"})
+	public String policy;
+
+	private List<PerunBean> objects;
+
+	@Setup
+	public void setUp(SyntheticDataset dataset) {
+		objects = Arrays.asList(dataset.getVos().get(0), dataset.getLeafGroups().get(0));
+	}
+
+	@Benchmark
+	public boolean isAuthorized(SyntheticDataset dataset) {
+		return AuthzResolverBlImpl.isAuthorized(dataset.getVoAdminSess(), Role.VOADMIN, dataset.getVos().get(0));
+	}
+
+	@Benchmark
+	public boolean authorizedByPolicy(SyntheticDataset dataset) throws Exception {
+		return AuthzResolverBlImpl.authorized(dataset.getVoAdminSess(), policy, objects);
+	}
+
+	@Benchmark
+	public void refreshAuthz(SyntheticDataset dataset) {
+		AuthzResolverBlImpl.refreshAuthz(dataset.getVoAdminSess());
+	}
+
+}
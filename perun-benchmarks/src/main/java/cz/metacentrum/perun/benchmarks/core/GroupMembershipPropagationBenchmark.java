@@ -0,0 +1,80 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.bl.GroupsManagerBl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of adding members to the leaf group and removing them again in one transaction (which is rolled back).
+ * Membership is propagated as indirect through all parent groups up to the root group, member-group statuses
+ * are recalculated in all of them.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar GroupMembershipPropagationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupMembershipPropagationBenchmark {
+
+	/**
+	 * Number of members added and removed by one call.
+	 */
+	@Param({"1", "50"})
+	public int batch;
+
+	private TransactionTemplate transactionTemplate;
+	private Group leafGroup;
+	private List<Member> members;
+
+	@Setup
+	public void setUp(SyntheticDataset dataset) {
+		transactionTemplate = new TransactionTemplate(
+				dataset.getSpringCtx().getBean("perunTransactionManager", PlatformTransactionManager.class));
+		leafGroup = dataset.getLeafGroups().get(0);
+		// members of the VO, which are not direct members of the leaf group
+		members = new ArrayList<>();
+		for (Member member : dataset.getMembers()) {
+			if (members.size() < batch && member.getVoId() == leafGroup.getVoId()
+					&& !dataset.getPerun().getGroupsManagerBl().isDirectGroupMember(dataset.getSess(), leafGroup, member)) {
+				members.add(member);
+			}
+		}
+	}
+
+	@Benchmark
+	public int addAndRemoveMembers(SyntheticDataset dataset) {
+		GroupsManagerBl groupsManagerBl = dataset.getPerun().getGroupsManagerBl();
+		return transactionTemplate.execute(status -> {
+			try {
+				groupsManagerBl.addMembers(dataset.getSess(), leafGroup, new ArrayList<>(members));
+				groupsManagerBl.removeMembers(dataset.getSess(), leafGroup, new ArrayList<>(members));
+			} catch (Exception ex) {
+				throw new InternalErrorException(ex);
+			}
+			status.setRollbackOnly();
+			return members.size();
+		});
+	}
+
+}
@@ -0,0 +1,54 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of reading members and subgroups of nested groups by GroupsManagerBl.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar GroupsManagerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupsManagerBenchmark {
+
+	/**
+	 * Root group contains all members of the VO, most of them as indirect members from subgroups.
+	 */
+	@Benchmark
+	public List<Member> getRootGroupMembers(SyntheticDataset dataset) {
+		return dataset.getPerun().getGroupsManagerBl().getGroupMembers(dataset.getSess(), dataset.getRootGroups().get(0));
+	}
+
+	@Benchmark
+	public List<Member> getLeafGroupMembers(SyntheticDataset dataset) {
+		return dataset.getPerun().getGroupsManagerBl().getGroupMembers(dataset.getSess(), dataset.getLeafGroups().get(0));
+	}
+
+	@Benchmark
+	public int getRootGroupMembersCount(SyntheticDataset dataset) {
+		return dataset.getPerun().getGroupsManagerBl().getGroupMembersCount(dataset.getSess(), dataset.getRootGroups().get(0));
+	}
+
+	/**
+	 * All groups of the tree are read from the closure of group hierarchy by one query.
+	 */
+	@Benchmark
+	public List<Group> getAllSubGroupsOfRootGroup(SyntheticDataset dataset) {
+		return dataset.getPerun().getGroupsManagerBl().getAllSubGroups(dataset.getSess(), dataset.getRootGroups().get(0));
+	}
+
+}
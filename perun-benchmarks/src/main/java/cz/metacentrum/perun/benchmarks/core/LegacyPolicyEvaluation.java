@@ -0,0 +1,116 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunBean;
+import cz.metacentrum.perun.core.api.PerunPolicy;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.ResourceTag;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.api.exceptions.PolicyNotExistsException;
+import cz.metacentrum.perun.core.impl.AuthzResolverImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Former evaluation of policies by AuthzResolverBlImpl.authorized(), which traverses included policies
+ * and flattens their roles on every call. Kept only as a baseline for PolicyEvaluationBenchmark.
+ *
+ * @see cz.metacentrum.perun.core.impl.CompiledPolicy
+ */
+public final class LegacyPolicyEvaluation {
+
+	private LegacyPolicyEvaluation() {
+	}
+
+	public static boolean authorized(PerunSession sess, String policyDefinition, List<PerunBean> objects) throws PolicyNotExistsException {
+		if (sess.getPerunPrincipal().getRoles() == null) {
+			return false;
+		}
+
+		List<PerunPolicy> allPolicies = AuthzResolverImpl.fetchPolicyWithAllIncludedPolicies(policyDefinition);
+
+		List<Map<String, String>> policyRoles = new ArrayList<>();
+		for (PerunPolicy policy : allPolicies) policyRoles.addAll(policy.getPerunRoles());
+
+		Map<String, Set<Integer>> mapOfBeans = fetchAllRelatedObjects(objects);
+
+		return resolveAuthorization(sess, policyRoles, mapOfBeans);
+	}
+
+	private static boolean resolveAuthorization(PerunSession sess, List<Map<String, String>> policyRoles, Map<String, Set<Integer>> mapOfBeans) {
+		for (Map<String, String> roleArray : policyRoles) {
+			boolean authorized = true;
+			for (String role : roleArray.keySet()) {
+				String roleObject = roleArray.get(role);
+				if (roleObject == null) {
+					if (!sess.getPerunPrincipal().getRoles().hasRole(role)) authorized = false;
+				} else if (!mapOfBeans.containsKey(roleObject)) {
+					authorized = false;
+				} else {
+					for (Integer objectId : mapOfBeans.get(roleObject)) {
+						if (!sess.getPerunPrincipal().getRoles().hasRole(role, roleObject, objectId)) {
+							authorized = false;
+							break;
+						}
+					}
+				}
+				if (!authorized) break;
+			}
+			if (authorized) return true;
+		}
+		return false;
+	}
+
+	private static Map<String, Set<Integer>> fetchAllRelatedObjects(List<PerunBean> objects) {
+		List<PerunBean> relatedObjects = new ArrayList<>();
+		Map<String, Set<Integer>> mapOfBeans = new HashMap<>();
+
+		for (PerunBean object : objects) {
+			relatedObjects.add(object);
+			relatedObjects.addAll(getRelatedObjects(object));
+		}
+
+		for (PerunBean object : relatedObjects) {
+			if (!mapOfBeans.containsKey(object.getBeanName())) mapOfBeans.put(object.getBeanName(), new HashSet<>());
+			mapOfBeans.get(object.getBeanName()).add(object.getId());
+		}
+		return mapOfBeans;
+	}
+
+	private static List<PerunBean> getRelatedObjects(PerunBean object) {
+		if (object instanceof Member) {
+			User user = new User();
+			user.setId(((Member) object).getUserId());
+			Vo vo = new Vo();
+			vo.setId(((Member) object).getVoId());
+			return Arrays.asList(user, vo);
+		} else if (object instanceof Group) {
+			Vo vo = new Vo();
+			vo.setId(((Group) object).getVoId());
+			return Collections.singletonList(vo);
+		} else if (object instanceof Resource) {
+			Vo vo = new Vo();
+			vo.setId(((Resource) object).getVoId());
+			Facility facility = new Facility();
+			facility.setId(((Resource) object).getFacilityId());
+			return Arrays.asList(vo, facility);
+		} else if (object instanceof ResourceTag) {
+			Vo vo = new Vo();
+			vo.setId(((ResourceTag) object).getVoId());
+			return Collections.singletonList(vo);
+		}
+		return Collections.emptyList();
+	}
+
+}
@@ -0,0 +1,85 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.PerunBean;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering of a list of objects by the policy for the session of VO admin, like list endpoints do.
+ *
+ * Compares former evaluation, which traverses included policies on every call (legacy), with evaluation of compiled
+ * policy for each object (compiled).
+ *
+ * Run by: java -jar target/perun-benchmarks.jar PolicyEvaluationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyEvaluationBenchmark {
+
+	/**
+	 * Policy used for filtering, default is policy from perun-roles.yml used by tests (VO admin or group admin).
+	 */
+	@Param({"test_authorized_group_admin"})
+	public String policy;
+
+	/**
+	 * Filtered objects - Group (all groups of all VOs) or Member (all members of all VOs).
+	 */
+	@Param({"Group", "Member"})
+	public String objectType;
+
+	private List<PerunBean> objects;
+
+	@Setup
+	public void setUp(SyntheticDataset dataset) {
+		objects = new ArrayList<>();
+		if ("Group".equals(objectType)) {
+			for (Vo vo : dataset.getVos()) {
+				List<Group> groups = dataset.getPerun().getGroupsManagerBl().getAllGroups(dataset.getSess(), vo);
+				objects.addAll(groups);
+			}
+		} else {
+			objects.addAll(dataset.getMembers());
+		}
+	}
+
+	@Benchmark
+	public int legacy(SyntheticDataset dataset) throws Exception {
+		int authorized = 0;
+		for (PerunBean object : objects) {
+			if (LegacyPolicyEvaluation.authorized(dataset.getVoAdminSess(), policy, Collections.singletonList(object))) authorized++;
+		}
+		return authorized;
+	}
+
+	@Benchmark
+	public int compiled(SyntheticDataset dataset) throws Exception {
+		int authorized = 0;
+		for (PerunBean object : objects) {
+			if (AuthzResolverBlImpl.authorized(dataset.getVoAdminSess(), policy, Collections.singletonList(object))) authorized++;
+		}
+		return authorized;
+	}
+
+}
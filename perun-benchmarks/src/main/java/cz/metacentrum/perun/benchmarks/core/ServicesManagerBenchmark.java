@@ -0,0 +1,36 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.ServiceAttributes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of generating service data for the whole facility by ServicesManagerBl.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar ServicesManagerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServicesManagerBenchmark {
+
+	@Benchmark
+	public ServiceAttributes getHierarchicalData(SyntheticDataset dataset) {
+		return dataset.getPerun().getServicesManagerBl().getHierarchicalData(dataset.getSess(), dataset.getService(), dataset.getFacility(), false);
+	}
+
+	@Benchmark
+	public ServiceAttributes getHierarchicalDataWithoutExpired(SyntheticDataset dataset) {
+		return dataset.getPerun().getServicesManagerBl().getHierarchicalData(dataset.getSess(), dataset.getService(), dataset.getFacility(), true);
+	}
+
+}
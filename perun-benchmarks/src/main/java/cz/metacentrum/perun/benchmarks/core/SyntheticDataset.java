@@ -0,0 +1,299 @@
+package cz.metacentrum.perun.benchmarks.core;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.ExtSourcesManager;
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunClient;
+import cz.metacentrum.perun.core.api.PerunPrincipal;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.Role;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
+import cz.metacentrum.perun.core.impl.PerunSessionImpl;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic dataset shared by benchmarks of perun-core.
+ *
+ * Perun is started from perun-base.xml and perun-core.xml. In the "default" Spring profile it uses
+ * embedded HSQL DB initialized by test-schema.sql and test-data.sql like tests of perun-core.
+ * Local Postgres DB can be used by: -Dspring.profiles.active=production (connection is read from jdbc.properties
+ * in perun configuration directory).
+ *
+ * Each VO has a tree of nested groups, where members are spread over all groups, so the root group
+ * contains all members of the VO (mostly as indirect members). Root group is assigned to all resources of the VO,
+ * all resources are on one facility and have assigned one service, which requires given number of attributes
+ * of each type (facility, resource, user, member, user-facility and member-resource). Values of all these
+ * attributes are set. One user is VO admin of all VOs.
+ *
+ * Dataset is created once per trial (each fork of JMH).
+ */
+@State(Scope.Benchmark)
+public class SyntheticDataset {
+
+	private static final String[] REQUIRED_ATTRIBUTES_NAMESPACES = {
+		AttributesManager.NS_FACILITY_ATTR_DEF,
+		AttributesManager.NS_RESOURCE_ATTR_DEF,
+		AttributesManager.NS_USER_ATTR_DEF,
+		AttributesManager.NS_MEMBER_ATTR_DEF,
+		AttributesManager.NS_USER_FACILITY_ATTR_DEF,
+		AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF
+	};
+
+	/**
+	 * Number of VOs.
+	 */
+	@Param({"1"})
+	public int vos;
+
+	/**
+	 * Number of nested groups in each VO (binary tree).
+	 */
+	@Param({"15"})
+	public int groups;
+
+	/**
+	 * Number of members in each VO.
+	 */
+	@Param({"100"})
+	public int members;
+
+	/**
+	 * Number of resources in each VO.
+	 */
+	@Param({"3"})
+	public int resources;
+
+	/**
+	 * Number of required attributes of each type.
+	 */
+	@Param({"5"})
+	public int attributes;
+
+	private ClassPathXmlApplicationContext springCtx;
+	private PerunBl perun;
+	private PerunSession sess;
+	private PerunSession voAdminSess;
+
+	private Facility facility;
+	private Service service;
+	private final List<Vo> vosList = new ArrayList<>();
+	private final List<Group> rootGroups = new ArrayList<>();
+	private final List<Group> leafGroups = new ArrayList<>();
+	private final List<Resource> resourcesList = new ArrayList<>();
+	private final List<Member> membersList = new ArrayList<>();
+	private final List<User> usersList = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		springCtx = new ClassPathXmlApplicationContext("classpath:perun-base.xml", "classpath:perun-core.xml");
+		perun = springCtx.getBean("perun", PerunBl.class);
+		sess = perun.getPerunSession(new PerunPrincipal("perunTests", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL,
+				ExtSourcesManager.EXTSOURCE_INTERNAL), new PerunClient());
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(
+				springCtx.getBean("perunTransactionManager", PlatformTransactionManager.class));
+		transactionTemplate.execute(status -> {
+			try {
+				createDataset();
+			} catch (Exception ex) {
+				throw new InternalErrorException("Unable to create benchmark dataset.", ex);
+			}
+			return null;
+		});
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (springCtx != null) springCtx.close();
+	}
+
+	private void createDataset() throws Exception {
+		facility = perun.getFacilitiesManagerBl().createFacility(sess, new Facility(0, "benchmark.facility"));
+		service = perun.getServicesManagerBl().createService(sess, new Service(0, "benchmark_service"));
+
+		List<AttributeDefinition> requiredAttributes = new ArrayList<>();
+		for (String namespace : REQUIRED_ATTRIBUTES_NAMESPACES) {
+			for (int i = 0; i < attributes; i++) {
+				AttributeDefinition attrDef = new AttributeDefinition();
+				attrDef.setNamespace(namespace);
+				attrDef.setFriendlyName("benchmark" + i);
+				attrDef.setType(String.class.getName());
+				requiredAttributes.add(perun.getAttributesManagerBl().createAttribute(sess, attrDef));
+			}
+		}
+		perun.getServicesManagerBl().addRequiredAttributes(sess, service, requiredAttributes);
+
+		User voAdmin = perun.getUsersManagerBl().createUser(sess, new User(0, "Vo", "Admin", null, null, null));
+
+		for (int v = 0; v < vos; v++) {
+			Vo vo = perun.getVosManagerBl().createVo(sess, new Vo(0, "benchmark-vo-" + v, "bvo" + v));
+			vosList.add(vo);
+			AuthzResolverBlImpl.setRole(sess, voAdmin, vo, Role.VOADMIN);
+
+			// binary tree of groups, parent of group i is group (i - 1) / 2
+			List<Group> voGroups = new ArrayList<>();
+			for (int g = 0; g < Math.max(groups, 1); g++) {
+				Group group = new Group("group" + g, "benchmark group " + g);
+				if (g == 0) {
+					group = perun.getGroupsManagerBl().createGroup(sess, vo, group);
+					rootGroups.add(group);
+				} else {
+					group = perun.getGroupsManagerBl().createGroup(sess, voGroups.get((g - 1) / 2), group);
+				}
+				voGroups.add(group);
+			}
+			leafGroups.add(voGroups.get(voGroups.size() - 1));
+
+			List<Resource> voResources = new ArrayList<>();
+			for (int r = 0; r < resources; r++) {
+				Resource resource = perun.getResourcesManagerBl().createResource(sess,
+						new Resource(0, "resource" + r, "benchmark resource " + r, facility.getId(), vo.getId()), vo, facility);
+				perun.getResourcesManagerBl().assignService(sess, resource, service);
+				perun.getResourcesManagerBl().assignGroupToResource(sess, voGroups.get(0), resource);
+				voResources.add(resource);
+			}
+			resourcesList.addAll(voResources);
+
+			for (int m = 0; m < members; m++) {
+				User user = perun.getUsersManagerBl().createUser(sess, new User(0, "First" + m, "Last" + v + "x" + m, null, null, null));
+				Member member = perun.getMembersManagerBl().createMember(sess, vo, user);
+				member = perun.getMembersManagerBl().validateMember(sess, member);
+				perun.getGroupsManagerBl().addMember(sess, voGroups.get(m % voGroups.size()), member);
+				usersList.add(user);
+				membersList.add(member);
+			}
+
+			for (Resource resource : voResources) {
+				for (AttributeDefinition attrDef : requiredAttributes) {
+					if (attrDef.getNamespace().equals(AttributesManager.NS_RESOURCE_ATTR_DEF)) {
+						perun.getAttributesManagerBl().setAttribute(sess, resource, value(attrDef, resource.getId()));
+					}
+				}
+			}
+		}
+
+		for (AttributeDefinition attrDef : requiredAttributes) {
+			switch (attrDef.getNamespace()) {
+				case AttributesManager.NS_FACILITY_ATTR_DEF:
+					perun.getAttributesManagerBl().setAttribute(sess, facility, value(attrDef, facility.getId()));
+					break;
+				case AttributesManager.NS_USER_ATTR_DEF:
+					for (User user : usersList) {
+						perun.getAttributesManagerBl().setAttribute(sess, user, value(attrDef, user.getId()));
+					}
+					break;
+				case AttributesManager.NS_USER_FACILITY_ATTR_DEF:
+					for (User user : usersList) {
+						perun.getAttributesManagerBl().setAttribute(sess, facility, user, value(attrDef, user.getId()));
+					}
+					break;
+				case AttributesManager.NS_MEMBER_ATTR_DEF:
+					for (Member member : membersList) {
+						perun.getAttributesManagerBl().setAttribute(sess, member, value(attrDef, member.getId()));
+					}
+					break;
+				case AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF:
+					for (Member member : membersList) {
+						for (Resource resource : resourcesList) {
+							if (resource.getVoId() == member.getVoId()) {
+								perun.getAttributesManagerBl().setAttribute(sess, member, resource, value(attrDef, member.getId()));
+							}
+						}
+					}
+					break;
+				default:
+					break;
+			}
+		}
+
+		voAdminSess = new PerunSessionImpl(perun, new PerunPrincipal("benchmarkVoAdmin", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL,
+				ExtSourcesManager.EXTSOURCE_INTERNAL, voAdmin), new PerunClient());
+		AuthzResolverBlImpl.refreshAuthz(voAdminSess);
+	}
+
+	private static Attribute value(AttributeDefinition attrDef, int id) {
+		return new Attribute(attrDef, attrDef.getFriendlyName() + "-" + id);
+	}
+
+	public ClassPathXmlApplicationContext getSpringCtx() {
+		return springCtx;
+	}
+
+	public PerunBl getPerun() {
+		return perun;
+	}
+
+	/**
+	 * @return session of perun admin
+	 */
+	public PerunSession getSess() {
+		return sess;
+	}
+
+	/**
+	 * @return session of user, who is VO admin of all VOs, with initialized roles
+	 */
+	public PerunSession getVoAdminSess() {
+		return voAdminSess;
+	}
+
+	public Facility getFacility() {
+		return facility;
+	}
+
+	public Service getService() {
+		return service;
+	}
+
+	public List<Vo> getVos() {
+		return vosList;
+	}
+
+	/**
+	 * @return root group of the tree of groups of each VO
+	 */
+	public List<Group> getRootGroups() {
+		return rootGroups;
+	}
+
+	/**
+	 * @return most nested group of each VO
+	 */
+	public List<Group> getLeafGroups() {
+		return leafGroups;
+	}
+
+	public List<Resource> getResources() {
+		return resourcesList;
+	}
+
+	public List<Member> getMembers() {
+		return membersList;
+	}
+
+	public List<User> getUsers() {
+		return usersList;
+	}
+
+}
@@ -0,0 +1,108 @@
+package cz.metacentrum.perun.benchmarks.notif;
+
+import cz.metacentrum.perun.notif.entities.PerunNotifRegex;
+import cz.metacentrum.perun.notif.utils.PerunNotifRegexMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of audit messages against notification regexes, like PerunNotifRegexManager does for every message.
+ *
+ * Compares former evaluation of String.matches() for every regex (legacy) with precompiled regexes
+ * with literal prefilter (compiled). Regexes are generated from combinations of beans and actions
+ * with a few generic regexes without any literal.
+ *
+ * Run by: java -jar target/perun-benchmarks.jar RegexMatcherBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexMatcherBenchmark {
+
+	private static final String[] BEANS = {"Member", "User", "Group", "Vo", "Facility", "Resource", "Service", "Host",
+		"Destination", "Attribute", "UserExtSource", "ExtSource", "SecurityTeam", "BanOnResource", "BanOnFacility"};
+
+	private static final String[] ACTIONS = {"created", "deleted", "updated", "validated", "invalidated", "expired",
+		"suspended", "disabled", "added to Group:\\[.*\\]", "removed from Group:\\[.*\\]", "set for .*", "removed for .*",
+		"added to Vo:\\[.*\\]", "moved to .*", "synchronized", "approved", "rejected", "verified", "assigned to .*",
+		"removed from Facility:\\[.*\\]"};
+
+	private static final String[] MESSAGES = {
+		"Member:[id=<3899>, userId=<3199>, voId=<21>, status=<VALID>, sourceGroupId=<\\0>, sponsored=<false>, suspendedTo=<\\0>] added to "
+			+ "Group:[id=<21>, parentGroupId=<\\0>, name=<members>, description=<Group containing VO members>, voId=<21>, uuid=<\\0>].",
+		"Attribute:[id=<146>, friendlyName=<login-namespace:einfra>, namespace=<urn:perun:user:attribute-def:def>, type=<java.lang.String>, "
+			+ "value=<tejral>, unique=<false>] set for User:[id=<9181>, uuid=<\\0>, titleBefore=<\\0>, firstName=<Gracian>, lastName=<Tejral>, "
+			+ "middleName=<\\0>, titleAfter=<\\0>, serviceAccount=<false>, sponsoredAccount=<false>].",
+		"Service:[id=<29>, name=<passwd>, description=<\\0>, delay=<10>, recurrence=<2>, enabled=<true>, script=<./passwd>] "
+			+ "removed from Resource:[id=<19>, voId=<15>, facilityId=<13>, name=<cluster>, description=<\\0>, uuid=<\\0>].",
+		"Member:[id=<12521>, userId=<9181>, voId=<21>, status=<VALID>, sourceGroupId=<\\0>, sponsored=<false>, suspendedTo=<\\0>] validated."
+	};
+
+	/**
+	 * Number of notification regexes.
+	 */
+	@Param({"20", "300"})
+	public int regexes;
+
+	private List<PerunNotifRegex> perunNotifRegexes;
+	private PerunNotifRegexMatcher matcher;
+
+	@Setup
+	public void setUp() {
+		perunNotifRegexes = new ArrayList<>();
+		// few generic regexes without literal
+		addRegex("Member:\\[.*\\] (created|deleted)\\.");
+		addRegex(".*\\[id=<\\d+>.*");
+		for (int i = 0; perunNotifRegexes.size() < regexes; i++) {
+			String bean = BEANS[i % BEANS.length];
+			String action = ACTIONS[(i / BEANS.length) % ACTIONS.length];
+			String suffix = i < BEANS.length * ACTIONS.length ? "" : " \\(" + i + "\\)";
+			addRegex(bean + ":\\[.*\\] " + action + suffix + "\\.");
+		}
+		matcher = PerunNotifRegexMatcher.compile(perunNotifRegexes);
+	}
+
+	@Benchmark
+	public int legacy() {
+		int matching = 0;
+		for (String message : MESSAGES) {
+			for (PerunNotifRegex regex : perunNotifRegexes) {
+				if (message.matches(regex.getRegex())) matching++;
+			}
+		}
+		return matching;
+	}
+
+	@Benchmark
+	public int compiled() {
+		int matching = 0;
+		for (String message : MESSAGES) {
+			matching += matcher.getMatchingRegexes(message).size();
+		}
+		return matching;
+	}
+
+	private void addRegex(String regex) {
+		PerunNotifRegex perunNotifRegex = new PerunNotifRegex();
+		perunNotifRegex.setId(perunNotifRegexes.size() + 1);
+		perunNotifRegex.setRegex(regex);
+		perunNotifRegexes.add(perunNotifRegex);
+	}
+
+}
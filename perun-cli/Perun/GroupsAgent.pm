@@ -73,6 +73,11 @@ sub getGroupMembersCount
 	return Perun::Common::callManagerMethod('getGroupMembersCount', 'number', @_);
 }
 
+sub checkGroupsClosure
+{
+	return Perun::Common::callManagerMethod('checkGroupsClosure', 'number', @_);
+}
+
 sub getAllGroups
 {
 	return Perun::Common::callManagerMethod('getAllGroups', '[]Group', @_);
@@ -183,4 +183,9 @@ sub removeSpecificUserOwner
 	return Perun::Common::callManagerMethod('removeSpecificUserOwner', 'null', @_);
 }
 
+sub rebuildUserSearchIndex
+{
+	return Perun::Common::callManagerMethod('rebuildUserSearchIndex', 'number', @_);
+}
+
 1;
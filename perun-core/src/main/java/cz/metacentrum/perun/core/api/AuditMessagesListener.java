@@ -0,0 +1,24 @@
+package cz.metacentrum.perun.core.api;
+
+/**
+ * Listener, which is notified by the Auditer every time new audit messages are stored
+ * into the auditer log by this instance of Perun (after the transaction which produced them is committed).
+ *
+ * Listener doesn't receive the messages themselves. Consumer is expected to read them
+ * by AuditMessagesManager, so auditer_consumers.last_processed_id remains the durable checkpoint
+ * from which consumer continues after the restart.
+ *
+ * Listeners are called from the thread which stored the messages, so implementations must be fast
+ * and must not block (eg. just wake up consumer thread).
+ *
+ * @see AuditMessagesManager#addAuditMessagesListener(PerunSession, AuditMessagesListener)
+ */
+@FunctionalInterface
+public interface AuditMessagesListener {
+
+	/**
+	 * Called when new messages were stored into the auditer log.
+	 */
+	void onNewMessages();
+
+}
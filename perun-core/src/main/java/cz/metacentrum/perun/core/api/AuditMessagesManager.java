@@ -17,6 +17,12 @@ public interface AuditMessagesManager {
 
 	Integer COUNTOFMESSAGES = 100;
 
+	/**
+	 * Default time in milliseconds for which waitFor* methods block, when no new messages are present.
+	 * It suits only consumers in the same JVM as Perun, which stores the messages and wakes them up.
+	 */
+	long DEFAULT_WAIT_TIMEOUT = 30000;
+
 	/**
 	 * Returns 100 newest audit messages from audit log. If there is a less messages than 100,
 	 * then all of them are returned.
@@ -95,6 +101,74 @@ public interface AuditMessagesManager {
 	 */
 	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int lastProcessedId) throws InternalErrorException, PrivilegeException;
 
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * If there are no such messages, call blocks until new messages are stored or until the timeout elapses.
+	 *
+	 * Messages stored by this instance of Perun wake up the caller immediately, messages stored by other instances
+	 * are found at latest when the timeout elapses. DB is not queried while waiting.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param timeout maximum time to wait for new messages in milliseconds
+	 * @return List of audit messages, empty if there were no new messages before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 * @throws PrivilegeException When you are not authorized to poll messages
+	 */
+	List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException, PrivilegeException;
+
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId given.
+	 * If there are no such messages, call blocks until new messages are stored or until the timeout elapses.
+	 *
+	 * Messages stored by this instance of Perun wake up the caller immediately, messages stored by other instances
+	 * are found at latest when the timeout elapses. DB is not queried while waiting.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param lastProcessedId id of the last message
+	 * @param timeout maximum time to wait for new messages in milliseconds
+	 * @return List of audit messages, empty if there were no new messages before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 * @throws PrivilegeException When you are not authorized to poll messages
+	 */
+	List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, int lastProcessedId, long timeout) throws InternalErrorException, PrivilegeException;
+
+	/**
+	 * Returns list of <b>AuditEvents</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * If there are no such events, call blocks until new events are stored or until the timeout elapses.
+	 *
+	 * Events stored by this instance of Perun wake up the caller immediately, events stored by other instances
+	 * are found at latest when the timeout elapses. DB is not queried while waiting.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get events for
+	 * @param timeout maximum time to wait for new events in milliseconds
+	 * @return List of audit events, empty if there were no new events before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 * @throws PrivilegeException When you are not authorized to poll events
+	 */
+	List<AuditEvent> waitForConsumerEvents(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException, PrivilegeException;
+
+	/**
+	 * Register in-JVM listener, which is notified every time new messages are stored into the audit log
+	 * by this instance of Perun.
+	 *
+	 * @param perunSession perun session
+	 * @param listener listener to register
+	 * @throws PrivilegeException When you are not authorized to listen for messages
+	 */
+	void addAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) throws PrivilegeException;
+
+	/**
+	 * Unregister previously registered in-JVM listener.
+	 *
+	 * @param perunSession perun session
+	 * @param listener listener to unregister
+	 * @throws PrivilegeException When you are not authorized to listen for messages
+	 */
+	void removeAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) throws PrivilegeException;
+
 	/**
 	 * Creates new auditer consumer with last processed id which equals current auditer log max id.
 	 *
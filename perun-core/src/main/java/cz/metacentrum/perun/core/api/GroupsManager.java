@@ -1259,4 +1259,17 @@ public interface GroupsManager {
 	 * @return true if given member can extend membership in given group or throws exception with reason why not
 	 */
 	boolean canExtendMembershipInGroupWithReason(PerunSession sess, Member member, Group group) throws InternalErrorException, MemberNotExistsException, GroupNotExistsException, PrivilegeException, ExtendMembershipException;
+
+	/**
+	 * Check consistency of closures of group hierarchy and of relations between groups, which are used
+	 * to get all subgroups, parent groups or result groups by one query. Optionally rebuild inconsistent closures
+	 * (e.g. after direct modification of groups in the DB).
+	 *
+	 * @param sess perun session
+	 * @param repair true if inconsistent closures should be rebuilt
+	 * @return number of missing, wrong or redundant rows of closures, 0 if closures are consistent
+	 * @throws InternalErrorException
+	 * @throws PrivilegeException
+	 */
+	int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException, PrivilegeException;
 }
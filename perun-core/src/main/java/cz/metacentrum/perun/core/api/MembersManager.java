@@ -804,6 +804,23 @@ public interface MembersManager {
 	 */
 	List<RichMember> getRichMembersWithAttributes(PerunSession sess, Vo vo, Status status) throws InternalErrorException, PrivilegeException, VoNotExistsException;
 
+	/**
+	 * Get one page of RichMembers of the VO with attributes specific for list of attrsNames.
+	 * Members are selected, ordered and filtered by the page query and only attributes of the members
+	 * on the page are loaded. If attrsNames is empty or null, all attributes are loaded.
+	 *
+	 * @param sess
+	 * @param vo
+	 * @param query page query
+	 * @param attrsNames list of attributes names
+	 * @return page of richMembers with total count of members matching the query
+	 * @throws InternalErrorException
+	 * @throws PrivilegeException
+	 * @throws VoNotExistsException
+	 * @throws AttributeNotExistsException
+	 */
+	Paginated<RichMember> getCompleteRichMembersPage(PerunSession sess, Vo vo, PageQuery query, List<String> attrsNames) throws InternalErrorException, PrivilegeException, VoNotExistsException, AttributeNotExistsException;
+
 	/**
 	 * Get the VO members count.
 	 *
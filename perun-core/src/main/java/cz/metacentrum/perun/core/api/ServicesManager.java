@@ -375,6 +375,23 @@ public interface ServicesManager {
 	 */
 	ServiceAttributes getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Generates the same structure as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer resource by resource, so only one resource subtree is held in memory at once.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each user and per each resource. Resources are filtered by service.
 	 * Never return member or member-resource attribute.
@@ -413,6 +430,23 @@ public interface ServicesManager {
 	 */
 	ServiceAttributes getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Generates the same structure as {@link #getFlatData(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer element by element, so the whole structure is never held in memory at once.
+	 *
+	 * @param perunSession
+	 * @param service you will get attributes required by this service
+	 * @param facility you will get attributes for this facility, resources associated with it and users assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -496,6 +530,23 @@ public interface ServicesManager {
 		*/
 		ServiceAttributes getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Generates the same structure as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer resource by resource, so only one resource subtree is held in memory at once.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups in vos.
 	 *
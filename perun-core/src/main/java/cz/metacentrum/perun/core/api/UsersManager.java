@@ -994,6 +994,21 @@ public interface UsersManager {
 	List<RichUser> getAllRichUsersWithAttributes(PerunSession sess, boolean includedSpecificUsers,List<String> attrsNames)
 		throws InternalErrorException, PrivilegeException, UserNotExistsException;
 
+	/**
+	 * Get one page of RichUsers with attributes specific for list of attrsNames.
+	 * Users are selected, ordered and filtered by the page query and only attributes of the users
+	 * on the page are loaded. If attrsNames is empty or null, all non-empty attributes are loaded.
+	 *
+	 * @param sess
+	 * @param query page query
+	 * @param includedSpecificUsers true if specific users should be included too
+	 * @param attrsNames list of attributes names
+	 * @return page of RichUsers with total count of users matching the query
+	 * @throws InternalErrorException
+	 * @throws PrivilegeException
+	 */
+	Paginated<RichUser> getRichUsersWithAttributesPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers, List<String> attrsNames) throws InternalErrorException, PrivilegeException;
+
 	/**
 	 * Returns list of RichUsers with attributes who matches the searchString, searching name, email, logins.
 	 *
@@ -1243,4 +1258,16 @@ public interface UsersManager {
 	 */
 	List<RichGroup> getRichGroupsWhereUserIsActive(PerunSession sess, Facility facility, User user, List<String> attrNames) throws PrivilegeException, InternalErrorException;
 
+	/**
+	 * Rebuild the user search index, which holds normalized names, emails and logins of users and is used
+	 * by findUsers, findUsersByExactMatch and findUsersByExactName (e.g. after direct modification of users,
+	 * their attributes or user ext sources in the DB).
+	 *
+	 * @param sess perun session
+	 * @return number of entries in the rebuilt index
+	 * @throws InternalErrorException
+	 * @throws PrivilegeException
+	 */
+	int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException, PrivilegeException;
+
 }
@@ -13,6 +13,7 @@ import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichAttribute;
+import cz.metacentrum.perun.core.api.RichMember;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
@@ -184,6 +185,73 @@ public interface AttributesManagerBl {
 	 */
 	List<Attribute> getAttributes(PerunSession sess, Member member, Resource resource, List<String> attrNames, boolean workWithUserAttributes) throws InternalErrorException, MemberResourceMismatchException;
 
+	/**
+	 * Gets selected attributes of the rich members and the resource at once. For each rich member the result is the same as
+	 * getAttributes(sess, member, resource, attrNames, true) returns, but attributes of all members are loaded by few queries.
+	 * Users of rich members are used for user and user-facility attributes.
+	 * Empty list of attr_names means all attributes (they are loaded member by member).
+	 *
+	 * @param sess perun session
+	 * @param richMembers to get the attributes from (with users filled)
+	 * @param resource to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of member id to list of its selected attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 * @throws MemberResourceMismatchException if any of the members is not from the same VO as the resource
+	 */
+	Map<Integer, List<Attribute>> getRichMembersAttributes(PerunSession sess, List<RichMember> richMembers, Resource resource, List<String> attrNames) throws InternalErrorException, MemberResourceMismatchException;
+
+	/**
+	 * Get all <b>non-empty</b> attributes associated with each of the members.
+	 * For each member the result is the same as getAttributes(sess, member) returns, but attributes of all members are loaded by few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members) throws InternalErrorException;
+
+	/**
+	 * Get all attributes associated with each of the members which have name in list attrNames (empty and virtual too).
+	 * For each member the result is the same as getAttributes(sess, member, attrNames) returns, but attributes of all members are loaded by few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get all <b>non-empty</b> attributes associated with each of the users.
+	 * For each user the result is the same as getAttributes(sess, user) returns, but attributes of all users are loaded by few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Get all attributes associated with each of the users which have name in list attrNames (empty and virtual too).
+	 * For each user the result is the same as getAttributes(sess, user, attrNames) returns, but attributes of all users are loaded by few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException;
+
 	/**
 	 * Gets selected attributes associated with the member, group and the resource.
 	 * It returns member, member-resource and member-group attributes and also user and user-facility attributes if
@@ -2222,6 +2290,20 @@ public interface AttributesManagerBl {
 	 */
 	HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Resource resource, Service service, List<Member> members) throws InternalErrorException;
 
+	/**
+	 * Get member-group attributes which are required by service for each member in list of members.
+	 * !!! Method checks if members list is not empty (returns empty HashMap)!!!
+	 *
+	 * @param sess perun session
+	 * @param service attribute required by this service
+	 * @param group you get attributes for this group and the members
+	 * @param members you get attributes for this list of members and the group
+	 * @return map of member objects and his list of attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Group group, List<Member> members) throws InternalErrorException;
+
 	/**
 	 * Get user-facility attributes which are required by the service for each user in list of users.
 	 * !!! Method checks if members list is not empty (returns empty HashMap)!!!
@@ -2,6 +2,7 @@ package cz.metacentrum.perun.core.bl;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.AuditMessagesListener;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 
@@ -79,6 +80,59 @@ public interface AuditMessagesManagerBl {
 	 */
 	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int lastProcessedId) throws InternalErrorException;
 
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * If there are no such messages, call blocks until new messages are stored or until the timeout elapses.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param timeout maximum time to wait for new messages in milliseconds
+	 * @return List of audit messages, empty if there were no new messages before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException;
+
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId given.
+	 * If there are no such messages, call blocks until new messages are stored or until the timeout elapses.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param lastProcessedId id of the last message
+	 * @param timeout maximum time to wait for new messages in milliseconds
+	 * @return List of audit messages, empty if there were no new messages before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, int lastProcessedId, long timeout) throws InternalErrorException;
+
+	/**
+	 * Returns list of <b>AuditEvents</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * If there are no such events, call blocks until new events are stored or until the timeout elapses.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get events for
+	 * @param timeout maximum time to wait for new events in milliseconds
+	 * @return List of audit events, empty if there were no new events before the timeout
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditEvent> waitForConsumerEvents(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException;
+
+	/**
+	 * Register in-JVM listener, which is notified every time new messages are stored into the audit log.
+	 *
+	 * @param perunSession perun session
+	 * @param listener listener to register
+	 */
+	void addAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener);
+
+	/**
+	 * Unregister previously registered in-JVM listener.
+	 *
+	 * @param perunSession perun session
+	 * @param listener listener to unregister
+	 */
+	void removeAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener);
+
 	/**
 	 * Creates new auditer consumer with last processed id which equals current auditer log max id.
 	 *
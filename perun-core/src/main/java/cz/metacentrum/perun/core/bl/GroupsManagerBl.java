@@ -45,6 +45,7 @@ import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.WrongAttributeAssignmentException;
 import cz.metacentrum.perun.core.api.exceptions.WrongAttributeValueException;
 import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueException;
+import cz.metacentrum.perun.core.impl.GroupSynchronizationMetrics;
 
 import java.util.List;
 import java.util.Map;
@@ -980,6 +981,19 @@ public interface GroupsManagerBl {
 	 */
 	void synchronizeGroups(PerunSession sess) throws InternalErrorException;
 
+	/**
+	 * Returns metrics of group synchronizations finished since the start of this instance
+	 * (duration per group and latency per external source).
+	 *
+	 * @return metrics of group synchronizations
+	 */
+	GroupSynchronizationMetrics getGroupSynchronizationMetrics();
+
+	/**
+	 * Stop all group synchronization workers and shut down their executor. Called when this instance stops.
+	 */
+	void stopGroupsSynchronization();
+
 	/**
 	 * Synchronize all groups structures which have enabled group structure synchronization. This method is run by the scheduler every 5 minutes.
 	 *
@@ -1065,6 +1079,17 @@ public interface GroupsManagerBl {
 	 */
 	List<Group> getAllGroupsWhereMemberIsActive(PerunSession sess, Member member) throws InternalErrorException;
 
+	/**
+	 * Returns all groups where the members are in active state (are valid there).
+	 * Included members groups.
+	 *
+	 * @param sess perun session
+	 * @param members members to get groups for
+	 * @return map of member ids to groups where the member is in active state (empty list for member without groups)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Group>> getAllGroupsWhereMembersAreActive(PerunSession sess, List<Member> members) throws InternalErrorException;
+
 
 	/**
 	 * Returns all groups which have set the attribute with the value. Searching only def and opt attributes.
@@ -1798,4 +1823,16 @@ public interface GroupsManagerBl {
 	 * @throws InternalErrorException
 	 */
 	List<Facility> getFacilitiesWhereGroupIsAdmin(PerunSession perunSession, Group group);
+
+	/**
+	 * Check consistency of closures of group hierarchy and of relations between groups, which are used
+	 * to get all subgroups, parent groups or result groups by one query. Optionally rebuild inconsistent closures
+	 * (e.g. after direct modification of groups in the DB).
+	 *
+	 * @param sess perun session
+	 * @param repair true if inconsistent closures should be rebuilt
+	 * @return number of missing, wrong or redundant rows of closures, 0 if closures are consistent
+	 * @throws InternalErrorException
+	 */
+	int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException;
 }
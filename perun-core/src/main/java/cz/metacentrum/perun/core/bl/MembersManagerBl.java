@@ -7,6 +7,8 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichMember;
@@ -934,6 +936,21 @@ public interface MembersManagerBl {
 	 */
 	List<RichMember> convertMembersToRichMembersWithAttributes(PerunSession sess, List<RichMember> richMembers, Resource resource, List<AttributeDefinition> attrsDef) throws InternalErrorException, MemberResourceMismatchException;
 
+	/**
+	 * Get one page of RichMembers of the VO with attributes specific for list of attrsNames.
+	 * Members are selected, ordered and filtered by the page query and only attributes of the members
+	 * on the page are loaded. If attrsNames is empty or null, all attributes are loaded.
+	 *
+	 * @param sess
+	 * @param vo
+	 * @param query page query
+	 * @param attrsNames list of attributes names
+	 * @return page of richMembers with total count of members matching the query
+	 * @throws InternalErrorException
+	 * @throws AttributeNotExistsException
+	 */
+	Paginated<RichMember> getCompleteRichMembersPage(PerunSession sess, Vo vo, PageQuery query, List<String> attrsNames) throws InternalErrorException, AttributeNotExistsException;
+
 	/**
 	 * Get the VO members count.
 	 *
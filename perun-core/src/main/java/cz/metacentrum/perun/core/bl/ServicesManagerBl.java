@@ -9,6 +9,7 @@ import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesWriter;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.Vo;
 import cz.metacentrum.perun.core.api.exceptions.AttributeAlreadyAssignedException;
@@ -333,6 +334,20 @@ public interface ServicesManagerBl {
 	 */
 	ServiceAttributes getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
 
+	/**
+	 * Generates the same structure as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer resource by resource.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 */
+	void getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException;
+
 	/**
 	 * Generates the list of attributes per each resource associated with the facility and filtered by service. Next it generates list of attributes
 	 * associated with the facility and service.
@@ -348,6 +363,20 @@ public interface ServicesManagerBl {
 	 */
 	ServiceAttributes getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
 
+	/**
+	 * Generates the same structure as {@link #getFlatData(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer element by element.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 */
+	void getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -366,6 +395,20 @@ public interface ServicesManagerBl {
 	 * @throws InternalErrorException
 	 */
 	ServiceAttributes getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
+
+	/**
+	 * Generates the same structure as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)},
+	 * but passes it to the writer resource by resource.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param writer receiver of the structure
+	 *
+	 * @throws InternalErrorException
+	 */
+	void getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException;
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -157,6 +157,13 @@ public interface TasksManagerBl {
 
 	void updateTask(Task task);
 
+	/**
+	 * Update state of all given Tasks in one batch.
+	 *
+	 * @param tasks Tasks to update
+	 */
+	void updateTasks(List<Task> tasks);
+
 	void removeTask(int id);
 
 	Task getTask(int serviceId, int facilityId);
@@ -225,6 +232,14 @@ public interface TasksManagerBl {
 
 	int insertNewTaskResult(TaskResult taskResult, int engineID) throws InternalErrorException;
 
+	/**
+	 * Insert all given TaskResults of one engine in one batch.
+	 *
+	 * @param taskResults TaskResults to insert
+	 * @param engineID ID of engine which reported TaskResults
+	 */
+	void insertNewTaskResults(List<TaskResult> taskResults, int engineID);
+
 	List<TaskResult> getTaskResults(int engineID);
 
 	TaskResult getTaskResultById(int taskResultId, int engineID);
@@ -7,6 +7,8 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
@@ -45,6 +47,7 @@ import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * UsersManager manages users.
@@ -633,6 +636,66 @@ public interface UsersManagerBl {
 	 */
 	List<Vo> getVosWhereUserIsMember(PerunSession perunSession, User user) throws InternalErrorException;
 
+	/**
+	 * Returns ids of Vos, where the users are members.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to ids of Vos, where the user is member (empty set for user without membership)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, Set<Integer>> getVosIdsWhereUsersAreMembers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns members of the users.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to their members (empty list for user without membership)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Member>> getMembersOfUsers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns user ext sources of the users.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to their user ext sources
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<UserExtSource>> getUserExtSourcesOfUsers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns Groups, where the users are direct Administrators or members of any group which is Administrator of the Group.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to Groups, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Group>> getGroupsWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns VOs, where the users are direct Administrators or members of any group which is Administrator of the VO.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to VOs, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Vo>> getVosWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns Facilities, where the users are direct Administrators or members of any group which is Administrator of the Facility.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to Facilities, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Facility>> getFacilitiesWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
 	/**
 	 * Get all resources from the facility which have the user access on.
 	 *
@@ -1217,6 +1280,20 @@ public interface UsersManagerBl {
 	 */
 	List<RichUser> getAllRichUsersWithAttributes(PerunSession sess, boolean includedSpecificUsers, List<String> attrsNames) throws InternalErrorException, UserNotExistsException;
 
+	/**
+	 * Get one page of RichUsers with attributes specific for list of attrsNames.
+	 * Users are selected, ordered and filtered by the page query and only attributes of the users
+	 * on the page are loaded. If attrsNames is empty or null, all non-empty attributes are loaded.
+	 *
+	 * @param sess
+	 * @param query page query
+	 * @param includedSpecificUsers true if specific users should be included too
+	 * @param attrsNames list of attributes names
+	 * @return page of RichUsers with total count of users matching the query
+	 * @throws InternalErrorException
+	 */
+	Paginated<RichUser> getRichUsersWithAttributesPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers, List<String> attrsNames) throws InternalErrorException;
+
 	/**
 	 * Allow users to manually add login in supported namespace if same login is not reserved
 	 *
@@ -1412,4 +1489,15 @@ public interface UsersManagerBl {
 	 */
 	List<Group> getGroupsWhereUserIsActive(PerunSession sess, Facility facility, User user) throws InternalErrorException;
 
+	/**
+	 * Rebuild the user search index, which holds normalized names, emails and logins of users and is used
+	 * by findUsers, findUsersByExactMatch and findUsersByExactName (e.g. after direct modification of users,
+	 * their attributes or user ext sources in the DB).
+	 *
+	 * @param sess perun session
+	 * @return number of entries in the rebuilt index
+	 * @throws InternalErrorException
+	 */
+	int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException;
+
 }
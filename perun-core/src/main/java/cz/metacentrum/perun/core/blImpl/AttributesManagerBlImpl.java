@@ -67,6 +67,7 @@ import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichAttribute;
+import cz.metacentrum.perun.core.api.RichMember;
 import cz.metacentrum.perun.core.api.Role;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.User;
@@ -365,6 +366,120 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		return attributes;
 	}
 
+	@Override
+	public Map<Integer, List<Attribute>> getRichMembersAttributes(PerunSession sess, List<RichMember> richMembers, Resource resource, List<String> attrNames) throws InternalErrorException, MemberResourceMismatchException {
+		for (RichMember richMember : richMembers) {
+			this.checkMemberIsFromTheSameVoLikeResource(sess, richMember, resource);
+		}
+
+		Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+		if (attrNames.isEmpty()) {
+			for (RichMember richMember : richMembers) {
+				attributes.put(richMember.getId(), this.getAttributes(sess, richMember, resource, true));
+			}
+			return attributes;
+		}
+
+		List<String> userAndMemberAttributeNames = new ArrayList<>();
+		List<String> memberResourceAttributeNames = new ArrayList<>();
+		List<String> userFacilityAttributeNames = new ArrayList<>();
+		for (String attributeName : attrNames) {
+			if (attributeName.startsWith(AttributesManager.NS_USER_ATTR) || attributeName.startsWith(AttributesManager.NS_MEMBER_ATTR)) {
+				userAndMemberAttributeNames.add(attributeName);
+			} else if (attributeName.startsWith(AttributesManager.NS_MEMBER_RESOURCE_ATTR)) {
+				memberResourceAttributeNames.add(attributeName);
+			} else if (attributeName.startsWith(AttributesManager.NS_USER_FACILITY_ATTR)) {
+				userFacilityAttributeNames.add(attributeName);
+			} else {
+				log.warn("Attribute defined by {} is not in supported namespace. Skip it there!", attributeName);
+			}
+		}
+
+		List<Member> members = new ArrayList<>(richMembers);
+		List<User> users = new ArrayList<>();
+		for (RichMember richMember : richMembers) {
+			users.add(richMember.getUser());
+		}
+
+		Map<Integer, List<Attribute>> memberAttributes = null;
+		Map<Integer, List<Attribute>> userAttributes = null;
+		Map<Integer, List<Attribute>> memberResourceAttributes = null;
+		Map<Integer, List<Attribute>> userFacilityAttributes = null;
+		if (!userAndMemberAttributeNames.isEmpty()) {
+			memberAttributes = getAttributesManagerImpl().getMembersAttributes(sess, members, userAndMemberAttributeNames);
+			userAttributes = getAttributesManagerImpl().getUsersAttributes(sess, users, userAndMemberAttributeNames);
+		}
+		if (!memberResourceAttributeNames.isEmpty()) {
+			memberResourceAttributes = getAttributesManagerImpl().getMembersAttributes(sess, members, resource, memberResourceAttributeNames);
+		}
+		if (!userFacilityAttributeNames.isEmpty()) {
+			Facility facility = getPerunBl().getResourcesManagerBl().getFacility(sess, resource);
+			userFacilityAttributes = getAttributesManagerImpl().getUsersAttributes(sess, users, facility, userFacilityAttributeNames);
+		}
+
+		for (RichMember richMember : richMembers) {
+			List<Attribute> attributesOfMember = new ArrayList<>();
+			if (memberAttributes != null) {
+				attributesOfMember.addAll(memberAttributes.get(richMember.getId()));
+				attributesOfMember.addAll(userAttributes.get(richMember.getUser().getId()));
+			}
+			if (memberResourceAttributes != null) attributesOfMember.addAll(memberResourceAttributes.get(richMember.getId()));
+			if (userFacilityAttributes != null) attributesOfMember.addAll(userFacilityAttributes.get(richMember.getUser().getId()));
+			attributes.put(richMember.getId(), attributesOfMember);
+		}
+		return attributes;
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members) throws InternalErrorException {
+		//get virtual attributes and filter out the ones with null value
+		Map<Integer, List<Attribute>> attributes = getAttributesManagerImpl().getMembersVirtualAttributes(sess, members);
+		for (List<Attribute> attributesOfMember : attributes.values()) {
+			attributesOfMember.removeIf(attribute -> attribute.getValue() == null);
+		}
+
+		//adds non-empty non-virtual attributes
+		for (Map.Entry<Integer, List<Attribute>> entry : getAttributesManagerImpl().getMembersAttributes(sess, members).entrySet()) {
+			attributes.get(entry.getKey()).addAll(entry.getValue());
+		}
+		return attributes;
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException {
+		if (attrNames.isEmpty()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (Member member : members) attributes.put(member.getId(), new ArrayList<>());
+			return attributes;
+		}
+		return getAttributesManagerImpl().getMembersAttributes(sess, members, attrNames);
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users) throws InternalErrorException {
+		//get virtual attributes and filter out the ones with null value
+		Map<Integer, List<Attribute>> attributes = getAttributesManagerImpl().getUsersVirtualAttributes(sess, users);
+		for (List<Attribute> attributesOfUser : attributes.values()) {
+			attributesOfUser.removeIf(attribute -> attribute.getValue() == null);
+		}
+
+		//adds non-empty non-virtual attributes
+		for (Map.Entry<Integer, List<Attribute>> entry : getAttributesManagerImpl().getUsersAttributes(sess, users).entrySet()) {
+			attributes.get(entry.getKey()).addAll(entry.getValue());
+		}
+		return attributes;
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException {
+		if (attrNames.isEmpty()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (User user : users) attributes.put(user.getId(), new ArrayList<>());
+			return attributes;
+		}
+		return getAttributesManagerImpl().getUsersAttributes(sess, users, attrNames);
+	}
+
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Group group, Member member, Resource resource, List<String> attrNames, boolean workWithUserAttributes) throws InternalErrorException, MemberResourceMismatchException, GroupResourceMismatchException {
 		checkGroupIsFromTheSameVoLikeResource(sess, group, resource);
@@ -2969,6 +3084,14 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		return new HashMap<>();
 	}
 
+	@Override
+	public HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Group group, List<Member> members) throws InternalErrorException {
+		if (!members.isEmpty()) {
+			return attributesManagerImpl.getRequiredAttributes(sess, service, group, members);
+		}
+		return new HashMap<>();
+	}
+
 	@Override
 	public HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Facility facility, List<User> users) throws InternalErrorException {
 		if (!users.isEmpty()) {
@@ -3,6 +3,7 @@ package cz.metacentrum.perun.core.blImpl;
 import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.audit.events.StringMessageEvent;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.AuditMessagesListener;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.bl.AuditMessagesManagerBl;
@@ -10,8 +11,10 @@ import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.core.impl.Auditer;
 import cz.metacentrum.perun.core.implApi.AuditMessagesManagerImplApi;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AuditMessagesManager manages audit messages (logs). Implementation of Business Logic.
@@ -24,6 +27,9 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 	private PerunBl perunBl;
 	private AuditMessagesManagerImplApi auditMessagesManagerImpl;
 
+	// version of auditer log seen by consumers, when their last poll returned no messages
+	private final Map<String, Long> idleConsumers = new ConcurrentHashMap<>();
+
 	public void setAuditer(Auditer auditer) {
 		this.auditer = auditer;
 	}
@@ -78,6 +84,31 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 		return getAuditMessagesManagerImpl().pollConsumerEvents(perunSession, consumerName, lastProcessedId);
 	}
 
+	@Override
+	public List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException {
+		return waitForConsumer(consumerName, timeout, () -> getAuditMessagesManagerImpl().pollConsumerMessages(perunSession, consumerName));
+	}
+
+	@Override
+	public List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, int lastProcessedId, long timeout) throws InternalErrorException {
+		return waitForConsumer(consumerName + ":" + lastProcessedId, timeout, () -> getAuditMessagesManagerImpl().pollConsumerMessages(perunSession, consumerName, lastProcessedId));
+	}
+
+	@Override
+	public List<AuditEvent> waitForConsumerEvents(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException {
+		return waitForConsumer(consumerName, timeout, () -> getAuditMessagesManagerImpl().pollConsumerEvents(perunSession, consumerName));
+	}
+
+	@Override
+	public void addAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) {
+		getAuditer().addListener(listener);
+	}
+
+	@Override
+	public void removeAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) {
+		getAuditer().removeListener(listener);
+	}
+
 	@Override
 	public void createAuditerConsumer(PerunSession perunSession, String consumerName) throws InternalErrorException {
 		getAuditMessagesManagerImpl().createAuditerConsumer(perunSession, consumerName);
@@ -108,4 +139,57 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 		return getAuditMessagesManagerImpl().getAuditerMessagesCount(perunSession);
 	}
 
+	/**
+	 * Polls consumer for new messages. If there are none, waits for the signal from Auditer about newly
+	 * stored messages (or for the timeout) and polls again.
+	 *
+	 * DB is not queried at all, if consumer polled with empty result before and nothing was stored
+	 * by this instance since then. Poll after the timeout elapses is always performed, so messages stored
+	 * by other instances of Perun are delivered too.
+	 *
+	 * @param consumerKey key identifying consumer and its poll position
+	 * @param timeout maximum time to wait for new messages in milliseconds
+	 * @param poll poll of the consumer in DB
+	 * @param <T> type of polled items
+	 * @return polled items, empty list if there were no new items before the timeout
+	 */
+	private <T> List<T> waitForConsumer(String consumerKey, long timeout, ConsumerPoll<T> poll) throws InternalErrorException {
+		long version = getAuditer().getStoredMessagesVersion();
+		Long idleVersion = idleConsumers.get(consumerKey);
+
+		if (idleVersion == null || idleVersion != version) {
+			List<T> items = poll.poll();
+			if (!items.isEmpty()) {
+				idleConsumers.remove(consumerKey);
+				return items;
+			}
+			idleConsumers.put(consumerKey, version);
+		}
+
+		try {
+			version = getAuditer().awaitNewMessages(version, Math.max(0, timeout));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return new ArrayList<>();
+		}
+
+		List<T> items = poll.poll();
+		if (items.isEmpty()) {
+			idleConsumers.put(consumerKey, version);
+		} else {
+			idleConsumers.remove(consumerKey);
+		}
+		return items;
+	}
+
+	/**
+	 * Single poll of auditer consumer.
+	 *
+	 * @param <T> type of polled items
+	 */
+	@FunctionalInterface
+	private interface ConsumerPoll<T> {
+		List<T> poll() throws InternalErrorException;
+	}
+
 }
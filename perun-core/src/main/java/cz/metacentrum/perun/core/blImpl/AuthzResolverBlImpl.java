@@ -32,7 +32,6 @@ import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunClient;
-import cz.metacentrum.perun.core.api.PerunPolicy;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
@@ -67,6 +66,8 @@ import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.core.bl.VosManagerBl;
 import cz.metacentrum.perun.core.impl.AuthzResolverImpl;
 import cz.metacentrum.perun.core.impl.AuthzRoles;
+import cz.metacentrum.perun.core.impl.AuthzRolesCache;
+import cz.metacentrum.perun.core.impl.CompiledPolicy;
 import cz.metacentrum.perun.core.impl.Utils;
 import cz.metacentrum.perun.core.implApi.AuthzResolverImplApi;
 import org.slf4j.Logger;
@@ -97,6 +98,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	private static final String SET_ROLE = "SET";
 
 	private final static Set<String> extSourcesWithMultipleIdentifiers = BeansUtils.getCoreConfig().getExtSourcesMultipleIdentifiers();
+	private final static AuthzRolesCache authzRolesCache = new AuthzRolesCache(BeansUtils.getCoreConfig().getAuthzRolesCacheMaxAge() * 1000L);
 
 	/**
 	 * Prepare necessary structures and resolve access rights for the session's principal.
@@ -118,15 +120,12 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 			return false;
 		}
 
-		List<PerunPolicy> allPolicies = AuthzResolverImpl.fetchPolicyWithAllIncludedPolicies(policyDefinition);
-
-		List<Map<String, String>> policyRoles = new ArrayList<>();
-		for (PerunPolicy policy : allPolicies) policyRoles.addAll(policy.getPerunRoles());
+		CompiledPolicy policy = AuthzResolverImpl.getCompiledPolicy(policyDefinition);
 
 		//Fetch super objects like Vo for group etc.
 		Map <String, Set<Integer>> mapOfBeans = fetchAllRelatedObjects(objects);
 
-		return resolveAuthorization(sess, policyRoles, mapOfBeans);
+		return policy.isAuthorized(sess.getPerunPrincipal().getRoles(), mapOfBeans);
 	}
 
 	/**
@@ -1130,6 +1129,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	public static void makeUserPerunAdmin(PerunSession sess, User user) throws InternalErrorException {
 		getPerunBl().getAuditer().log(sess, new UserPromotedToPerunAdmin(user));
 		authzResolverImpl.makeUserPerunAdmin(sess, user);
+		authzRolesCache.invalidateUser(user.getId());
 	}
 
 	/**
@@ -1378,6 +1378,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 				throw new InternalErrorException("Unsupported operation. Only set and unset are correct. Operation: " + operation);
 		}
 
+		//Cached roles of the user or of all members of the authorized group are no longer valid
+		if (user != null) {
+			authzRolesCache.invalidateUser(user.getId());
+		} else {
+			invalidateRolesOfGroupMembers(sess, authorizedGroup);
+		}
+
 		//After set or unset role without exception, refresh authz if user in session is the same like user in parameter
 		if (user != null && sess.getPerunPrincipal() != null) {
 			if (user.getId() == sess.getPerunPrincipal().getUserId()) {
@@ -1682,7 +1689,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 *
 	 * @param sess perun session to refresh authz for
 	 */
-	public static synchronized void refreshAuthz(PerunSession sess) throws InternalErrorException {
+	public static void refreshAuthz(PerunSession sess) throws InternalErrorException {
 		Utils.checkPerunSession(sess);
 		log.trace("Refreshing authz roles for session {}.", sess);
 
@@ -1699,7 +1706,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 				roles = new AuthzRoles();
 			} else {
 				// Load all user's roles with all possible subgroups
-				roles = addAllSubgroupsToAuthzRoles(sess, authzResolverImpl.getRoles(user));
+				roles = loadUserRoles(sess, user);
 				// Add self role for the user
 				roles.putAuthzRole(Role.SELF, user);
 				// Add service user role
@@ -1736,7 +1743,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 *
 	 * @param sess Perun session to refresh data for
 	 */
-	public static synchronized void refreshSession(PerunSession sess) throws InternalErrorException {
+	public static void refreshSession(PerunSession sess) throws InternalErrorException {
 		Utils.checkPerunSession(sess);
 		log.trace("Refreshing session data for session {}.", sess);
 
@@ -1760,6 +1767,74 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 
 	}
 
+	/**
+	 * Load all roles of the user with all subgroups of administrated groups. Roles are taken from the shared cache,
+	 * if they are not cached, they are computed and stored to the cache.
+	 *
+	 * @param sess perun session
+	 * @param user user to load roles for
+	 * @return roles of the user, which can be modified by the caller
+	 */
+	private static AuthzRoles loadUserRoles(PerunSession sess, User user) throws InternalErrorException {
+		AuthzRoles roles = authzRolesCache.get(user.getId());
+		if (roles != null) return roles;
+
+		long version = authzRolesCache.getVersion();
+		long start = System.nanoTime();
+		roles = addAllSubgroupsToAuthzRoles(sess, authzResolverImpl.getRoles(user));
+		authzRolesCache.put(user.getId(), roles, version, System.nanoTime() - start);
+		return roles;
+	}
+
+	/**
+	 * Returns cache of roles of users shared by all sessions (e.g. to read its statistics).
+	 *
+	 * @return cache of roles of users
+	 */
+	public static AuthzRolesCache getAuthzRolesCache() {
+		return authzRolesCache;
+	}
+
+	/**
+	 * Removes cached roles of the user, e.g. when memberships of the user in authorized groups were changed.
+	 *
+	 * @param user user whose roles were changed
+	 */
+	static void invalidateUserRoles(User user) {
+		authzRolesCache.invalidateUser(user.getId());
+	}
+
+	/**
+	 * Removes cached roles of the user by id of the user.
+	 *
+	 * @param userId id of the user whose roles were changed
+	 */
+	static void invalidateUserRoles(int userId) {
+		authzRolesCache.invalidateUser(userId);
+	}
+
+	/**
+	 * Removes cached roles of all users, who have any role for the object, e.g. when the object is deleted
+	 * or when subgroups of the group were changed.
+	 *
+	 * @param object complementary object of roles
+	 */
+	static void invalidateRolesForObject(PerunBean object) {
+		authzRolesCache.invalidateObject(object);
+	}
+
+	/**
+	 * Removes cached roles of users of all members of the group (the group can be authorized group).
+	 *
+	 * @param sess perun session
+	 * @param group group
+	 */
+	private static void invalidateRolesOfGroupMembers(PerunSession sess, Group group) throws InternalErrorException {
+		for (Member member : getPerunBl().getGroupsManagerBl().getGroupMembers(sess, group)) {
+			authzRolesCache.invalidateUser(member.getUserId());
+		}
+	}
+
 	/**
 	 * For role GroupAdmin with association to "Group" add also all subgroups to authzRoles.
 	 * If authzRoles is null, return empty AuthzRoles.
@@ -1796,6 +1871,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 
 	public static void removeAllAuthzForVo(PerunSession sess, Vo vo) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForVo(sess, vo);
+		authzRolesCache.invalidateObject(vo);
 	}
 
 	static List<Vo> getVosForGroupInRole(PerunSession sess, Group group, String role) throws InternalErrorException {
@@ -1823,10 +1899,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		}
 		//remove all roles from the user
 		authzResolverImpl.removeAllUserAuthz(sess, user);
+		authzRolesCache.invalidateUser(user.getId());
+		authzRolesCache.invalidateObject(user);
 	}
 
 	static void removeAllSponsoredUserAuthz(PerunSession sess, User sponsoredUser) throws InternalErrorException {
 		authzResolverImpl.removeAllSponsoredUserAuthz(sess, sponsoredUser);
+		authzRolesCache.invalidateObject(sponsoredUser);
 	}
 
 	public static void removeAllAuthzForGroup(PerunSession sess, Group group) throws InternalErrorException {
@@ -1835,39 +1914,49 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 			getPerunBl().getVosManagerBl().handleGroupLostVoRole(sess, group, vo ,Role.SPONSOR);
 		}
 		//remove all roles from the group
+		invalidateRolesOfGroupMembers(sess, group);
 		authzResolverImpl.removeAllAuthzForGroup(sess, group);
+		authzRolesCache.invalidateObject(group);
 	}
 
 	public static void removeAllAuthzForFacility(PerunSession sess, Facility facility) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForFacility(sess, facility);
+		authzRolesCache.invalidateObject(facility);
 	}
 
 	public static void removeAllAuthzForResource(PerunSession sess, Resource resource) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForResource(sess, resource);
+		authzRolesCache.invalidateObject(resource);
 	}
 
 	public static void removeAllAuthzForService(PerunSession sess, Service service) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForService(sess, service);
+		authzRolesCache.invalidateObject(service);
 	}
 
 	public static void removeAllAuthzForSecurityTeam(PerunSession sess, SecurityTeam securityTeam) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForSecurityTeam(sess, securityTeam);
+		authzRolesCache.invalidateObject(securityTeam);
 	}
 
 	public static void addAdmin(PerunSession sess, SecurityTeam securityTeam, User user) throws InternalErrorException, AlreadyAdminException {
 		authzResolverImpl.addAdmin(sess, securityTeam, user);
+		authzRolesCache.invalidateUser(user.getId());
 	}
 
 	public static void addAdmin(PerunSession sess, SecurityTeam securityTeam, Group group) throws InternalErrorException, AlreadyAdminException {
 		authzResolverImpl.addAdmin(sess, securityTeam, group);
+		invalidateRolesOfGroupMembers(sess, group);
 	}
 
 	public static void removeAdmin(PerunSession sess, SecurityTeam securityTeam, User user) throws InternalErrorException, UserNotAdminException {
 		authzResolverImpl.removeAdmin(sess, securityTeam, user);
+		authzRolesCache.invalidateUser(user.getId());
 	}
 
 	public static void removeAdmin(PerunSession sess, SecurityTeam securityTeam, Group group) throws InternalErrorException, GroupNotAdminException {
 		authzResolverImpl.removeAdmin(sess, securityTeam, group);
+		invalidateRolesOfGroupMembers(sess, group);
 	}
 
 	public static boolean roleExists(String role) {
@@ -1966,66 +2055,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		}
 	}
 
-	/**
-	 * Decide whether a principal has sufficient rights according the the given roles and objects.
-	 *
-	 * @param sess perunSession which contains the principal.
-	 * @param policyRoles is a list of maps where each map entry consists from a role name as a key and a role object as a value.
-	 *                    Relation between each map in the list is logical OR and relation between each entry in the map is logical AND.
-	 *                    Example list - (Map1, Map2...)
-	 *                    Example map - key: VOADMIN ; value: Vo
-	 *                                 key: GROUPADMIN ; value: Group
-	 * @param mapOfBeans is a map of objects against which will be authorization done.
-	 *                    Example map entry - key: Member ; values: (10,15,26)
-	 * @return true if the principal has particular rights, false otherwise.
-	 */
-	private static boolean resolveAuthorization(PerunSession sess, List<Map<String, String>> policyRoles, Map <String, Set<Integer>> mapOfBeans) {
-		//Traverse through outer role list which works like logical OR
-		for (Map<String, String> roleArray: policyRoles) {
-
-			boolean authorized = true;
-			//Traverse through inner role list which works like logical AND
-			Set<String> roleArrayKeys = roleArray.keySet();
-			for (String role : roleArrayKeys) {
-
-				//fetch the object which is connected with the role
-				String roleObject = roleArray.get(role);
-
-				// If policy role is not connected to any object
-				if (roleObject == null) {
-					//If principal does not have the role, this inner list's result is false
-					if (!sess.getPerunPrincipal().getRoles().hasRole(role)) authorized = false;
-				//If there is no corresponding type of object in the perunBeans map
-				} else if (!mapOfBeans.containsKey(roleObject)) {
-					authorized = false;
-				// If policy role is connected to some object, like VOADMIN->Vo
-				} else {
-					//traverse all related objects from perun which are relevant for the authorized method
-					for (Integer objectId : mapOfBeans.get(roleObject)) {
-						//If the principal does not have rights on role-object, this inner list's result is false
-						if (!sess.getPerunPrincipal().getRoles().hasRole(role, roleObject, objectId)) {
-							authorized = false;
-							break;
-						}
-					}
-				}
-				//Some inner role check failed so jump out of the while loop
-				if (!authorized) break;
-			}
-			// If all checks for inner role list pass, return true. Otherwise proceed to another inner role list
-			if (authorized) return true;
-		}
-		//If no check passed, return false. The principal doesn't have sufficient rights.
-		return false;
-	}
-
 	/**
 	 * Fetch all possible PerunBeans for each of the objects from the list according to the id of the bean in the object.
 	 *
 	 * @param objects for which will be related objects fetched.
 	 * @return all related objects together with the objects from the input as a map of PerunBean names and ids.
 	 */
-	private static Map<String, Set<Integer>> fetchAllRelatedObjects(List<PerunBean> objects) {
+	private static Map<String, Set<Integer>> fetchAllRelatedObjects(List<? extends PerunBean> objects) {
 		if (objects == null) throw new InternalErrorException("A list of PerunBeans, used in authorization evaluation, cannot be null.");
 		List<PerunBean> relatedObjects = new ArrayList<>();
 		//Create a map from objects for easier manipulation and duplicity prevention
@@ -99,10 +99,12 @@ import cz.metacentrum.perun.core.api.exceptions.WrongAttributeValueException;
 import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueException;
 import cz.metacentrum.perun.core.bl.GroupsManagerBl;
 import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.core.impl.GroupSynchronizationMetrics;
 import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 import cz.metacentrum.perun.core.impl.SynchronizationPool;
 import cz.metacentrum.perun.core.impl.Utils;
 import cz.metacentrum.perun.core.implApi.ExtSourceApi;
+import cz.metacentrum.perun.core.implApi.ExtSourceChangesApi;
 import cz.metacentrum.perun.core.implApi.ExtSourceSimpleApi;
 import cz.metacentrum.perun.core.implApi.GroupsManagerImplApi;
 import cz.metacentrum.perun.core.implApi.modules.attributes.AbstractMembershipExpirationRulesModule;
@@ -118,9 +120,11 @@ import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -128,10 +132,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -151,7 +158,10 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	private final GroupsManagerImplApi groupsManagerImpl;
 	private PerunBl perunBl;
 	private final Integer maxConcurentGroupsToSynchronize;
-	private final ArrayList<GroupSynchronizerThread> groupSynchronizerThreads;
+	private final ExecutorService groupSynchronizationExecutor;
+	// time in seconds to wait for group synchronization workers to stop
+	private static final long GROUP_SYNCHRONIZATION_SHUTDOWN_TIMEOUT = 30;
+	private final List<GroupSynchronizationWorker> groupSynchronizationWorkers;
 	private final ArrayList<GroupStructureSynchronizerThread> groupStructureSynchronizerThreads;
 	private static final String A_G_D_AUTHORITATIVE_GROUP = AttributesManager.NS_GROUP_ATTR_DEF + ":authoritativeGroup";
 	private static final String A_G_D_EXPIRATION_RULES = AttributesManager.NS_GROUP_ATTR_DEF + ":groupMembershipExpirationRules";
@@ -161,6 +171,10 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 	private final Integer maxConcurrentGroupsStructuresToSynchronize;
 	private final SynchronizationPool poolOfSynchronizations;
+	// group id -> subjects of the group known from the last synchronization, used by incremental synchronization
+	private final Map<Integer, GroupSubjectsState> groupsSubjectsStates = new ConcurrentHashMap<>();
+	// subjects changed this time before the start of the previous synchronization are processed again (difference of clocks)
+	private static final long INCREMENTAL_SYNCHRONIZATION_OVERLAP = 5 * 60 * 1000;
 
 	public static final String PARENT_GROUP_NAME = "parentGroupName";
 	public static final String GROUP_NAME = "groupName";
@@ -172,9 +186,10 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 */
 	public GroupsManagerBlImpl(GroupsManagerImplApi groupsManagerImpl) {
 		this.groupsManagerImpl = groupsManagerImpl;
-		this.groupSynchronizerThreads = new ArrayList<>();
+		this.groupSynchronizationExecutor = Executors.newCachedThreadPool();
+		this.groupSynchronizationWorkers = new ArrayList<>();
 		this.groupStructureSynchronizerThreads = new ArrayList<>();
-		this.poolOfSynchronizations = new SynchronizationPool();
+		this.poolOfSynchronizations = new SynchronizationPool(BeansUtils.getCoreConfig().getGroupMaxConcurrentGroupsToSynchronizePerExtSource());
 		//set maximum concurrent groups to synchronize by property
 		this.maxConcurentGroupsToSynchronize = BeansUtils.getCoreConfig().getGroupMaxConcurentGroupsToSynchronize();
 		this.maxConcurrentGroupsStructuresToSynchronize = BeansUtils.getCoreConfig().getGroupMaxConcurrentGroupsStructuresToSynchronize();
@@ -217,6 +232,9 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 			throw new ConsistencyErrorException("Database consistency error while creating group: {}",e);
 		}
 
+		// admins of the parent group are also admins of the new subgroup
+		AuthzResolverBlImpl.invalidateRolesForObject(parentGroup);
+
 		getPerunBl().getAuditer().log(sess, new GroupCreatedAsSubgroup(group, vo, parentGroup));
 
 		return group;
@@ -440,6 +458,13 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 		// Deletes also all direct and indirect members of the group
 		getGroupsManagerImpl().deleteGroup(sess, vo, group);
+		groupsSubjectsStates.remove(group.getId());
+
+		// group could be authorized group of its members or subgroup of groups administrated by some users
+		AuthzResolverBlImpl.invalidateRolesForObject(group);
+		for (Member member : membersFromDeletedGroup) {
+			AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
+		}
 
 		logTotallyRemovedMembers(sess, group.getParentGroupId(), membersFromDeletedGroup);
 
@@ -626,6 +651,9 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 				throw new GroupMoveNotAllowedException("Groups are not from same VO. Moving group: " + movingGroup + " has VO:" + movingGroup.getVoId() + " and destination group: " + destinationGroup + " has VO:" + movingGroup.getVoId() + ".", movingGroup, destinationGroup);
 			}
 
+			// following checks use closures of groups, they must not be changed by another transaction until the group is moved
+			groupsManagerImpl.lockGroupsClosure(sess, movingGroup.getVoId());
+
 			// check if moving group is the same as destination group
 			if (destinationGroup.getId() == movingGroup.getId()) {
 				throw new GroupMoveNotAllowedException("Moving group: " + movingGroup + " cannot be the same as destination group: " + destinationGroup + ".", movingGroup, destinationGroup);
@@ -736,16 +764,15 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		// And finally update parentGroupId for moving group in database
 		this.updateParentGroupId(sess, movingGroup);
 
-		List<Member> movingGroupMembers = getGroupMembers(sess, movingGroup);
-
-		for(Member member : movingGroupMembers) {
-			if (previousParent != null) {
-
-				// calculate new member-group statuses for members from previous moving group parent
-				recalculateMemberGroupStatusRecursively(sess, member, previousParent);
-			}
+		if (previousParent != null) {
+			// calculate new member-group statuses for members from previous moving group parent
+			recalculateMemberGroupStatusRecursively(sess, getGroupMembers(sess, movingGroup), previousParent);
 		}
 
+		// administrated subgroups of admins of previous and new parent groups were changed
+		AuthzResolverBlImpl.invalidateRolesForObject(movingGroup);
+		if (destinationGroup != null) AuthzResolverBlImpl.invalidateRolesForObject(destinationGroup);
+
 		getPerunBl().getAuditer().log(sess, new GroupMoved(movingGroup));
 	}
 
@@ -807,28 +834,20 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 	@Override
 	public void addMembers(PerunSession sess, Group group,  List<Member> members) throws InternalErrorException, AlreadyMemberException, WrongAttributeValueException, WrongReferenceAttributeValueException, GroupNotExistsException {
-		Collections.sort(members);
-		for (Member member : members) {
-			// Check if the group is NOT members or administrators group
-			if (group.getName().equals(VosManager.MEMBERS_GROUP)) {
-				throw new InternalErrorException("Cannot add member directly to the members group.");
-			} else {
-				this.addDirectMember(sess, group, member);
-			}
+		if (members.isEmpty()) return;
+		// Check if the group is NOT members or administrators group
+		if (group.getName().equals(VosManager.MEMBERS_GROUP)) {
+			throw new InternalErrorException("Cannot add member directly to the members group.");
 		}
+		Collections.sort(members);
+		this.addDirectMembers(sess, group, members);
 	}
 
 
 	private List<Group> getParentGroups(PerunSession sess, Group group)throws InternalErrorException {
 		if(group == null) return new ArrayList<>();
-		try {
-			if (group.getParentGroupId() == null) return new ArrayList<>();
-			List<Group> groups = getParentGroups(sess,getGroupById(sess,group.getParentGroupId()));
-			groups.add(getGroupById(sess, group.getParentGroupId()));
-			return groups;
-		} catch(GroupNotExistsException ex) {
-			throw new ConsistencyErrorException(ex);
-		}
+		if (group.getParentGroupId() == null) return new ArrayList<>();
+		return getGroupsManagerImpl().getAllParentGroups(sess, group);
 	}
 
 	/**
@@ -844,36 +863,60 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 * @throws GroupNotExistsException
 	 */
 	protected void addDirectMember(PerunSession sess, Group group, Member member) throws InternalErrorException, AlreadyMemberException, WrongAttributeValueException, WrongReferenceAttributeValueException, GroupNotExistsException {
+		addDirectMembers(sess, group, Collections.singletonList(member));
+	}
 
-		lockGroupMembership(group, Collections.singletonList(member));
+	/**
+	 * Add records of the members with a DIRECT membership type to the group.
+	 * Changes are propagated to all result groups of relations together for all members.
+	 *
+	 * @param sess perun session
+	 * @param group group to add members to
+	 * @param members members to be added as DIRECT
+	 * @throws InternalErrorException
+	 * @throws AlreadyMemberException
+	 * @throws WrongAttributeValueException
+	 * @throws WrongReferenceAttributeValueException
+	 * @throws GroupNotExistsException
+	 */
+	protected void addDirectMembers(PerunSession sess, Group group, List<Member> members) throws InternalErrorException, AlreadyMemberException, WrongAttributeValueException, WrongReferenceAttributeValueException, GroupNotExistsException {
 
-		if(this.groupsManagerImpl.isDirectGroupMember(sess, group, member)) throw new AlreadyMemberException(member);
+		lockGroupMembership(group, new ArrayList<>(members));
 
-		boolean memberWasIndirectInGroup = this.isGroupMember(sess, group, member);
+		// members which were (indirect) members of the group before
+		Set<Integer> oldMembersIds = groupsManagerImpl.getTotalMemberGroupStatuses(sess, group, members).keySet();
 
-		member = getGroupsManagerImpl().addMember(sess, group, member, MembershipType.DIRECT, group.getId());
-		getPerunBl().getAuditer().log(sess, new DirectMemberAddedToGroup(member, group));
+		List<Member> newMembers = new ArrayList<>();
+		for (Member member : members) {
+			if(this.groupsManagerImpl.isDirectGroupMember(sess, group, member)) throw new AlreadyMemberException(member);
 
-		//If member was indirect in group before, we don't need to change anything in other groups
-		if(memberWasIndirectInGroup) return;
-		// check all relations with this group and call addRelationMembers to reflect changes of adding member to group
-		List<Integer> relations = groupsManagerImpl.getResultGroupsIds(sess, group.getId());
-		for (Integer groupId : relations) {
-			addRelationMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), Collections.singletonList(member), group.getId());
+			member = getGroupsManagerImpl().addMember(sess, group, member, MembershipType.DIRECT, group.getId());
+			AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
+			getPerunBl().getAuditer().log(sess, new DirectMemberAddedToGroup(member, group));
+
+			//If member was indirect in group before, we don't need to change anything in other groups
+			if(!oldMembersIds.contains(member.getId())) newMembers.add(member);
 		}
-		setRequiredAttributes(sess, member, group);
+		if (newMembers.isEmpty()) return;
 
-		// try to set init expiration
-		try {
-			extendMembershipInGroup(sess, member, group);
-		} catch (ExtendMembershipException e) {
-			throw new InternalErrorException("Failed to set initial member-group expiration date.");
+		// reflect changes of adding members to group in all relations with this group
+		addRelationMembersToResultGroups(sess, group, newMembers);
+
+		for (Member member : newMembers) {
+			setRequiredAttributes(sess, member, group);
+
+			// try to set init expiration
+			try {
+				extendMembershipInGroup(sess, member, group);
+			} catch (ExtendMembershipException e) {
+				throw new InternalErrorException("Failed to set initial member-group expiration date.");
+			}
 		}
 
 		if (!VosManager.MEMBERS_GROUP.equals(group.getName())) {
 
 			// recalculate member group state
-			recalculateMemberGroupStatusRecursively(sess, member, group);
+			recalculateMemberGroupStatusRecursively(sess, newMembers, group);
 		}
 	}
 
@@ -882,34 +925,38 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 *
 	 * @param sess perun session
 	 * @param group group to add members to
-	 * @param members list of members to add as INDIRECT
-	 * @param sourceGroupId id of a group from which members originate
+	 * @param membersBySourceGroup members to add as INDIRECT mapped by ids of groups from which they originate
 	 * @return list of members that were not members already
 	 * @throws InternalErrorException
 	 * @throws AlreadyMemberException
 	 * @throws WrongAttributeValueException
 	 * @throws WrongReferenceAttributeValueException
 	 */
-	protected List<Member> addIndirectMembers(PerunSession sess, Group group, List<Member> members, int sourceGroupId) throws InternalErrorException, AlreadyMemberException, WrongAttributeValueException, WrongReferenceAttributeValueException {
-		// save list of old group members
-		List<Member> oldMembers = this.getGroupMembers(sess, group);
-		List<Member> membersToAdd = new ArrayList<>(members);
+	protected List<Member> addIndirectMembers(PerunSession sess, Group group, Map<Integer, List<Member>> membersBySourceGroup) throws InternalErrorException, AlreadyMemberException, WrongAttributeValueException, WrongReferenceAttributeValueException {
+		List<Member> members = getDistinctMembers(membersBySourceGroup.values());
+
+		lockGroupMembership(group, new ArrayList<>(members));
 
-		lockGroupMembership(group, members);
+		// save ids of old group members
+		Set<Integer> oldMembersIds = groupsManagerImpl.getTotalMemberGroupStatuses(sess, group, members).keySet();
 
-		for (Member member : membersToAdd) {
-			groupsManagerImpl.addMember(sess, group, member, MembershipType.INDIRECT, sourceGroupId);
+		for (Map.Entry<Integer, List<Member>> sourceGroupMembers : membersBySourceGroup.entrySet()) {
+			groupsManagerImpl.addMembers(sess, group, sourceGroupMembers.getValue(), MembershipType.INDIRECT, sourceGroupMembers.getKey());
 		}
 
 		// select only newly added members
-		membersToAdd.removeAll(oldMembers);
+		List<Member> newMembers = new ArrayList<>();
+		for (Member member : members) {
+			AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
+			if (!oldMembersIds.contains(member.getId())) newMembers.add(member);
+		}
 
-		for (Member member : membersToAdd) {
+		for (Member member : newMembers) {
 			setRequiredAttributes(sess, member, group);
 			getPerunBl().getAuditer().log(sess, new IndirectMemberAddedToGroup(member, group));
 		}
 
-		return membersToAdd;
+		return newMembers;
 	}
 
 	/**
@@ -941,24 +988,26 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 *
 	 * @param sess perun session
 	 * @param group group to remove records of INDIRECT members from
-	 * @param members list of members to remove
-	 * @param sourceGroupId id of a group from which members originate
+	 * @param membersBySourceGroup members to remove mapped by ids of groups from which they originate
 	 * @return list of members that were removed (their only record in the group was deleted)
 	 */
-	private List<Member> removeIndirectMembers(PerunSession sess, Group group, List<Member> members, int sourceGroupId) throws InternalErrorException, WrongAttributeValueException, WrongReferenceAttributeValueException, NotGroupMemberException {
-		List<Member> membersToRemove = new ArrayList<>(members);
+	private List<Member> removeIndirectMembers(PerunSession sess, Group group, Map<Integer, List<Member>> membersBySourceGroup) throws InternalErrorException, WrongAttributeValueException, WrongReferenceAttributeValueException, NotGroupMemberException {
+		List<Member> members = getDistinctMembers(membersBySourceGroup.values());
 
-		lockGroupMembership(group, membersToRemove);
+		lockGroupMembership(group, new ArrayList<>(members));
 
-		for (Member member: membersToRemove) {
-			member.setSourceGroupId(sourceGroupId);
-			groupsManagerImpl.removeMember(sess, group, member);
+		for (Map.Entry<Integer, List<Member>> sourceGroupMembers : membersBySourceGroup.entrySet()) {
+			groupsManagerImpl.removeMembers(sess, group, sourceGroupMembers.getValue(), sourceGroupMembers.getKey());
 		}
 
-		// get list of new members
-		List<Member> newMembers = this.getGroupMembers(sess, group);
+		// get ids of remaining members
+		Set<Integer> remainingMembersIds = groupsManagerImpl.getTotalMemberGroupStatuses(sess, group, members).keySet();
 		// get only removed members
-		membersToRemove.removeAll(newMembers);
+		List<Member> membersToRemove = new ArrayList<>();
+		for (Member member : members) {
+			AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
+			if (!remainingMembersIds.contains(member.getId())) membersToRemove.add(member);
+		}
 
 		for(Member removedIndirectMember: membersToRemove) {
 			addMemberToGroupsFromTriggerAttribute(sess, group, removedIndirectMember);
@@ -990,14 +1039,12 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		// Check if the group is NOT members or administrators group
 		if (group.getName().equals(VosManager.MEMBERS_GROUP)) {
 			throw new InternalErrorException("Cannot remove member directly from the members group.");
-		} else {
+		} else if (!members.isEmpty()) {
 			Collections.sort(members);
-			for (Member member : members) {
-				try {
-					this.removeDirectMember(sess, group, member);
-				} catch (WrongAttributeValueException | WrongReferenceAttributeValueException ex){
-					throw new InternalErrorException(ex);
-				}
+			try {
+				this.removeDirectMembers(sess, group, members);
+			} catch (WrongAttributeValueException | WrongReferenceAttributeValueException ex){
+				throw new InternalErrorException(ex);
 			}
 		}
 	}
@@ -1031,34 +1078,50 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	}
 
 	private void removeDirectMember(PerunSession sess, Group group, Member member) throws InternalErrorException, NotGroupMemberException, GroupNotExistsException, WrongAttributeValueException, WrongReferenceAttributeValueException {
+		removeDirectMembers(sess, group, Collections.singletonList(member));
+	}
 
-		lockGroupMembership(group, Collections.singletonList(member));
+	/**
+	 * Remove records of the members with a DIRECT membership type from the group.
+	 * Changes are propagated to all result groups of relations together for all members.
+	 *
+	 * @param sess perun session
+	 * @param group group to remove members from
+	 * @param members members to be removed
+	 */
+	private void removeDirectMembers(PerunSession sess, Group group, List<Member> members) throws InternalErrorException, NotGroupMemberException, GroupNotExistsException, WrongAttributeValueException, WrongReferenceAttributeValueException {
 
-		member.setSourceGroupId(group.getId());
-		getGroupsManagerImpl().removeMember(sess, group, member);
-		if (this.getGroupsManagerImpl().isGroupMember(sess, group, member)) {
-			getPerunBl().getAuditer().log(sess, new DirectMemberRemovedFromGroup(member, group));
-			//If member was indirect in group before, we don't need to change anything in other groups
-			return;
-		} else {
-			notifyMemberRemovalFromGroup(sess, group, member);
-			//remove all member-group attributes because member is not part of group any more
-			getPerunBl().getAttributesManagerBl().removeAllAttributes(sess, member, group);
-			getPerunBl().getAuditer().log(sess, new MemberRemovedFromGroupTotally(member, group));
-		}
+		lockGroupMembership(group, new ArrayList<>(members));
 
-		// check all relations with this group and call removeRelationMembers to reflect changes of removing member from group
-		List<Integer> relations = groupsManagerImpl.getResultGroupsIds(sess, group.getId());
-		for (Integer groupId : relations) {
-			removeRelationMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), Collections.singletonList(member), group.getId());
+		List<Member> removedMembers = new ArrayList<>();
+		for (Member member : members) {
+			member.setSourceGroupId(group.getId());
+			getGroupsManagerImpl().removeMember(sess, group, member);
+			AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
+			if (this.getGroupsManagerImpl().isGroupMember(sess, group, member)) {
+				getPerunBl().getAuditer().log(sess, new DirectMemberRemovedFromGroup(member, group));
+				//If member was indirect in group before, we don't need to change anything in other groups
+			} else {
+				notifyMemberRemovalFromGroup(sess, group, member);
+				//remove all member-group attributes because member is not part of group any more
+				getPerunBl().getAttributesManagerBl().removeAllAttributes(sess, member, group);
+				getPerunBl().getAuditer().log(sess, new MemberRemovedFromGroupTotally(member, group));
+				removedMembers.add(member);
+			}
 		}
+		if (removedMembers.isEmpty()) return;
+
+		// reflect changes of removing members from group in all relations with this group
+		removeRelationMembersFromResultGroups(sess, group, removedMembers);
 
 		if (!VosManager.MEMBERS_GROUP.equals(group.getName())) {
-			recalculateMemberGroupStatusRecursively(sess, member, group);
+			recalculateMemberGroupStatusRecursively(sess, removedMembers, group);
 		}
 
-		if (!getGroupsManagerImpl().isGroupMember(sess, group, member)) {
-			addMemberToGroupsFromTriggerAttribute(sess, group, member);
+		for (Member member : removedMembers) {
+			if (!getGroupsManagerImpl().isGroupMember(sess, group, member)) {
+				addMemberToGroupsFromTriggerAttribute(sess, group, member);
+			}
 		}
 	}
 
@@ -1429,12 +1492,7 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 	@Override
 	public List<Group> getAllSubGroups(PerunSession sess, Group parentGroup) throws InternalErrorException {
-		Queue<Group> groupsInQueue = new ConcurrentLinkedQueue<>(getGroupsManagerImpl().getSubGroups(sess, parentGroup));
-		List<Group> allSubGroups = new ArrayList<>();
-		while(groupsInQueue.peek() != null) {
-			groupsInQueue.addAll(getGroupsManagerImpl().getSubGroups(sess, groupsInQueue.peek()));
-			allSubGroups.add(groupsInQueue.poll());
-		}
+		List<Group> allSubGroups = getGroupsManagerImpl().getAllSubGroups(sess, parentGroup);
 
 		// Sort
 		Collections.sort(allSubGroups);
@@ -1556,6 +1614,14 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		return groups;
 	}
 
+	@Override
+	public Map<Integer, List<Group>> getAllGroupsWhereMembersAreActive(PerunSession sess, List<Member> members) throws InternalErrorException {
+		Map<Integer, List<Group>> groups = getGroupsManagerImpl().getAllGroupsWhereMembersAreActive(sess, members);
+		// Sort
+		for (List<Group> groupsOfMember : groups.values()) Collections.sort(groupsOfMember);
+		return groups;
+	}
+
 	@Override
 	public List<Member> getParentGroupMembers(PerunSession sess, Group group) throws InternalErrorException {
 		try {
@@ -1641,15 +1707,34 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 			//get all direct members of synchronized group (only direct, because we want to set direct membership with this group by synchronization)
 			List<RichMember> actualGroupMembers = getPerunBl().getGroupsManagerBl().getGroupDirectRichMembers(sess, group);
 
+			//State of subjects after this synchronization, if the extSource supports incremental synchronization
+			GroupSubjectsState subjectsState = null;
+
 			if(lightweightSynchronization) {
 				categorizeMembersForLightweightSynchronization(sess, group, source, membersSource, actualGroupMembers, candidatesToAdd, membersToRemove, skippedMembers);
 			} else {
-				//Get subjects from extSource
-				List<Map<String, String>> subjects = getSubjectsFromExtSource(sess, source, group);
-				//Convert subjects to candidates
-				List<Candidate> candidates = convertSubjectsToCandidates(sess, subjects, membersSource, source, actualGroupMembers, skippedMembers);
+				Map<String, String> groupAttributesMap = getGroupAttributesForSynchronization(sess, group);
+				//Previous state is valid only for the one following synchronization, it is not kept if this one fails
+				GroupSubjectsState previousState = groupsSubjectsStates.remove(group.getId());
+				subjectsState = getSubjectsChangesFromExtSource(group, source, membersSource, groupAttributesMap, previousState);
+
+				if (subjectsState == null) {
+					//Get subjects from extSource
+					List<Map<String, String>> subjects = getSubjectsFromExtSource(source, group, groupAttributesMap);
+					//Convert subjects to candidates
+					List<Candidate> candidates = convertSubjectsToCandidates(sess, subjects, membersSource, source, actualGroupMembers, skippedMembers);
+
+					categorizeMembersForSynchronization(sess, actualGroupMembers, candidates, candidatesToAdd, membersToUpdate, membersToRemove);
+				} else {
+					//Convert only changed and new subjects to candidates
+					List<Candidate> candidates = convertSubjectsToCandidates(sess, subjectsState.getChangedSubjects(), membersSource, source, actualGroupMembers, skippedMembers);
 
-				categorizeMembersForSynchronization(sess, actualGroupMembers, candidates, candidatesToAdd, membersToUpdate, membersToRemove);
+					if (subjectsState.isFull()) {
+						categorizeMembersForSynchronization(sess, actualGroupMembers, candidates, candidatesToAdd, membersToUpdate, membersToRemove);
+					} else {
+						categorizeMembersForIncrementalSynchronization(actualGroupMembers, candidates, subjectsState.getRemovedLogins(), membersSource, candidatesToAdd, membersToUpdate, membersToRemove);
+					}
+				}
 			}
 
 			//Update members already presented in group
@@ -1664,6 +1749,11 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 			long endTime = System.nanoTime();
 			getPerunBl().getAuditer().log(sess,new GroupSyncFinished(group, startTime, endTime));
 			log.info("Group synchronization for {} has been finished.", group);
+
+			if (subjectsState != null) {
+				subjectsState.forgetChanges();
+				groupsSubjectsStates.put(group.getId(), subjectsState);
+			}
 		} finally {
 			closeExtSourcesAfterSynchronization(membersSource, source);
 		}
@@ -1718,7 +1808,9 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	@Override
 	public void forceGroupSynchronization(PerunSession sess, Group group) throws GroupSynchronizationAlreadyRunningException, InternalErrorException {
 		//Check if the group is not currently in synchronization process
-		if(poolOfSynchronizations.putGroupToPoolOfWaitingGroups(group, true)) {
+		if(poolOfSynchronizations.putGroupToPoolOfWaitingGroups(group, getGroupExtSourceName(sess, group), true)) {
+			//Forced synchronization always processes all subjects of the group
+			groupsSubjectsStates.remove(group.getId());
 			log.debug("Scheduling synchronization for the group {} by force!", group);
 		} else {
 			throw new GroupSynchronizationAlreadyRunningException(group);
@@ -1726,10 +1818,13 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	}
 
 	/**
-	 * Start and check threads with synchronization of groups. (max threads is defined by constant)
+	 * Start and check workers with synchronization of groups. (max workers is defined by constant)
 	 * It also add new groups to the queue.
 	 * This method is run by the scheduler every 5 minutes.
 	 *
+	 * Workers take groups from the pool as soon as they are added, so this method only replaces workers,
+	 * which were interrupted or exceeded the timeout.
+	 *
 	 * Note: this method is synchronized
 	 *
 	 * @throws InternalErrorException
@@ -1744,42 +1839,46 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 		LocalDateTime localDateTime = new Timestamp(millisecondsFromEpoch).toLocalDateTime();
 
-		int numberOfNewlyRemovedThreads = 0;
-		// Firstly interrupt threads after timeout, then remove all interrupted threads
-		Iterator<GroupSynchronizerThread> threadIterator = groupSynchronizerThreads.iterator();
-		while(threadIterator.hasNext()) {
-			GroupSynchronizerThread thread = threadIterator.next();
-
-			long threadStart = thread.getStartTime();
-			long timeDiff = System.currentTimeMillis() - threadStart;
-
-			//If thread was interrupted by anything, remove it from the pool of active threads
-			if (thread.isInterrupted() || !thread.isAlive()) {
-				numberOfNewlyRemovedThreads++;
-				threadIterator.remove();
-			} else if (threadStart != 0 && timeDiff/1000/60 > timeout) {
-				//If thread start time is 0, this thread is waiting for another job, skip it
-				// If the time is greater than timeout set in the configuration file (in minutes), interrupt and remove this thread from pool
-				log.error("Thread was interrupted while synchronizing the group {} because of timeout!", thread.getGroup());
-				thread.interrupt();
-				threadIterator.remove();
-				numberOfNewlyRemovedThreads++;
+		int numberOfNewlyRemovedWorkers = 0;
+		// Firstly cancel workers after timeout, then remove all finished workers
+		Iterator<GroupSynchronizationWorker> workerIterator = groupSynchronizationWorkers.iterator();
+		while(workerIterator.hasNext()) {
+			GroupSynchronizationWorker worker = workerIterator.next();
+
+			long workerStart = worker.getStartTime();
+			long timeDiff = System.currentTimeMillis() - workerStart;
+
+			//If worker was interrupted by anything, remove it from the pool of active workers
+			if (worker.isDone()) {
+				numberOfNewlyRemovedWorkers++;
+				workerIterator.remove();
+			} else if (workerStart != 0 && timeDiff/1000/60 > timeout) {
+				//If worker start time is 0, this worker is waiting for another job, skip it
+				// If the time is greater than timeout set in the configuration file (in minutes), interrupt and remove this worker from pool
+				log.error("Worker was interrupted while synchronizing the group {} because of timeout!", worker.getGroup());
+				worker.cancel();
+				workerIterator.remove();
+				numberOfNewlyRemovedWorkers++;
 			}
 		}
 
-		int numberOfNewlyCreatedThreads = 0;
-		// Start new threads if there is place for them
-		while(groupSynchronizerThreads.size() < maxConcurentGroupsToSynchronize) {
-			GroupSynchronizerThread thread = new GroupSynchronizerThread(sess);
-			thread.start();
-			groupSynchronizerThreads.add(thread);
-			numberOfNewlyCreatedThreads++;
-			log.debug("New thread for synchronization started.");
+		int numberOfNewlyCreatedWorkers = 0;
+		// Start new workers if there is place for them
+		while(groupSynchronizationWorkers.size() < maxConcurentGroupsToSynchronize) {
+			GroupSynchronizationWorker worker = new GroupSynchronizationWorker(sess);
+			worker.start();
+			groupSynchronizationWorkers.add(worker);
+			numberOfNewlyCreatedWorkers++;
+			log.debug("New worker for synchronization started.");
 		}
 
 		// Get the groups with synchronization enabled
 		List<Group> groups = groupsManagerImpl.getGroupsToSynchronize(sess);
-		List<Group> timeCompliantGroups = new ArrayList<>();
+		Map<Group, String> timeCompliantGroups = new LinkedHashMap<>();
+
+		// Forget subjects of groups which are no longer synchronized (synchronization disabled or group deleted)
+		Set<Integer> synchronizedGroupsIds = groups.stream().map(Group::getId).collect(Collectors.toSet());
+		groupsSubjectsStates.keySet().retainAll(synchronizedGroupsIds);
 
 		int numberOfNewlyAddedGroups;
 		for (Group group: groups) {
@@ -1788,10 +1887,10 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 				Attribute synchronizationTimesAttr = getPerunBl().getAttributesManagerBl().getAttribute(sess,group,GroupsManager.GROUP_SYNCHRO_TIMES_ATTRNAME);
 				if (synchronizationTimesAttr.getValue() != null) {
 					if (isTimeCompliantWithExactTimes(localDateTime, synchronizationTimesAttr.valueAsList())) {
-						timeCompliantGroups.add(group);
+						timeCompliantGroups.put(group, getGroupExtSourceName(sess, group));
 					}
 				} else if (isTimeCompliantWithGroupInterval(sess, group, minutesFromEpoch, GroupsManager.GROUPSYNCHROINTERVAL_ATTRNAME,"Group")) {
-					timeCompliantGroups.add(group);
+					timeCompliantGroups.put(group, getGroupExtSourceName(sess, group));
 				}
 			} catch (AttributeNotExistsException e) {
 				log.error("Required attribute {} isn't defined in Perun!", GroupsManager.GROUP_SYNCHRO_TIMES_ATTRNAME);
@@ -1805,38 +1904,106 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 		// Save state of synchronization to the info log
 		log.info("SynchronizeGroups method ends with these states: " +
-				"'number of newly removed threads'='" + numberOfNewlyRemovedThreads + "', " +
-				"'number of newly created threads'='" + numberOfNewlyCreatedThreads + "', " +
+				"'number of newly removed workers'='" + numberOfNewlyRemovedWorkers + "', " +
+				"'number of newly created workers'='" + numberOfNewlyCreatedWorkers + "', " +
 				"'number of newly added groups to the pool'='" + numberOfNewlyAddedGroups + "', " +
+				"'number of waiting groups'='" + poolOfSynchronizations.getNumberOfWaitingGroups() + "', " +
+				"'right now synchronized groups per ext source'='" + poolOfSynchronizations.getNumberOfRunningGroupsPerExtSource() + "', " +
 				"'right now synchronized groups'='" + poolOfSynchronizations.asPoolOfGroupsToBeSynchronized().getRunningJobs() + "', " +
-				"'right now waiting groups'='" + poolOfSynchronizations.asPoolOfGroupsToBeSynchronized().getWaitingJobs() + "'.");
+				"'right now waiting groups'='" + poolOfSynchronizations.asPoolOfGroupsToBeSynchronized().getWaitingJobs() + "', " +
+				"'synchronization metrics'='" + poolOfSynchronizations.getMetrics() + "'.");
 	}
 
-	private class GroupSynchronizerThread extends Thread {
+	@Override
+	public GroupSynchronizationMetrics getGroupSynchronizationMetrics() {
+		return poolOfSynchronizations.getMetrics();
+	}
+
+	@Override
+	public synchronized void stopGroupsSynchronization() {
+		log.debug("Stopping {} group synchronization workers.", groupSynchronizationWorkers.size());
+		groupSynchronizationWorkers.clear();
+		// interrupts all workers, they end when they finish the current group or are interrupted while waiting for a group
+		groupSynchronizationExecutor.shutdownNow();
+		try {
+			if (!groupSynchronizationExecutor.awaitTermination(GROUP_SYNCHRONIZATION_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				log.warn("Group synchronization workers did not stop in {} seconds.", GROUP_SYNCHRONIZATION_SHUTDOWN_TIMEOUT);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns name of external source the group is synchronized from.
+	 *
+	 * @param sess perun session
+	 * @param group synchronized group
+	 * @return name of external source or null, if it is not set
+	 */
+	private String getGroupExtSourceName(PerunSession sess, Group group) throws InternalErrorException {
+		try {
+			Attribute extSourceNameAttr = getPerunBl().getAttributesManagerBl().getAttribute(sess, group, GroupsManager.GROUPEXTSOURCE_ATTRNAME);
+			return extSourceNameAttr.valueAsString();
+		} catch (AttributeNotExistsException | WrongAttributeAssignmentException e) {
+			log.error("Cannot get attribute " + GroupsManager.GROUPEXTSOURCE_ATTRNAME + " for group " + group + " due to exception.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Worker, which synchronizes groups from the pool of waiting groups one by one, until it is cancelled.
+	 * Workers are run by the executor.
+	 *
+	 * All synchronization runs under synchronizer identity.
+	 */
+	private class GroupSynchronizationWorker implements Runnable {
 
 		// all synchronization runs under synchronizer identity.
 		private final PerunPrincipal pp = new PerunPrincipal("perunSynchronizer", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL, ExtSourcesManager.EXTSOURCE_INTERNAL);
 		private final PerunBl perunBl;
 		private final PerunSession sess;
 		private volatile long startTime;
-		private Group group;
+		private volatile Group group;
+		private Future<?> future;
 
-		public GroupSynchronizerThread(PerunSession sess) throws InternalErrorException {
+		public GroupSynchronizationWorker(PerunSession sess) throws InternalErrorException {
 			// take only reference to perun
 			this.perunBl = (PerunBl) sess.getPerun();
 			this.sess = perunBl.getPerunSession(pp, new PerunClient());
-			//Default settings of not running thread (waiting for another group)
+			//Default settings of not running worker (waiting for another group)
 			this.startTime = 0;
 		}
 
+		/**
+		 * Submits this worker to the executor.
+		 */
+		public void start() {
+			future = groupSynchronizationExecutor.submit(this);
+		}
+
+		/**
+		 * Interrupts this worker.
+		 */
+		public void cancel() {
+			future.cancel(true);
+		}
+
+		/**
+		 * @return true if this worker has ended
+		 */
+		public boolean isDone() {
+			return future.isDone();
+		}
+
 		@Override
 		public void run() {
 			while (true) {
-				//Set thread to default state (waiting for another group to synchronize)
-				this.setThreadToDefaultState();
+				//Set worker to default state (waiting for another group to synchronize)
+				this.startTime = 0;
 
-				//If this thread was interrupted, end it's running
-				if(this.isInterrupted()) return;
+				//If this worker was interrupted, end it's running
+				if(Thread.currentThread().isInterrupted()) return;
 
 				//text of exception if was thrown, null in exceptionMessage means "no exception, it's ok"
 				String exceptionMessage = null;
@@ -1849,22 +2016,18 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 				try {
 					group = poolOfSynchronizations.takeGroup((PerunSessionImpl)sess);
 				} catch (InterruptedException ex) {
-					log.error("Thread was interrupted when trying to take another group to synchronize from pool", ex);
-					//Interrupt this thread
-					this.interrupt();
+					log.error("Worker was interrupted when trying to take another group to synchronize from pool", ex);
 					return;
 				} catch (InternalErrorException ex) {
-					log.error("Internal error exception was thrown when the thread was trying to take another group to synchronize from pool", ex);
-					//Interrupt this thread
-					this.interrupt();
+					log.error("Internal error exception was thrown when the worker was trying to take another group to synchronize from pool", ex);
 					return;
 				}
 
 				try {
-					// Set the start time, so we can check the timeout of the thread
+					// Set the start time, so we can check the timeout of the worker
 					startTime = System.currentTimeMillis();
 
-					log.debug("Synchronization thread started synchronization for group {}.", group);
+					log.debug("Synchronization worker started synchronization for group {}.", group);
 
 					//synchronize Group and get information about skipped Members
 					List<String> skippedMembers = perunBl.getGroupsManagerBl().synchronizeGroup(sess, group);
@@ -1872,7 +2035,7 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 					skippedMembersMessage = prepareSkippedObjectsMessage(skippedMembers, "members");
 					exceptionMessage = skippedMembersMessage;
 
-					log.debug("Synchronization thread for group {} has finished in {} ms.", group, System.currentTimeMillis() - startTime);
+					log.debug("Synchronization worker for group {} has finished in {} ms.", group, System.currentTimeMillis() - startTime);
 				} catch (InternalErrorException |
 						WrongAttributeAssignmentException  | GroupNotExistsException |
 						AttributeNotExistsException  | ExtSourceNotExistsException e) {
@@ -1893,12 +2056,13 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 						log.error("When synchronization group " + group + ", exception was thrown.", ex);
 						log.error("Info about exception from synchronization: {}", skippedMembersMessage);
 					}
+					poolOfSynchronizations.recordGroupSynchronization(group, System.currentTimeMillis() - startTime, !failedDueToException);
 					//Remove job from running jobs
 					if(!poolOfSynchronizations.removeGroup(group)) {
 						log.error("Can't remove running job for object " + group + " from pool of running jobs because it is not containing it.");
 					}
 
-					log.debug("GroupSynchronizerThread finished for group: {}", group);
+					log.debug("GroupSynchronizationWorker finished for group: {}", group);
 				}
 			}
 		}
@@ -1910,10 +2074,6 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		public long getStartTime() {
 			return startTime;
 		}
-
-		private void setThreadToDefaultState() {
-			this.startTime = 0;
-		}
 	}
 
 	@Override
@@ -2669,7 +2829,7 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 */
 	private void categorizeMembersForLightweightSynchronization(PerunSession sess, Group group, ExtSource loginSource, ExtSource memberSource, List<RichMember> groupMembers, List<Candidate> candidatesToAdd, List<RichMember> membersToRemove, List<String> skippedMembers) throws InternalErrorException {
 		//Get subjects from loginSource
-		List<Map<String, String>> subjects = getSubjectsFromExtSource(sess, loginSource, group);
+		List<Map<String, String>> subjects = getSubjectsFromExtSource(loginSource, group, getGroupAttributesForSynchronization(sess, group));
 
 		//Prepare structure of userIds with richMembers to better work with actual members
 		Map<Integer, RichMember> idsOfUsersInGroup = new HashMap<>();
@@ -2789,6 +2949,49 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		}
 	}
 
+	/**
+	 * Categorize candidates created from changed subjects of the group and removed subjects of the group.
+	 *
+	 * Candidates, which are already members of the group, will be updated, others will be added.
+	 * Members, which are identified by removed login in the extSource of members, will be removed.
+	 * Members without changed subject are not touched.
+	 *
+	 * @param groupMembers current members of the group
+	 * @param candidates candidates created from changed subjects
+	 * @param removedLogins logins of subjects removed from the group in the extSource
+	 * @param membersSource extSource of members
+	 * @param candidatesToAdd candidates to be added to the group
+	 * @param membersToUpdate candidates with corresponding members to be updated
+	 * @param membersToRemove members to be removed from the group
+	 */
+	private void categorizeMembersForIncrementalSynchronization(List<RichMember> groupMembers, List<Candidate> candidates, List<String> removedLogins, ExtSource membersSource, List<Candidate> candidatesToAdd, Map<Candidate, RichMember> membersToUpdate, List<RichMember> membersToRemove) {
+		//mapping structure for more efficient searching
+		Map<UserExtSource, RichMember> mappingStructure = this.createMappingStructure(groupMembers);
+
+		for(Candidate candidate: candidates) {
+			RichMember member = null;
+			for(UserExtSource key: candidate.getUserExtSources()) {
+				if(mappingStructure.containsKey(key)) {
+					member = mappingStructure.get(key);
+					break;
+				}
+			}
+			if (member != null) {
+				membersToUpdate.put(candidate, member);
+			} else {
+				candidatesToAdd.add(candidate);
+			}
+		}
+
+		Set<RichMember> updatedMembers = new HashSet<>(membersToUpdate.values());
+		for(String login: removedLogins) {
+			RichMember member = mappingStructure.get(new UserExtSource(membersSource, login));
+			if (member != null && !updatedMembers.contains(member) && !membersToRemove.contains(member)) {
+				membersToRemove.add(member);
+			}
+		}
+	}
+
 	/**
 	 * Get ExtSource by name from attribute group:groupMembersExtSource.
 	 * Attribute can be null so if is not set, use default source.
@@ -2924,23 +3127,15 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 * Return List of subjects, where subject is map of attribute names and attribute values.
 	 * Every subject is structure for creating Candidate from ExtSource.
 	 *
-	 * @param sess
 	 * @param source to get subjects from
 	 * @param group to be synchronized
+	 * @param groupAttributesMap attributes of the group (info like query, time interval etc.)
 	 *
 	 * @return list of subjects
 	 *
 	 * @throws InternalErrorException if internal error occurs
 	 */
-	private List<Map<String, String>> getSubjectsFromExtSource(PerunSession sess, ExtSource source, Group group) throws InternalErrorException {
-		//Get all group attributes and store tham to map (info like query, time interval etc.)
-		List<Attribute> groupAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, group);
-		Map<String, String> groupAttributesMap = new HashMap<>();
-		for (Attribute attr: groupAttributes) {
-			String value = BeansUtils.attributeValueToString(attr);
-			String name = attr.getName();
-			groupAttributesMap.put(name, value);
-		}
+	private List<Map<String, String>> getSubjectsFromExtSource(ExtSource source, Group group, Map<String, String> groupAttributesMap) throws InternalErrorException {
 		//-- Get Subjects in form of map where left string is name of attribute and right string is value of attribute, every subject is one map
 		List<Map<String, String>> subjects;
 		try {
@@ -2952,6 +3147,82 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		return subjects;
 	}
 
+	/**
+	 * Get all group attributes and store them to map (info like query, time interval etc.)
+	 *
+	 * @param sess
+	 * @param group to be synchronized
+	 * @return map of attribute names to their values converted to string
+	 * @throws InternalErrorException if some internal error occurs
+	 */
+	private Map<String, String> getGroupAttributesForSynchronization(PerunSession sess, Group group) throws InternalErrorException {
+		List<Attribute> groupAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, group);
+		Map<String, String> groupAttributesMap = new HashMap<>();
+		for (Attribute attr: groupAttributes) {
+			String value = BeansUtils.attributeValueToString(attr);
+			String name = attr.getName();
+			groupAttributesMap.put(name, value);
+		}
+		return groupAttributesMap;
+	}
+
+	/**
+	 * Get subjects of the group, which changed since the previous synchronization, if the extSource supports it.
+	 *
+	 * Only subjects changed since the previous synchronization are returned, if the previous state is known
+	 * and is for the same configuration of the synchronization. All subjects are returned (full synchronization),
+	 * if there is no such state (eg. after restart or forced synchronization) or if the last full synchronization
+	 * is older than the interval of full synchronizations (perun.group.synchronization.fullInterval in hours).
+	 * Full synchronization corrects changes, which can't be recognized by change markers in the extSource.
+	 *
+	 * @param group to be synchronized
+	 * @param source default group ExtSource
+	 * @param membersSource ExtSource of members
+	 * @param groupAttributesMap attributes of the group
+	 * @param previousState state of subjects after the previous synchronization or null if it is not known
+	 * @return new state of subjects with changed subjects or null, if the extSource doesn't support incremental synchronization
+	 * @throws InternalErrorException if some internal error occurs
+	 */
+	private GroupSubjectsState getSubjectsChangesFromExtSource(Group group, ExtSource source, ExtSource membersSource, Map<String, String> groupAttributesMap, GroupSubjectsState previousState) throws InternalErrorException {
+		int fullSynchronizationInterval = BeansUtils.getCoreConfig().getGroupFullSynchronizationInterval();
+		if (!(source instanceof ExtSourceChangesApi) || fullSynchronizationInterval <= 0) return null;
+
+		String configuration = source.getName() + ";" + membersSource.getName() + ";" +
+				groupAttributesMap.get(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME) + ";" + groupAttributesMap.get(GroupsManager.GROUPMEMBERSFILTER_ATTRNAME);
+		long now = System.currentTimeMillis();
+		boolean full = previousState == null || !previousState.getConfiguration().equals(configuration) ||
+				now - previousState.getLastFullSynchronization() >= TimeUnit.HOURS.toMillis(fullSynchronizationInterval);
+
+		Map<String, String> knownSubjects = full ? Collections.emptyMap() : previousState.getSubjectsLogins();
+		Date since = full ? new Date(now) : new Date(previousState.getStartOfSynchronization() - INCREMENTAL_SYNCHRONIZATION_OVERLAP);
+
+		Map<String, Map<String, String>> subjectsChanges;
+		try {
+			subjectsChanges = ((ExtSourceChangesApi) source).getGroupSubjectsChanges(groupAttributesMap, knownSubjects.keySet(), since);
+		} catch (ExtSourceUnsupportedOperationException e) {
+			log.debug("Group synchronization {}: extSource {} doesn't support changes of subjects.", group, source);
+			return null;
+		}
+
+		GroupSubjectsState state = new GroupSubjectsState(configuration, now, full ? now : previousState.getLastFullSynchronization(), full);
+		for (Map.Entry<String, Map<String, String>> subject : subjectsChanges.entrySet()) {
+			if (subject.getValue() == null) {
+				state.getSubjectsLogins().put(subject.getKey(), knownSubjects.get(subject.getKey()));
+			} else {
+				state.getSubjectsLogins().put(subject.getKey(), subject.getValue().get("login"));
+				state.getChangedSubjects().add(subject.getValue());
+			}
+		}
+		for (Map.Entry<String, String> knownSubject : knownSubjects.entrySet()) {
+			if (!subjectsChanges.containsKey(knownSubject.getKey()) && knownSubject.getValue() != null) {
+				state.getRemovedLogins().add(knownSubject.getValue());
+			}
+		}
+
+		log.debug("Group synchronization {}: {} synchronization, external group contains {} members, {} changed, {} removed.", group,
+				full ? "full" : "incremental", subjectsChanges.size(), state.getChangedSubjects().size(), state.getRemovedLogins().size());
+		return state;
+	}
 	/**
 	 * Convert List of subjects to list of Candidates.
 	 *
@@ -4104,34 +4375,133 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 	@Override
 	public void addRelationMembers(PerunSession sess, Group resultGroup, List<Member> changedMembers, int sourceGroupId) throws InternalErrorException, AlreadyMemberException, WrongReferenceAttributeValueException, WrongAttributeValueException, GroupNotExistsException {
-		List<Member> newMembers;
+		Map<Integer, Map<Integer, List<Member>>> addedMembers = new LinkedHashMap<>();
+		addedMembers.computeIfAbsent(resultGroup.getId(), id -> new LinkedHashMap<>()).put(sourceGroupId, changedMembers);
+		addRelationMembers(sess, addedMembers);
+	}
 
-		newMembers = addIndirectMembers(sess, resultGroup, changedMembers, sourceGroupId);
+	@Override
+	public void removeRelationMembers(PerunSession sess, Group resultGroup, List<Member> changedMembers, int sourceGroupId) throws WrongReferenceAttributeValueException, NotGroupMemberException, WrongAttributeValueException, InternalErrorException, GroupNotExistsException {
+		Map<Integer, Map<Integer, List<Member>>> removedMembers = new LinkedHashMap<>();
+		removedMembers.computeIfAbsent(resultGroup.getId(), id -> new LinkedHashMap<>()).put(sourceGroupId, changedMembers);
+		removeRelationMembers(sess, removedMembers);
+	}
 
-		if(newMembers.isEmpty()) {
-			return;
+	/**
+	 * Add members of the operand group to all result groups of relations with the group (transitively).
+	 *
+	 * @param sess perun session
+	 * @param operandGroup group with new members
+	 * @param members new members of the operand group
+	 */
+	private void addRelationMembersToResultGroups(PerunSession sess, Group operandGroup, List<Member> members) throws InternalErrorException, AlreadyMemberException, WrongReferenceAttributeValueException, WrongAttributeValueException, GroupNotExistsException {
+		Map<Integer, Map<Integer, List<Member>>> addedMembers = new LinkedHashMap<>();
+		for (Integer resultGroupId : groupsManagerImpl.getResultGroupsIds(sess, operandGroup.getId())) {
+			addedMembers.computeIfAbsent(resultGroupId, id -> new LinkedHashMap<>()).put(operandGroup.getId(), members);
 		}
+		addRelationMembers(sess, addedMembers);
+	}
 
-		List<Integer> relations = groupsManagerImpl.getResultGroupsIds(sess, resultGroup.getId());
-		for (Integer groupId : relations) {
-			addRelationMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), newMembers, resultGroup.getId());
+	/**
+	 * Remove members of the operand group from all result groups of relations with the group (transitively).
+	 *
+	 * @param sess perun session
+	 * @param operandGroup group with removed members
+	 * @param members members removed from the operand group
+	 */
+	private void removeRelationMembersFromResultGroups(PerunSession sess, Group operandGroup, List<Member> members) throws WrongReferenceAttributeValueException, NotGroupMemberException, WrongAttributeValueException, InternalErrorException, GroupNotExistsException {
+		Map<Integer, Map<Integer, List<Member>>> removedMembers = new LinkedHashMap<>();
+		for (Integer resultGroupId : groupsManagerImpl.getResultGroupsIds(sess, operandGroup.getId())) {
+			removedMembers.computeIfAbsent(resultGroupId, id -> new LinkedHashMap<>()).put(operandGroup.getId(), members);
 		}
+		removeRelationMembers(sess, removedMembers);
 	}
 
-	@Override
-	public void removeRelationMembers(PerunSession sess, Group resultGroup, List<Member> changedMembers, int sourceGroupId) throws WrongReferenceAttributeValueException, NotGroupMemberException, WrongAttributeValueException, InternalErrorException, GroupNotExistsException {
-		List<Member> members;
+	/**
+	 * Add members as INDIRECT to the result groups and newly added members further to result groups of relations
+	 * with these groups.
+	 *
+	 * The graph of relations is walked once in topological order, so each group is processed only once
+	 * (after all its operand groups) with members from all its operand groups together.
+	 *
+	 * @param sess perun session
+	 * @param addedMembers ids of result groups mapped to members to add mapped by ids of groups from which they originate
+	 */
+	private void addRelationMembers(PerunSession sess, Map<Integer, Map<Integer, List<Member>>> addedMembers) throws InternalErrorException, AlreadyMemberException, WrongReferenceAttributeValueException, WrongAttributeValueException, GroupNotExistsException {
+		Map<Integer, List<Integer>> relations = new HashMap<>();
+		for (Integer groupId : getGroupsInTopologicalOrder(sess, new ArrayList<>(addedMembers.keySet()), relations)) {
+			Map<Integer, List<Member>> membersBySourceGroup = addedMembers.remove(groupId);
+			if (membersBySourceGroup == null) continue;
 
-		members = removeIndirectMembers(sess, resultGroup, changedMembers, sourceGroupId);
+			List<Member> newMembers = addIndirectMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), membersBySourceGroup);
+			if (newMembers.isEmpty()) continue;
 
-		if(members.isEmpty()){
-			return;
+			for (Integer resultGroupId : relations.get(groupId)) {
+				addedMembers.computeIfAbsent(resultGroupId, id -> new LinkedHashMap<>()).put(groupId, newMembers);
+			}
 		}
+	}
 
-		List<Integer> relations = groupsManagerImpl.getResultGroupsIds(sess, resultGroup.getId());
-		for (Integer groupId : relations) {
-			removeRelationMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), members, resultGroup.getId());
+	/**
+	 * Remove INDIRECT members from the result groups and members removed totally further from result groups
+	 * of relations with these groups.
+	 *
+	 * The graph of relations is walked once in topological order, so each group is processed only once
+	 * (after all its operand groups) with members from all its operand groups together.
+	 *
+	 * @param sess perun session
+	 * @param removedMembers ids of result groups mapped to members to remove mapped by ids of groups from which they originate
+	 */
+	private void removeRelationMembers(PerunSession sess, Map<Integer, Map<Integer, List<Member>>> removedMembers) throws WrongReferenceAttributeValueException, NotGroupMemberException, WrongAttributeValueException, InternalErrorException, GroupNotExistsException {
+		Map<Integer, List<Integer>> relations = new HashMap<>();
+		for (Integer groupId : getGroupsInTopologicalOrder(sess, new ArrayList<>(removedMembers.keySet()), relations)) {
+			Map<Integer, List<Member>> membersBySourceGroup = removedMembers.remove(groupId);
+			if (membersBySourceGroup == null) continue;
+
+			List<Member> members = removeIndirectMembers(sess, groupsManagerImpl.getGroupById(sess, groupId), membersBySourceGroup);
+			if (members.isEmpty()) continue;
+
+			for (Integer resultGroupId : relations.get(groupId)) {
+				removedMembers.computeIfAbsent(resultGroupId, id -> new LinkedHashMap<>()).put(groupId, members);
+			}
+		}
+	}
+
+	/**
+	 * Get ids of the groups and of all groups reachable from them through relations (from operand group
+	 * to result group) ordered topologically, so each group is before all its result groups.
+	 *
+	 * @param sess perun session
+	 * @param groupsIds ids of the starting groups
+	 * @param relations map filled with ids of result groups of each returned group
+	 * @return ids of the groups in topological order
+	 * @throws InternalErrorException
+	 */
+	private List<Integer> getGroupsInTopologicalOrder(PerunSession sess, List<Integer> groupsIds, Map<Integer, List<Integer>> relations) throws InternalErrorException {
+		// longest path of relations to each group is longer than paths to all its operand groups
+		Map<Integer, Integer> depths = groupsManagerImpl.getAllResultGroupsIdsWithDepth(sess, groupsIds);
+		List<Integer> orderedGroupsIds = new ArrayList<>(depths.keySet());
+		orderedGroupsIds.sort(Comparator.comparing(depths::get));
+
+		relations.putAll(groupsManagerImpl.getResultGroupsIds(sess, orderedGroupsIds));
+		return orderedGroupsIds;
+	}
+
+	@Override
+	public int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException {
+		return groupsManagerImpl.checkGroupsClosure(sess, repair);
+	}
+
+	/**
+	 * @param members lists of members, possibly with the same member in more lists
+	 * @return members with distinct ids
+	 */
+	private static List<Member> getDistinctMembers(Collection<List<Member>> members) {
+		Map<Integer, Member> distinctMembers = new LinkedHashMap<>();
+		for (List<Member> list : members) {
+			for (Member member : list) distinctMembers.putIfAbsent(member.getId(), member);
 		}
+		return new ArrayList<>(distinctMembers.values());
 	}
 
 	@Override
@@ -4148,6 +4518,9 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 			throw new GroupRelationNotAllowed("Union cannot be created on groups: " + resultGroup + ", " + operandGroup + ". They are not from the same VO.");
 		}
 
+		// following checks use closures of groups, they must not be changed by another transaction until the union is saved
+		groupsManagerImpl.lockGroupsClosure(sess, resultGroup.getVoId());
+
 		// check if result group is the same as operand group
 		if (resultGroup.getId() == operandGroup.getId()) {
 			throw new GroupRelationNotAllowed("Result group " + resultGroup + " cannot be the same as operand group " + operandGroup);
@@ -4182,9 +4555,7 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		}
 
 		// calculate new member-group statuses
-		for (Member member : getGroupMembers(sess, operandGroup)) {
-			recalculateMemberGroupStatusRecursively(sess, member, operandGroup);
-		}
+		recalculateMemberGroupStatusRecursively(sess, getGroupMembers(sess, operandGroup), operandGroup);
 
 		return resultGroup;
 	}
@@ -4211,9 +4582,7 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 		groupsManagerImpl.removeGroupUnion(sess, resultGroup, operandGroup);
 
 		// recalculates statuses of members in result group
-		for (Member member : getGroupMembers(sess, resultGroup)) {
-			recalculateMemberGroupStatusRecursively(sess, member, resultGroup);
-		}
+		recalculateMemberGroupStatusRecursively(sess, getGroupMembers(sess, resultGroup), resultGroup);
 	}
 
 	@Override
@@ -4299,19 +4668,8 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	 * @throws InternalErrorException
 	 */
 	private boolean checkGroupsCycle(PerunSession sess, int resultGroupId, int operandGroupId) throws InternalErrorException {
-		List<Integer> groupsIds = groupsManagerImpl.getResultGroupsIds(sess, resultGroupId);
-
-		if (groupsIds.contains(operandGroupId)) {
-			return true;
-		}
-
-		for (Integer id: groupsIds) {
-			if(checkGroupsCycle(sess, id, operandGroupId)) {
-				return true;
-			}
-		}
-
-		return false;
+		// cycle is created if the result group is already included in the operand group
+		return groupsManagerImpl.isIndirectRelationBetweenGroups(sess, operandGroupId, resultGroupId);
 	}
 
 	/**
@@ -4471,38 +4829,59 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 			throw new InternalErrorException("Group, where members status should be recalculated, can not be null.");
 		}
 
+		recalculateMemberGroupStatusRecursively(sess, Collections.singletonList(member), group);
+	}
+
+	/**
+	 * Calculates the states of given members in given group and in all result groups of relations with the group
+	 * (transitively). The states are saved for relations where the group is the source group.
+	 *
+	 * The graph of relations is walked once in topological order, so states in each group are calculated only once
+	 * (after states in all its operand groups) for all members together.
+	 *
+	 * @param sess perun session
+	 * @param members members
+	 * @param group group
+	 * @throws InternalErrorException internal error
+	 */
+	private void recalculateMemberGroupStatusRecursively(PerunSession sess, List<Member> members, Group group) throws InternalErrorException {
 		// skip members group where all members are valid all the time
-		if (group.getName().equals(VosManager.MEMBERS_GROUP)) {
+		if (members.isEmpty() || group.getName().equals(VosManager.MEMBERS_GROUP)) {
 			return;
 		}
+		members = getDistinctMembers(Collections.singletonList(members));
 
-		MemberGroupStatus newStatus = getTotalMemberGroupStatus(sess, member, group);
-
-		boolean saveStatuses = true;
-		// member has been removed from group, we need to calculate its statuses in any result groups
-		// but we can not save statuses because the relations should be already removed
-		if (newStatus == null) {
-			saveStatuses = false;
-		}
+		Map<Integer, List<Integer>> relations = new HashMap<>();
+		for (Integer groupId : getGroupsInTopologicalOrder(sess, Collections.singletonList(group.getId()), relations)) {
+			Group affectedGroup;
+			try {
+				affectedGroup = groupId == group.getId() ? group : groupsManagerImpl.getGroupById(sess, groupId);
+			} catch (GroupNotExistsException e) {
+				throw new ConsistencyErrorException(e);
+			}
 
-		// get all possibly affected groups and member's statuses for them
-		List<Group> affectedGroups = new ArrayList<>(groupsManagerImpl.getResultGroups(sess, group.getId()));
+			// member removed from group has no status, we need to calculate its statuses in any result groups
+			// but we can not save statuses because the relations should be already removed
+			Map<Integer, MemberGroupStatus> newStatuses = groupsManagerImpl.getTotalMemberGroupStatuses(sess, affectedGroup, members);
+			Map<MemberGroupStatus, List<Member>> membersByStatus = new EnumMap<>(MemberGroupStatus.class);
+			for (Member member : members) {
+				MemberGroupStatus newStatus = newStatuses.get(member.getId());
+				if (newStatus != null) membersByStatus.computeIfAbsent(newStatus, status -> new ArrayList<>()).add(member);
+			}
 
-		// if the new status is not null, update statuses received from the group to other groups
-		if (saveStatuses) {
-			groupsManagerImpl.setIndirectGroupStatus(sess, member, group, newStatus);
+			// update statuses received from the group to other groups
+			for (Map.Entry<MemberGroupStatus, List<Member>> statusMembers : membersByStatus.entrySet()) {
+				groupsManagerImpl.setIndirectGroupStatus(sess, statusMembers.getValue(), affectedGroup, statusMembers.getKey());
 
-			if (newStatus.equals(MemberGroupStatus.EXPIRED)) {
-				getPerunBl().getAuditer().log(sess, new MemberExpiredInGroup(member, group));
-			} else if (newStatus.equals(MemberGroupStatus.VALID)) {
-				getPerunBl().getAuditer().log(sess, new MemberValidatedInGroup(member, group));
+				for (Member member : statusMembers.getValue()) {
+					if (statusMembers.getKey().equals(MemberGroupStatus.EXPIRED)) {
+						getPerunBl().getAuditer().log(sess, new MemberExpiredInGroup(member, affectedGroup));
+					} else if (statusMembers.getKey().equals(MemberGroupStatus.VALID)) {
+						getPerunBl().getAuditer().log(sess, new MemberValidatedInGroup(member, affectedGroup));
+					}
+				}
 			}
 		}
-
-		// check recursively all parent groups
-		for (Group affectedGroup : affectedGroups) {
-			recalculateMemberGroupStatusRecursively(sess, member, affectedGroup);
-		}
 	}
 
 	@Override
@@ -4940,4 +5319,63 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	public List<Facility> getFacilitiesWhereGroupIsAdmin(PerunSession perunSession, Group group) throws InternalErrorException {
 		return this.getGroupsManagerImpl().getFacilitiesWhereGroupIsAdmin(perunSession, group);
 	}
+
+	/**
+	 * Subjects of the group known from the synchronization, used by the next incremental synchronization.
+	 * Subjects are identified by identifiers from the extSource and mapped to their logins.
+	 */
+	private static class GroupSubjectsState {
+
+		private final String configuration;
+		private final long startOfSynchronization;
+		private final long lastFullSynchronization;
+		private final boolean full;
+		private final Map<String, String> subjectsLogins = new HashMap<>();
+		// changed subjects and logins of removed subjects are used only by the synchronization which created this state
+		private List<Map<String, String>> changedSubjects = new ArrayList<>();
+		private List<String> removedLogins = new ArrayList<>();
+
+		GroupSubjectsState(String configuration, long startOfSynchronization, long lastFullSynchronization, boolean full) {
+			this.configuration = configuration;
+			this.startOfSynchronization = startOfSynchronization;
+			this.lastFullSynchronization = lastFullSynchronization;
+			this.full = full;
+		}
+
+		String getConfiguration() {
+			return configuration;
+		}
+
+		long getStartOfSynchronization() {
+			return startOfSynchronization;
+		}
+
+		long getLastFullSynchronization() {
+			return lastFullSynchronization;
+		}
+
+		boolean isFull() {
+			return full;
+		}
+
+		Map<String, String> getSubjectsLogins() {
+			return subjectsLogins;
+		}
+
+		List<Map<String, String>> getChangedSubjects() {
+			return changedSubjects;
+		}
+
+		List<String> getRemovedLogins() {
+			return removedLogins;
+		}
+
+		/**
+		 * Release changes processed by the synchronization, only logins of subjects are kept for the next one.
+		 */
+		void forgetChanges() {
+			changedSubjects = Collections.emptyList();
+			removedLogins = Collections.emptyList();
+		}
+	}
 }
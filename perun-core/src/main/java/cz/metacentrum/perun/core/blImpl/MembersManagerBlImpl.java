@@ -27,6 +27,8 @@ import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
 import cz.metacentrum.perun.core.api.MembersManager;
 import cz.metacentrum.perun.core.api.MembershipType;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -104,6 +106,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -225,6 +228,7 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		}
 		// Remove member from the DB
 		getMembersManagerImpl().deleteMember(sess, member);
+		AuthzResolverBlImpl.invalidateUserRoles(member.getUserId());
 		getPerunBl().getAuditer().log(sess, new MemberDeleted(member));
 	}
 
@@ -257,6 +261,7 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		} catch(MemberNotExistsException IGNORE) {
 		}
 		Member member = getMembersManagerImpl().createMember(sess, vo, user);
+		AuthzResolverBlImpl.invalidateUserRoles(user);
 		getPerunBl().getAuditer().log(sess, new MemberCreated(member));
 
 		// Set the initial membershipExpiration
@@ -500,6 +505,7 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 
 		// Create the member
 		Member member = getMembersManagerImpl().createMember(sess, vo, user);
+		AuthzResolverBlImpl.invalidateUserRoles(user);
 		getPerunBl().getAuditer().log(sess,  new MemberCreated(member));
 		// Create the member's attributes
 		List<Attribute> membersAttributes = new ArrayList<>();
@@ -795,6 +801,22 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		}
 	}
 
+	@Override
+	public Paginated<RichMember> getCompleteRichMembersPage(PerunSession sess, Vo vo, PageQuery query, List<String> attrsNames) throws InternalErrorException, AttributeNotExistsException {
+		Paginated<Member> page = getMembersManagerImpl().getMembersPage(sess, vo, query);
+		List<RichMember> richMembers = this.convertMembersToRichMembers(sess, page.getData());
+		if(attrsNames == null || attrsNames.isEmpty()) {
+			richMembers = this.convertMembersToRichMembersWithAttributes(sess, richMembers);
+		} else {
+			List<AttributeDefinition> attrsDef = new ArrayList<>();
+			for(String attrName: attrsNames) {
+				attrsDef.add(getPerunBl().getAttributesManagerBl().getAttributeDefinition(sess, attrName));
+			}
+			richMembers = this.convertMembersToRichMembersWithAttributes(sess, richMembers, attrsDef);
+		}
+		return new Paginated<>(richMembers, page.getOffset(), page.getPageSize(), page.getTotalCount());
+	}
+
 	@Override
 	public List<RichMember> getCompleteRichMembers(PerunSession sess, Vo vo, List<String> attrsNames, List<String> allowedStatuses) throws InternalErrorException, AttributeNotExistsException {
 		return getOnlyRichMembersWithAllowedStatuses(sess, this.getCompleteRichMembers(sess, vo, attrsNames), allowedStatuses);
@@ -993,12 +1015,13 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 	 */
 	@Override
 	public List<RichMember> convertMembersToRichMembersWithAttributes(PerunSession sess, List<RichMember> richMembers)  throws InternalErrorException {
-		for (RichMember richMember: richMembers) {
-			List<Attribute> userAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember.getUser());
-			List<Attribute> memberAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember);
+		Map<Integer, List<Attribute>> usersAttributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, getUsersOfRichMembers(richMembers));
+		Map<Integer, List<Attribute>> membersAttributes = getPerunBl().getAttributesManagerBl().getMembersAttributes(sess, new ArrayList<>(richMembers));
 
-			richMember.setUserAttributes(userAttributes);
-			richMember.setMemberAttributes(memberAttributes);
+		Set<Integer> usedUsersIds = new HashSet<>();
+		for (RichMember richMember: richMembers) {
+			richMember.setUserAttributes(getUnusedAttributes(usersAttributes.get(richMember.getUserId()), richMember.getUserId(), usedUsersIds));
+			richMember.setMemberAttributes(new ArrayList<>(membersAttributes.get(richMember.getId())));
 		}
 
 		return richMembers;
@@ -1025,11 +1048,14 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 			attrNames.add(attributeDefinition.getName());
 		}
 
+		Map<Integer, List<Attribute>> richMembersAttributes = getPerunBl().getAttributesManagerBl().getRichMembersAttributes(sess, richMembers, resource, attrNames);
+
+		Set<Integer> usedUsersIds = new HashSet<>();
 		for (RichMember richMember: richMembers) {
 			List<Attribute> userAttributes = new ArrayList<>();
 			List<Attribute> memberAttributes = new ArrayList<>();
 
-			List<Attribute> attributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, resource, attrNames, true);
+			List<Attribute> attributes = getUnusedAttributes(richMembersAttributes.get(richMember.getId()), richMember.getUserId(), usedUsersIds);
 
 			for(Attribute attribute: attributes) {
 				if(attribute.getName().startsWith(AttributesManager.NS_USER_ATTR)) userAttributes.add(attribute);
@@ -1070,11 +1096,26 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 			attrNames.add(attributeDefinition.getName());
 		}
 
+		getPerunBl().getAttributesManagerBl().checkGroupIsFromTheSameVoLikeResource(sess, group, resource);
+		Map<Integer, List<Attribute>> richMembersAttributes = getPerunBl().getAttributesManagerBl().getRichMembersAttributes(sess, richMembers, resource, attrNames);
+
+		List<String> memberGroupAttrNames = new ArrayList<>();
+		for(String attrName: attrNames) {
+			if(attrName.startsWith(AttributesManager.NS_MEMBER_GROUP_ATTR)) memberGroupAttrNames.add(attrName);
+		}
+
+		Set<Integer> usedUsersIds = new HashSet<>();
 		for (RichMember richMember: richMembers) {
 			List<Attribute> userAttributes = new ArrayList<>();
 			List<Attribute> memberAttributes = new ArrayList<>();
 
-			List<Attribute> attributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, group, richMember, resource, attrNames, true);
+			List<Attribute> attributes = getUnusedAttributes(richMembersAttributes.get(richMember.getId()), richMember.getUserId(), usedUsersIds);
+			//add member-group attributes
+			if(attrNames.isEmpty()) {
+				attributes.addAll(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, group));
+			} else if(!memberGroupAttrNames.isEmpty()) {
+				attributes.addAll(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, group, memberGroupAttrNames));
+			}
 
 			for(Attribute attribute: attributes) {
 				if(attribute.getName().startsWith(AttributesManager.NS_USER_ATTR)) userAttributes.add(attribute);
@@ -1115,22 +1156,21 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 			else if(attrd.getName().startsWith(AttributesManager.NS_MEMBER_ATTR)) membersAttributesDef.add(attrd);
 		}
 
-		for (RichMember richMember: richMembers) {
-
-			List<String> userAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: usersAttributesDef) {
-				userAttrNames.add(ad.getName());
-			}
-			List<Attribute> userAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember.getUser(), userAttrNames));
-
-			List<String> memberAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: membersAttributesDef) {
-				memberAttrNames.add(ad.getName());
-			}
-			List<Attribute> memberAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, memberAttrNames));
+		List<String> userAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: usersAttributesDef) {
+			userAttrNames.add(ad.getName());
+		}
+		List<String> memberAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: membersAttributesDef) {
+			memberAttrNames.add(ad.getName());
+		}
+		Map<Integer, List<Attribute>> usersAttributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, getUsersOfRichMembers(richMembers), userAttrNames);
+		Map<Integer, List<Attribute>> membersAttributes = getPerunBl().getAttributesManagerBl().getMembersAttributes(sess, new ArrayList<>(richMembers), memberAttrNames);
 
-			richMember.setUserAttributes(userAttributes);
-			richMember.setMemberAttributes(memberAttributes);
+		Set<Integer> usedUsersIds = new HashSet<>();
+		for (RichMember richMember: richMembers) {
+			richMember.setUserAttributes(getUnusedAttributes(usersAttributes.get(richMember.getUserId()), richMember.getUserId(), usedUsersIds));
+			richMember.setMemberAttributes(new ArrayList<>(membersAttributes.get(richMember.getId())));
 		}
 
 		return richMembers;
@@ -1161,25 +1201,27 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 			else if(attrd.getName().startsWith(AttributesManager.NS_MEMBER_GROUP_ATTR)) memberGroupAttributesDef.add(attrd);
 		}
 
-		for (RichMember richMember: richMembers) {
-
-			List<String> userAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: usersAttributesDef) {
-				userAttrNames.add(ad.getName());
-			}
-			List<Attribute> userAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember.getUser(), userAttrNames));
+		List<String> userAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: usersAttributesDef) {
+			userAttrNames.add(ad.getName());
+		}
+		List<String> memberAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: membersAttributesDef) {
+			memberAttrNames.add(ad.getName());
+		}
+		List<String> groupAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: memberGroupAttributesDef) {
+			groupAttrNames.add(ad.getName());
+		}
+		Map<Integer, List<Attribute>> usersAttributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, getUsersOfRichMembers(richMembers), userAttrNames);
+		Map<Integer, List<Attribute>> membersAttributes = getPerunBl().getAttributesManagerBl().getMembersAttributes(sess, new ArrayList<>(richMembers), memberAttrNames);
 
-			List<String> memberAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: membersAttributesDef) {
-				memberAttrNames.add(ad.getName());
-			}
-			List<Attribute> memberAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, memberAttrNames));
+		Set<Integer> usedUsersIds = new HashSet<>();
+		for (RichMember richMember: richMembers) {
+			List<Attribute> userAttributes = getUnusedAttributes(usersAttributes.get(richMember.getUserId()), richMember.getUserId(), usedUsersIds);
+			List<Attribute> memberAttributes = new ArrayList<>(membersAttributes.get(richMember.getId()));
 
 			//add group-member attributes
-			List<String> groupAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: memberGroupAttributesDef) {
-				groupAttrNames.add(ad.getName());
-			}
 			memberAttributes.addAll(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, group, groupAttrNames));
 
 			richMember.setUserAttributes(userAttributes);
@@ -1189,6 +1231,38 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		return richMembers;
 	}
 
+	/**
+	 * Returns users of the rich members.
+	 *
+	 * @param richMembers rich members with users filled
+	 * @return list of users
+	 */
+	private static List<User> getUsersOfRichMembers(List<RichMember> richMembers) {
+		List<User> users = new ArrayList<>();
+		for (RichMember richMember: richMembers) {
+			users.add(richMember.getUser());
+		}
+		return users;
+	}
+
+	/**
+	 * Returns new list with the attributes loaded for the user. If the same user was already used (more rich members
+	 * of the same user), attributes are copied, so rich members don't share attribute objects.
+	 *
+	 * @param attributes attributes loaded for the user
+	 * @param userId id of the user
+	 * @param usedUsersIds ids of already used users
+	 * @return list of attributes
+	 */
+	private static List<Attribute> getUnusedAttributes(List<Attribute> attributes, int userId, Set<Integer> usedUsersIds) {
+		if (usedUsersIds.add(userId)) return new ArrayList<>(attributes);
+		List<Attribute> copies = new ArrayList<>();
+		for (Attribute attribute: attributes) {
+			copies.add(new Attribute(attribute, true));
+		}
+		return copies;
+	}
+
 	@Override
 	public int getMembersCount(PerunSession sess, Vo vo) throws InternalErrorException {
 		return getMembersManagerImpl().getMembersCount(sess, vo);
@@ -1820,13 +1894,79 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		List<RichMember> filteredRichMembers = new ArrayList<>();
 		if(richMembers == null || richMembers.isEmpty()) return filteredRichMembers;
 
+		// Authorization of member attribute depends only on the Vo of the member and on the fact, that the member belongs
+		// to the principal. Authorization of user attribute depends only on Vos of the user and on the fact, that the user
+		// is the principal. So rights are checked only once for each attribute in such context instead of for each member.
+		List<User> users = new ArrayList<>();
 		for(RichMember rm: richMembers) {
-			filteredRichMembers.add(this.filterOnlyAllowedAttributes(sess, rm));
+			if(rm == null) throw new InternalErrorException("RichMember can't be null.");
+			if(rm.getUser() == null) throw new InternalErrorException("User cant be null in RichMember.");
+			users.add(rm.getUser());
+		}
+		Map<Integer, Set<Integer>> usersVosIds = getPerunBl().getUsersManagerBl().getVosIdsWhereUsersAreMembers(sess, users);
+
+		// attr_name with context to boolean where null means - no rights at all, false means no write rights, true means read and write rights
+		Map<String, Boolean> contextMap = new HashMap<>();
+		for(RichMember rm: richMembers) {
+			boolean self = AuthzResolverBlImpl.isAuthorized(sess, Role.SELF, rm.getUser());
+			//Filtering members attributes
+			if(rm.getMemberAttributes() != null) {
+				String context = ":" + rm.getVoId() + ":" + self;
+				rm.setMemberAttributes(filterOnlyAllowedAttributesInContext(sess, rm, rm.getMemberAttributes(),
+						AttributesManager.NS_MEMBER_ATTR, context, contextMap));
+			}
+			//Filtering users attributes
+			if(rm.getUserAttributes() != null) {
+				String context = ":" + self + ":" + new TreeSet<>(usersVosIds.get(rm.getUserId()));
+				rm.setUserAttributes(filterOnlyAllowedAttributesInContext(sess, rm.getUser(), rm.getUserAttributes(),
+						AttributesManager.NS_USER_ATTR, context, contextMap));
+			}
+			filteredRichMembers.add(rm);
 		}
 
 		return filteredRichMembers;
 	}
 
+	/**
+	 * From given attributes filter out the ones which are not allowed for the current principal.
+	 * Rights for attributes from given namespace are checked only once for the context and stored in contextMap.
+	 * Attributes from other namespaces are checked for the bean every time.
+	 *
+	 * @param sess session
+	 * @param bean holder of attributes
+	 * @param attributes attributes to filter
+	 * @param namespace namespace of attributes, for which rights depend only on the context
+	 * @param context string representation of the context of the bean
+	 * @param contextMap attr_name with context to boolean where null means - no rights at all, false means no write rights, true means read and write rights
+	 * @return list of attributes which can be accessed by current principal
+	 * @throws InternalErrorException
+	 */
+	private List<Attribute> filterOnlyAllowedAttributesInContext(PerunSession sess, PerunBean bean, List<Attribute> attributes, String namespace, String context, Map<String, Boolean> contextMap) throws InternalErrorException {
+		List<Attribute> allowedAttributes = new ArrayList<>();
+		for(Attribute attribute: attributes) {
+			if(!attribute.getNamespace().startsWith(namespace)) {
+				allowedAttributes.addAll(AuthzResolverBlImpl.filterNotAllowedAttributes(sess, bean, Collections.singletonList(attribute)));
+				continue;
+			}
+			String key = attribute.getName() + context;
+			Boolean isWritable;
+			if(contextMap.containsKey(key)) {
+				isWritable = contextMap.get(key);
+			} else {
+				isWritable = null;
+				if(AuthzResolver.isAuthorizedForAttribute(sess, ActionType.READ, attribute, bean)) {
+					isWritable = AuthzResolver.isAuthorizedForAttribute(sess, ActionType.WRITE, attribute, bean);
+				}
+				contextMap.put(key, isWritable);
+			}
+			if(isWritable != null) {
+				attribute.setWritable(isWritable);
+				allowedAttributes.add(attribute);
+			}
+		}
+		return allowedAttributes;
+	}
+
 	@Override
 	public List<RichMember> filterOnlyAllowedAttributes(PerunSession sess, List<RichMember> richMembers, Group group, boolean useContext) throws InternalErrorException {
 		//If no context should be used - every attribute is unique in context of member (for every member test access rights for all attributes again)
@@ -2383,6 +2523,7 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 
 		//create the member in Perun
 		Member sponsoredMember = getMembersManagerImpl().createSponsoredMember(session, vo, sponsoredUser, sponsor);
+		AuthzResolverBlImpl.invalidateUserRoles(sponsoredUser);
 		getPerunBl().getAuditer().log(session, new MemberCreated(sponsoredMember));
 		getPerunBl().getAuditer().log(session, new SponsoredMemberSet(sponsoredMember));
 		getPerunBl().getAuditer().log(session, new SponsorshipEstablished(sponsoredMember, sponsor));
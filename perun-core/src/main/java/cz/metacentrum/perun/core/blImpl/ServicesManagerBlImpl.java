@@ -41,11 +41,13 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesWriter;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.Vo;
@@ -75,8 +77,10 @@ import cz.metacentrum.perun.core.bl.ServicesManagerBl;
 import cz.metacentrum.perun.core.impl.Utils;
 import cz.metacentrum.perun.core.implApi.ServicesManagerImplApi;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -89,6 +93,9 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 
 	final static Logger log = LoggerFactory.getLogger(ServicesManagerBlImpl.class);
 
+	// number of users whose attributes are loaded at once when streaming flat data
+	private final static int USERS_BATCH_SIZE = 1000;
+
 	private final ServicesManagerImplApi servicesManagerImpl;
 	private PerunBl perunBl;
 
@@ -320,36 +327,116 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		return resourceServiceAttributes;
 	}
 
-	private ServiceAttributes getData(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers) throws InternalErrorException {
+	private ServiceAttributes getData(PerunSession sess, Service service, Resource resource, HashMap<Member, List<Attribute>> membersAttributes) throws InternalErrorException {
 		ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
 		resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
 
-		List<Member> members;
-		if (filterExpiredMembers) {
-			members = getPerunBl().getResourcesManagerBl().getAllowedMembersNotExpired(sess, resource);
-		} else {
-			members = getPerunBl().getResourcesManagerBl().getAllowedMembers(sess, resource);
+		for (Member mem : membersAttributes.keySet()) {
+			ServiceAttributes serviceAttributes = new ServiceAttributes();
+			serviceAttributes.addAttributes(membersAttributes.get(mem));
+			resourceServiceAttributes.addChildElement(serviceAttributes);
 		}
 
-		HashMap<Member, List<Attribute>> attributes;
+		return resourceServiceAttributes;
 
-		try {
-			attributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, resource, members, true);
-		} catch(MemberResourceMismatchException ex) {
-			throw new InternalErrorException(ex);
+	}
+
+	/**
+	 * Returns allowed members of each resource.
+	 *
+	 * @param sess perun session
+	 * @param resources resources to get allowed members for
+	 * @param filterExpiredMembers if true, expired members are not returned
+	 * @return map of resources to their allowed members (in the same order as resources)
+	 */
+	private Map<Resource, List<Member>> getAllowedMembers(PerunSession sess, List<Resource> resources, boolean filterExpiredMembers) throws InternalErrorException {
+		Map<Resource, List<Member>> resourcesMembers = new LinkedHashMap<>();
+		for (Resource resource : resources) {
+			if (filterExpiredMembers) {
+				resourcesMembers.put(resource, getPerunBl().getResourcesManagerBl().getAllowedMembersNotExpired(sess, resource));
+			} else {
+				resourcesMembers.put(resource, getPerunBl().getResourcesManagerBl().getAllowedMembers(sess, resource));
+			}
 		}
+		return resourcesMembers;
+	}
 
-		for (Member mem : attributes.keySet()) {
-			ServiceAttributes serviceAttributes = new ServiceAttributes();
-			serviceAttributes.addAttributes(attributes.get(mem));
-			resourceServiceAttributes.addChildElement(serviceAttributes);
+	/**
+	 * Returns member-resource, member, user-facility and user attributes required by the service
+	 * for all members allowed on all given resources of the facility.
+	 *
+	 * Member, user and user-facility attributes are loaded in bulk only once for all distinct members and users
+	 * of the facility, regardless of the number of resources they are allowed on. Only member-resource attributes
+	 * are loaded per resource (for all its members at once).
+	 *
+	 * Result for each resource is the same as from
+	 * {@link cz.metacentrum.perun.core.bl.AttributesManagerBl#getRequiredAttributes(PerunSession, Service, Facility, Resource, List, boolean)}
+	 * with workWithUserAttributes set to true.
+	 *
+	 * @param sess perun session
+	 * @param service service to get required attributes for
+	 * @param facility facility of the resources
+	 * @param resourcesMembers resources and their allowed members
+	 * @return map of resources to map of members and their required attributes
+	 */
+	private Map<Resource, HashMap<Member, List<Attribute>>> getRequiredMembersAttributes(PerunSession sess, Service service, Facility facility, Map<Resource, List<Member>> resourcesMembers) throws InternalErrorException {
+		Map<Integer, Member> distinctMembers = new LinkedHashMap<>();
+		Set<Integer> usersIds = new HashSet<>();
+		for (List<Member> members : resourcesMembers.values()) {
+			for (Member member : members) {
+				distinctMembers.putIfAbsent(member.getId(), member);
+				usersIds.add(member.getUserId());
+			}
 		}
 
-		return resourceServiceAttributes;
+		List<Member> allMembers = new ArrayList<>(distinctMembers.values());
+		List<User> allUsers = usersIds.isEmpty() ? new ArrayList<>() : getPerunBl().getUsersManagerBl().getUsersByIds(sess, new ArrayList<>(usersIds));
+
+		// resource is not used when reading member attributes
+		Map<Integer, List<Attribute>> memberAttributes = mapAttributesByHolderId(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, (Resource) null, service, allMembers));
+		Map<Integer, List<Attribute>> userFacilityAttributes = mapAttributesByHolderId(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, allUsers));
+		Map<Integer, List<Attribute>> userAttributes = mapAttributesByHolderId(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, allUsers));
+
+		Map<Resource, HashMap<Member, List<Attribute>>> resourcesMembersAttributes = new HashMap<>();
+		for (Map.Entry<Resource, List<Member>> resourceMembers : resourcesMembers.entrySet()) {
+			Resource resource = resourceMembers.getKey();
+			List<Member> members = resourceMembers.getValue();
+			HashMap<Member, List<Attribute>> memberResourceAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource, members);
+
+			HashMap<Member, List<Attribute>> attributes = new HashMap<>();
+			for (Member member : members) {
+				List<Attribute> memberRequiredAttributes = null;
+				memberRequiredAttributes = appendAttributes(memberRequiredAttributes, memberResourceAttributes.get(member));
+				memberRequiredAttributes = appendAttributes(memberRequiredAttributes, memberAttributes.get(member.getId()));
+				memberRequiredAttributes = appendAttributes(memberRequiredAttributes, userFacilityAttributes.get(member.getUserId()));
+				memberRequiredAttributes = appendAttributes(memberRequiredAttributes, userAttributes.get(member.getUserId()));
+				// members without any required attribute are not part of the data
+				if (memberRequiredAttributes != null) {
+					attributes.put(member, memberRequiredAttributes);
+				}
+			}
+			resourcesMembersAttributes.put(resource, attributes);
+		}
+
+		return resourcesMembersAttributes;
+	}
 
+	private static <T extends PerunBean> Map<Integer, List<Attribute>> mapAttributesByHolderId(Map<T, List<Attribute>> attributes) {
+		Map<Integer, List<Attribute>> attributesById = new HashMap<>();
+		for (Map.Entry<T, List<Attribute>> entry : attributes.entrySet()) {
+			attributesById.put(entry.getKey().getId(), entry.getValue());
+		}
+		return attributesById;
+	}
+
+	private static List<Attribute> appendAttributes(List<Attribute> attributes, List<Attribute> attributesToAppend) {
+		if (attributesToAppend == null) return attributes;
+		if (attributes == null) attributes = new ArrayList<>();
+		attributes.addAll(attributesToAppend);
+		return attributes;
 	}
 
-	private ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers) throws InternalErrorException {
+	private ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, Resource resource, HashMap<Member, List<Attribute>> membersAttributes, boolean filterExpiredMembers) throws InternalErrorException {
 
 		// append resource attributes
 		ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
@@ -366,25 +453,10 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		ServiceAttributes membersAbstractSA = new ServiceAttributes();
 		Map<Member, ServiceAttributes> memberAttributes = new HashMap<>();
 
-		List<Member> members;
-		if (filterExpiredMembers) {
-			members = getPerunBl().getResourcesManagerBl().getAllowedMembersNotExpired(sess, resource);
-		} else {
-			members = getPerunBl().getResourcesManagerBl().getAllowedMembers(sess, resource);
-		}
-
-		HashMap<Member, List<Attribute>> attributes;
-
-		try {
-			// append all member/member_resource/user/user_facility attributes
-			attributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, resource, members, true);
-		} catch(MemberResourceMismatchException ex) {
-			throw new InternalErrorException(ex);
-		}
-
-		for (Member mem : attributes.keySet()) {
+		// append all member/member_resource/user/user_facility attributes
+		for (Member mem : membersAttributes.keySet()) {
 			ServiceAttributes tmpAttributes = new ServiceAttributes();
-			tmpAttributes.addAttributes(attributes.get(mem));
+			tmpAttributes.addAttributes(membersAttributes.get(mem));
 			memberAttributes.put(mem, tmpAttributes);
 			membersAbstractSA.addChildElement(tmpAttributes);
 		}
@@ -403,12 +475,12 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		return resourceServiceAttributes;
 	}
 
-	private ServiceAttributes getDataWithVo(PerunSession sess, Service service, Facility facility, Vo vo, List<Resource> resources, boolean filterExpiredMembers) throws InternalErrorException {
+	private ServiceAttributes getDataWithVo(PerunSession sess, Service service, Facility facility, Vo vo, List<Resource> resources, Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes, boolean filterExpiredMembers) throws InternalErrorException {
 		ServiceAttributes voServiceAttributes = new ServiceAttributes();
 		voServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, vo));
 
 		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, filterExpiredMembers);
+			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, membersAttributes.get(resource), filterExpiredMembers);
 			voServiceAttributes.addChildElement(resourceServiceAttributes);
 		}
 
@@ -446,6 +518,9 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			members.removeAll(membersToRemove);
 		}
 
+		// member_group attributes of all members in a group
+		HashMap<Member, List<Attribute>> memberGroupAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, group, members);
+
 		for(Member member : members) {
 			// append also member_group attributes for each member in a group
 			// rest of member/user attributes was passed in a param if present
@@ -453,7 +528,9 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			if (memberAttributes.get(member) != null) {
 				tempAttrs.addAttributes(memberAttributes.get(member).getAttributes());
 			}
-			tempAttrs.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, member, group));
+			if (memberGroupAttributes.get(member) != null) {
+				tempAttrs.addAttributes(memberGroupAttributes.get(member));
+			}
 			groupsMembersElement.addChildElement(tempAttrs);
 		}
 
@@ -495,13 +572,33 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 
 		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
 		resources.retainAll(getAssignedResources(sess, service));
+
+		// load attributes of all members of the facility at once
+		Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes = getRequiredMembersAttributes(sess, service, facility, getAllowedMembers(sess, resources, filterExpiredMembers));
+
 		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getData(sess, service, facility, resource, filterExpiredMembers);
+			ServiceAttributes resourceServiceAttributes = getData(sess, service, resource, membersAttributes.get(resource));
 			serviceAttributes.addChildElement(resourceServiceAttributes);
 		}
 		return serviceAttributes;
 	}
 
+	@Override
+	public void getHierarchicalData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException {
+		writer.startElement(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+
+		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
+		resources.retainAll(getAssignedResources(sess, service));
+
+		// load attributes resource by resource, so only one subtree is held in memory
+		for(Resource resource: resources) {
+			Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes = getRequiredMembersAttributes(sess, service, facility, getAllowedMembers(sess, Collections.singletonList(resource), filterExpiredMembers));
+			writer.writeElement(getData(sess, service, resource, membersAttributes.get(resource)));
+		}
+
+		writer.endElement();
+	}
+
 	@Override
 	public ServiceAttributes getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException {
 		ServiceAttributes serviceAttributes = new ServiceAttributes();
@@ -544,6 +641,47 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 
 	}
 
+	@Override
+	public void getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException {
+		writer.startElement(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+
+		writer.startElement(Collections.emptyList());
+		List<Resource> facilityResources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
+		facilityResources.retainAll(getAssignedResources(sess, service));
+		for(Resource resource : facilityResources) {
+			ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
+			resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
+			writer.writeElement(resourceServiceAttributes);
+		}
+		writer.endElement();
+
+		writer.startElement(Collections.emptyList());
+		List<User> facilityUsers;
+		if (filterExpiredMembers) {
+			facilityUsers = getPerunBl().getFacilitiesManagerBl().getAllowedUsersNotExpired(sess, facility, null, service);
+		} else {
+			facilityUsers = getPerunBl().getFacilitiesManagerBl().getAllowedUsers(sess, facility, null, service);
+		}
+
+		// get attributes of users in batches, so only one batch is held in memory
+		for (int i = 0; i < facilityUsers.size(); i += USERS_BATCH_SIZE) {
+			List<User> users = facilityUsers.subList(i, Math.min(i + USERS_BATCH_SIZE, facilityUsers.size()));
+			HashMap<User, List<Attribute>> userFacilityAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, users);
+			HashMap<User, List<Attribute>> userAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, users);
+
+			for (User user : users) {
+				ServiceAttributes userServiceAttributes = new ServiceAttributes();
+				// Depending on a service requirements we might get null user or user-facility attributes
+				if (userAttributes.get(user) != null) userServiceAttributes.addAttributes(userAttributes.get(user));
+				if (userFacilityAttributes.get(user) != null) userServiceAttributes.addAttributes(userFacilityAttributes.get(user));
+				writer.writeElement(userServiceAttributes);
+			}
+		}
+		writer.endElement();
+
+		writer.endElement();
+	}
+
 	@Override
 	public ServiceAttributes getDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, VoNotExistsException {
 		ServiceAttributes serviceAttributes = new ServiceAttributes();
@@ -564,10 +702,13 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			vos.add(getPerunBl().getVosManagerBl().getVoById(sess, voId));
 		}
 
+		// load attributes of all members of the facility at once
+		Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes = getRequiredMembersAttributes(sess, service, facility, getAllowedMembers(sess, resources, filterExpiredMembers));
+
 		for(Vo vo: vos) {
 			List<Resource> voResources = getPerunBl().getResourcesManagerBl().getResources(sess, vo);
 			voResources.retainAll(resources);
-			ServiceAttributes voServiceAttributes = getDataWithVo(sess, service, facility, vo, voResources, filterExpiredMembers);
+			ServiceAttributes voServiceAttributes = getDataWithVo(sess, service, facility, vo, voResources, membersAttributes, filterExpiredMembers);
 			serviceAttributes.addChildElement(voServiceAttributes);
 		}
 
@@ -581,13 +722,33 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 
 		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
 		resources.retainAll(getAssignedResources(sess, service));
+
+		// load attributes of all members of the facility at once
+		Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes = getRequiredMembersAttributes(sess, service, facility, getAllowedMembers(sess, resources, filterExpiredMembers));
+
 		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, filterExpiredMembers);
+			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, membersAttributes.get(resource), filterExpiredMembers);
 			serviceAttributes.addChildElement(resourceServiceAttributes);
 		}
 		return serviceAttributes;
 	}
 
+	@Override
+	public void getDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException {
+		writer.startElement(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+
+		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
+		resources.retainAll(getAssignedResources(sess, service));
+
+		// load attributes resource by resource, so only one subtree is held in memory
+		for(Resource resource: resources) {
+			Map<Resource, HashMap<Member, List<Attribute>>> membersAttributes = getRequiredMembersAttributes(sess, service, facility, getAllowedMembers(sess, Collections.singletonList(resource), filterExpiredMembers));
+			writer.writeElement(getDataWithGroups(sess, service, facility, resource, membersAttributes.get(resource), filterExpiredMembers));
+		}
+
+		writer.endElement();
+	}
+
 	@Override
 	public List<ServicesPackage> getServicesPackages(PerunSession sess) throws InternalErrorException {
 		return getServicesManagerImpl().getServicesPackages(sess);
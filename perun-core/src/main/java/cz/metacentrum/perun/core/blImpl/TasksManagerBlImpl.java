@@ -58,6 +58,11 @@ public class TasksManagerBlImpl implements TasksManagerBl {
 		return tasksManagerImpl.insertNewTaskResult(taskResult, engineID);
 	}
 
+	@Override
+	public void insertNewTaskResults(List<TaskResult> taskResults, int engineID) {
+		tasksManagerImpl.insertNewTaskResults(taskResults, engineID);
+	}
+
 	@Override
 	public List<TaskResult> getTaskResults(int engineID) {
 		return getTaskResults(engineID);
@@ -197,6 +202,11 @@ public class TasksManagerBlImpl implements TasksManagerBl {
 		tasksManagerImpl.updateTask(task);
 	}
 
+	@Override
+	public void updateTasks(List<Task> tasks) {
+		tasksManagerImpl.updateTasks(tasks);
+	}
+
 	@Override
 	public void updateTaskEngine(Task task, int engineID) throws InternalErrorException {
 		tasksManagerImpl.updateTaskEngine(task, engineID);
@@ -25,6 +25,8 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -222,6 +224,7 @@ public class UsersManagerBlImpl implements UsersManagerBl {
 			getPerunBl().getAuditer().log(sess, new OwnershipDisabledForSpecificUser(user, specificUser));
 			getUsersManagerImpl().disableOwnership(sess, user, specificUser);
 		}
+		AuthzResolverBlImpl.invalidateUserRoles(user);
 	}
 
 	@Override
@@ -239,6 +242,7 @@ public class UsersManagerBlImpl implements UsersManagerBl {
 			getPerunBl().getAuditer().log(sess, new UserAddedToOwnersOfSpecificUser(user, specificUser));
 			getUsersManagerImpl().addSpecificUserOwner(sess, user, specificUser);
 		}
+		AuthzResolverBlImpl.invalidateUserRoles(user);
 
 		try {
 			// refresh authz for sponsors
@@ -832,6 +836,36 @@ public class UsersManagerBlImpl implements UsersManagerBl {
 		return getUsersManagerImpl().getVosWhereUserIsMember(sess, user);
 	}
 
+	@Override
+	public Map<Integer, Set<Integer>> getVosIdsWhereUsersAreMembers(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getVosIdsWhereUsersAreMembers(sess, users);
+	}
+
+	@Override
+	public Map<Integer, List<Member>> getMembersOfUsers(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getMembersOfUsers(sess, users);
+	}
+
+	@Override
+	public Map<Integer, List<UserExtSource>> getUserExtSourcesOfUsers(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getUserExtSourcesOfUsers(sess, users);
+	}
+
+	@Override
+	public Map<Integer, List<Group>> getGroupsWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getGroupsWhereUsersAreAdmins(sess, users);
+	}
+
+	@Override
+	public Map<Integer, List<Vo>> getVosWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getVosWhereUsersAreAdmins(sess, users);
+	}
+
+	@Override
+	public Map<Integer, List<Facility>> getFacilitiesWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getUsersManagerImpl().getFacilitiesWhereUsersAreAdmins(sess, users);
+	}
+
 	@Override
 	public List<RichUser> getRichUsersWithoutVoAssigned(PerunSession sess) throws InternalErrorException, UserNotExistsException {
 		List<User> users = this.getUsersWithoutVoAssigned(sess);
@@ -2107,6 +2141,23 @@ public class UsersManagerBlImpl implements UsersManagerBl {
 
 	}
 
+	@Override
+	public Paginated<RichUser> getRichUsersWithAttributesPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers, List<String> attrsNames) throws InternalErrorException {
+		Paginated<User> page = getUsersManagerImpl().getUsersPage(sess, query, includedSpecificUsers);
+		Map<Integer, List<Attribute>> attributes;
+		if(attrsNames == null || attrsNames.isEmpty()) {
+			attributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, page.getData());
+		} else {
+			attributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, page.getData(), attrsNames);
+		}
+
+		List<RichUser> richUsers = convertUsersToRichUsers(sess, page.getData());
+		for (RichUser richUser : richUsers) {
+			richUser.setUserAttributes(attributes.get(richUser.getId()));
+		}
+		return new Paginated<>(richUsers, page.getOffset(), page.getPageSize(), page.getTotalCount());
+	}
+
 	@Override
 	public void setLogin(PerunSession sess, User user, String loginNamespace, String login) throws InternalErrorException {
 
@@ -2482,4 +2533,9 @@ public class UsersManagerBlImpl implements UsersManagerBl {
 
 	}
 
+	@Override
+	public int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException {
+		return getUsersManagerImpl().rebuildUserSearchIndex(sess);
+	}
+
 }
@@ -2,6 +2,7 @@ package cz.metacentrum.perun.core.entry;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.AuditMessagesListener;
 import cz.metacentrum.perun.core.api.AuditMessagesManager;
 import cz.metacentrum.perun.core.api.AuthzResolver;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -77,6 +78,46 @@ public class AuditMessagesManagerEntry implements AuditMessagesManager {
 		return getAuditMessagesManagerBl().pollConsumerEvents(perunSession, consumerName, lastProcessedId);
 	}
 
+	@Override
+	public List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException, PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "waitForConsumerMessages");
+		}
+		return getAuditMessagesManagerBl().waitForConsumerMessages(perunSession, consumerName, timeout);
+	}
+
+	@Override
+	public List<AuditMessage> waitForConsumerMessages(PerunSession perunSession, String consumerName, int lastProcessedId, long timeout) throws InternalErrorException, PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "waitForConsumerMessages");
+		}
+		return getAuditMessagesManagerBl().waitForConsumerMessages(perunSession, consumerName, lastProcessedId, timeout);
+	}
+
+	@Override
+	public List<AuditEvent> waitForConsumerEvents(PerunSession perunSession, String consumerName, long timeout) throws InternalErrorException, PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "waitForConsumerEvents");
+		}
+		return getAuditMessagesManagerBl().waitForConsumerEvents(perunSession, consumerName, timeout);
+	}
+
+	@Override
+	public void addAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) throws PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "addAuditMessagesListener");
+		}
+		getAuditMessagesManagerBl().addAuditMessagesListener(perunSession, listener);
+	}
+
+	@Override
+	public void removeAuditMessagesListener(PerunSession perunSession, AuditMessagesListener listener) throws PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "removeAuditMessagesListener");
+		}
+		getAuditMessagesManagerBl().removeAuditMessagesListener(perunSession, listener);
+	}
+
 	@Override
 	public void createAuditerConsumer(PerunSession perunSession, String consumerName) throws InternalErrorException, PrivilegeException {
 		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
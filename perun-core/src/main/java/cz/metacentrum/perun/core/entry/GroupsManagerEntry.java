@@ -1677,4 +1677,16 @@ public class GroupsManagerEntry implements GroupsManager {
 		return getGroupsManagerBl().canExtendMembershipInGroupWithReason(sess, member, group);
 	}
 
+	@Override
+	public int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.PERUNADMIN)) {
+			throw new PrivilegeException(sess, "checkGroupsClosure");
+		}
+
+		return getGroupsManagerBl().checkGroupsClosure(sess, repair);
+	}
+
 }
@@ -11,6 +11,7 @@ import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Role;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesWriter;
 import cz.metacentrum.perun.core.api.ServicesManager;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.Vo;
@@ -448,6 +449,23 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getHierarchicalData(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void getHierarchicalData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getHierarchicalData");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().getHierarchicalData(sess, service, facility, filterExpiredMembers, writer);
+	}
+
 	@Override
 	public ServiceAttributes getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -465,6 +483,23 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getFlatData(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getFlatData");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().getFlatData(sess, service, facility, filterExpiredMembers, writer);
+	}
+
 	@Override
 	public ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -482,6 +517,23 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getDataWithGroups(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void getDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesWriter writer) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getDataWithGroups");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().getDataWithGroups(sess, service, facility, filterExpiredMembers, writer);
+	}
+
 	@Override
 	public ServiceAttributes getDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, VoNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -7,6 +7,8 @@ import cz.metacentrum.perun.core.api.ExtSource;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichGroup;
@@ -1221,6 +1223,21 @@ public class UsersManagerEntry implements UsersManager {
 
 	}
 
+	@Override
+	public Paginated<RichUser> getRichUsersWithAttributesPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers, List<String> attrsNames) throws InternalErrorException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+		Utils.checkPageQuery(query, false);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getRichUsersWithAttributesPage");
+		}
+
+		Paginated<RichUser> page = getUsersManagerBl().getRichUsersWithAttributesPage(sess, query, includedSpecificUsers, attrsNames);
+		page.setData(getPerunBl().getUsersManagerBl().filterOnlyAllowedAttributes(sess, page.getData()));
+		return page;
+	}
+
 	@Override
 	public List<RichUser> findRichUsersWithAttributes(PerunSession sess, String searchString, List<String> attrNames) throws InternalErrorException, UserNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -1495,4 +1512,16 @@ public class UsersManagerEntry implements UsersManager {
 
 	}
 
+	@Override
+	public int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.PERUNADMIN)) {
+			throw new PrivilegeException(sess, "rebuildUserSearchIndex");
+		}
+
+		return getUsersManagerBl().rebuildUserSearchIndex(sess);
+	}
+
 }
@@ -0,0 +1,428 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.Holder;
+import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
+import cz.metacentrum.perun.core.implApi.AttributesCacheInvalidationBus;
+import org.infinispan.Cache;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryExpiredEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
+import org.infinispan.stats.Stats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of attribute definitions and values of attributes stored in the DB (def and opt namespaces).
+ *
+ * Entries are loaded on demand by the loader of the caller and stored in the Infinispan cache limited by the number
+ * of entries and time to live. Entry is stored only if no invalidation happened during its loading (checked by
+ * the version of the cache), if the current transaction didn't invalidate anything (uncommitted changes must not be
+ * visible to other sessions, such transaction reads everything from the DB) and if the current transaction doesn't
+ * read a snapshot (serializable or repeatable read), which can be older than invalidations. Invalidations are applied immediately and
+ * once more after the completion of the current transaction, when they are also published to other instances by
+ * the {@link AttributesCacheInvalidationBus}. Entries older than time to live are not used, which limits the impact
+ * of changes not covered by invalidations.
+ *
+ * Cached values are indexed by their holders, so invalidation of holders doesn't go through the whole cache.
+ * Returned and stored definitions and attributes are always copied, so callers can modify them.
+ * Hits, misses and evictions are available from {@link #getStats()} and by JMX.
+ *
+ * Methods in this class are thread safe
+ */
+public class AttributesCache {
+
+	private final static Logger log = LoggerFactory.getLogger(AttributesCache.class);
+
+	private final Cache<Object, Object> cache;
+	private final AttributesCacheInvalidationBus invalidationBus;
+	private final String origin = UUID.randomUUID().toString();
+	private final AtomicLong version = new AtomicLong();
+	private final HoldersIndex holdersIndex = new HoldersIndex();
+	// bound to the transaction which invalidated something, holds invalidations to repeat after its completion
+	private final Object pendingInvalidationsKey = new Object();
+
+	/**
+	 * Loader of the entry from the DB.
+	 *
+	 * @param <T> type of the entry
+	 */
+	@FunctionalInterface
+	public interface Loader<T> {
+		T load() throws AttributeNotExistsException;
+	}
+
+	/**
+	 * @param cache bounded Infinispan cache or null, if the cache is disabled
+	 * @param invalidationBus channel of invalidations between instances
+	 */
+	public AttributesCache(Cache<Object, Object> cache, AttributesCacheInvalidationBus invalidationBus) {
+		this.cache = cache;
+		this.invalidationBus = invalidationBus;
+		if (cache != null) {
+			cache.addListener(holdersIndex);
+			invalidationBus.subscribe(this::onInvalidation);
+		}
+	}
+
+	public boolean isEnabled() {
+		return cache != null;
+	}
+
+	/**
+	 * Returns copy of the attribute definition, loads it if it is not cached.
+	 *
+	 * @param attributeName full name of the attribute
+	 * @param loader loader of the definition from the DB
+	 * @return attribute definition
+	 * @throws AttributeNotExistsException if the loader throws it
+	 */
+	public AttributeDefinition getAttributeDefinition(String attributeName, Loader<AttributeDefinition> loader) throws AttributeNotExistsException {
+		return getAttributeDefinition(new DefinitionKey(null, attributeName), loader);
+	}
+
+	/**
+	 * Returns copy of the attribute definition, loads it if it is not cached.
+	 *
+	 * @param id id of the attribute
+	 * @param loader loader of the definition from the DB
+	 * @return attribute definition
+	 * @throws AttributeNotExistsException if the loader throws it
+	 */
+	public AttributeDefinition getAttributeDefinition(int id, Loader<AttributeDefinition> loader) throws AttributeNotExistsException {
+		return getAttributeDefinition(new DefinitionKey(id, null), loader);
+	}
+
+	private AttributeDefinition getAttributeDefinition(DefinitionKey key, Loader<AttributeDefinition> loader) throws AttributeNotExistsException {
+		if (!isUsable()) return loader.load();
+		AttributeDefinition cached = (AttributeDefinition) cache.get(key);
+		if (cached != null) return new AttributeDefinition(cached);
+
+		long loadedVersion = version.get();
+		AttributeDefinition attributeDefinition = loader.load();
+		put(key, new AttributeDefinition(attributeDefinition), loadedVersion);
+		return attributeDefinition;
+	}
+
+	/**
+	 * Returns copy of the attribute with value of the holders, loads it if it is not cached.
+	 * Only attributes from def and opt namespaces can be cached, values of other attributes depend on the holder beans.
+	 *
+	 * @param attributeDefinition definition of the attribute
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder or null
+	 * @param loader loader of the attribute from the DB
+	 * @return attribute with value
+	 * @throws AttributeNotExistsException if the loader throws it
+	 */
+	public Attribute getAttribute(AttributeDefinition attributeDefinition, Holder primaryHolder, Holder secondaryHolder, Loader<Attribute> loader) throws AttributeNotExistsException {
+		if (!isUsable() || !isStoredInDB(attributeDefinition)) return loader.load();
+		ValueKey key = new ValueKey(attributeDefinition.getId(), primaryHolder, secondaryHolder);
+		Attribute cached = (Attribute) cache.get(key);
+		if (cached != null) return copy(cached);
+
+		long loadedVersion = version.get();
+		Attribute attribute = loader.load();
+		put(key, copy(attribute), loadedVersion);
+		return attribute;
+	}
+
+	private void put(Object key, Object value, long loadedVersion) {
+		if (version.get() != loadedVersion || isSnapshotRead()) return;
+		cache.put(key, value);
+		if (key instanceof ValueKey) holdersIndex.add((ValueKey) key);
+		// invalidation could happen between the check and the put
+		if (version.get() != loadedVersion) cache.remove(key);
+	}
+
+	/**
+	 * Removes value of the attribute of the holders.
+	 *
+	 * @param attribute attribute
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder or null
+	 */
+	public void invalidateAttribute(AttributeDefinition attribute, Holder primaryHolder, Holder secondaryHolder) {
+		invalidate(new Invalidation(origin, attribute.getId(), primaryHolder, secondaryHolder, false));
+	}
+
+	/**
+	 * Removes values of all attributes of holders matching both given holders. Null holder matches any holder,
+	 * e.g. (null, facility) removes values of all user-facility attributes of the facility.
+	 *
+	 * @param primaryHolder primary holder or null
+	 * @param secondaryHolder secondary holder or null
+	 */
+	public void invalidateHolders(Holder primaryHolder, Holder secondaryHolder) {
+		invalidate(new Invalidation(origin, null, primaryHolder, secondaryHolder, false));
+	}
+
+	/**
+	 * Removes all definitions and values (e.g. when some definition changed).
+	 */
+	public void invalidateAll() {
+		invalidate(new Invalidation(origin, null, null, null, true));
+	}
+
+	private void invalidate(Invalidation invalidation) {
+		if (!isEnabled()) return;
+		apply(invalidation);
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidationBus.publish(invalidation);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<Invalidation> pendingInvalidations = (List<Invalidation>) TransactionSynchronizationManager.getResource(pendingInvalidationsKey);
+		if (pendingInvalidations == null) {
+			List<Invalidation> invalidations = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(pendingInvalidationsKey, invalidations);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(pendingInvalidationsKey);
+					for (Invalidation pendingInvalidation : invalidations) {
+						apply(pendingInvalidation);
+						invalidationBus.publish(pendingInvalidation);
+					}
+				}
+			});
+			pendingInvalidations = invalidations;
+		}
+		pendingInvalidations.add(invalidation);
+	}
+
+	private void onInvalidation(Invalidation invalidation) {
+		if (origin.equals(invalidation.origin)) return;
+		log.debug("Applying invalidation {} of the attributes cache.", invalidation);
+		apply(invalidation);
+	}
+
+	private void apply(Invalidation invalidation) {
+		version.incrementAndGet();
+		if (invalidation.all) {
+			cache.clear();
+			holdersIndex.clear();
+		} else if (invalidation.attributeId != null) {
+			cache.remove(new ValueKey(invalidation.attributeId, invalidation.primaryHolder, invalidation.secondaryHolder));
+		} else if (invalidation.primaryHolder == null && invalidation.secondaryHolder == null) {
+			cache.keySet().removeIf(key -> key instanceof ValueKey);
+		} else {
+			Holder holder = invalidation.primaryHolder != null ? invalidation.primaryHolder : invalidation.secondaryHolder;
+			for (ValueKey key : holdersIndex.get(holder)) {
+				if (key.belongsTo(invalidation.primaryHolder, invalidation.secondaryHolder)) cache.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Cache can't be used by the transaction, which changed some attributes.
+	 */
+	private boolean isUsable() {
+		return isEnabled() && !TransactionSynchronizationManager.hasResource(pendingInvalidationsKey);
+	}
+
+	/**
+	 * Snapshot read by the transaction can be older than the invalidations, so its values must not be stored.
+	 */
+	private static boolean isSnapshotRead() {
+		Integer isolationLevel = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+		return isolationLevel != null && (isolationLevel == TransactionDefinition.ISOLATION_SERIALIZABLE ||
+			isolationLevel == TransactionDefinition.ISOLATION_REPEATABLE_READ);
+	}
+
+	/**
+	 * @return statistics of the cache (hits, misses, evictions...) or null, if the cache is disabled
+	 */
+	public Stats getStats() {
+		return isEnabled() ? cache.getAdvancedCache().getStats() : null;
+	}
+
+	@Override
+	public String toString() {
+		Stats stats = getStats();
+		if (stats == null) return getClass().getSimpleName() + ":[enabled='false']";
+		return getClass().getSimpleName() + ":[size='" + stats.getCurrentNumberOfEntries() + "', hits='" + stats.getHits() +
+			"', misses='" + stats.getMisses() + "', evictions='" + stats.getEvictions() + "']";
+	}
+
+	private static boolean isStoredInDB(AttributeDefinition attributeDefinition) {
+		String namespace = attributeDefinition.getNamespace();
+		return namespace != null && (namespace.endsWith(":def") || namespace.endsWith(":opt"));
+	}
+
+	private static Attribute copy(Attribute attribute) {
+		Attribute copy = new Attribute(attribute, true);
+		if (attribute.getValue() instanceof ArrayList) {
+			copy.setValue(new ArrayList<>((ArrayList<?>) attribute.getValue()));
+		} else if (attribute.getValue() instanceof LinkedHashMap) {
+			copy.setValue(new LinkedHashMap<>((LinkedHashMap<?, ?>) attribute.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * Invalidation of the cache delivered to other instances.
+	 */
+	public static final class Invalidation implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String origin;
+		private final Integer attributeId;
+		private final Holder primaryHolder;
+		private final Holder secondaryHolder;
+		private final boolean all;
+
+		private Invalidation(String origin, Integer attributeId, Holder primaryHolder, Holder secondaryHolder, boolean all) {
+			this.origin = origin;
+			this.attributeId = attributeId;
+			this.primaryHolder = primaryHolder;
+			this.secondaryHolder = secondaryHolder;
+			this.all = all;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + ":[origin='" + origin + "', attributeId='" + attributeId + "', primaryHolder='" +
+				primaryHolder + "', secondaryHolder='" + secondaryHolder + "', all='" + all + "']";
+		}
+	}
+
+	/**
+	 * Keys of cached values by their primary and secondary holders. Keys are removed from the index together with
+	 * entries removed from the cache (also by eviction and expiration).
+	 */
+	@Listener
+	public static final class HoldersIndex {
+
+		private final ConcurrentMap<Holder, Set<ValueKey>> keysByHolder = new ConcurrentHashMap<>();
+
+		private void add(ValueKey key) {
+			add(key.primaryHolder, key);
+			if (key.secondaryHolder != null) add(key.secondaryHolder, key);
+		}
+
+		private void add(Holder holder, ValueKey key) {
+			keysByHolder.compute(holder, (h, keys) -> {
+				if (keys == null) keys = ConcurrentHashMap.newKeySet();
+				keys.add(key);
+				return keys;
+			});
+		}
+
+		private void remove(Object key) {
+			if (!(key instanceof ValueKey)) return;
+			ValueKey valueKey = (ValueKey) key;
+			remove(valueKey.primaryHolder, valueKey);
+			if (valueKey.secondaryHolder != null) remove(valueKey.secondaryHolder, valueKey);
+		}
+
+		private void remove(Holder holder, ValueKey key) {
+			keysByHolder.computeIfPresent(holder, (h, keys) -> {
+				keys.remove(key);
+				return keys.isEmpty() ? null : keys;
+			});
+		}
+
+		private List<ValueKey> get(Holder holder) {
+			Set<ValueKey> keys = keysByHolder.get(holder);
+			return keys == null ? new ArrayList<>() : new ArrayList<>(keys);
+		}
+
+		private void clear() {
+			keysByHolder.clear();
+		}
+
+		@CacheEntryRemoved
+		public void onRemoved(CacheEntryRemovedEvent<Object, Object> event) {
+			if (!event.isPre()) remove(event.getKey());
+		}
+
+		@CacheEntriesEvicted
+		public void onEvicted(CacheEntriesEvictedEvent<Object, Object> event) {
+			event.getEntries().keySet().forEach(this::remove);
+		}
+
+		@CacheEntryExpired
+		public void onExpired(CacheEntryExpiredEvent<Object, Object> event) {
+			remove(event.getKey());
+		}
+	}
+
+	private static final class DefinitionKey {
+
+		private final Integer id;
+		private final String name;
+
+		private DefinitionKey(Integer id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof DefinitionKey)) return false;
+			DefinitionKey that = (DefinitionKey) o;
+			return Objects.equals(id, that.id) && Objects.equals(name, that.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, name);
+		}
+	}
+
+	private static final class ValueKey {
+
+		private final int attributeId;
+		private final Holder primaryHolder;
+		private final Holder secondaryHolder;
+
+		private ValueKey(int attributeId, Holder primaryHolder, Holder secondaryHolder) {
+			this.attributeId = attributeId;
+			this.primaryHolder = primaryHolder;
+			this.secondaryHolder = secondaryHolder;
+		}
+
+		private boolean belongsTo(Holder primaryHolder, Holder secondaryHolder) {
+			return (primaryHolder == null || primaryHolder.equals(this.primaryHolder)) &&
+				(secondaryHolder == null || secondaryHolder.equals(this.secondaryHolder));
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof ValueKey)) return false;
+			ValueKey that = (ValueKey) o;
+			return attributeId == that.attributeId && Objects.equals(primaryHolder, that.primaryHolder) &&
+				Objects.equals(secondaryHolder, that.secondaryHolder);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(attributeId, primaryHolder, secondaryHolder);
+		}
+	}
+
+}
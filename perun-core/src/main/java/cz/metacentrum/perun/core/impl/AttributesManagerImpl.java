@@ -98,6 +98,7 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static cz.metacentrum.perun.core.api.AttributesManager.NS_ENTITYLESS_ATTR;
 import static cz.metacentrum.perun.core.api.AttributesManager.NS_FACILITY_ATTR;
@@ -127,11 +128,13 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 	public static final char KEY_VALUE_DELIMITER = ':';
 	private static final String ATTRIBUTES_MODULES_PACKAGE = "cz.metacentrum.perun.core.impl.modules.attributes";
 	private static final int MERGE_TRY_CNT = 10;
+	private static final int MAX_IDS_IN_QUERY = 1000;
 	private static final long MERGE_RAND_SLEEP_MAX = 100;  //max sleep time between SQL merge attempt in millisecond
 
 	private final static Logger log = LoggerFactory.getLogger(AttributesManagerImpl.class);
 
 	private Perun perun;
+	private AttributesCache attributesCache;
 	// http://static.springsource.org/spring/docs/3.0.x/spring-framework-reference/html/jdbc.html
 	private JdbcPerunTemplate jdbc;
 	private LobHandler lobHandler;
@@ -1563,6 +1566,201 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 
 
+	@Override
+	public Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (User user : users) attributes.put(user.getId(), getAttributes(sess, user));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSC", AttributesManager.NS_USER_ATTR_CORE);
+		parameters.addValue("nSO", AttributesManager.NS_USER_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_USER_ATTR_DEF);
+
+		return getAttributesOfHolders(users, "users", "user_attr_values usr on attr_names.id=usr.attr_id and usr.user_id=h.id", "usr",
+				"attr_names.namespace=:nSC or (attr_names.namespace in ( :nSO,:nSD ) and (usr.attr_value is not null or usr.attr_value_text is not null))",
+				parameters, user -> new SingleBeanAttributeRowMapper<>(sess, this, user));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (User user : users) attributes.put(user.getId(), getAttributes(sess, user, attrNames));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSC", AttributesManager.NS_USER_ATTR_CORE);
+		parameters.addValue("nSO", AttributesManager.NS_USER_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_USER_ATTR_DEF);
+		parameters.addValue("nSV", AttributesManager.NS_USER_ATTR_VIRT);
+		parameters.addValue("attrNames", attrNames);
+
+		return getAttributesOfHolders(users, "users", "user_attr_values usr on attr_names.id=usr.attr_id and usr.user_id=h.id", "usr",
+				"attr_names.namespace in ( :nSC,:nSO,:nSD,:nSV ) and attr_names.attr_name in ( :attrNames )",
+				parameters, user -> new SingleBeanAttributeRowMapper<>(sess, this, user));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getUsersVirtualAttributes(PerunSession sess, List<User> users) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (User user : users) attributes.put(user.getId(), getVirtualAttributes(sess, user));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSV", AttributesManager.NS_USER_ATTR_VIRT);
+
+		return getAttributesOfHolders(users, "users", null, null, "attr_names.namespace=:nSV",
+				parameters, user -> new SingleBeanAttributeRowMapper<>(sess, this, user));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, Facility facility, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (User user : users) attributes.put(user.getId(), getAttributes(sess, user, facility, attrNames));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("fId", facility.getId());
+		parameters.addValue("nSO", AttributesManager.NS_USER_FACILITY_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_USER_FACILITY_ATTR_DEF);
+		parameters.addValue("nSV", AttributesManager.NS_USER_FACILITY_ATTR_VIRT);
+		parameters.addValue("attrNames", attrNames);
+
+		return getAttributesOfHolders(users, "users",
+				"user_facility_attr_values user_fac on attr_names.id=user_fac.attr_id and user_fac.user_id=h.id and user_fac.facility_id=:fId", "user_fac",
+				"attr_names.namespace in ( :nSO,:nSD,:nSV ) and attr_names.attr_name in ( :attrNames )",
+				parameters, user -> new UserFacilityAttributeRowMapper(sess, this, user, facility));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (Member member : members) attributes.put(member.getId(), getAttributes(sess, member));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSC", AttributesManager.NS_MEMBER_ATTR_CORE);
+		parameters.addValue("nSO", AttributesManager.NS_MEMBER_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_MEMBER_ATTR_DEF);
+
+		return getAttributesOfHolders(members, "members", "member_attr_values mem on attr_names.id=mem.attr_id and mem.member_id=h.id", "mem",
+				"attr_names.namespace=:nSC or (attr_names.namespace in ( :nSO,:nSD ) and (mem.attr_value is not null or mem.attr_value_text is not null))",
+				parameters, member -> new SingleBeanAttributeRowMapper<>(sess, this, member));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (Member member : members) attributes.put(member.getId(), getAttributes(sess, member, attrNames));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSC", AttributesManager.NS_MEMBER_ATTR_CORE);
+		parameters.addValue("nSO", AttributesManager.NS_MEMBER_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_MEMBER_ATTR_DEF);
+		parameters.addValue("nSV", AttributesManager.NS_MEMBER_ATTR_VIRT);
+		parameters.addValue("attrNames", attrNames);
+
+		return getAttributesOfHolders(members, "members", "member_attr_values mem on attr_names.id=mem.attr_id and mem.member_id=h.id", "mem",
+				"attr_names.namespace in ( :nSC,:nSO,:nSD,:nSV ) and attr_names.attr_name in ( :attrNames )",
+				parameters, member -> new SingleBeanAttributeRowMapper<>(sess, this, member));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersVirtualAttributes(PerunSession sess, List<Member> members) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (Member member : members) attributes.put(member.getId(), getVirtualAttributes(sess, member));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("nSV", AttributesManager.NS_MEMBER_ATTR_VIRT);
+
+		return getAttributesOfHolders(members, "members", null, null, "attr_names.namespace=:nSV",
+				parameters, member -> new SingleBeanAttributeRowMapper<>(sess, this, member));
+	}
+
+	@Override
+	public Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, Resource resource, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+			for (Member member : members) attributes.put(member.getId(), getAttributes(sess, member, resource, attrNames));
+			return attributes;
+		}
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("rId", resource.getId());
+		parameters.addValue("nSO", AttributesManager.NS_MEMBER_RESOURCE_ATTR_OPT);
+		parameters.addValue("nSD", AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF);
+		parameters.addValue("nSV", AttributesManager.NS_MEMBER_RESOURCE_ATTR_VIRT);
+		parameters.addValue("attrNames", attrNames);
+
+		return getAttributesOfHolders(members, "members",
+				"member_resource_attr_values mem_res on attr_names.id=mem_res.attr_id and mem_res.member_id=h.id and mem_res.resource_id=:rId", "mem_res",
+				"attr_names.namespace in ( :nSO,:nSD,:nSV ) and attr_names.attr_name in ( :attrNames )",
+				parameters, member -> new MemberResourceAttributeRowMapper(sess, this, member, resource));
+	}
+
+	/**
+	 * Get attributes of many holders of the same type at once. Every row is the same as in the query for a single holder
+	 * and it is mapped by the row mapper of its holder, so attributes are the same as if they were read one holder by one.
+	 *
+	 * @param holders primary holders of attributes, only ids which are in the table of holders are returned
+	 * @param holdersTable table of primary holders
+	 * @param valuesJoin values table with its join condition to attr_names and holder "h", null if no values are read (virtual attributes)
+	 * @param valuesAlias alias of values table
+	 * @param condition which attributes should be returned
+	 * @param parameters parameters of the condition
+	 * @param rowMapperFactory creates row mapper for the holder
+	 * @return map of holder id to its attributes
+	 */
+	private <T extends PerunBean> Map<Integer, List<Attribute>> getAttributesOfHolders(List<T> holders, String holdersTable,
+			String valuesJoin, String valuesAlias, String condition, MapSqlParameterSource parameters,
+			Function<T, RowMapper<Attribute>> rowMapperFactory) {
+		Map<Integer, List<Attribute>> attributes = new LinkedHashMap<>();
+		Map<Integer, RowMapper<Attribute>> rowMappers = new HashMap<>();
+		for (T holder : holders) {
+			attributes.put(holder.getId(), new ArrayList<>());
+			rowMappers.put(holder.getId(), rowMapperFactory.apply(holder));
+		}
+		List<Integer> ids = new ArrayList<>(attributes.keySet());
+
+		String query;
+		if (valuesJoin == null) {
+			query = "select " + attributeDefinitionMappingSelectQuery + ", NULL as attr_value, h.id as holder_id from attr_names " +
+					"cross join " + holdersTable + " h where h.id in ( :ids ) and (" + condition + ")";
+		} else {
+			query = "select " + getAttributeMappingSelectQuery(valuesAlias) + ", h.id as holder_id from attr_names " +
+					"cross join " + holdersTable + " h left join " + valuesJoin + " where h.id in ( :ids ) and (" + condition + ")";
+		}
+
+		try {
+			for (int i = 0; i < ids.size(); i += MAX_IDS_IN_QUERY) {
+				parameters.addValue("ids", ids.subList(i, Math.min(i + MAX_IDS_IN_QUERY, ids.size())));
+				namedParameterJdbcTemplate.query(query, parameters, rs -> {
+					int holderId = rs.getInt("holder_id");
+					attributes.get(holderId).add(rowMappers.get(holderId).mapRow(rs, 0));
+				});
+			}
+			return attributes;
+		} catch (RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, UserExtSource ues, List<String> attrNames) throws InternalErrorException {
 		if(!CacheManager.isCacheDisabled()) {
@@ -1741,13 +1939,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, facility, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("facility_attr_values") + " from attr_names left join facility_attr_values on id=attr_id and facility_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, facility), facility.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Facility attribute - attribute.name='" + attributeName + "'");
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(facility.getId(), Holder.HolderType.FACILITY), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("facility_attr_values") + " from attr_names left join facility_attr_values on id=attr_id and facility_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, facility), facility.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Facility attribute - attribute.name='" + attributeName + "'");
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1770,13 +1970,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, vo, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("vo_attr_values") + " from attr_names left join vo_attr_values on id=attr_id and vo_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, vo), vo.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Vo attribute - attribute.name='" + attributeName + "'");
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(vo.getId(), Holder.HolderType.VO), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("vo_attr_values") + " from attr_names left join vo_attr_values on id=attr_id and vo_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, vo), vo.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Vo attribute - attribute.name='" + attributeName + "'");
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1786,13 +1988,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, group, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("group_attr_values") + " from attr_names left join group_attr_values on id=attr_id and group_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, group), group.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Group attribute - attribute.name='" + attributeName + "'");
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(group.getId(), Holder.HolderType.GROUP), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("group_attr_values") + " from attr_names left join group_attr_values on id=attr_id and group_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, group), group.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Group attribute - attribute.name='" + attributeName + "'");
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1802,13 +2006,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, resource, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("resource_attr_values") + " from attr_names left join resource_attr_values on id=attr_id and resource_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, resource), resource.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Resource attribute - attribute.name='" + attributeName + "'");
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(resource.getId(), Holder.HolderType.RESOURCE), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("resource_attr_values") + " from attr_names left join resource_attr_values on id=attr_id and resource_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, resource), resource.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Resource attribute - attribute.name='" + attributeName + "'");
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1818,19 +2024,21 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, resource);
 		}
 
-		try {
-			//member-resource attributes, member core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
-							"left join   member_resource_attr_values mem    on id=mem.attr_id and mem.resource_id=? and member_id=? " +
-							"where attr_name=?",
-					new MemberResourceAttributeRowMapper(sess, this, member, resource), resource.getId(), member.getId(), attributeName);
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE), () -> {
+			try {
+				//member-resource attributes, member core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
+								"left join   member_resource_attr_values mem    on id=mem.attr_id and mem.resource_id=? and member_id=? " +
+								"where attr_name=?",
+						new MemberResourceAttributeRowMapper(sess, this, member, resource), resource.getId(), member.getId(), attributeName);
 
 
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1840,18 +2048,20 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, group);
 		}
 
-		try {
-			//member-group attributes, member core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem_gr") + " from attr_names " +
-							"left join member_group_attr_values mem_gr on id=mem_gr.attr_id and mem_gr.group_id=? and member_id=? " +
-							"where attr_name=?",
-					new MemberGroupAttributeRowMapper(sess, this, member, group), group.getId(), member.getId(), attributeName);
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP), () -> {
+			try {
+				//member-group attributes, member core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem_gr") + " from attr_names " +
+								"left join member_group_attr_values mem_gr on id=mem_gr.attr_id and mem_gr.group_id=? and member_id=? " +
+								"where attr_name=?",
+						new MemberGroupAttributeRowMapper(sess, this, member, group), group.getId(), member.getId(), attributeName);
 
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1861,17 +2071,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, null);
 		}
 
-		//member and member core attributes
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
-							"left join      member_attr_values    mem    on      id=mem.attr_id    and   member_id=? " +
-							"where attr_name=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, member), member.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(member.getId(), Holder.HolderType.MEMBER), null, () -> {
+			//member and member core attributes
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
+								"left join      member_attr_values    mem    on      id=mem.attr_id    and   member_id=? " +
+								"where attr_name=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, member), member.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1881,16 +2093,18 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, user, facility);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr_fac") + " from attr_names " +
-							"left join    user_facility_attr_values     usr_fac      on id=usr_fac.attr_id     and   facility_id=? and user_id=? " +
-							"where attr_name=?",
-					new UserFacilityAttributeRowMapper(sess, this, user, facility), facility.getId(), user.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY), () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr_fac") + " from attr_names " +
+								"left join    user_facility_attr_values     usr_fac      on id=usr_fac.attr_id     and   facility_id=? and user_id=? " +
+								"where attr_name=?",
+						new UserFacilityAttributeRowMapper(sess, this, user, facility), facility.getId(), user.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1900,17 +2114,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, user, null);
 		}
 
-		//user and user core attributes
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr") + " from attr_names " +
-							"left join      user_attr_values    usr    on      id=usr.attr_id    and   user_id=? " +
-							"where attr_name=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, user), user.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(user.getId(), Holder.HolderType.USER), null, () -> {
+			//user and user core attributes
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr") + " from attr_names " +
+								"left join      user_attr_values    usr    on      id=usr.attr_id    and   user_id=? " +
+								"where attr_name=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, user), user.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 
@@ -1921,14 +2137,16 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, host, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("host_attr_values") + " from attr_names " +
-					"left join host_attr_values on id=attr_id and host_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, host), host.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Host attribute - attribute.name='" + attributeName + "'");
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(host.getId(), Holder.HolderType.HOST), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("host_attr_values") + " from attr_names " +
+						"left join host_attr_values on id=attr_id and host_id=? where attr_name=?", new SingleBeanAttributeRowMapper<>(sess, this, host), host.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Host attribute - attribute.name='" + attributeName + "'");
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -1938,16 +2156,18 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, group, resource);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp_res") + " from attr_names " +
-							"left join    group_resource_attr_values     grp_res      on id=grp_res.attr_id     and   resource_id=? and group_id=? " +
-							"where attr_name=?",
-					new GroupResourceAttributeRowMapper(sess, this, group, resource), resource.getId(), group.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE), () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp_res") + " from attr_names " +
+								"left join    group_resource_attr_values     grp_res      on id=grp_res.attr_id     and   resource_id=? and group_id=? " +
+								"where attr_name=?",
+						new GroupResourceAttributeRowMapper(sess, this, group, resource), resource.getId(), group.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2004,29 +2224,33 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, ues, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("user_ext_source_attr_values") + " from attr_names " +
-							"left join user_ext_source_attr_values on id=attr_id and user_ext_source_id=? " +
-							"where attr_name=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, ues), ues.getId(), attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByNameThroughCache(sess, attributeName, new Holder(ues.getId(), Holder.HolderType.UES), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("user_ext_source_attr_values") + " from attr_names " +
+								"left join user_ext_source_attr_values on id=attr_id and user_ext_source_id=? " +
+								"where attr_name=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, ues), ues.getId(), attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute name: \"" + attributeName + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
 	public AttributeDefinition getAttributeDefinition(PerunSession sess, String attributeName) throws InternalErrorException, AttributeNotExistsException {
 		if(!CacheManager.isCacheDisabled()) return perun.getCacheManager().getAttributeDefinition(attributeName);
 
-		try {
-			return jdbc.queryForObject("SELECT " + attributeDefinitionMappingSelectQuery + " FROM attr_names WHERE attr_name=?", ATTRIBUTE_DEFINITION_MAPPER, attributeName);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute - attribute.name='" + attributeName + "'", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return attributesCache.getAttributeDefinition(attributeName, () -> {
+			try {
+				return jdbc.queryForObject("SELECT " + attributeDefinitionMappingSelectQuery + " FROM attr_names WHERE attr_name=?", ATTRIBUTE_DEFINITION_MAPPER, attributeName);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute - attribute.name='" + attributeName + "'", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2061,13 +2285,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 	public AttributeDefinition getAttributeDefinitionById(PerunSession sess, int id) throws InternalErrorException, AttributeNotExistsException {
 		if(!CacheManager.isCacheDisabled()) return perun.getCacheManager().getAttributeDefinition(id);
 
-		try {
-			return jdbc.queryForObject("SELECT " + attributeDefinitionMappingSelectQuery + " FROM attr_names WHERE id=?", ATTRIBUTE_DEFINITION_MAPPER, id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return attributesCache.getAttributeDefinition(id, () -> {
+			try {
+				return jdbc.queryForObject("SELECT " + attributeDefinitionMappingSelectQuery + " FROM attr_names WHERE id=?", ATTRIBUTE_DEFINITION_MAPPER, id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2077,13 +2303,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, facility, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("facility_attr_values") + " from attr_names left join facility_attr_values on id=attr_id and facility_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, facility), facility.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(facility.getId(), Holder.HolderType.FACILITY), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("facility_attr_values") + " from attr_names left join facility_attr_values on id=attr_id and facility_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, facility), facility.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2093,13 +2321,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, vo, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("vo_attr_values") + " from attr_names left join vo_attr_values on id=attr_id and vo_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, vo), vo.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(vo.getId(), Holder.HolderType.VO), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("vo_attr_values") + " from attr_names left join vo_attr_values on id=attr_id and vo_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, vo), vo.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2109,13 +2339,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, resource, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("resource_attr_values") + " from attr_names left join resource_attr_values on id=attr_id and resource_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, resource), resource.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(resource.getId(), Holder.HolderType.RESOURCE), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("resource_attr_values") + " from attr_names left join resource_attr_values on id=attr_id and resource_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, resource), resource.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2125,16 +2357,18 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, group, resource);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp_res") + " from attr_names " +
-							"left join    group_resource_attr_values     grp_res      on id=grp_res.attr_id     and   resource_id=? and group_id=? " +
-							"where id=?",
-					new GroupResourceAttributeRowMapper(sess, this, group, resource), resource.getId(), group.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE), () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp_res") + " from attr_names " +
+								"left join    group_resource_attr_values     grp_res      on id=grp_res.attr_id     and   resource_id=? and group_id=? " +
+								"where id=?",
+						new GroupResourceAttributeRowMapper(sess, this, group, resource), resource.getId(), group.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2144,16 +2378,18 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, group, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp") + " from attr_names " +
-							"left join group_attr_values grp on id=grp.attr_id and group_id=? " +
-							"where id=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, group), group.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(group.getId(), Holder.HolderType.GROUP), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("grp") + " from attr_names " +
+								"left join group_attr_values grp on id=grp.attr_id and group_id=? " +
+								"where id=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, group), group.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2163,13 +2399,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, host, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("host_attr_values") + " from attr_names left join host_attr_values on id=attr_id and host_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, host), host.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(host.getId(), Holder.HolderType.HOST), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("host_attr_values") + " from attr_names left join host_attr_values on id=attr_id and host_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, host), host.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 
@@ -2180,17 +2418,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, resource);
 		}
 
-		try {
-			//member-resource attributes, member core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
-							"left join   member_resource_attr_values mem    on id=mem.attr_id and mem.resource_id=? and member_id=? " +
-							"where id=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, member), resource.getId(), member.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE), () -> {
+			try {
+				//member-resource attributes, member core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
+								"left join   member_resource_attr_values mem    on id=mem.attr_id and mem.resource_id=? and member_id=? " +
+								"where id=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, member), resource.getId(), member.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2200,17 +2440,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, group);
 		}
 
-		try {
-			//member-group attributes, member core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem_gr") + " from attr_names " +
-							"left join member_group_attr_values mem_gr on id=mem_gr.attr_id and mem_gr.group_id=? and member_id=? " +
-							"where id=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, member), group.getId(), member.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP), () -> {
+			try {
+				//member-group attributes, member core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem_gr") + " from attr_names " +
+								"left join member_group_attr_values mem_gr on id=mem_gr.attr_id and mem_gr.group_id=? and member_id=? " +
+								"where id=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, member), group.getId(), member.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2220,17 +2462,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, member, null);
 		}
 
-		try {
-			//member and member core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
-							"left join      member_attr_values    mem    on      id=mem.attr_id    and   member_id=? " +
-							"where id=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, member), member.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(member.getId(), Holder.HolderType.MEMBER), null, () -> {
+			try {
+				//member and member core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("mem") + " from attr_names " +
+								"left join      member_attr_values    mem    on      id=mem.attr_id    and   member_id=? " +
+								"where id=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, member), member.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2240,16 +2484,18 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, user, facility);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr_fac") + " from attr_names " +
-							"left join    user_facility_attr_values     usr_fac      on id=usr_fac.attr_id     and   facility_id=? and user_id=? " +
-							"where id=?",
-					new UserFacilityAttributeRowMapper(sess, this, user, facility), facility.getId(), user.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY), () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr_fac") + " from attr_names " +
+								"left join    user_facility_attr_values     usr_fac      on id=usr_fac.attr_id     and   facility_id=? and user_id=? " +
+								"where id=?",
+						new UserFacilityAttributeRowMapper(sess, this, user, facility), facility.getId(), user.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2259,17 +2505,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, user, null);
 		}
 
-		try {
-			//user and user core attributes
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr") + " from attr_names " +
-							"left join      user_attr_values    usr    on      id=usr.attr_id    and   user_id=? " +
-							"where id=?",
-					new SingleBeanAttributeRowMapper<>(sess, this, user), user.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(user.getId(), Holder.HolderType.USER), null, () -> {
+			try {
+				//user and user core attributes
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("usr") + " from attr_names " +
+								"left join      user_attr_values    usr    on      id=usr.attr_id    and   user_id=? " +
+								"where id=?",
+						new SingleBeanAttributeRowMapper<>(sess, this, user), user.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2279,13 +2527,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			return setValueOfAttribute(sess, attr, ues, null);
 		}
 
-		try {
-			return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("ues") + " from attr_names left join user_ext_source_attr_values ues on id=ues.attr_id and user_ext_source_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, ues), ues.getId(), id);
-		} catch (EmptyResultDataAccessException ex) {
-			throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
-		} catch (RuntimeException ex) {
-			throw new InternalErrorException(ex);
-		}
+		return getAttributeByIdThroughCache(sess, id, new Holder(ues.getId(), Holder.HolderType.UES), null, () -> {
+			try {
+				return jdbc.queryForObject("select " + getAttributeMappingSelectQuery("ues") + " from attr_names left join user_ext_source_attr_values ues on id=ues.attr_id and user_ext_source_id=? where id=?", new SingleBeanAttributeRowMapper<>(sess, this, ues), ues.getId(), id);
+			} catch (EmptyResultDataAccessException ex) {
+				throw new AttributeNotExistsException("Attribute id= \"" + id + "\"", ex);
+			} catch (RuntimeException ex) {
+				throw new InternalErrorException(ex);
+			}
+		});
 	}
 
 	@Override
@@ -2451,6 +2701,10 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				if (numAffected > 1) {
 					throw new ConsistencyErrorException(String.format("Too much rows to delete (" + numAffected + " rows). SQL: delete from " + tableName + " where " + buildParameters(columnNames, "=%s", " and "), columnValues.toArray()));
 				}
+				if (numAffected == 1) {
+					invalidateAttributesCache(attribute, holder1, holder2);
+					updateUserSearchIndex(attribute, holder1, holder2, null);
+				}
 				if (holder2 != null) {
 					if(!CacheManager.isCacheDisabled() && numAffected == 1) perun.getCacheManager().removeAttribute(attribute, (Holder) holder1, (Holder) holder2);
 				} else {
@@ -2476,6 +2730,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			} catch (EmptyResultDataAccessException ex) {
 				//This is ok. Attribute will be stored later.
 			}
+			invalidateAttributesCache(attribute, holder1, holder2);
+			updateUserSearchIndex(attribute, holder1, holder2, attribute.getValue());
 
 			int repetatCounter = 0;
 			while (true) {
@@ -2543,6 +2799,67 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		}
 	}
 
+	/**
+	 * Gets attribute through the read-through attributes cache. Definition of the attribute is read first (from the cache
+	 * too) to decide whether the value can be cached.
+	 *
+	 * @param sess perun session
+	 * @param attributeName name of the attribute
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder or null
+	 * @param loader loader of the attribute from the DB
+	 * @return attribute with value
+	 * @throws AttributeNotExistsException if the attribute doesn't exist
+	 */
+	private Attribute getAttributeByNameThroughCache(PerunSession sess, String attributeName, Holder primaryHolder, Holder secondaryHolder, AttributesCache.Loader<Attribute> loader) throws AttributeNotExistsException {
+		if (!attributesCache.isEnabled()) return loader.load();
+		AttributeDefinition attributeDefinition;
+		try {
+			attributeDefinition = getAttributeDefinition(sess, attributeName);
+		} catch (AttributeNotExistsException ex) {
+			// let the loader throw exception with the usual message
+			return loader.load();
+		}
+		return attributesCache.getAttribute(attributeDefinition, primaryHolder, secondaryHolder, loader);
+	}
+
+	/**
+	 * Gets attribute through the read-through attributes cache, see {@link #getAttributeByNameThroughCache}.
+	 */
+	private Attribute getAttributeByIdThroughCache(PerunSession sess, int id, Holder primaryHolder, Holder secondaryHolder, AttributesCache.Loader<Attribute> loader) throws AttributeNotExistsException {
+		if (!attributesCache.isEnabled()) return loader.load();
+		AttributeDefinition attributeDefinition;
+		try {
+			attributeDefinition = getAttributeDefinitionById(sess, id);
+		} catch (AttributeNotExistsException ex) {
+			return loader.load();
+		}
+		return attributesCache.getAttribute(attributeDefinition, primaryHolder, secondaryHolder, loader);
+	}
+
+	/**
+	 * Removes value of the attribute from the read-through attributes cache. Values of entityless attributes are not cached.
+	 *
+	 * @param attribute attribute
+	 * @param holder1 primary holder or key of entityless attribute
+	 * @param holder2 secondary holder or null
+	 */
+	private void invalidateAttributesCache(AttributeDefinition attribute, Object holder1, Object holder2) {
+		if (holder1 instanceof Holder) attributesCache.invalidateAttribute(attribute, (Holder) holder1, (Holder) holder2);
+	}
+
+	/**
+	 * Updates the user search index, if the attribute of user or member is indexed.
+	 *
+	 * @param attribute attribute
+	 * @param holder1 primary holder or key of entityless attribute
+	 * @param holder2 secondary holder or null
+	 * @param value new value of the attribute or null, if it was removed
+	 */
+	private void updateUserSearchIndex(AttributeDefinition attribute, Object holder1, Object holder2, Object value) {
+		if (holder1 instanceof Holder && holder2 == null) UserSearchIndex.indexAttribute(jdbc, attribute, (Holder) holder1, value);
+	}
+
 	private Holder createHolderTypeByStringAndId(Integer id, String type) {
 		if (id == null || type == null) {
 			return null;
@@ -2707,6 +3024,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			log.debug("Attribute created: {}.", attribute);
 
 			if(!CacheManager.isCacheDisabled()) perun.getCacheManager().setAttributeDefinition(attribute);
+			attributesCache.invalidateAll();
 			return attribute;
 		} catch (DataIntegrityViolationException e) {
 			throw new AttributeDefinitionExistsException("Attribute " + attribute.getName() + " already exists", attribute, e);
@@ -2732,8 +3050,10 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			// unique attributes get deleted by deletion from entity_attr_values
 			jdbc.update("DELETE FROM "+ attributeToTablePrefix(attribute)+"_attr_values WHERE attr_id=?", attribute.getId());
+			UserSearchIndex.removeAttributeDefinition(jdbc, attribute);
 			jdbc.update("DELETE FROM attr_names WHERE id=?", attribute.getId());
 			if(!CacheManager.isCacheDisabled()) perun.getCacheManager().deleteAttribute(attribute.getId(), sess, this);
+			attributesCache.invalidateAll();
 
 			log.debug("Attribute deleted: {}.", attribute);
 		} catch (RuntimeException e) {
@@ -3285,6 +3605,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		private final AttributesManagerImpl attributesManager;
 		private final List<Member> members;
 		private final Resource resource;
+		private final Group group;
 
 		/**
 		 * Sets up parameters for data extractor
@@ -3298,6 +3619,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			this.attributesManager = attributesManager;
 			this.members = members;
 			this.resource = null;
+			this.group = null;
 		}
 
 		/**
@@ -3314,6 +3636,24 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			this.attributesManager = attributesManager;
 			this.members = members;
 			this.resource = resource;
+			this.group = null;
+		}
+
+		/**
+		 * Sets up parameters for data extractor
+		 * For memberGroup attributes we need also know the group.
+		 *
+		 * @param sess              perun session
+		 * @param attributesManager attribute manager
+		 * @param group             group for member group attributes
+		 * @param members           list of members
+		 */
+		MemberAttributeExtractor(PerunSession sess, AttributesManagerImpl attributesManager, Group group, List<Member> members) {
+			this.sess = sess;
+			this.attributesManager = attributesManager;
+			this.members = members;
+			this.resource = null;
+			this.group = group;
 		}
 
 		@Override
@@ -3335,6 +3675,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				AttributeRowMapper attributeRowMapper;
 				if (resource != null) {
 					attributeRowMapper = new MemberResourceAttributeRowMapper(sess, attributesManager, mem, resource);
+				} else if (group != null) {
+					attributeRowMapper = new MemberGroupAttributeRowMapper(sess, attributesManager, mem, group);
 				} else {
 					attributeRowMapper = new SingleBeanAttributeRowMapper<>(sess, attributesManager, mem);
 				}
@@ -3472,6 +3814,41 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		}
 	}
 
+	@Override
+	public HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Group group, List<Member> members) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+			List<Integer> attrIds = getRequiredAttributeIds(service);
+			HashMap<Member, List<Attribute>> hashMap = new HashMap<>();
+			for (Member member: members) {
+				List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
+				List<Attribute> setAttrs = this.setValuesOfAttributes(sess, attrs, member, group);
+				hashMap.put(member, setAttrs);
+			}
+			return hashMap;
+		}
+
+		try {
+			return jdbc.execute("SELECT " + getAttributeMappingSelectQuery("mem_gr") + ", members.id FROM attr_names " +
+				"JOIN service_required_attrs ON attr_names.id=service_required_attrs.attr_id AND service_required_attrs.service_id=? " +
+				"JOIN members ON members.id " + Compatibility.getStructureForInClause() +
+				"LEFT JOIN member_group_attr_values mem_gr ON attr_names.id=mem_gr.attr_id AND mem_gr.group_id=? " +
+				"AND mem_gr.member_id=members.id WHERE namespace IN (?,?,?)", (PreparedStatementCallback<HashMap<Member, List<Attribute>>>) preparedStatement -> {
+					Array sqlArray = DatabaseManagerBl.prepareSQLArrayOfNumbers(members, preparedStatement);
+					preparedStatement.setInt(1, service.getId());
+					preparedStatement.setArray(2, sqlArray);
+					preparedStatement.setInt(3, group.getId());
+					preparedStatement.setString(4, AttributesManager.NS_MEMBER_GROUP_ATTR_DEF);
+					preparedStatement.setString(5, AttributesManager.NS_MEMBER_GROUP_ATTR_OPT);
+					preparedStatement.setString(6, AttributesManager.NS_MEMBER_GROUP_ATTR_VIRT);
+					MemberAttributeExtractor memberAttributeExtractor = new MemberAttributeExtractor(sess, this, group, members);
+					return memberAttributeExtractor.extractData(preparedStatement.executeQuery());
+			});
+		} catch (InternalErrorException ex) {
+			//Finding or invoking oracle array method was unsuccessful
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Facility facility, List<User> users) throws InternalErrorException {
 		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
@@ -4108,6 +4485,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			jdbc.update("DELETE FROM group_resource_attr_values WHERE resource_id=?", resource.getId());
 			if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(Holder.HolderType.GROUP, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+			attributesCache.invalidateHolders(null, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 		} catch (RuntimeException ex) {
 			throw new InternalErrorException(ex);
 		}
@@ -4118,6 +4496,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			jdbc.update("DELETE FROM member_resource_attr_values WHERE resource_id=?", resource.getId());
 			if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(Holder.HolderType.MEMBER, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+			attributesCache.invalidateHolders(null, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 		} catch (RuntimeException ex) {
 			throw new InternalErrorException(ex);
 		}
@@ -4128,6 +4507,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM facility_attr_values WHERE attr_id=? AND facility_id=?", attribute.getId(), facility.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(facility.getId(), Holder.HolderType.FACILITY), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(facility.getId(), Holder.HolderType.FACILITY), null);
 				log.debug("Attribute value for {} was removed from facility {}.", attribute.getName(), facility);
 				return true;
 			}
@@ -4142,6 +4522,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM facility_attr_values WHERE facility_id=?", facility.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(facility.getId(), Holder.HolderType.FACILITY));
+				attributesCache.invalidateHolders(new Holder(facility.getId(), Holder.HolderType.FACILITY), null);
 				log.debug("All attributes values were removed from facility {}.", facility);
 				return true;
 			}
@@ -4156,6 +4537,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM vo_attr_values WHERE attr_id=? AND vo_id=?", attribute.getId(), vo.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(vo.getId(), Holder.HolderType.VO), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(vo.getId(), Holder.HolderType.VO), null);
 				log.debug("Attribute value for {} was removed from vo {}.", attribute.getName(), vo);
 				return true;
 			}
@@ -4170,6 +4552,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM vo_attr_values WHERE vo_id=?", vo.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(vo.getId(), Holder.HolderType.VO));
+				attributesCache.invalidateHolders(new Holder(vo.getId(), Holder.HolderType.VO), null);
 				log.debug("All attributes values were removed from vo {}.", vo);
 				return true;
 			}
@@ -4184,6 +4567,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM group_attr_values WHERE attr_id=? AND group_id=?", attribute.getId(), group.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(group.getId(), Holder.HolderType.GROUP), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(group.getId(), Holder.HolderType.GROUP), null);
 				log.debug("Attribute value for {} was removed from group {}.", attribute.getName(), group);
 				return true;
 			}
@@ -4198,6 +4582,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM group_attr_values WHERE group_id=?", group.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(group.getId(), Holder.HolderType.GROUP));
+				attributesCache.invalidateHolders(new Holder(group.getId(), Holder.HolderType.GROUP), null);
 				log.debug("All attributes values were removed from group {}.", group);
 				return true;
 			}
@@ -4212,6 +4597,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM resource_attr_values WHERE attr_id=? AND resource_id=?", attribute.getId(), resource.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(resource.getId(), Holder.HolderType.RESOURCE), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(resource.getId(), Holder.HolderType.RESOURCE), null);
 				log.debug("Attribute value for {} was removed from resource {}.", attribute.getName(), resource);
 				return true;
 			}
@@ -4226,6 +4612,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM resource_attr_values WHERE resource_id=?", resource.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+				attributesCache.invalidateHolders(new Holder(resource.getId(), Holder.HolderType.RESOURCE), null);
 				log.debug("All attributes values were removed from resource {}.", resource);
 				return true;
 			}
@@ -4240,6 +4627,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_resource_attr_values WHERE attr_id=? AND member_id=? AND resource_id=?", attribute.getId(), member.getId(), resource.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+				attributesCache.invalidateAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 				log.debug("Attribute value for {} was removed from member {} on resource {}.", attribute.getName(), member, resource);
 				return true;
 			}
@@ -4254,6 +4642,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_resource_attr_values WHERE resource_id=? AND member_id=?", resource.getId(), member.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+				attributesCache.invalidateHolders(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 				log.debug("All attributes values were removed from member {} on resource {}.", member, resource);
 				return true;
 			}
@@ -4268,6 +4657,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_group_attr_values WHERE attr_id=? AND member_id=? AND group_id=?", attribute.getId(), member.getId(), group.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
+				attributesCache.invalidateAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
 				log.debug("Attribute value {} was removed from member {} in group {}.", attribute, member, group);
 				return true;
 			}
@@ -4282,6 +4672,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_group_attr_values WHERE group_id=? AND member_id=?", group.getId(), member.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
+				attributesCache.invalidateHolders(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
 				log.debug("All attributes values were removed from member {} in group {}.", member, group);
 				return true;
 			}
@@ -4296,6 +4687,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_attr_values WHERE attr_id=? AND member_id=?", attribute.getId(), member.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), null);
+				UserSearchIndex.indexAttribute(jdbc, attribute, new Holder(member.getId(), Holder.HolderType.MEMBER), null);
 				log.debug("Attribute value {} was removed from member {}", attribute, member);
 				return true;
 			}
@@ -4310,6 +4703,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM member_attr_values WHERE member_id=?", member.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER));
+				attributesCache.invalidateHolders(new Holder(member.getId(), Holder.HolderType.MEMBER), null);
+				UserSearchIndex.removeAttributes(jdbc, new Holder(member.getId(), Holder.HolderType.MEMBER));
 				log.debug("All attributes values were removed from member {}", member);
 				return true;
 			}
@@ -4324,6 +4719,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_facility_attr_values WHERE attr_id=? AND user_id=? AND facility_id=?", attribute.getId(), user.getId(), facility.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
+				attributesCache.invalidateAttribute(attribute, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
 				log.debug("Attribute value {} was removed from user {} on facility {}.", attribute, user, facility);
 				return true;
 			}
@@ -4339,6 +4735,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_facility_attr_values WHERE user_id=? AND facility_id=?", user.getId(), facility.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
+				attributesCache.invalidateHolders(new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
 				log.debug("All attributes values were removed from user {} on facility {}.", user, facility);
 				return true;
 			}
@@ -4353,6 +4750,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_facility_attr_values WHERE facility_id=?", facility.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(Holder.HolderType.USER, new Holder(facility.getId(), Holder.HolderType.FACILITY));
+				attributesCache.invalidateHolders(null, new Holder(facility.getId(), Holder.HolderType.FACILITY));
 				log.debug("All attributes values were removed from any user on facility {}.", facility);
 				return true;
 			}
@@ -4367,6 +4765,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_facility_attr_values WHERE user_id=?", user.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(user.getId(), Holder.HolderType.USER), Holder.HolderType.FACILITY);
+				attributesCache.invalidateHolders(new Holder(user.getId(), Holder.HolderType.USER), null);
 				log.debug("All attributes values were removed from user {} on  all facilities.", user);
 				return true;
 			}
@@ -4396,6 +4795,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_attr_values WHERE attr_id=? AND user_id=?", attribute.getId(), user.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(user.getId(), Holder.HolderType.USER), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(user.getId(), Holder.HolderType.USER), null);
+				UserSearchIndex.indexAttribute(jdbc, attribute, new Holder(user.getId(), Holder.HolderType.USER), null);
 				log.debug("Attribute value for {} was removed from user {}.", attribute.getName(), user);
 				return true;
 			}
@@ -4410,6 +4811,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_attr_values WHERE user_id=?", user.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(user.getId(), Holder.HolderType.USER));
+				attributesCache.invalidateHolders(new Holder(user.getId(), Holder.HolderType.USER), null);
+				UserSearchIndex.removeAttributes(jdbc, new Holder(user.getId(), Holder.HolderType.USER));
 				log.debug("All attributes values were removed from user {}.", user);
 				return true;
 			}
@@ -4424,6 +4827,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM group_resource_attr_values WHERE attr_id=? AND resource_id=? AND group_id=?", attribute.getId(), resource.getId(), group.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+				attributesCache.invalidateAttribute(attribute, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 				log.debug("Attribute value for {} was removed from group {} on resource {}.", attribute.getName(), group, resource);
 				return true;
 			}
@@ -4438,6 +4842,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM group_resource_attr_values WHERE group_id=? AND resource_id=?", group.getId(), resource.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
+				attributesCache.invalidateHolders(new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 				log.debug("All attributes values were removed from group {} on resource{}.", group, resource);
 				return true;
 			}
@@ -4452,6 +4857,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM host_attr_values WHERE attr_id=? AND host_id=?", attribute.getId(), host.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAttribute(attribute, new Holder(host.getId(), Holder.HolderType.HOST), null);
+				attributesCache.invalidateAttribute(attribute, new Holder(host.getId(), Holder.HolderType.HOST), null);
 				log.debug("Attribute value for {} was removed from host {}.", attribute.getName(), host);
 				return true;
 			}
@@ -4466,6 +4872,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM host_attr_values WHERE host_id=?", host.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(host.getId(), Holder.HolderType.HOST));
+				attributesCache.invalidateHolders(new Holder(host.getId(), Holder.HolderType.HOST), null);
 				log.debug("All attributes values were removed from host {}.", host);
 				return true;
 			}
@@ -4482,6 +4889,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				if (!CacheManager.isCacheDisabled()) {
 					perun.getCacheManager().removeAttribute(attribute, new Holder(ues.getId(), Holder.HolderType.UES), null);
 				}
+				attributesCache.invalidateAttribute(attribute, new Holder(ues.getId(), Holder.HolderType.UES), null);
 				log.debug("Attribute value for {} was removed from user external source {}.", attribute.getName(), ues);
 				return true;
 			}
@@ -4496,6 +4904,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		try {
 			if (0 < jdbc.update("DELETE FROM user_ext_source_attr_values WHERE user_ext_source_id=?", ues.getId())) {
 				if (!CacheManager.isCacheDisabled()) perun.getCacheManager().removeAllAttributes(new Holder(ues.getId(), Holder.HolderType.UES));
+				attributesCache.invalidateHolders(new Holder(ues.getId(), Holder.HolderType.UES), null);
 				log.debug("All attributes values were removed from user external source {}.", ues);
 				return true;
 			}
@@ -5416,6 +5825,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				jdbc.update("update attr_names set dsc=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + "  where id=?", attributeDefinition.getDescription(), perunSession.getPerunPrincipal().getActor(), perunSession.getPerunPrincipal().getUserId(), attributeDefinition.getId());
 
 				if(!CacheManager.isCacheDisabled()) perun.getCacheManager().updateAttributeDefinition(attributeDefinition);
+				attributesCache.invalidateAll();
 			}
 
 			//update displayName
@@ -5426,6 +5836,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				this.setAttributeDefinitionModified(perunSession, attributeDefinition);
 				jdbc.update("update attr_names set display_name=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + "  where id=?", attributeDefinition.getDisplayName(), perunSession.getPerunPrincipal().getActor(), perunSession.getPerunPrincipal().getUserId(), attributeDefinition.getId());
 				if(!CacheManager.isCacheDisabled()) perun.getCacheManager().updateAttributeDefinition(attributeDefinition);
+				attributesCache.invalidateAll();
 			}
 
 			//update unique
@@ -5438,6 +5849,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 			if (uniqueInDb != attributeDefinition.isUnique()) {
 				jdbc.update("UPDATE attr_names SET is_unique=" + Compatibility.getTrue() + ", modified_by=?, modified_by_uid=?, modified_at="
 						+ Compatibility.getSysdate() + " WHERE id=?", perunSession.getPerunPrincipal().getActor(), perunSession.getPerunPrincipal().getUserId(), attributeDefinition.getId());
+				attributesCache.invalidateAll();
 			}
 
 			return attributeDefinition;
@@ -5602,4 +6014,8 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 	public void setPerun(Perun perun) {
 		this.perun = perun;
 	}
+
+	public void setCacheManager(CacheManager cacheManager) {
+		this.attributesCache = cacheManager.getAttributesCache();
+	}
 }
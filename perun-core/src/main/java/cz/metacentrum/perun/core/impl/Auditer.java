@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.core.impl;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.core.api.AuditMessagesListener;
 import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
@@ -22,13 +23,18 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class is responsible for runtime logging of audit events. It gets messages and assocaites them with current transaction.
@@ -68,9 +74,17 @@ public class Auditer {
 		mapper.setMixIns(mixinMap);
 	}
 
-	private static final Object LOCK_DB_TABLE_AUDITER_LOG = new Object();
+	// messages waiting to be written to the auditer log, only holder of the writer lock writes them
+	private final Queue<PendingMessages> pendingMessages = new ConcurrentLinkedQueue<>();
+	private final Lock writerLock = new ReentrantLock(true);
 
-	private static final Set<AttributesModuleImplApi> registeredAttributesModules = new HashSet<>();
+	private static final Set<AttributesModuleImplApi> registeredAttributesModules = new CopyOnWriteArraySet<>();
+
+	private final Set<AuditMessagesListener> listeners = new CopyOnWriteArraySet<>();
+	private final Object newMessagesSignal = new Object();
+
+	@GuardedBy("newMessagesSignal")
+	private long storedMessagesVersion = 0;
 
 	public static void registerAttributeModule(AttributesModuleImplApi attributesModuleImplApi) {
 		log.trace("Auditer: Try to register module {}", (attributesModuleImplApi == null) ? null : attributesModuleImplApi.getClass().getName());
@@ -221,9 +235,7 @@ public class Auditer {
 			TransactionSynchronizationManager.unbindResourceIfPossible(this);
 		}
 		log.trace("Audit messages was flushed for current transaction.");
-		synchronized (LOCK_DB_TABLE_AUDITER_LOG) {
-			storeMessagesToDb(messages);
-		}
+		storeMessagesToDb(messages);
 	}
 
 	/**
@@ -290,6 +302,10 @@ public class Auditer {
 	 * It also checks if there are any messages which can be resolved by registered attribute modules.
 	 * Store these resolved messages too.
 	 *
+	 * Resolving of messages and their serialization to JSON is done by the calling thread without any locking.
+	 * Only the insert itself is serialized, messages from concurrently committed transactions are written
+	 * together in one batch (group commit), see {@link #writeMessagesToDb(PendingMessages)}.
+	 *
 	 * @param auditerMessages list of AuditerMessages
 	 */
 	public void storeMessagesToDb(final List<AuditerMessage> auditerMessages) {
@@ -300,56 +316,132 @@ public class Auditer {
 			return;
 		}
 
-		synchronized (LOCK_DB_TABLE_AUDITER_LOG) {
+		// Resolve all additional message from attribute modules and add them to the bulk
+		try {
+
+			//Get perun session from the first message (all sessions should be same from the same principal)
+			PerunSessionImpl session = (PerunSessionImpl) auditerMessages.get(0).getOriginatingSession();
+
+			//Check recursively all messages if they can create any resolving message
+			auditerMessages.addAll(checkRegisteredAttributesModules(session, auditerMessages, new LinkedHashSet<>()));
 
-			// Resolve all additional message from attribute modules and add them to the bulk
+		} catch (Throwable ex) {
+			log.error("There is a problem with processing resolving messages! It will be forcibly skipped to prevent unexpected behavior of auditer log!", ex);
+		}
+
+		//Serialize all messages before entering the critical section
+		List<SerializedMessage> serializedMessages = new ArrayList<>(auditerMessages.size());
+		for (AuditerMessage auditerMessage : auditerMessages) {
+			final PerunSession session = auditerMessage.getOriginatingSession();
+			String jsonString = "";
 			try {
+				jsonString = mapper.writeValueAsString(auditerMessage.getEvent());
+			} catch (IOException e) {
+				log.error("Could not map event {} to JSON: {}", auditerMessage.getEvent().getClass().getSimpleName(), auditerMessage.getEvent().getMessage());
+			}
+			log.info("AUDIT_JSON: {}", jsonString);
+			serializedMessages.add(new SerializedMessage(jsonString, session.getPerunPrincipal().getActor(), session.getPerunPrincipal().getUserId()));
+		}
+
+		PendingMessages pending = new PendingMessages(serializedMessages);
+		pendingMessages.add(pending);
 
-				//Get perun session from the first message (all sessions should be same from the same principal)
-				PerunSessionImpl session = (PerunSessionImpl) auditerMessages.get(0).getOriginatingSession();
+		//Write all messages to the database
+		if (writeMessagesToDb(pending)) {
+			signalNewMessages();
+		}
+
+	}
 
-				//Check recursively all messages if they can create any resolving message
-				auditerMessages.addAll(checkRegisteredAttributesModules(session, auditerMessages, new LinkedHashSet<>()));
+	/**
+	 * Writes pending messages to the DB. Only one thread at a time can write to the auditer log,
+	 * so IDs of messages are committed in the same order as they are generated and consumers
+	 * reading the log by ranges of IDs never skip a message.
+	 *
+	 * Thread, which acquires the writer lock, writes all pending messages of all waiting threads in a single batch.
+	 * Threads, whose messages were written by other thread, just return once they acquire the lock.
+	 *
+	 * @param pending messages of the calling thread
+	 * @return TRUE if calling thread has written any messages to the DB
+	 */
+	private boolean writeMessagesToDb(PendingMessages pending) {
+		writerLock.lock();
+		try {
+			if (pending.written) {
+				// messages were already written in a batch by other thread
+				return false;
+			}
 
-			} catch (Throwable ex) {
-				log.error("There is a problem with processing resolving messages! It will be forcibly skipped to prevent unexpected behavior of auditer log!", ex);
+			List<PendingMessages> batch = new ArrayList<>();
+			PendingMessages next;
+			while ((next = pendingMessages.poll()) != null) {
+				batch.add(next);
 			}
 
-			//Write all messages to the database
+			boolean stored = false;
 			try {
-				jdbc.batchUpdate("insert into auditer_log (id, msg, actor, created_at, created_by_uid) values ("+Compatibility.getSequenceNextval("auditer_log_id_seq")+",?,?," + Compatibility.getSysdate() + ",?)",
-						new BatchPreparedStatementSetter() {
-							@Override
-							public void setValues(PreparedStatement ps, int i) throws SQLException {
-
-								final AuditerMessage auditerMessage = auditerMessages.get(i);
-								final PerunSession session = auditerMessage.getOriginatingSession();
-								String jsonString = "";
-								try {
-									jsonString = mapper.writeValueAsString(auditerMessage.getEvent());
-								} catch (IOException e) {
-									log.error("Could not map event {} to JSON: {}", auditerMessage.getEvent().getClass().getSimpleName(), auditerMessage.getEvent().getMessage());
-								}
-								log.info("AUDIT_JSON: {}", jsonString);
-								ps.setString(1, jsonString);
-								ps.setString(2, session.getPerunPrincipal().getActor());
-								ps.setInt(3, session.getPerunPrincipal().getUserId());
-							}
-
-							@Override
-							public int getBatchSize() {
-								return auditerMessages.size();
-							}
-						});
-
-			} catch (InternalErrorException e) {
-				log.error("Could not get system date identifier for the DB", e);
+				stored = insertMessages(batch);
 			} catch (RuntimeException e) {
-				log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", auditerMessages, e);
+				if (batch.size() > 1) {
+					// do not lose messages of other transactions because of one bad message, write them separately
+					log.warn("Cannot store auditer log json messages of {} transactions in one batch, storing them separately.", batch.size(), e);
+					for (PendingMessages messages : batch) {
+						try {
+							stored |= insertMessages(Collections.singletonList(messages));
+						} catch (RuntimeException ex) {
+							log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", messages.messages, ex);
+						}
+					}
+				} else {
+					log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", pending.messages, e);
+				}
+			} finally {
+				for (PendingMessages messages : batch) {
+					messages.written = true;
+				}
 			}
+			return stored;
 
+		} finally {
+			writerLock.unlock();
 		}
+	}
 
+	/**
+	 * Inserts messages into the auditer log in a single batch update.
+	 *
+	 * @param batch messages to insert
+	 * @return TRUE if any message was inserted
+	 */
+	private boolean insertMessages(List<PendingMessages> batch) {
+		final List<SerializedMessage> messages = new ArrayList<>();
+		for (PendingMessages pending : batch) {
+			messages.addAll(pending.messages);
+		}
+		if (messages.isEmpty()) return false;
+
+		try {
+			jdbc.batchUpdate("insert into auditer_log (id, msg, actor, created_at, created_by_uid) values ("+Compatibility.getSequenceNextval("auditer_log_id_seq")+",?,?," + Compatibility.getSysdate() + ",?)",
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							final SerializedMessage message = messages.get(i);
+							ps.setString(1, message.json);
+							ps.setString(2, message.actor);
+							ps.setInt(3, message.userId);
+						}
+
+						@Override
+						public int getBatchSize() {
+							return messages.size();
+						}
+					});
+		} catch (InternalErrorException e) {
+			log.error("Could not get system date identifier for the DB", e);
+			return false;
+		}
+		log.trace("Stored {} audit messages of {} transactions in one batch.", messages.size(), batch.size());
+		return true;
 	}
 
 	/**
@@ -368,6 +460,76 @@ public class Auditer {
 		this.storeMessagesToDb(auditerMessages);
 	}
 
+	/**
+	 * Register listener, which is notified every time new messages are stored into the auditer log by this instance.
+	 *
+	 * @param listener listener to register
+	 */
+	public void addListener(AuditMessagesListener listener) {
+		if (listener != null) listeners.add(listener);
+	}
+
+	/**
+	 * Unregister previously registered listener.
+	 *
+	 * @param listener listener to unregister
+	 */
+	public void removeListener(AuditMessagesListener listener) {
+		if (listener != null) listeners.remove(listener);
+	}
+
+	/**
+	 * Returns version of the auditer log as known to this instance. Version is incremented every time
+	 * new messages are stored into the auditer log, so consumers can cheaply check, whether anything
+	 * has changed since they last read it, without querying the DB.
+	 *
+	 * @return current version of stored messages
+	 */
+	public long getStoredMessagesVersion() {
+		synchronized (newMessagesSignal) {
+			return storedMessagesVersion;
+		}
+	}
+
+	/**
+	 * Blocks the calling thread until new messages are stored into the auditer log (version differs from the known one)
+	 * or until the timeout elapses.
+	 *
+	 * @param knownVersion version of stored messages known to the caller
+	 * @param timeout maximum time to wait in milliseconds
+	 * @return current version of stored messages (same as knownVersion on timeout)
+	 * @throws InterruptedException when waiting thread is interrupted
+	 */
+	public long awaitNewMessages(long knownVersion, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (newMessagesSignal) {
+			while (storedMessagesVersion == knownVersion) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) break;
+				newMessagesSignal.wait(remaining);
+			}
+			return storedMessagesVersion;
+		}
+	}
+
+	/**
+	 * Increments version of stored messages, wakes up all threads waiting for new messages
+	 * and notifies all registered listeners.
+	 */
+	private void signalNewMessages() {
+		synchronized (newMessagesSignal) {
+			storedMessagesVersion++;
+			newMessagesSignal.notifyAll();
+		}
+		for (AuditMessagesListener listener : listeners) {
+			try {
+				listener.onNewMessages();
+			} catch (RuntimeException ex) {
+				log.error("Listener {} failed to process notification about new audit messages.", listener, ex);
+			}
+		}
+	}
+
 	public void initialize() throws InternalErrorException {
 		try {
 			this.lastProcessedId = jdbc.queryForInt("select max(id) from auditer_log");
@@ -441,4 +603,37 @@ public class Auditer {
 		return addedResolvedMessages;
 	}
 
+	/**
+	 * Audit message serialized to the form in which it is stored in the auditer log.
+	 */
+	private static class SerializedMessage {
+		private final String json;
+		private final String actor;
+		private final int userId;
+
+		SerializedMessage(String json, String actor, int userId) {
+			this.json = json;
+			this.actor = actor;
+			this.userId = userId;
+		}
+
+		@Override
+		public String toString() {
+			return json;
+		}
+	}
+
+	/**
+	 * Messages of one flushed transaction waiting to be written to the auditer log.
+	 */
+	private static class PendingMessages {
+		private final List<SerializedMessage> messages;
+		// guarded by writerLock
+		private boolean written = false;
+
+		PendingMessages(List<SerializedMessage> messages) {
+			this.messages = messages;
+		}
+	}
+
 }
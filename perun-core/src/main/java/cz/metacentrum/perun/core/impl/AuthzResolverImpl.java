@@ -764,4 +764,8 @@ public class AuthzResolverImpl implements AuthzResolverImplApi {
 	public static List<PerunPolicy> fetchPolicyWithAllIncludedPolicies(String policyName) throws PolicyNotExistsException {
 		return perunPoliciesContainer.fetchPolicyWithAllIncludedPolicies(policyName);
 	}
+
+	public static CompiledPolicy getCompiledPolicy(String policyName) throws PolicyNotExistsException {
+		return perunPoliciesContainer.getCompiledPolicy(policyName);
+	}
 }
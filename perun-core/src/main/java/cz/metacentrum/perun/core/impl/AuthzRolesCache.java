@@ -0,0 +1,244 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.PerunBean;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of roles of users (with all subgroups of administrated groups) shared by all sessions.
+ *
+ * Roles are computed by the caller without any global lock and stored only if no invalidation happened
+ * during the computation (checked by the version of the cache) and if the current transaction didn't
+ * change any roles (uncommitted roles must not be visible to other sessions). Invalidations are applied
+ * immediately and once more after the completion of the current transaction, so roles read by concurrent
+ * transactions before the commit are not kept in the cache. Entries older than max age are not used,
+ * which limits the impact of changes made by other instances of Perun.
+ *
+ * Returned and stored roles are always copied, so callers can modify them.
+ *
+ * Methods in this class are thread safe
+ */
+public class AuthzRolesCache {
+
+	private final Map<Integer, CachedRoles> cache = new ConcurrentHashMap<>();
+	private final AtomicLong version = new AtomicLong();
+	// bound to the transaction which invalidated some roles, holds invalidations to repeat after its completion
+	private final Object pendingInvalidationsKey = new Object();
+	private final long maxAge;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder rebuilds = new LongAdder();
+	private final LongAdder rebuildsTime = new LongAdder();
+	private volatile long lastRebuildTime;
+
+	/**
+	 * @param maxAge max age of cached roles in ms, 0 disables the cache
+	 */
+	public AuthzRolesCache(long maxAge) {
+		this.maxAge = TimeUnit.MILLISECONDS.toNanos(maxAge);
+	}
+
+	public boolean isEnabled() {
+		return maxAge > 0;
+	}
+
+	/**
+	 * Returns copy of cached roles of the user.
+	 *
+	 * @param userId id of the user
+	 * @return roles of the user or null, if they are not cached or they are too old
+	 */
+	public AuthzRoles get(int userId) {
+		CachedRoles cached = isEnabled() ? cache.get(userId) : null;
+		if (cached == null || System.nanoTime() - cached.created > maxAge) {
+			if (cached != null) cache.remove(userId, cached);
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return copy(cached.roles);
+	}
+
+	/**
+	 * Returns current version of the cache. It has to be read before computing the roles, which are then stored
+	 * by {@link #put(int, AuthzRoles, long, long)}.
+	 *
+	 * @return version of the cache
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Stores copy of computed roles of the user. Roles are not stored, if any invalidation happened since the version
+	 * was read or if the current transaction changed some roles.
+	 *
+	 * @param userId id of the user
+	 * @param roles computed roles
+	 * @param version version of the cache read before computing the roles
+	 * @param rebuildTime time of computing the roles in ns
+	 */
+	public void put(int userId, AuthzRoles roles, long version, long rebuildTime) {
+		rebuilds.increment();
+		rebuildsTime.add(rebuildTime);
+		lastRebuildTime = rebuildTime;
+
+		if (!isEnabled() || TransactionSynchronizationManager.hasResource(pendingInvalidationsKey)) return;
+		CachedRoles cached = new CachedRoles(copy(roles), System.nanoTime());
+		if (this.version.get() != version) return;
+		cache.put(userId, cached);
+		// invalidation could happen between the check and the put
+		if (this.version.get() != version) cache.remove(userId, cached);
+	}
+
+	/**
+	 * Removes roles of the user from the cache.
+	 *
+	 * @param userId id of the user
+	 */
+	public void invalidateUser(int userId) {
+		invalidate(() -> cache.remove(userId));
+	}
+
+	/**
+	 * Removes roles of all users, who have any role for the object (e.g. admins of the group).
+	 *
+	 * @param object complementary object of roles
+	 */
+	public void invalidateObject(PerunBean object) {
+		String beanName = BeansUtils.convertRichBeanNameToBeanName(object.getBeanName());
+		int id = object.getId();
+		invalidate(() -> cache.values().removeIf(cached -> cached.references(beanName, id)));
+	}
+
+	/**
+	 * Removes all cached roles.
+	 */
+	public void invalidateAll() {
+		invalidate(cache::clear);
+	}
+
+	private void invalidate(Runnable invalidation) {
+		version.incrementAndGet();
+		invalidation.run();
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+		@SuppressWarnings("unchecked")
+		List<Runnable> pendingInvalidations = (List<Runnable>) TransactionSynchronizationManager.getResource(pendingInvalidationsKey);
+		if (pendingInvalidations == null) {
+			List<Runnable> invalidations = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(pendingInvalidationsKey, invalidations);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(pendingInvalidationsKey);
+					version.incrementAndGet();
+					invalidations.forEach(Runnable::run);
+				}
+			});
+			pendingInvalidations = invalidations;
+		}
+		pendingInvalidations.add(invalidation);
+	}
+
+	/**
+	 * @return number of users with cached roles
+	 */
+	public int getSize() {
+		return cache.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return ratio of requests for roles served from the cache (0 - 1)
+	 */
+	public double getHitRatio() {
+		long hits = getHits();
+		long requests = hits + getMisses();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * @return number of computed roles
+	 */
+	public long getRebuilds() {
+		return rebuilds.sum();
+	}
+
+	/**
+	 * @return average time of computing roles of a user in ms
+	 */
+	public double getAverageRebuildTime() {
+		long rebuilds = getRebuilds();
+		return rebuilds == 0 ? 0 : rebuildsTime.sum() / 1e6 / rebuilds;
+	}
+
+	/**
+	 * @return time of the last computing of roles of a user in ms
+	 */
+	public double getLastRebuildTime() {
+		return lastRebuildTime / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[size='" + getSize() + "', hits='" + getHits() + "', misses='" + getMisses() +
+			"', hitRatio='" + String.format("%.3f", getHitRatio()) + "', averageRebuildTime='" +
+			String.format("%.3f", getAverageRebuildTime()) + "ms', lastRebuildTime='" + String.format("%.3f", getLastRebuildTime()) + "ms']";
+	}
+
+	private static AuthzRoles copy(AuthzRoles roles) {
+		AuthzRoles copy = new AuthzRoles();
+		for (Map.Entry<String, Map<String, Set<Integer>>> role : roles.entrySet()) {
+			Map<String, Set<Integer>> objects = null;
+			if (role.getValue() != null) {
+				objects = new HashMap<>();
+				for (Map.Entry<String, Set<Integer>> beans : role.getValue().entrySet()) {
+					objects.put(beans.getKey(), beans.getValue() == null ? null : new HashSet<>(beans.getValue()));
+				}
+			}
+			copy.put(role.getKey(), objects);
+		}
+		return copy;
+	}
+
+	private static class CachedRoles {
+		private final AuthzRoles roles;
+		private final long created;
+
+		private CachedRoles(AuthzRoles roles, long created) {
+			this.roles = roles;
+			this.created = created;
+		}
+
+		private boolean references(String beanName, int id) {
+			for (Map<String, Set<Integer>> objects : roles.values()) {
+				if (objects == null) continue;
+				Set<Integer> ids = objects.get(beanName);
+				if (ids != null && ids.contains(id)) return true;
+			}
+			return false;
+		}
+	}
+
+}
@@ -11,12 +11,15 @@ import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.implApi.AttributesCacheInvalidationBus;
 import cz.metacentrum.perun.core.implApi.AttributesManagerImplApi;
 import cz.metacentrum.perun.core.implApi.CacheManagerApi;
 import org.infinispan.Cache;
 import org.infinispan.CacheSet;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.context.Flag;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.query.Search;
 import org.infinispan.query.dsl.QueryFactory;
@@ -37,16 +40,21 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class used for caching layer management. It deals also with nested transactions and it contains all search and update methods for the cache.
  *
+ * Besides the cache of all attributes, which has to be initialized from the DB at startup (perun.cacheEnabled), it manages
+ * bounded read-through {@link AttributesCache} of attribute definitions and values (perun.attributesCache.maxEntries).
+ *
  * @author Simona Kruppova
  */
 public class CacheManager implements CacheManagerApi {
 
 	private final EmbeddedCacheManager localCacheManager;
+	private final AttributesCache attributesCache;
 	private JdbcPerunTemplate jdbc;
 
 	private static boolean cacheDisabled = true;
@@ -56,6 +64,7 @@ public class CacheManager implements CacheManagerApi {
 
 	private static final String CACHE_NAME = "transactionalCache";
 	private static final String SIMPLE_CACHE_NAME = "simpleCache";
+	private static final String ATTRIBUTES_CACHE_NAME = "attributesCache";
 	private static final String FOR_REMOVE = "ForRemove";
 
 	private static final String PRIMARY_HOLDER = "primaryHolder";
@@ -78,8 +87,37 @@ public class CacheManager implements CacheManagerApi {
 	}
 
 	public CacheManager(EmbeddedCacheManager localCacheManager) {
+		this(localCacheManager, new LocalAttributesCacheInvalidationBus());
+	}
+
+	public CacheManager(EmbeddedCacheManager localCacheManager, AttributesCacheInvalidationBus attributesCacheInvalidationBus) {
 		this.localCacheManager = localCacheManager;
 		this.nestedCacheNamesKey = new Object();
+		this.attributesCache = new AttributesCache(createAttributesCache(), attributesCacheInvalidationBus);
+	}
+
+	/**
+	 * Creates bounded cache for the read-through attributes cache.
+	 *
+	 * @return cache limited by number of entries and time to live or null, if the attributes cache is disabled
+	 */
+	private Cache<Object, Object> createAttributesCache() {
+		int maxEntries = BeansUtils.getCoreConfig().getAttributesCacheMaxEntries();
+		if (maxEntries <= 0) return null;
+
+		ConfigurationBuilder builder = new ConfigurationBuilder();
+		builder.memory().evictionType(EvictionType.COUNT).size(maxEntries);
+		builder.expiration().lifespan(BeansUtils.getCoreConfig().getAttributesCacheTtl(), TimeUnit.SECONDS);
+		builder.jmxStatistics().enable();
+		localCacheManager.defineConfiguration(ATTRIBUTES_CACHE_NAME, builder.build());
+		return localCacheManager.getCache(ATTRIBUTES_CACHE_NAME);
+	}
+
+	/**
+	 * @return bounded read-through cache of attribute definitions and values
+	 */
+	public AttributesCache getAttributesCache() {
+		return attributesCache;
 	}
 
 	public void setPerunPool(DataSource perunPool) {
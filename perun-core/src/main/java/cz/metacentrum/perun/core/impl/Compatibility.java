@@ -49,6 +49,19 @@ public class Compatibility {
 		}
 	}
 
+	/**
+	 * Returns clause locking selected rows for update. On PostgreSQL the lock does not block
+	 * inserts of rows referencing the locked rows by foreign keys.
+	 */
+	static String getForUpdate() {
+		switch (getDbType()) {
+			case "postgresql":
+				return " FOR NO KEY UPDATE";
+			default:
+				return " FOR UPDATE";
+		}
+	}
+
 	public static String getStructureForInClause() throws InternalErrorException {
 		switch (getDbType()) {
 			case "oracle":
@@ -152,6 +165,17 @@ public class Compatibility {
 		}
 	}
 
+	/**
+	 * Returns end of the select, which limits rows to the page given by named parameters :limit and :offset.
+	 */
+	static String getLimitAndOffset() {
+		if ("oracle".equals(getDbType())) {
+			return " offset :offset rows fetch next :limit rows only";
+		} else {
+			return " limit :limit offset :offset";
+		}
+	}
+
 	static String getRowNumberOver() {
 		if ("hsqldb".equals(getDbType())) {
 			return ",row_number() over () as rownumber";
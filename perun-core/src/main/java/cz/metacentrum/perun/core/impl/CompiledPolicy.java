@@ -0,0 +1,114 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.PerunPolicy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Policy compiled together with all its (also nested) included policies to an immutable decision structure.
+ *
+ * Roles of all included policies are flattened to one list of alternatives (logical OR), where each alternative
+ * is an array of role checks (logical AND). Duplicate alternatives are removed. The structure is evaluated
+ * against roles of the principal and map of PerunBean names to ids of the objects without any further lookups.
+ *
+ * Instances are created by {@link PerunPoliciesContainer} when policies are loaded.
+ */
+public final class CompiledPolicy {
+
+	private final String policyName;
+	private final RoleCheck[][] alternatives;
+
+	private CompiledPolicy(String policyName, RoleCheck[][] alternatives) {
+		this.policyName = policyName;
+		this.alternatives = alternatives;
+	}
+
+	/**
+	 * Compile the policy with all its included policies.
+	 *
+	 * @param policyName name of the compiled policy
+	 * @param allPolicies policy with all its included policies
+	 * @return compiled policy
+	 */
+	static CompiledPolicy compile(String policyName, List<PerunPolicy> allPolicies) {
+		Set<Map<String, String>> policyRoles = new LinkedHashSet<>();
+		for (PerunPolicy policy : allPolicies) policyRoles.addAll(policy.getPerunRoles());
+
+		List<RoleCheck[]> alternatives = new ArrayList<>();
+		for (Map<String, String> roleArray : policyRoles) {
+			List<RoleCheck> checks = new ArrayList<>();
+			for (Map.Entry<String, String> role : roleArray.entrySet()) {
+				checks.add(new RoleCheck(role.getKey(), role.getValue()));
+			}
+			alternatives.add(checks.toArray(new RoleCheck[0]));
+		}
+		return new CompiledPolicy(policyName, alternatives.toArray(new RoleCheck[0][]));
+	}
+
+	public String getPolicyName() {
+		return policyName;
+	}
+
+	/**
+	 * Decide, whether the principal with the roles is authorized by the policy.
+	 *
+	 * @param roles roles of the principal
+	 * @param mapOfBeans names of PerunBeans mapped to ids of the objects (with all related objects)
+	 * @return true if at least one alternative of the policy is fulfilled for all objects, false otherwise
+	 */
+	public boolean isAuthorized(AuthzRoles roles, Map<String, Set<Integer>> mapOfBeans) {
+		for (RoleCheck[] alternative : alternatives) {
+			boolean authorized = true;
+			for (RoleCheck check : alternative) {
+				if (!check.isFulfilled(roles, mapOfBeans)) {
+					authorized = false;
+					break;
+				}
+			}
+			if (authorized) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[policyName='" + policyName + "', alternatives='" + alternatives.length + "']";
+	}
+
+	/**
+	 * Check of one role with (optional) object, e.g. VOADMIN: Vo.
+	 */
+	private static final class RoleCheck {
+
+		private final String role;
+		// name of the object in the map of beans
+		private final String objectType;
+		// name of the object in the roles of the principal (rich beans are the same like basic beans)
+		private final String roleObjectType;
+
+		private RoleCheck(String role, String objectType) {
+			this.role = role;
+			this.objectType = objectType;
+			this.roleObjectType = objectType == null ? null : BeansUtils.convertRichBeanNameToBeanName(objectType);
+		}
+
+		private boolean isFulfilled(AuthzRoles roles, Map<String, Set<Integer>> mapOfBeans) {
+			// policy role is not connected to any object
+			if (objectType == null) return roles.hasRole(role);
+
+			// principal has to have the role for all objects of the type
+			Set<Integer> objectIds = mapOfBeans.get(objectType);
+			if (objectIds == null) return false;
+			if (objectIds.isEmpty()) return true;
+			Map<String, Set<Integer>> roleObjects = roles.get(role);
+			Set<Integer> roleObjectIds = roleObjects == null ? null : roleObjects.get(roleObjectType);
+			return roleObjectIds != null && roleObjectIds.containsAll(objectIds);
+		}
+	}
+
+}
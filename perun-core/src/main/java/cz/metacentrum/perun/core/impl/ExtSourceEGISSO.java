@@ -19,9 +19,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This extSource is just for use loading users from LDAP of EGI SSO
@@ -31,6 +33,12 @@ import java.util.Map;
  */
 public class ExtSourceEGISSO extends ExtSourceLdap implements ExtSourceApi {
 
+	@Override
+	public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws ExtSourceUnsupportedOperationException {
+		// changes can't be recognized with the modified way of getting group subjects
+		throw new ExtSourceUnsupportedOperationException();
+	}
+
 	@Override
 	public List<Map<String, String>> getGroupSubjects(Map<String, String> attributes) throws InternalErrorException {
 		List<Map<String, String>> subjects = new ArrayList<>();
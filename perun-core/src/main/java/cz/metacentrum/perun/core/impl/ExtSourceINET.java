@@ -1,10 +1,13 @@
 package cz.metacentrum.perun.core.impl;
 
 import cz.metacentrum.perun.core.api.GroupsManager;
+import cz.metacentrum.perun.core.api.exceptions.ExtSourceUnsupportedOperationException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,6 +20,12 @@ public class ExtSourceINET extends ExtSourceSqlComplex {
 
 	Pattern queryParametersPattern = Pattern.compile("^([1-9][0-9]+)[:]([-A-Za-z0-9]+)$");
 
+	@Override
+	public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws ExtSourceUnsupportedOperationException {
+		// changes can't be recognized with the modified way of getting group subjects
+		throw new ExtSourceUnsupportedOperationException();
+	}
+
 	@Override
 	public List<Map<String, String>> getGroupSubjects(Map<String, String> attributes) throws InternalErrorException {
 		// Parameters of query in the combination "workspace:groupname"
@@ -7,10 +7,12 @@ import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.SubjectNotExistsException;
 import cz.metacentrum.perun.core.blImpl.PerunBlImpl;
 import cz.metacentrum.perun.core.implApi.ExtSourceApi;
+import cz.metacentrum.perun.core.implApi.ExtSourceChangesApi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.naming.Context;
+import javax.naming.InvalidNameException;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.Attribute;
@@ -19,11 +21,17 @@ import javax.naming.directory.DirContext;
 import javax.naming.directory.InitialDirContext;
 import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
+import javax.naming.ldap.LdapName;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,7 +41,7 @@ import java.util.regex.Pattern;
  * @author Michal Prochazka michalp@ics.muni.cz
  * @author Pavel Zlámal <zlamal@cesnet.cz>
  */
-public class ExtSourceLdap extends ExtSource implements ExtSourceApi {
+public class ExtSourceLdap extends ExtSource implements ExtSourceApi, ExtSourceChangesApi {
 
 	protected Map<String, String> mapping;
 
@@ -110,13 +118,87 @@ public class ExtSourceLdap extends ExtSource implements ExtSourceApi {
 	@Override
 	public List<Map<String, String>> getGroupSubjects(Map<String, String> attributes) throws InternalErrorException {
 
-		List<String> ldapGroupSubjects = new ArrayList<>();
+		// Get the LDAP group name
+		String ldapGroupName = attributes.get(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME);
+		// Get optional filter for members filtering
+		String filter = attributes.get(GroupsManager.GROUPMEMBERSFILTER_ATTRNAME);
+
+		List<String> ldapGroupSubjects = this.getGroupSubjectsDNs(ldapGroupName);
+
+		List<Map<String, String>> subjects = new ArrayList<>();
+
+		// If attribute filter not exists, use optional default filter from extSource definition
+		if(filter == null) filter = filteredQuery;
+
+		// Now query LDAP again and search for each subject
+		for (String ldapSubjectName : ldapGroupSubjects) {
+			subjects.addAll(this.querySource(filter, ldapSubjectName, 0));
+		}
+
+		return subjects;
+	}
+
+	/**
+	 * Get subjects of the group changed since the given time.
+	 *
+	 * Subjects are identified by their DN. Changed subjects are found by one search in the base of the extSource
+	 * using the operational attribute defined in extSource attribute "changeMarker" (eg. modifyTimestamp or whenChanged
+	 * with the generalized time syntax). Only subjects, which are new in the group, are read one by one.
+	 *
+	 * @throws ExtSourceUnsupportedOperationException if extSource attribute "changeMarker" or "base" is not set
+	 */
+	@Override
+	public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws InternalErrorException, ExtSourceUnsupportedOperationException {
+		String changeMarker = getAttributes().get("changeMarker");
+		String base = getAttributes().get("base");
+		if (changeMarker == null || changeMarker.isEmpty() || base == null) {
+			throw new ExtSourceUnsupportedOperationException("Attributes changeMarker and base are required to get changes of group subjects.");
+		}
 
 		// Get the LDAP group name
 		String ldapGroupName = attributes.get(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME);
 		// Get optional filter for members filtering
 		String filter = attributes.get(GroupsManager.GROUPMEMBERSFILTER_ATTRNAME);
 
+		List<String> ldapGroupSubjects = this.getGroupSubjectsDNs(ldapGroupName);
+
+		// If attribute filter not exists, use optional default filter from extSource definition
+		if(filter == null) filter = filteredQuery;
+
+		SimpleDateFormat generalizedTime = new SimpleDateFormat("yyyyMMddHHmmss'Z'");
+		generalizedTime.setTimeZone(TimeZone.getTimeZone("UTC"));
+		String subjectsFilter = filter == null ? "(objectClass=*)" : filter.startsWith("(") ? filter : "(" + filter + ")";
+		String changedQuery = "(&" + subjectsFilter + "(" + changeMarker + ">=" + generalizedTime.format(since) + "))";
+		Map<LdapName, Map<String, String>> changedSubjects = this.querySourceByDN(changedQuery, base);
+
+		Map<String, Map<String, String>> subjects = new LinkedHashMap<>();
+		for (String ldapSubjectName : ldapGroupSubjects) {
+			Map<String, String> subject = changedSubjects.get(toLdapName(ldapSubjectName));
+			if (subject != null) {
+				subjects.put(ldapSubjectName, subject);
+			} else if (knownSubjects.contains(ldapSubjectName)) {
+				subjects.put(ldapSubjectName, null);
+			} else {
+				// subject is new in the group, but its entry wasn't changed
+				List<Map<String, String>> newSubjects = this.querySource(filter, ldapSubjectName, 0);
+				if (!newSubjects.isEmpty()) subjects.put(ldapSubjectName, newSubjects.get(0));
+			}
+		}
+		log.debug("LDAP External Source: {} of {} subjects of group [{}] changed since {}.", changedSubjects.size(), ldapGroupSubjects.size(), ldapGroupName, since);
+
+		return subjects;
+	}
+
+	/**
+	 * Get DNs of the group members from the member attribute of the group entry.
+	 *
+	 * @param ldapGroupName DN of the group
+	 * @return DNs of group members
+	 * @throws InternalErrorException if the group entry can't be read
+	 */
+	protected List<String> getGroupSubjectsDNs(String ldapGroupName) throws InternalErrorException {
+		List<String> ldapGroupSubjects = new ArrayList<>();
+
 		try {
 			log.trace("LDAP External Source: searching for group subjects [{}]", ldapGroupName);
 
@@ -145,17 +227,7 @@ public class ExtSourceLdap extends ExtSource implements ExtSourceApi {
 				}
 			}
 
-			List<Map<String, String>> subjects = new ArrayList<>();
-
-			// If attribute filter not exists, use optional default filter from extSource definition
-			if(filter == null) filter = filteredQuery;
-
-			// Now query LDAP again and search for each subject
-			for (String ldapSubjectName : ldapGroupSubjects) {
-				subjects.addAll(this.querySource(filter, ldapSubjectName, 0));
-			}
-
-			return subjects;
+			return ldapGroupSubjects;
 
 		} catch (NamingException e) {
 			log.error("LDAP exception during running query '{}'", ldapGroupName);
@@ -389,6 +461,67 @@ public class ExtSourceLdap extends ExtSource implements ExtSourceApi {
 		}
 	}
 
+	/**
+	 * Search LDAP by the query and return found subjects by their DN.
+	 *
+	 * @param query filter of the search
+	 * @param base base of the search
+	 * @return map of DNs to the LDAP attribute names and theirs values
+	 * @throws InternalErrorException
+	 */
+	protected Map<LdapName, Map<String, String>> querySourceByDN(String query, String base) throws InternalErrorException {
+
+		NamingEnumeration<SearchResult> results = null;
+		Map<LdapName, Map<String, String>> subjects = new HashMap<>();
+
+		try {
+			log.trace("search string [{}]", query);
+
+			SearchControls controls = new SearchControls();
+			controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+			// Set timeout to 5s
+			controls.setTimeLimit(5000);
+
+			results = getContext().search(base, query, controls);
+			while (results.hasMore()) {
+				SearchResult searchResult = results.next();
+				Map<String,String> subjectAttributes = this.getSubjectAttributes(searchResult.getAttributes());
+				if (!subjectAttributes.isEmpty()) {
+					subjects.put(toLdapName(searchResult.getNameInNamespace()), subjectAttributes);
+				}
+			}
+
+			log.trace("Returning [{}] subjects", subjects.size());
+			return subjects;
+
+		} catch (NamingException e) {
+			log.error("LDAP exception during running query '{}'", query);
+			throw new InternalErrorException("LDAP exception during running query: "+query+".", e);
+		} finally {
+			try {
+				if (results != null) { results.close(); }
+			} catch (Exception e) {
+				log.error("LDAP exception during closing result, while running query '{}'", query);
+				throw new InternalErrorException(e);
+			}
+		}
+	}
+
+	/**
+	 * Parse DN, so DNs which differ only in the case or spaces are equal.
+	 *
+	 * @param dn DN
+	 * @return parsed DN
+	 * @throws InternalErrorException if DN is not valid
+	 */
+	private static LdapName toLdapName(String dn) throws InternalErrorException {
+		try {
+			return new LdapName(dn);
+		} catch (InvalidNameException e) {
+			throw new InternalErrorException("Invalid DN '" + dn + "'.", e);
+		}
+	}
+
 	@Override
 	public void close() throws InternalErrorException {
 		if (this.dirContext != null) {
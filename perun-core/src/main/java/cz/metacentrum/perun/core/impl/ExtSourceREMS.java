@@ -17,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +73,12 @@ public class ExtSourceREMS extends ExtSourceSqlComplex implements ExtSourceApi {
 		return filterNonExistingUsers(subjects);
 	}
 
+	@Override
+	public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws ExtSourceUnsupportedOperationException {
+		// changes can't be recognized with the modified way of getting group subjects
+		throw new ExtSourceUnsupportedOperationException();
+	}
+
 	@Override
 	public List<Map<String, String>> getGroupSubjects(Map<String, String> attributes) throws InternalErrorException {
 		List<Map<String, String>> subjects = super.getGroupSubjects(attributes);
@@ -7,6 +7,7 @@ import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.SubjectNotExistsException;
 import cz.metacentrum.perun.core.blImpl.GroupsManagerBlImpl;
 import cz.metacentrum.perun.core.blImpl.PerunBlImpl;
+import cz.metacentrum.perun.core.implApi.ExtSourceChangesApi;
 import cz.metacentrum.perun.core.implApi.ExtSourceSimpleApi;
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -21,17 +22,21 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * @author Michal Prochazka michalp@ics.muni.cz
  */
-public class ExtSourceSql extends ExtSource implements ExtSourceSimpleApi {
+public class ExtSourceSql extends ExtSource implements ExtSourceSimpleApi, ExtSourceChangesApi {
 
 	private final static Logger log = LoggerFactory.getLogger(ExtSourceSql.class);
 	private static final Map<String, String> attributeNameMapping = new HashMap<>();
@@ -108,6 +113,60 @@ public class ExtSourceSql extends ExtSource implements ExtSourceSimpleApi {
 		return this.querySource(sqlQueryForGroup, null, 0);
 	}
 
+	/**
+	 * Get subjects of the group changed since the given time.
+	 *
+	 * Subjects are identified by their login. Group query has to return also column defined in extSource attribute
+	 * "changeMarker" with the time of the last change of the row. Rows of known subjects which weren't changed
+	 * since the given time are not converted to subjects.
+	 *
+	 * @throws ExtSourceUnsupportedOperationException if extSource attribute "changeMarker" is not set
+	 */
+	@Override
+	public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws InternalErrorException, ExtSourceUnsupportedOperationException {
+		String changeMarker = getAttributes().get("changeMarker");
+		if (changeMarker == null || changeMarker.isEmpty()) {
+			throw new ExtSourceUnsupportedOperationException("Attribute changeMarker is required to get changes of group subjects.");
+		}
+
+		// Get the sql query for the group subjects
+		String sqlQueryForGroup = attributes.get(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME);
+
+		this.checkAndSetPrerequisites();
+
+		try (PreparedStatement st = getPreparedStatement(sqlQueryForGroup, null, 0)) {
+			try (ResultSet rs = st.executeQuery()) {
+				if (!hasColumn(rs, changeMarker)) {
+					throw new ExtSourceUnsupportedOperationException("Query " + sqlQueryForGroup + " doesn't return column " + changeMarker + ".");
+				}
+
+				Map<String, Map<String, String>> subjects = new LinkedHashMap<>();
+				int changedSubjects = 0;
+
+				while (rs.next()) {
+					String login = rs.getString("login");
+					if (login == null || login.isEmpty()) {
+						log.debug("Subject without login in query {} is skipped.", sqlQueryForGroup);
+						continue;
+					}
+					Timestamp changed = rs.getTimestamp(changeMarker);
+					if (knownSubjects.contains(login) && changed != null && changed.before(since)) {
+						subjects.put(login, null);
+					} else {
+						subjects.put(login, this.getSubject(rs));
+						changedSubjects++;
+					}
+				}
+
+				log.debug("{} of {} subjects from external source {} changed since {}", changedSubjects, subjects.size(), this, since);
+				return subjects;
+			}
+		} catch (SQLException e) {
+			log.error("SQL exception during searching for changes of subjects '{}'", sqlQueryForGroup);
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public List<Map<String,String>> getUsersSubjects() throws InternalErrorException, ExtSourceUnsupportedOperationException{
 		String query = getAttributes().get("usersQuery");
@@ -131,105 +190,7 @@ public class ExtSourceSql extends ExtSource implements ExtSourceSimpleApi {
 				log.trace("Query {}", query);
 
 				while (rs.next()) {
-					Map<String, String> map = new HashMap<>();
-
-					try {
-						map.put("firstName", rs.getString("firstName"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("firstName", null);
-					}
-					try {
-						map.put("lastName", rs.getString("lastName"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("lastName", null);
-					}
-					try {
-						map.put("middleName", rs.getString("middleName"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("middleName", null);
-					}
-					try {
-						map.put("titleBefore", rs.getString("titleBefore"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("titleBefore", null);
-					}
-					try {
-						map.put("titleAfter", rs.getString("titleAfter"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("titleAfter", null);
-					}
-					try {
-						map.put("login", rs.getString("login"));
-					} catch (SQLException e) {
-						// If the column doesn't exists, ignore it
-						map.put("login", null);
-					}
-
-					for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
-						String columnName = rs.getMetaData().getColumnLabel(i);
-						log.trace("Iterating through attribute {}", columnName);
-						// Now go through all other attributes. If the column name(=attribute name) contains ":", then it represents an attribute
-						if (columnName.contains(":")) {
-							// Decode the attribute name (column name has limited size, so we need to code the attribute names)
-							// Coded attribute name: x:y:z
-							// x - m: member, u: user, f: facility, r: resource, mr: member-resource, uf: user-facility, h: host, v: vo, g: group, gr: group-resource
-							// y - d: def, o: opt
-							String[] attributeRaw = columnName.split(":", 3);
-							String attributeName = null;
-							if (!attributeNameMapping.containsKey(attributeRaw[0])) {
-								log.warn("Unknown attribute type '{}' for user {} {}, attributeRaw {}", attributeRaw[0], map.get("firstName"), map.get("lastName"), attributeRaw);
-							} else if (!attributeNameMapping.containsKey(attributeRaw[1])) {
-								log.warn("Unknown attribute type '{}' for user {} {}, attributeRaw {}", attributeRaw[1], map.get("firstName"), map.get("lastName"), attributeRaw);
-							} else {
-								attributeName = attributeNameMapping.get(attributeRaw[0]) + attributeNameMapping.get(attributeRaw[1]) + attributeRaw[2];
-								if (!Objects.equals(rs.getMetaData().getColumnTypeName(i), "BLOB")) {
-									// trace only string data
-									log.trace("Adding attribute {} with value {}", attributeName, rs.getString(i));
-								} else {
-									log.trace("Adding attribute {} with BLOB value", attributeName);
-								}
-							}
-
-							String attributeValue = null;
-							if (Objects.equals(rs.getMetaData().getColumnTypeName(i), "BLOB")) {
-								// source column is binary
-								try {
-									InputStream inputStream = rs.getBinaryStream(i);
-									if (inputStream != null) {
-										ByteArrayOutputStream result = new ByteArrayOutputStream();
-										byte[] buffer = new byte[1024];
-										int length;
-										while ((length = inputStream.read(buffer)) != -1) {
-											result.write(buffer, 0, length);
-										}
-										byte[] bytes = Base64.encodeBase64(result.toByteArray());
-										attributeValue = new String(bytes, StandardCharsets.UTF_8);
-									}
-								} catch (IOException ex) {
-									log.error("Unable to read BLOB for column {}", columnName);
-									throw new InternalErrorException("Unable to read BLOB data for column: " + columnName, ex);
-								}
-							} else {
-								// let driver to convert type to string
-								attributeValue = rs.getString(i);
-							}
-							if (rs.wasNull()) {
-								map.put(attributeName, null);
-							} else {
-								map.put(attributeName, attributeValue);
-							}
-						} else if (columnName.toLowerCase().startsWith(ExtSourcesManagerImpl.USEREXTSOURCEMAPPING)) {
-							// additionalUserExtSources, we must do lower case because some DBs changes lower to upper
-							map.put(columnName.toLowerCase(), rs.getString(i));
-							log.trace("Adding attribute {} with value {}", columnName, rs.getString(i));
-						}
-					}
-					subjects.add(map);
+					subjects.add(this.getSubject(rs));
 				}
 
 				log.debug("Returning {} subjects from external source {} for searchString {}", subjects.size(), this, searchString);
@@ -241,6 +202,123 @@ public class ExtSourceSql extends ExtSource implements ExtSourceSimpleApi {
 		}
 	}
 
+	private static boolean hasColumn(ResultSet rs, String columnName) throws SQLException {
+		for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+			if (rs.getMetaData().getColumnLabel(i).equalsIgnoreCase(columnName)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Read subject from the current row of the result set.
+	 *
+	 * @param rs result set
+	 * @return map of attribute names and theirs values
+	 * @throws SQLException
+	 * @throws InternalErrorException
+	 */
+	private Map<String, String> getSubject(ResultSet rs) throws SQLException, InternalErrorException {
+		Map<String, String> map = new HashMap<>();
+
+		try {
+			map.put("firstName", rs.getString("firstName"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("firstName", null);
+		}
+		try {
+			map.put("lastName", rs.getString("lastName"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("lastName", null);
+		}
+		try {
+			map.put("middleName", rs.getString("middleName"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("middleName", null);
+		}
+		try {
+			map.put("titleBefore", rs.getString("titleBefore"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("titleBefore", null);
+		}
+		try {
+			map.put("titleAfter", rs.getString("titleAfter"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("titleAfter", null);
+		}
+		try {
+			map.put("login", rs.getString("login"));
+		} catch (SQLException e) {
+			// If the column doesn't exists, ignore it
+			map.put("login", null);
+		}
+
+		for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+			String columnName = rs.getMetaData().getColumnLabel(i);
+			log.trace("Iterating through attribute {}", columnName);
+			// Now go through all other attributes. If the column name(=attribute name) contains ":", then it represents an attribute
+			if (columnName.contains(":")) {
+				// Decode the attribute name (column name has limited size, so we need to code the attribute names)
+				// Coded attribute name: x:y:z
+				// x - m: member, u: user, f: facility, r: resource, mr: member-resource, uf: user-facility, h: host, v: vo, g: group, gr: group-resource
+				// y - d: def, o: opt
+				String[] attributeRaw = columnName.split(":", 3);
+				String attributeName = null;
+				if (!attributeNameMapping.containsKey(attributeRaw[0])) {
+					log.warn("Unknown attribute type '{}' for user {} {}, attributeRaw {}", attributeRaw[0], map.get("firstName"), map.get("lastName"), attributeRaw);
+				} else if (!attributeNameMapping.containsKey(attributeRaw[1])) {
+					log.warn("Unknown attribute type '{}' for user {} {}, attributeRaw {}", attributeRaw[1], map.get("firstName"), map.get("lastName"), attributeRaw);
+				} else {
+					attributeName = attributeNameMapping.get(attributeRaw[0]) + attributeNameMapping.get(attributeRaw[1]) + attributeRaw[2];
+					if (!Objects.equals(rs.getMetaData().getColumnTypeName(i), "BLOB")) {
+						// trace only string data
+						log.trace("Adding attribute {} with value {}", attributeName, rs.getString(i));
+					} else {
+						log.trace("Adding attribute {} with BLOB value", attributeName);
+					}
+				}
+
+				String attributeValue = null;
+				if (Objects.equals(rs.getMetaData().getColumnTypeName(i), "BLOB")) {
+					// source column is binary
+					try {
+						InputStream inputStream = rs.getBinaryStream(i);
+						if (inputStream != null) {
+							ByteArrayOutputStream result = new ByteArrayOutputStream();
+							byte[] buffer = new byte[1024];
+							int length;
+							while ((length = inputStream.read(buffer)) != -1) {
+								result.write(buffer, 0, length);
+							}
+							byte[] bytes = Base64.encodeBase64(result.toByteArray());
+							attributeValue = new String(bytes, StandardCharsets.UTF_8);
+						}
+					} catch (IOException ex) {
+						log.error("Unable to read BLOB for column {}", columnName);
+						throw new InternalErrorException("Unable to read BLOB data for column: " + columnName, ex);
+					}
+				} else {
+					// let driver to convert type to string
+					attributeValue = rs.getString(i);
+				}
+				if (rs.wasNull()) {
+					map.put(attributeName, null);
+				} else {
+					map.put(attributeName, attributeValue);
+				}
+			} else if (columnName.toLowerCase().startsWith(ExtSourcesManagerImpl.USEREXTSOURCEMAPPING)) {
+				// additionalUserExtSources, we must do lower case because some DBs changes lower to upper
+				map.put(columnName.toLowerCase(), rs.getString(i));
+				log.trace("Adding attribute {} with value {}", columnName, rs.getString(i));
+			}
+		}
+		return map;
+	}
+
 	protected void createConnection() throws InternalErrorException {
 		try {
 
@@ -0,0 +1,123 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.Group;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of group synchronizations processed by the {@link SynchronizationPool}.
+ *
+ * Holds duration of the last synchronization and time of the last successful synchronization of each group
+ * and aggregated latency of synchronizations per external source.
+ *
+ * Methods in this class are thread safe
+ */
+public class GroupSynchronizationMetrics {
+
+	// group id -> duration of the last synchronization in ms
+	private final Map<Integer, Long> lastDurations = new ConcurrentHashMap<>();
+	// group id -> end of the last successful synchronization in ms from epoch
+	private final Map<Integer, Long> lastSuccesses = new ConcurrentHashMap<>();
+	private final Map<String, ExtSourceStatistics> extSourcesStatistics = new ConcurrentHashMap<>();
+
+	/**
+	 * Records finished synchronization of the group.
+	 *
+	 * @param group synchronized group
+	 * @param extSourceName name of the external source the group is synchronized from
+	 * @param duration duration of the synchronization in ms
+	 * @param succeeded false if the synchronization failed
+	 */
+	public void recordSynchronization(Group group, String extSourceName, long duration, boolean succeeded) {
+		lastDurations.put(group.getId(), duration);
+		if (succeeded) lastSuccesses.put(group.getId(), System.currentTimeMillis());
+		extSourcesStatistics.computeIfAbsent(extSourceName, name -> new ExtSourceStatistics()).record(duration, succeeded);
+	}
+
+	/**
+	 * Removes all information about the group (eg. when it was deleted).
+	 *
+	 * @param group group to forget
+	 */
+	public void removeGroup(Group group) {
+		lastDurations.remove(group.getId());
+		lastSuccesses.remove(group.getId());
+	}
+
+	/**
+	 * @param group group
+	 * @return duration of the last synchronization of the group in ms or null, if it wasn't synchronized yet
+	 */
+	public Long getLastDuration(Group group) {
+		return lastDurations.get(group.getId());
+	}
+
+	/**
+	 * @param group group
+	 * @return end of the last successful synchronization of the group in ms from epoch or 0, if there was none yet
+	 */
+	public long getLastSuccess(Group group) {
+		return lastSuccesses.getOrDefault(group.getId(), 0L);
+	}
+
+	/**
+	 * @return statistics of synchronizations by the name of the external source
+	 */
+	public Map<String, ExtSourceStatistics> getExtSourcesStatistics() {
+		return Collections.unmodifiableMap(new TreeMap<>(extSourcesStatistics));
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[extSources='" + getExtSourcesStatistics() + "']";
+	}
+
+	/**
+	 * Aggregated latency of synchronizations of groups from one external source.
+	 */
+	public static class ExtSourceStatistics {
+
+		private long count;
+		private long failed;
+		private long totalDuration;
+		private long maxDuration;
+		private long lastDuration;
+
+		private synchronized void record(long duration, boolean succeeded) {
+			count++;
+			if (!succeeded) failed++;
+			totalDuration += duration;
+			maxDuration = Math.max(maxDuration, duration);
+			lastDuration = duration;
+		}
+
+		public synchronized long getCount() {
+			return count;
+		}
+
+		public synchronized long getFailed() {
+			return failed;
+		}
+
+		public synchronized long getAverageDuration() {
+			return count == 0 ? 0 : totalDuration / count;
+		}
+
+		public synchronized long getMaxDuration() {
+			return maxDuration;
+		}
+
+		public synchronized long getLastDuration() {
+			return lastDuration;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return "[count='" + count + "', failed='" + failed + "', averageDuration='" + getAverageDuration() +
+				"', maxDuration='" + maxDuration + "', lastDuration='" + lastDuration + "']";
+		}
+	}
+}
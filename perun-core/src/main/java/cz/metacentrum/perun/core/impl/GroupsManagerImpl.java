@@ -38,8 +38,12 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -56,6 +60,13 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 	public final static int ADMINSGROUP = 2;
 	public final static int SUBGROUP = 3;
 
+	// max number of ids in one "IN" clause (Oracle limit)
+	private final static int MAX_IDS_IN_QUERY = 1000;
+
+	// types of relations in groups_closure
+	private final static int CLOSURE_HIERARCHY = 0;
+	private final static int CLOSURE_RELATION = 1;
+
 	protected final static String groupMappingSelectQuery = "groups.id as groups_id, groups.parent_group_id as groups_parent_group_id, groups.name as groups_name, groups.dsc as groups_dsc, "
 			+ "groups.vo_id as groups_vo_id, groups.created_at as groups_created_at, groups.created_by as groups_created_by, groups.modified_by as groups_modified_by, groups.modified_at as groups_modified_at, "
 			+ "groups.modified_by_uid as groups_modified_by_uid, groups.created_by_uid as groups_created_by_uid ";
@@ -135,6 +146,13 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 					group.getName(), group.getDescription(), vo.getId(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), sess.getPerunPrincipal().getUserId());
 			group.setId(newId);
 
+			// group is in closure of both types with itself
+			jdbc.update("insert into groups_closure (ancestor_gid, descendant_gid, relation_type, depth, paths) values (?,?,?,0,1)", newId, newId, CLOSURE_HIERARCHY);
+			jdbc.update("insert into groups_closure (ancestor_gid, descendant_gid, relation_type, depth, paths) values (?,?,?,0,1)", newId, newId, CLOSURE_RELATION);
+			if (group.getParentGroupId() != null) {
+				updateClosurePaths(group.getParentGroupId(), newId, CLOSURE_HIERARCHY, 1);
+			}
+
 			group.setVoId(vo.getId());
 
 			return group;
@@ -187,6 +205,9 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 			// Delete authz entries for this group
 			AuthzResolverBlImpl.removeAllAuthzForGroup(sess, group);
 
+			// Subgroups and relations of the group were already removed, so no path goes through the group
+			jdbc.update("delete from groups_closure where ancestor_gid=? or descendant_gid=?", group.getId(), group.getId());
+
 			int rowAffected = jdbc.update("delete from groups where id=?", group.getId());
 			if(rowAffected == 0) throw new GroupAlreadyRemovedException("Group: " + group + " , Vo: " + vo);
 		} catch (RuntimeException err) {
@@ -269,10 +290,17 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		//check if group parent id was changed to another id or to null
 		if ((group.getParentGroupId() != null && !group.getParentGroupId().equals(dbGroup.getParentGroupId())) ||
 				(group.getParentGroupId() == null && dbGroup.getParentGroupId() != null)) {
+			Integer previousParentGroupId = dbGroup.getParentGroupId();
 			dbGroup.setParentGroupId(group.getParentGroupId());
 			try {
 				jdbc.update("update groups set parent_group_id=?,modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + " where id=?", dbGroup.getParentGroupId(),
 						sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), dbGroup.getId());
+				if (previousParentGroupId != null) {
+					updateClosurePaths(previousParentGroupId, dbGroup.getId(), CLOSURE_HIERARCHY, -1);
+				}
+				if (dbGroup.getParentGroupId() != null) {
+					updateClosurePaths(dbGroup.getParentGroupId(), dbGroup.getId(), CLOSURE_HIERARCHY, 1);
+				}
 			} catch (RuntimeException e) {
 				throw new InternalErrorException(e);
 			}
@@ -448,6 +476,28 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public List<Group> getAllSubGroups(PerunSession sess, Group parentGroup) throws InternalErrorException {
+		try {
+			return jdbc.query("select " + groupMappingSelectQuery + " from groups_closure join groups on groups.id=groups_closure.descendant_gid " +
+							"where groups_closure.ancestor_gid=? and groups_closure.relation_type=? and groups_closure.depth>0",
+					GROUP_MAPPER, parentGroup.getId(), CLOSURE_HIERARCHY);
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	@Override
+	public List<Group> getAllParentGroups(PerunSession sess, Group group) throws InternalErrorException {
+		try {
+			return jdbc.query("select " + groupMappingSelectQuery + " from groups_closure join groups on groups.id=groups_closure.ancestor_gid " +
+							"where groups_closure.descendant_gid=? and groups_closure.relation_type=? and groups_closure.depth>0 order by groups_closure.depth desc",
+					GROUP_MAPPER, group.getId(), CLOSURE_HIERARCHY);
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public int getSubGroupsCount(PerunSession sess, Group parentGroup) throws InternalErrorException {
 		try {
@@ -508,6 +558,25 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 
 	}
 
+	@Override
+	public void addMembers(PerunSession sess, Group group, List<Member> members, MembershipType type, int sourceGroupId) throws InternalErrorException, AlreadyMemberException {
+		List<Object[]> batchArgs = new ArrayList<>(members.size());
+		for (Member member : members) {
+			member.setMembershipType(type);
+			member.setSourceGroupId(sourceGroupId);
+			batchArgs.add(new Object[] {group.getId(), member.getId(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getActor(),
+					sess.getPerunPrincipal().getUserId(), sess.getPerunPrincipal().getUserId(), type.getCode(), sourceGroupId});
+		}
+		try {
+			jdbc.batchUpdate("insert into groups_members (group_id, member_id, created_by, created_at, modified_by, modified_at, created_by_uid, modified_by_uid, membership_type, source_group_id) " +
+					"values (?,?,?," + Compatibility.getSysdate() + ",?," + Compatibility.getSysdate() + ",?,?,?,?)", batchArgs);
+		} catch(DuplicateKeyException ex) {
+			throw new AlreadyMemberException("Some of the members is already in " + group + " from source group with id " + sourceGroupId + ".", ex);
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public List<Group> getAllMemberGroups(PerunSession sess, Member member) throws InternalErrorException {
 		try {
@@ -534,6 +603,30 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public Map<Integer, List<Group>> getAllGroupsWhereMembersAreActive(PerunSession sess, List<Member> members) throws InternalErrorException {
+		Map<Integer, List<Group>> groups = new LinkedHashMap<>();
+		List<Integer> membersIds = new ArrayList<>();
+		for (Member member : members) {
+			if (groups.putIfAbsent(member.getId(), new ArrayList<>()) == null) membersIds.add(member.getId());
+		}
+		try {
+			for (int i = 0; i < membersIds.size(); i += MAX_IDS_IN_QUERY) {
+				MapSqlParameterSource parameters = new MapSqlParameterSource();
+				parameters.addValue("ids", membersIds.subList(i, Math.min(i + MAX_IDS_IN_QUERY, membersIds.size())));
+				parameters.addValue("status", MemberGroupStatus.VALID.getCode());
+				namedParameterJdbcTemplate.query("select distinct " + groupMappingSelectQuery + ", groups_members.member_id as groups_members_member_id" +
+						" from groups_members join groups on groups_members.group_id = groups.id" +
+						" where groups_members.member_id in ( :ids ) and groups_members.source_group_status=:status", parameters, rs -> {
+					groups.get(rs.getInt("groups_members_member_id")).add(GROUP_MAPPER.mapRow(rs, rs.getRow()));
+				});
+			}
+			return groups;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public List<Group> getGroupsByAttribute(PerunSession sess, Attribute attribute) throws InternalErrorException {
 		try {
@@ -603,6 +696,25 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 
 	}
 
+	@Override
+	public void removeMembers(PerunSession sess, Group group, List<Member> members, int sourceGroupId) throws InternalErrorException, NotGroupMemberException {
+		List<Object[]> batchArgs = new ArrayList<>(members.size());
+		for (Member member : members) {
+			member.setSourceGroupId(sourceGroupId);
+			batchArgs.add(new Object[] {group.getId(), sourceGroupId, member.getId()});
+		}
+		int[] ret;
+		try {
+			ret = jdbc.batchUpdate("delete from groups_members where group_id=? and source_group_id=? and member_id=?", batchArgs);
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+		for (int i = 0; i < ret.length; i++) {
+			// number of deleted rows may be unknown for some drivers
+			if (ret[i] == 0) throw new NotGroupMemberException(group, members.get(i));
+		}
+	}
+
 	@Override
 	public List<User> getAdmins(PerunSession sess, Group group) throws InternalErrorException {
 		try {
@@ -786,6 +898,7 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 					resultGroup.getId(), operandGroup.getId())) {
 				throw new GroupRelationDoesNotExist("Union between " + resultGroup + " and " + operandGroup + " does not exist.");
 			}
+			updateClosurePaths(resultGroup.getId(), operandGroup.getId(), CLOSURE_RELATION, -1);
 		} catch (RuntimeException e) {
 			throw new InternalErrorException(e);
 		}
@@ -794,7 +907,11 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 	@Override
 	public void removeResultGroupRelations(PerunSession sess, Group resultGroup) throws InternalErrorException {
 		try {
+			List<Integer> operandGroupsIds = jdbc.queryForList("SELECT operand_gid FROM groups_groups WHERE result_gid=?", Integer.class, resultGroup.getId());
 			jdbc.update("DELETE FROM groups_groups WHERE result_gid = ?", resultGroup.getId());
+			for (Integer operandGroupId : operandGroupsIds) {
+				updateClosurePaths(resultGroup.getId(), operandGroupId, CLOSURE_RELATION, -1);
+			}
 		} catch (RuntimeException e) {
 			throw new InternalErrorException(e);
 		}
@@ -806,6 +923,7 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 			jdbc.update("INSERT INTO groups_groups(result_gid, operand_gid, created_at, created_by, " +
 						"modified_at, modified_by, parent_flag) VALUES(?,?," + Compatibility.getSysdate() + ",?," + Compatibility.getSysdate() + ",?,?)",
 					resultGroup.getId(), operandGroup.getId(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getActor(), parentFlag);
+			updateClosurePaths(resultGroup.getId(), operandGroup.getId(), CLOSURE_RELATION, 1);
 		} catch (RuntimeException e) {
 			throw new InternalErrorException(e);
 		}
@@ -870,6 +988,242 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public Map<Integer, List<Integer>> getResultGroupsIds(PerunSession sess, List<Integer> groupsIds) throws InternalErrorException {
+		Map<Integer, List<Integer>> resultGroupsIds = new HashMap<>();
+		for (Integer groupId : groupsIds) {
+			resultGroupsIds.put(groupId, new ArrayList<>());
+		}
+		try {
+			for (int i = 0; i < groupsIds.size(); i += MAX_IDS_IN_QUERY) {
+				MapSqlParameterSource parameters = new MapSqlParameterSource();
+				parameters.addValue("ids", groupsIds.subList(i, Math.min(i + MAX_IDS_IN_QUERY, groupsIds.size())));
+				namedParameterJdbcTemplate.query("SELECT operand_gid, result_gid FROM groups_groups WHERE operand_gid IN (:ids)", parameters, rs -> {
+					resultGroupsIds.get(rs.getInt("operand_gid")).add(rs.getInt("result_gid"));
+				});
+			}
+			return resultGroupsIds;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	@Override
+	public Map<Integer, Integer> getAllResultGroupsIdsWithDepth(PerunSession sess, List<Integer> groupsIds) throws InternalErrorException {
+		Map<Integer, Integer> depths = new HashMap<>();
+		try {
+			for (int i = 0; i < groupsIds.size(); i += MAX_IDS_IN_QUERY) {
+				MapSqlParameterSource parameters = new MapSqlParameterSource();
+				parameters.addValue("relation_type", CLOSURE_RELATION);
+				parameters.addValue("ids", groupsIds.subList(i, Math.min(i + MAX_IDS_IN_QUERY, groupsIds.size())));
+				namedParameterJdbcTemplate.query("SELECT ancestor_gid, max(depth) AS depth FROM groups_closure " +
+						"WHERE relation_type=:relation_type AND descendant_gid IN (:ids) GROUP BY ancestor_gid", parameters, rs -> {
+					depths.merge(rs.getInt("ancestor_gid"), rs.getInt("depth"), Math::max);
+				});
+			}
+			return depths;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	@Override
+	public boolean isIndirectRelationBetweenGroups(PerunSession sess, int resultGroupId, int operandGroupId) throws InternalErrorException {
+		try {
+			return 1 <= jdbc.queryForInt("SELECT count(1) FROM groups_closure WHERE ancestor_gid=? AND descendant_gid=? AND relation_type=? AND depth>0",
+					resultGroupId, operandGroupId, CLOSURE_RELATION);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	@Override
+	public int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException {
+		try {
+			// closure must not be changed between its check and repair
+			if (repair) jdbc.update(Compatibility.getLockTable("groups_closure"));
+			List<Integer> groupsIds = jdbc.queryForList("SELECT id FROM groups", Integer.class);
+			Map<Integer, List<Integer>> subGroups = new HashMap<>();
+			jdbc.query("SELECT parent_group_id, id FROM groups WHERE parent_group_id IS NOT NULL", rs -> {
+				subGroups.computeIfAbsent(rs.getInt("parent_group_id"), id -> new ArrayList<>()).add(rs.getInt("id"));
+			});
+			Map<Integer, List<Integer>> operandGroups = new HashMap<>();
+			jdbc.query("SELECT result_gid, operand_gid FROM groups_groups", rs -> {
+				operandGroups.computeIfAbsent(rs.getInt("result_gid"), id -> new ArrayList<>()).add(rs.getInt("operand_gid"));
+			});
+
+			return checkGroupsClosure(groupsIds, subGroups, CLOSURE_HIERARCHY, repair)
+					+ checkGroupsClosure(groupsIds, operandGroups, CLOSURE_RELATION, repair);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	/**
+	 * Compare stored closure of given type with closure calculated from the edges and optionally fix the differences.
+	 *
+	 * @param groupsIds ids of all groups
+	 * @param edges ids of groups mapped to ids of their direct descendants (subgroups or operand groups)
+	 * @param relationType type of closure
+	 * @param repair true if the stored closure should be fixed
+	 * @return number of wrong, missing or redundant rows
+	 */
+	private int checkGroupsClosure(List<Integer> groupsIds, Map<Integer, List<Integer>> edges, int relationType, boolean repair) {
+		Map<Integer, Map<List<Integer>, Integer>> expected = new HashMap<>();
+		for (Integer groupId : groupsIds) {
+			calculateClosure(groupId, edges, expected, new HashSet<>());
+		}
+
+		Map<Integer, Map<List<Integer>, Integer>> stored = new HashMap<>();
+		jdbc.query("SELECT ancestor_gid, descendant_gid, depth, paths FROM groups_closure WHERE relation_type=?", rs -> {
+			stored.computeIfAbsent(rs.getInt("ancestor_gid"), id -> new HashMap<>())
+					.put(Arrays.asList(rs.getInt("descendant_gid"), rs.getInt("depth")), rs.getInt("paths"));
+		}, relationType);
+
+		List<Object[]> toInsert = new ArrayList<>();
+		List<Object[]> toUpdate = new ArrayList<>();
+		List<Object[]> toDelete = new ArrayList<>();
+		for (Map.Entry<Integer, Map<List<Integer>, Integer>> ancestor : expected.entrySet()) {
+			Map<List<Integer>, Integer> storedRows = stored.getOrDefault(ancestor.getKey(), new HashMap<>());
+			for (Map.Entry<List<Integer>, Integer> row : ancestor.getValue().entrySet()) {
+				Integer storedPaths = storedRows.remove(row.getKey());
+				if (storedPaths == null) {
+					toInsert.add(new Object[] {ancestor.getKey(), row.getKey().get(0), relationType, row.getKey().get(1), row.getValue()});
+				} else if (!storedPaths.equals(row.getValue())) {
+					toUpdate.add(new Object[] {row.getValue(), ancestor.getKey(), row.getKey().get(0), relationType, row.getKey().get(1)});
+				}
+			}
+		}
+		// stored rows, which were not removed as expected, are redundant
+		for (Map.Entry<Integer, Map<List<Integer>, Integer>> ancestor : stored.entrySet()) {
+			for (List<Integer> row : ancestor.getValue().keySet()) {
+				toDelete.add(new Object[] {ancestor.getKey(), row.get(0), relationType, row.get(1)});
+			}
+		}
+
+		int inconsistencies = toInsert.size() + toUpdate.size() + toDelete.size();
+		if (inconsistencies > 0) {
+			log.warn("Closure of groups (type {}) has {} missing, {} wrong and {} redundant rows.", relationType, toInsert.size(), toUpdate.size(), toDelete.size());
+		}
+		if (repair && inconsistencies > 0) {
+			jdbc.batchUpdate("INSERT INTO groups_closure (ancestor_gid, descendant_gid, relation_type, depth, paths) VALUES (?,?,?,?,?)", toInsert);
+			jdbc.batchUpdate("UPDATE groups_closure SET paths=? WHERE ancestor_gid=? AND descendant_gid=? AND relation_type=? AND depth=?", toUpdate);
+			jdbc.batchUpdate("DELETE FROM groups_closure WHERE ancestor_gid=? AND descendant_gid=? AND relation_type=? AND depth=?", toDelete);
+			log.info("Closure of groups (type {}) was repaired.", relationType);
+		}
+		return inconsistencies;
+	}
+
+	/**
+	 * Calculate closure rows of the group as an ancestor from closure rows of its direct descendants.
+	 *
+	 * @param groupId id of the group
+	 * @param edges ids of groups mapped to ids of their direct descendants
+	 * @param closure already calculated closure rows, (descendant id, depth) mapped to number of paths for each ancestor
+	 * @param visitedGroupsIds ids of groups on the current path to detect cycles
+	 * @return closure rows of the group
+	 */
+	private static Map<List<Integer>, Integer> calculateClosure(Integer groupId, Map<Integer, List<Integer>> edges,
+			Map<Integer, Map<List<Integer>, Integer>> closure, Set<Integer> visitedGroupsIds) {
+		Map<List<Integer>, Integer> rows = closure.get(groupId);
+		if (rows != null) return rows;
+		if (!visitedGroupsIds.add(groupId)) {
+			throw new ConsistencyErrorException("There is a cycle in relations between groups with ids " + visitedGroupsIds + ".");
+		}
+
+		rows = new HashMap<>();
+		rows.put(Arrays.asList(groupId, 0), 1);
+		for (Integer descendantId : edges.getOrDefault(groupId, new ArrayList<>())) {
+			for (Map.Entry<List<Integer>, Integer> row : calculateClosure(descendantId, edges, closure, visitedGroupsIds).entrySet()) {
+				rows.merge(Arrays.asList(row.getKey().get(0), row.getKey().get(1) + 1), row.getValue(), Integer::sum);
+			}
+		}
+		visitedGroupsIds.remove(groupId);
+		closure.put(groupId, rows);
+		return rows;
+	}
+
+	@Override
+	public void lockGroupsClosure(PerunSession sess, int voId) throws InternalErrorException {
+		try {
+			lockGroupsClosure(voId);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	/**
+	 * Lock the row of the VO, all changes of closures of its groups are made under this lock.
+	 * Groups in hierarchy or in relation are always from the same VO.
+	 *
+	 * @param voId id of VO
+	 */
+	private void lockGroupsClosure(int voId) {
+		jdbc.queryForInt("SELECT id FROM vos WHERE id=?" + Compatibility.getForUpdate(), voId);
+	}
+
+	/**
+	 * Add (sign 1) or remove (sign -1) all paths going through the edge between the groups to/from the closure of given type.
+	 *
+	 * Each path from an ancestor of the upper group to a descendant of the lower group is a concatenation of a path
+	 * to the upper group, the edge and a path from the lower group. Number of paths of each length is stored, so
+	 * paths can be removed exactly also when there are more paths between the same groups.
+	 *
+	 * Closures of groups of the VO are locked first, so concurrent changes of overlapping hierarchies
+	 * are applied one after another.
+	 *
+	 * @param upperGroupId id of parent group / result group
+	 * @param lowerGroupId id of subgroup / operand group
+	 * @param relationType type of closure
+	 * @param sign 1 to add paths, -1 to remove them
+	 */
+	private void updateClosurePaths(int upperGroupId, int lowerGroupId, int relationType, int sign) {
+		lockGroupsClosure(jdbc.queryForInt("SELECT vo_id FROM groups WHERE id=?", upperGroupId));
+
+		// (ancestor id, depth, paths)
+		List<int[]> ancestors = jdbc.query("SELECT ancestor_gid, depth, paths FROM groups_closure WHERE descendant_gid=? AND relation_type=?",
+				(rs, i) -> new int[] {rs.getInt("ancestor_gid"), rs.getInt("depth"), rs.getInt("paths")}, upperGroupId, relationType);
+		List<int[]> descendants = jdbc.query("SELECT descendant_gid, depth, paths FROM groups_closure WHERE ancestor_gid=? AND relation_type=?",
+				(rs, i) -> new int[] {rs.getInt("descendant_gid"), rs.getInt("depth"), rs.getInt("paths")}, lowerGroupId, relationType);
+
+		// (ancestor id, descendant id, depth) mapped to number of paths
+		Map<List<Integer>, Integer> paths = new LinkedHashMap<>();
+		for (int[] ancestor : ancestors) {
+			for (int[] descendant : descendants) {
+				paths.merge(Arrays.asList(ancestor[0], descendant[0], ancestor[1] + 1 + descendant[1]), ancestor[2] * descendant[2], Integer::sum);
+			}
+		}
+
+		// existing rows between ancestors of the upper group and descendants of the lower group
+		Set<List<Integer>> existingRows = new HashSet<>();
+		jdbc.query("SELECT ancestor_gid, descendant_gid, depth FROM groups_closure WHERE relation_type=? AND " +
+				"ancestor_gid IN (SELECT ancestor_gid FROM groups_closure WHERE descendant_gid=? AND relation_type=?) AND " +
+				"descendant_gid IN (SELECT descendant_gid FROM groups_closure WHERE ancestor_gid=? AND relation_type=?)", rs -> {
+			existingRows.add(Arrays.asList(rs.getInt("ancestor_gid"), rs.getInt("descendant_gid"), rs.getInt("depth")));
+		}, relationType, upperGroupId, relationType, lowerGroupId, relationType);
+
+		List<Object[]> updates = new ArrayList<>();
+		List<Object[]> inserts = new ArrayList<>();
+		for (Map.Entry<List<Integer>, Integer> row : paths.entrySet()) {
+			if (existingRows.contains(row.getKey())) {
+				updates.add(new Object[] {sign * row.getValue(), row.getKey().get(0), row.getKey().get(1), relationType, row.getKey().get(2)});
+			} else if (sign > 0) {
+				inserts.add(new Object[] {row.getKey().get(0), row.getKey().get(1), relationType, row.getKey().get(2), row.getValue()});
+			}
+		}
+		jdbc.batchUpdate("UPDATE groups_closure SET paths=paths+? WHERE ancestor_gid=? AND descendant_gid=? AND relation_type=? AND depth=?", updates);
+
+		if (sign > 0) {
+			jdbc.batchUpdate("INSERT INTO groups_closure (ancestor_gid, descendant_gid, relation_type, depth, paths) VALUES (?,?,?,?,?)", inserts);
+		} else {
+			List<Object[]> deletes = new ArrayList<>();
+			for (Object[] update : updates) {
+				deletes.add(new Object[] {update[1], update[2], relationType, update[4]});
+			}
+			jdbc.batchUpdate("DELETE FROM groups_closure WHERE ancestor_gid=? AND descendant_gid=? AND relation_type=? AND depth=? AND paths<=0", deletes);
+		}
+	}
+
 	@Override
 	public void setIndirectGroupStatus(PerunSession sess, Member member, Group group, MemberGroupStatus status) throws InternalErrorException {
 		try {
@@ -880,6 +1234,20 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public void setIndirectGroupStatus(PerunSession sess, List<Member> members, Group group, MemberGroupStatus status) throws InternalErrorException {
+		List<Object[]> batchArgs = new ArrayList<>(members.size());
+		for (Member member : members) {
+			batchArgs.add(new Object[] {status.getCode(), sess.getPerunPrincipal().getActor(), group.getId(), member.getId()});
+		}
+		try {
+			jdbc.batchUpdate("UPDATE groups_members SET source_group_status=?, modified_by=?, modified_at=" + Compatibility.getSysdate() +
+					" WHERE source_group_id=? AND group_id <> source_group_id AND member_id=?", batchArgs);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public void setDirectGroupStatus(PerunSession sess, Member member, Group group, MemberGroupStatus status) throws InternalErrorException {
 		try {
@@ -923,6 +1291,30 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public Map<Integer, MemberGroupStatus> getTotalMemberGroupStatuses(PerunSession session, Group group, List<Member> members) throws InternalErrorException {
+		Map<Integer, MemberGroupStatus> statuses = new HashMap<>();
+		try {
+			// VALID status has lower code than EXPIRED
+			for (int i = 0; i < members.size(); i += MAX_IDS_IN_QUERY) {
+				List<Integer> membersIds = new ArrayList<>();
+				for (Member member : members.subList(i, Math.min(i + MAX_IDS_IN_QUERY, members.size()))) {
+					membersIds.add(member.getId());
+				}
+				MapSqlParameterSource parameters = new MapSqlParameterSource();
+				parameters.addValue("group_id", group.getId());
+				parameters.addValue("ids", membersIds);
+				namedParameterJdbcTemplate.query("SELECT member_id, min(source_group_status) AS status FROM groups_members " +
+						"WHERE group_id=:group_id AND member_id IN (:ids) GROUP BY member_id", parameters, rs -> {
+					statuses.put(rs.getInt("member_id"), MemberGroupStatus.getMemberGroupStatus(rs.getInt("status")));
+				});
+			}
+			return statuses;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public List<Facility> getFacilitiesWhereGroupIsAdmin(PerunSession session, Group group) throws InternalErrorException {
 		try {
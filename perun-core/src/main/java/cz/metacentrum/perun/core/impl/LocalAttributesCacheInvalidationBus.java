@@ -0,0 +1,30 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.implApi.AttributesCacheInvalidationBus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in of the invalidation channel between instances of Perun. Invalidations are delivered synchronously
+ * to all caches subscribed in this JVM, which covers single node deployments and tests with several caches.
+ *
+ * Methods in this class are thread safe
+ */
+public class LocalAttributesCacheInvalidationBus implements AttributesCacheInvalidationBus {
+
+	private final List<Consumer<AttributesCache.Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publish(AttributesCache.Invalidation invalidation) {
+		for (Consumer<AttributesCache.Invalidation> subscriber : subscribers) {
+			subscriber.accept(invalidation);
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<AttributesCache.Invalidation> subscriber) {
+		subscribers.add(subscriber);
+	}
+}
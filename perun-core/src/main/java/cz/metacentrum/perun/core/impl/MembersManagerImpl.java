@@ -5,6 +5,8 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
 import cz.metacentrum.perun.core.api.MembershipType;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
@@ -162,6 +164,7 @@ public class MembersManagerImpl implements MembersManagerImplApi {
 	@Override
 	public void deleteMember(final PerunSession sess, final Member member) throws InternalErrorException, MemberAlreadyRemovedException {
 		try {
+			UserSearchIndex.removeMember(jdbc, member.getId());
 			int numAffected = jdbc.update("DELETE FROM members WHERE id=?", member.getId());
 			if (numAffected == 0) throw new MemberAlreadyRemovedException("Member: " + member);
 		} catch (RuntimeException err) {
@@ -292,6 +295,34 @@ public class MembersManagerImpl implements MembersManagerImplApi {
 		}
 	}
 
+	@Override
+	public Paginated<Member> getMembersPage(PerunSession sess, Vo vo, PageQuery query) throws InternalErrorException {
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("voId", vo.getId());
+		StringBuilder filter = new StringBuilder("members.vo_id=:voId");
+		if (query.getStatuses() != null && !query.getStatuses().isEmpty()) {
+			List<Integer> statuses = new ArrayList<>();
+			for (String status : query.getStatuses()) {
+				statuses.add(Status.valueOf(status).getCode());
+			}
+			filter.append(" and members.status in ( :statuses )");
+			parameters.addValue("statuses", statuses);
+		}
+		if (query.getSearchString() != null && !query.getSearchString().isEmpty()) {
+			filter.append(" and ").append(UsersManagerImpl.getPageSearchCondition(query, parameters));
+		}
+		try {
+			int totalCount = namedParameterJdbcTemplate.queryForObject("select count(*) from members join users on members.user_id=users.id where " +
+					filter, parameters, Integer.class);
+			List<Member> members = namedParameterJdbcTemplate.query("select " + memberMappingSelectQuery +
+					" from members join users on members.user_id=users.id where " + filter +
+					UsersManagerImpl.getPageOrderAndLimit(query, "members.id", parameters), parameters, MEMBER_MAPPER);
+			return new Paginated<>(members, query.usesKeyset() ? 0 : query.getOffset(), query.getPageSize(), totalCount);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public int getMembersCount(PerunSession sess, Vo vo) throws InternalErrorException {
 		try {
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -14,21 +15,63 @@ import java.util.Queue;
 
 /**
  * PerunPoliciesContainer stores a list of perun policies.
+ *
+ * When policies are set, each policy is compiled with all its included policies to {@link CompiledPolicy},
+ * so the authorization does not have to traverse included policies on every call.
  */
 public class PerunPoliciesContainer {
 
 	private static final Logger log = LoggerFactory.getLogger(PerunBasicDataSource.class);
-	private List<PerunPolicy> perunPolicies = new ArrayList<>();
+	private volatile Map<String, PerunPolicy> perunPolicies = Collections.emptyMap();
+	private volatile Map<String, CompiledPolicy> compiledPolicies = Collections.emptyMap();
 
 	public void setPerunPolicies(List<PerunPolicy> perunPolicies) {
-		this.perunPolicies = perunPolicies;
+		Map<String, PerunPolicy> policies = new HashMap<>();
+		for (PerunPolicy policy : perunPolicies) {
+			policies.putIfAbsent(policy.getPolicyName(), policy);
+		}
+
+		Map<String, CompiledPolicy> compiled = new HashMap<>();
+		for (String policyName : policies.keySet()) {
+			try {
+				compiled.put(policyName, CompiledPolicy.compile(policyName, fetchPolicyWithAllIncludedPolicies(policies, policyName)));
+			} catch (PolicyNotExistsException e) {
+				// policy is reported as not existing when it is used
+				log.warn("Policy {} includes policy, which does not exist.", policyName);
+			}
+		}
+
+		this.perunPolicies = Collections.unmodifiableMap(policies);
+		this.compiledPolicies = Collections.unmodifiableMap(compiled);
 	}
 
 	public PerunPolicy getPerunPolicy(String policyName) throws PolicyNotExistsException {
-		for (PerunPolicy policy : perunPolicies) {
-			if (policy.getPolicyName().equals(policyName)) return policy;
+		return getPerunPolicy(perunPolicies, policyName);
+	}
+
+	/**
+	 * Get policy compiled together with all its (also nested) included policies.
+	 *
+	 * @param policyName name of the policy
+	 * @return compiled policy
+	 * @throws PolicyNotExistsException when the given policyName or some of its included policies does not exist in the PerunPoliciesContainer.
+	 */
+	public CompiledPolicy getCompiledPolicy(String policyName) throws PolicyNotExistsException {
+		CompiledPolicy policy = compiledPolicies.get(policyName);
+		if (policy == null) {
+			// throws exception with the name of the missing policy
+			fetchPolicyWithAllIncludedPolicies(policyName);
+			throw new PolicyNotExistsException("Policy with name "+ policyName + "does not exists in the PerunPoliciesContainer.");
+		}
+		return policy;
+	}
+
+	private static PerunPolicy getPerunPolicy(Map<String, PerunPolicy> perunPolicies, String policyName) throws PolicyNotExistsException {
+		PerunPolicy policy = perunPolicies.get(policyName);
+		if (policy == null) {
+			throw new PolicyNotExistsException("Policy with name "+ policyName + "does not exists in the PerunPoliciesContainer.");
 		}
-		throw new PolicyNotExistsException("Policy with name "+ policyName + "does not exists in the PerunPoliciesContainer.");
+		return policy;
 	}
 
 	/**
@@ -40,6 +83,10 @@ public class PerunPoliciesContainer {
 	 * @throws PolicyNotExistsException when the given policyName does not exist in the PerunPoliciesContainer.
 	 */
 	public List<PerunPolicy> fetchPolicyWithAllIncludedPolicies(String policyName) throws PolicyNotExistsException {
+		return fetchPolicyWithAllIncludedPolicies(perunPolicies, policyName);
+	}
+
+	private static List<PerunPolicy> fetchPolicyWithAllIncludedPolicies(Map<String, PerunPolicy> perunPolicies, String policyName) throws PolicyNotExistsException {
 		Map<String, PerunPolicy> allIncludedPolicies = new HashMap<>();
 		Queue<String> policiesToCheck = new LinkedList<>();
 		policiesToCheck.add(policyName);
@@ -50,7 +97,7 @@ public class PerunPoliciesContainer {
 				log.warn("Policy {} creates a cycle in the included policies of the policy {}", policy, policyName);
 				continue;
 			}
-			PerunPolicy policyToCheck = getPerunPolicy(policy);
+			PerunPolicy policyToCheck = getPerunPolicy(perunPolicies, policy);
 			allIncludedPolicies.put(policy, policyToCheck);
 			policiesToCheck.addAll(policyToCheck.getIncludePolicies());
 		}
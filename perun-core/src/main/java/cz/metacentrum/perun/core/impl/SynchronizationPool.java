@@ -7,9 +7,15 @@ import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.Semaphore;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -17,6 +23,15 @@ import java.util.concurrent.locks.ReentrantLock;
  * Class used for scheduling group and group structure synchronizations.
  * It does not run any scheduler, it just provides the functionality for the scheduling of synchronizations.
  *
+ * Waiting groups are taken by priority. Forced groups go first, then groups ordered by the time
+ * of their last successful synchronization (the longest waiting first). Number of concurrently synchronized
+ * groups from one external source can be limited, so groups from a slow or failing source can't block
+ * synchronizations of groups from other sources.
+ *
+ * Threads waiting for a group are woken up immediately when the content of the pool changes. Subgroups of group
+ * structures and existence of groups are loaded from the database outside of the access lock, so waiting threads
+ * and threads adding groups are not blocked by database queries of other threads.
+ *
  * Methods in this class are thread safe
  *
  * @author Peter Balčirák peter.balcirak@gmail.com
@@ -26,16 +41,41 @@ public class SynchronizationPool {
 	private final PerunBeanProcessingPool<Group> poolOfGroupsStructuresToBeSynchronized = new PerunBeanProcessingPool<>();
 	//Access lock to create concurrent access by any operation to any pool of this class.
 	private final Lock poolAccessLock = new ReentrantLock(true);
-	//Semaphore which takes care about emptiness of list of waiting groups (threads will wait for another group)
-	//Counter in this semaphore counts number of waiting groups in the pool (0 means no groups are waiting to be processed)
-	private final Semaphore notEmptyGroupsPoolSemaphore = new Semaphore(0, true);
-	//Semaphore which takes care about emptiness of list of waiting groups structures (threads will wait for another group structure)
-	//Counter in this semaphore counts number of waiting groups structures in the pool (0 means no groups structures are waiting to be processed)
-	private final Semaphore notEmptyGroupsStructuresPoolSemaphore = new Semaphore(0, true);
-	private final static Random random = new Random();
+	//Condition signalled when some waiting group could be taken (group added, running group or group structure removed)
+	private final Condition groupsChanged = poolAccessLock.newCondition();
+	//Condition signalled when some waiting group structure could be taken (group structure added, running group removed)
+	private final Condition groupStructuresChanged = poolAccessLock.newCondition();
+	//Incremented on every change of the pools, so changes made while the lock was not held are not missed
+	private long poolVersion = 0;
+	//Name of external source of each waiting or running group
+	private final Map<Group, String> extSourcesOfGroups = new HashMap<>();
+	//Number of running groups per external source
+	private final Map<String, Integer> runningGroupsPerExtSource = new HashMap<>();
+	//Waiting groups which were forced to be synchronized as soon as possible
+	private final Set<Group> forcedGroups = new HashSet<>();
+	//Maximum number of running groups from one external source, 0 means no limit
+	private final int maxConcurrentGroupsPerExtSource;
+	private final GroupSynchronizationMetrics metrics = new GroupSynchronizationMetrics();
+	//Maximum time in ms to wait for a change of the pool before waiting groups are checked again.
+	//It covers changes which are not signalled (eg. new subgroups of synchronized group structures).
+	private final static long MAX_WAIT_FOR_CHANGE = 10000;
 
 	private final static Logger log = LoggerFactory.getLogger(SynchronizationPool.class);
 
+	/**
+	 * Creates pool without limit of concurrently synchronized groups from one external source.
+	 */
+	public SynchronizationPool() {
+		this(0);
+	}
+
+	/**
+	 * @param maxConcurrentGroupsPerExtSource maximum number of concurrently synchronized groups from one external source, 0 means no limit
+	 */
+	public SynchronizationPool(int maxConcurrentGroupsPerExtSource) {
+		this.maxConcurrentGroupsPerExtSource = Math.max(maxConcurrentGroupsPerExtSource, 0);
+	}
+
 	/**
 	 * Put group to the pool of waiting groups structures.
 	 *
@@ -48,7 +88,8 @@ public class SynchronizationPool {
 		try {
 			poolAccessLock.lock();
 			if (poolOfGroupsStructuresToBeSynchronized.putJobIfAbsent(group, asFirst)) {
-				notEmptyGroupsStructuresPoolSemaphore.release();
+				poolVersion++;
+				groupStructuresChanged.signal();
 				return true;
 			}
 			return false;
@@ -61,15 +102,19 @@ public class SynchronizationPool {
 	 * Put group to the pool of waiting groups.
 	 *
 	 * @param group which will be added to the pool of waiting groups
+	 * @param extSourceName name of external source the group is synchronized from
 	 * @param asFirst true if group will skip order and will be placed to the list as first (LIFO)
 	 * @return
 	 * @throws InternalErrorException
 	 */
-	public boolean putGroupToPoolOfWaitingGroups(Group group, boolean asFirst) throws InternalErrorException {
+	public boolean putGroupToPoolOfWaitingGroups(Group group, String extSourceName, boolean asFirst) throws InternalErrorException {
 		try {
 			poolAccessLock.lock();
 			if (poolOfGroupsToBeSynchronized.putJobIfAbsent(group, asFirst)) {
-				notEmptyGroupsPoolSemaphore.release();
+				extSourcesOfGroups.put(group, extSourceName);
+				if (asFirst) forcedGroups.add(group);
+				poolVersion++;
+				groupsChanged.signal();
 				return true;
 			}
 			return false;
@@ -79,25 +124,29 @@ public class SynchronizationPool {
 	}
 
 	/**
-	 * Put list of groups to the pool of waiting groups.
+	 * Put groups to the pool of waiting groups.
 	 *
-	 * @param groups which will be added to the pool of waiting groups
+	 * @param groups which will be added to the pool of waiting groups with names of external sources they are synchronized from
 	 * @return
 	 * @throws InternalErrorException
 	 */
-	public int putGroupsToPoolOfWaitingGroups(List<Group> groups) throws InternalErrorException {
+	public int putGroupsToPoolOfWaitingGroups(Map<Group, String> groups) throws InternalErrorException {
 		int numberOfAddedGroups = 0;
 		try {
 			poolAccessLock.lock();
-			for (Group group: groups){
-				if (poolOfGroupsToBeSynchronized.putJobIfAbsent(group, false)) {
-					notEmptyGroupsPoolSemaphore.release();
-					log.debug("Group {} was added to the pool of groups waiting for synchronization.", group);
+			for (Map.Entry<Group, String> group: groups.entrySet()){
+				if (poolOfGroupsToBeSynchronized.putJobIfAbsent(group.getKey(), false)) {
+					extSourcesOfGroups.put(group.getKey(), group.getValue());
+					log.debug("Group {} was added to the pool of groups waiting for synchronization.", group.getKey());
 					numberOfAddedGroups++;
 				} else {
-					log.debug("Group {} synchronization is already running.", group);
+					log.debug("Group {} synchronization is already running.", group.getKey());
 				}
 			}
+			if (numberOfAddedGroups > 0) {
+				poolVersion++;
+				groupsChanged.signalAll();
+			}
 		} finally {
 			poolAccessLock.unlock();
 		}
@@ -117,13 +166,16 @@ public class SynchronizationPool {
 			poolAccessLock.lock();
 			for (Group group: groups){
 				if (poolOfGroupsStructuresToBeSynchronized.putJobIfAbsent(group, false)) {
-					notEmptyGroupsStructuresPoolSemaphore.release();
 					log.debug("Group structure {} was added to the pool of groups structures waiting for synchronization.", group);
 					numberOfAddedGroups++;
 				} else {
 					log.debug("Group structure {} synchronization is already running.", group);
 				}
 			}
+			if (numberOfAddedGroups > 0) {
+				poolVersion++;
+				groupStructuresChanged.signalAll();
+			}
 		} finally {
 			poolAccessLock.unlock();
 		}
@@ -131,10 +183,13 @@ public class SynchronizationPool {
 	}
 
 	/**
-	 * Take a first group, which can be safely synchronized, from the pool of waiting groups and add it to the pool of running groups.
-	 * If the group does not exists anymore, remove it from the pool of waiting groups, wait 1-2 seconds and try the whole process again.
-	 * We cannot remove more than one group during the one while loop because of the concurrent use of semaphore.
-	 * If none of the waiting groups can be synchronized, wait 1-2 seconds and try the whole process again.
+	 * Take a group with the highest priority, which can be safely synchronized, from the pool of waiting groups
+	 * and add it to the pool of running groups.
+	 *
+	 * Group can be synchronized, if it is not a subgroup of any waiting or running group structure and the limit
+	 * of running groups from its external source is not reached.
+	 * If the group does not exists anymore, it is removed from the pool of waiting groups.
+	 * If none of the waiting groups can be synchronized, wait until the pool changes and try again.
 	 *
 	 * @param sess
 	 * @return
@@ -142,53 +197,105 @@ public class SynchronizationPool {
 	 * @throws InternalErrorException
 	 */
 	public Group takeGroup(PerunSessionImpl sess) throws InterruptedException, InternalErrorException {
-		while(true) {
-			//I can take only if there is not empty list of waiting jobs
-			notEmptyGroupsPoolSemaphore.acquire();
+		while (true) {
+			List<Group> groupStructureJobs;
+			long version;
+			try {
+				poolAccessLock.lock();
+				groupStructureJobs = getWaitingAndRunningGroupStructures();
+				version = poolVersion;
+			} finally {
+				poolAccessLock.unlock();
+			}
+
+			Set<Group> allGroupStructuresSubGroups = new HashSet<>();
+			for (Group groupStructure : groupStructureJobs) {
+				allGroupStructuresSubGroups.addAll(sess.getPerunBl().getGroupsManagerBl().getAllSubGroups(sess, groupStructure));
+			}
 
+			Group group;
 			try {
 				poolAccessLock.lock();
-				boolean removedGroup = false;
-				//Take group which is not in all subGroups of group, which is in the pool of waiting or running group structures.
-				for (Group group : poolOfGroupsToBeSynchronized.getWaitingJobs()) {
-					boolean allowed = true;
-					List<Group> groupStructureJobs = poolOfGroupsStructuresToBeSynchronized.getWaitingJobs();
-					groupStructureJobs.addAll(poolOfGroupsStructuresToBeSynchronized.getRunningJobs());
-					for (Group groupStructure : groupStructureJobs) {
-						List<Group> allSubGroups = sess.getPerunBl().getGroupsManagerBl().getAllSubGroups(sess, groupStructure);
-						if (allSubGroups.contains(group)) {
-							allowed = false;
-							break;
-						}
-					}
-					if (allowed) {
-						//Set the group to the first place in the pool of waiting groups.
-						poolOfGroupsToBeSynchronized.putJobIfAbsent(group, true);
-						try {
-							//Group could be removed during some group structure synchronization, so there is no need to synchronize it anymore.
-							sess.getPerunBl().getGroupsManagerBl().checkGroupExists(sess, group);
-						} catch (GroupNotExistsException e) {
-							log.warn("Group {} was removed from a Vo while it was waiting for a synchronization.", group);
-							poolOfGroupsToBeSynchronized.removeJob(poolOfGroupsToBeSynchronized.takeJob());
-							removedGroup = true;
-							break;
-						}
-						//Put the first group in the pool of waiting groups to the pool of running groups
-						return poolOfGroupsToBeSynchronized.takeJob();
-					}
+				//Some group structure was added while its subgroups were not known, load them again.
+				if (!groupStructureJobs.containsAll(getWaitingAndRunningGroupStructures())) continue;
+				group = moveWaitingGroupToRunning(allGroupStructuresSubGroups);
+				if (group == null) {
+					//Wait only if nothing has changed since the pool was read.
+					if (version == poolVersion) groupsChanged.await(MAX_WAIT_FOR_CHANGE, TimeUnit.MILLISECONDS);
+					continue;
 				}
-				//If no group was removed or taken we have to increase the semaphore.
-				if (!removedGroup) notEmptyGroupsPoolSemaphore.release();
 			} finally {
 				poolAccessLock.unlock();
 			}
-			Thread.sleep(1000 + random.nextInt(1001));
+
+			try {
+				//Group could be removed during some group structure synchronization, so there is no need to synchronize it anymore.
+				sess.getPerunBl().getGroupsManagerBl().checkGroupExists(sess, group);
+				return group;
+			} catch (GroupNotExistsException e) {
+				log.warn("Group {} was removed from a Vo while it was waiting for a synchronization.", group);
+				removeGroup(group);
+				metrics.removeGroup(group);
+			}
+		}
+	}
+
+	/**
+	 * Move the waiting group with the highest priority, which is not a subgroup of any group structure and does not exceed
+	 * the limit of running groups from its external source, to the pool of running groups.
+	 * Must be called with poolAccessLock held.
+	 *
+	 * @param allGroupStructuresSubGroups subgroups of all waiting and running group structures
+	 * @return group moved to the pool of running groups or null, if no waiting group can be synchronized
+	 * @throws InterruptedException
+	 */
+	private Group moveWaitingGroupToRunning(Set<Group> allGroupStructuresSubGroups) throws InterruptedException {
+		for (Group group : getWaitingGroupsByPriority()) {
+			//Take group which is not in all subGroups of group, which is in the pool of waiting or running group structures.
+			if (allGroupStructuresSubGroups.contains(group)) continue;
+			String extSourceName = extSourcesOfGroups.get(group);
+			if (maxConcurrentGroupsPerExtSource > 0 && runningGroupsPerExtSource.getOrDefault(extSourceName, 0) >= maxConcurrentGroupsPerExtSource) continue;
+
+			//Set the group to the first place in the pool of waiting groups and move it to the pool of running groups.
+			poolOfGroupsToBeSynchronized.putJobIfAbsent(group, true);
+			poolOfGroupsToBeSynchronized.takeJob();
+			forcedGroups.remove(group);
+			runningGroupsPerExtSource.merge(extSourceName, 1, Integer::sum);
+			poolVersion++;
+			return group;
 		}
+		return null;
+	}
+
+	/**
+	 * Returns waiting and running group structures.
+	 * Must be called with poolAccessLock held.
+	 *
+	 * @return waiting and running group structures
+	 */
+	private List<Group> getWaitingAndRunningGroupStructures() {
+		List<Group> groupStructureJobs = poolOfGroupsStructuresToBeSynchronized.getWaitingJobs();
+		groupStructureJobs.addAll(poolOfGroupsStructuresToBeSynchronized.getRunningJobs());
+		return groupStructureJobs;
+	}
+
+	/**
+	 * Returns waiting groups ordered by priority. Forced groups are first (in order they were forced),
+	 * then other groups ordered by the time of their last successful synchronization (the oldest first).
+	 * Must be called with poolAccessLock held.
+	 *
+	 * @return ordered list of waiting groups
+	 */
+	private List<Group> getWaitingGroupsByPriority() {
+		List<Group> waitingGroups = poolOfGroupsToBeSynchronized.getWaitingJobs();
+		//sort is stable, so groups with the same priority keep order in which they were added
+		waitingGroups.sort(Comparator.comparing((Group group) -> !forcedGroups.contains(group)).thenComparingLong(metrics::getLastSuccess));
+		return waitingGroups;
 	}
 
 	/**
 	 * Take a first group, which can be safely synchronized, from the pool of waiting groups structures and add it to the pool of running groups structures.
-	 * If none of the waiting groups can be taken, wait 1-2 seconds and try again.
+	 * If none of the waiting groups can be taken, wait until the pool changes and try again.
 	 *
 	 * @param sess
 	 * @return
@@ -196,62 +303,131 @@ public class SynchronizationPool {
 	 * @throws InternalErrorException
 	 */
 	public Group takeGroupStructure(PerunSessionImpl sess) throws InterruptedException, InternalErrorException {
-		while(true) {
-			//I can take only if there is not empty list of waiting jobs
-			notEmptyGroupsStructuresPoolSemaphore.acquire();
+		while (true) {
+			List<Group> waitingGroupStructures;
+			long version;
+			try {
+				poolAccessLock.lock();
+				waitingGroupStructures = poolOfGroupsStructuresToBeSynchronized.getWaitingJobs();
+				version = poolVersion;
+			} finally {
+				poolAccessLock.unlock();
+			}
+
+			Map<Group, List<Group>> subGroupsOfGroupStructures = new HashMap<>();
+			for (Group groupStructure : waitingGroupStructures) {
+				subGroupsOfGroupStructures.put(groupStructure, sess.getPerunBl().getGroupsManagerBl().getAllSubGroups(sess, groupStructure));
+			}
 
-			try{
+			try {
 				poolAccessLock.lock();
+				List<Group> stillWaitingGroupStructures = poolOfGroupsStructuresToBeSynchronized.getWaitingJobs();
+				Set<Group> runningGroups = poolOfGroupsToBeSynchronized.getRunningJobs();
 				//Take the group which does not have any subGroup in the pool of running groups.
-				for (Group groupStructure : poolOfGroupsStructuresToBeSynchronized.getWaitingJobs()) {
-					boolean allowed = true;
-					List<Group> allSubGroups = sess.getPerunBl().getGroupsManagerBl().getAllSubGroups(sess, groupStructure);
-					for (Group runningGroup : poolOfGroupsToBeSynchronized.getRunningJobs()) {
-						if (allSubGroups.contains(runningGroup)) {
-							allowed = false;
-							break;
-						}
-					}
-					if (allowed) {
-						//Set the group to the first place in the pool of waiting groups structures.
-						poolOfGroupsStructuresToBeSynchronized.putJobIfAbsent(groupStructure, true);
-						//Put the first group in the pool of waiting groups structures to the pool of running groups structures.
-						return poolOfGroupsStructuresToBeSynchronized.takeJob();
-					}
+				for (Group groupStructure : waitingGroupStructures) {
+					//Group structure could be taken by another thread meanwhile.
+					if (!stillWaitingGroupStructures.contains(groupStructure)) continue;
+					if (subGroupsOfGroupStructures.get(groupStructure).stream().anyMatch(runningGroups::contains)) continue;
+					//Set the group to the first place in the pool of waiting groups structures.
+					poolOfGroupsStructuresToBeSynchronized.putJobIfAbsent(groupStructure, true);
+					poolVersion++;
+					//Put the first group in the pool of waiting groups structures to the pool of running groups structures.
+					return poolOfGroupsStructuresToBeSynchronized.takeJob();
 				}
-				//None of the groups was taken so we have to increase the semaphore.
-				notEmptyGroupsStructuresPoolSemaphore.release();
+
+				//Wait only if nothing has changed since the pool was read.
+				if (version == poolVersion) groupStructuresChanged.await(MAX_WAIT_FOR_CHANGE, TimeUnit.MILLISECONDS);
 			} finally {
 				poolAccessLock.unlock();
 			}
-			Thread.sleep(1000 + random.nextInt(1001));
 		}
 	}
 
 	/**
 	 * Remove group from the pool of running groups structures
 	 *
-	 * This method does not use poolAccessLock because of performance improvement.
-	 * Locking is done in PerunBeanProcessingPool.
-	 *
 	 * @param group which will be removed from the pool of running groups structures
 	 * @return
 	 */
 	public boolean removeGroupStructure(Group group) {
-			return poolOfGroupsStructuresToBeSynchronized.removeJob(group);
+		try {
+			poolAccessLock.lock();
+			boolean removed = poolOfGroupsStructuresToBeSynchronized.removeJob(group);
+			poolVersion++;
+			//all subgroups of the group structure can be taken now
+			groupsChanged.signalAll();
+			return removed;
+		} finally {
+			poolAccessLock.unlock();
+		}
 	}
 
 	/**
 	 * Remove group from the pool of running groups
 	 *
-	 * This method does not use poolAccessLock because of performance improvement.
-	 * Locking is done in PerunBeanProcessingPool.
-	 *
 	 * @param group which will be removed from the pool of running groups structures
 	 * @return
 	 */
 	public boolean removeGroup(Group group) {
-			return poolOfGroupsToBeSynchronized.removeJob(group);
+		try {
+			poolAccessLock.lock();
+			boolean removed = poolOfGroupsToBeSynchronized.removeJob(group);
+			if (removed) {
+				runningGroupsPerExtSource.computeIfPresent(extSourcesOfGroups.remove(group), (extSourceName, count) -> count > 1 ? count - 1 : null);
+			}
+			poolVersion++;
+			//one more group from the same external source can be taken now
+			groupsChanged.signal();
+			groupStructuresChanged.signalAll();
+			return removed;
+		} finally {
+			poolAccessLock.unlock();
+		}
+	}
+
+	/**
+	 * Record finished synchronization of running group to the metrics.
+	 * It has to be called before the group is removed from the pool of running groups.
+	 *
+	 * @param group synchronized group
+	 * @param duration duration of the synchronization in ms
+	 * @param succeeded false if the synchronization failed
+	 */
+	public void recordGroupSynchronization(Group group, long duration, boolean succeeded) {
+		String extSourceName;
+		try {
+			poolAccessLock.lock();
+			extSourceName = extSourcesOfGroups.get(group);
+		} finally {
+			poolAccessLock.unlock();
+		}
+		metrics.recordSynchronization(group, String.valueOf(extSourceName), duration, succeeded);
+	}
+
+	/**
+	 * @return metrics of finished group synchronizations
+	 */
+	public GroupSynchronizationMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return number of groups waiting for synchronization
+	 */
+	public int getNumberOfWaitingGroups() {
+		return poolOfGroupsToBeSynchronized.getWaitingJobs().size();
+	}
+
+	/**
+	 * @return number of running groups by the name of the external source
+	 */
+	public Map<String, Integer> getNumberOfRunningGroupsPerExtSource() {
+		try {
+			poolAccessLock.lock();
+			return new HashMap<>(runningGroupsPerExtSource);
+		} finally {
+			poolAccessLock.unlock();
+		}
 	}
 
 	/**
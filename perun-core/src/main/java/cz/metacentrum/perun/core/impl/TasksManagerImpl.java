@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcPerunTemplate;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -22,6 +23,8 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import javax.sql.DataSource;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -144,6 +147,48 @@ public class TasksManagerImpl implements TasksManagerImplApi {
 		return newTaskResultId;
 	}
 
+	@Override
+	public void insertNewTaskResults(List<TaskResult> taskResults, int engineID) {
+		if (taskResults.isEmpty()) return;
+		jdbc.batchUpdate(
+				"insert into tasks_results(" +
+					"id, " +
+					"task_id, " +
+					"destination_id, " +
+					"status, " +
+					"err_message, " +
+					"std_message, " +
+					"return_code, " +
+					"timestamp, " +
+					"engine_id) values (" + Compatibility.getSequenceNextval("tasks_results_id_seq") + ",?,?,?,?,?,?, " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " ,?)",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						TaskResult taskResult = taskResults.get(i);
+						byte[] standardMessage = null;
+						byte[] errorMessage = null;
+						if(taskResult.getStandardMessage() != null) standardMessage = taskResult.getStandardMessage().getBytes(StandardCharsets.UTF_8);
+						if(taskResult.getErrorMessage()    != null) errorMessage    = taskResult.getErrorMessage().getBytes(StandardCharsets.UTF_8);
+						standardMessage = clearZeroBytesFromString(standardMessage, 4000);
+						errorMessage = clearZeroBytesFromString(errorMessage, 4000);
+
+						ps.setInt(1, taskResult.getTaskId());
+						ps.setInt(2, taskResult.getDestinationId());
+						ps.setString(3, taskResult.getStatus().toString());
+						ps.setString(4, errorMessage == null ? null : new String(errorMessage, StandardCharsets.UTF_8));
+						ps.setString(5, standardMessage == null ? null : new String(standardMessage, StandardCharsets.UTF_8));
+						ps.setInt(6, taskResult.getReturnCode());
+						ps.setString(7, getDateFormatter().format(taskResult.getTimestamp()));
+						ps.setInt(8, engineID);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return taskResults.size();
+					}
+				});
+	}
+
 	@SuppressWarnings("ConstantConditions")
 	@Override
 	public List<TaskResult> getTaskResults(int engineID) {
@@ -719,6 +764,35 @@ public class TasksManagerImpl implements TasksManagerImplApi {
 			task.getFacilityId(), scheduled, task.getRecurrence(), task.getDelay(), task.getStatus().toString(), startTime, endTime, task.getId());
 	}
 
+	@Override
+	public void updateTasks(List<Task> tasks) {
+		if (tasks.isEmpty()) return;
+		// jdbc template cannot be null
+		getMyJdbcTemplate().batchUpdate(
+			"update tasks set service_id = ?, facility_id = ?, schedule = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", recurrence = ?, delay = ?, "
+				+ "status = ?, start_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", end_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " where id = ?",
+			new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					Task task = tasks.get(i);
+					ps.setInt(1, task.getServiceId());
+					ps.setInt(2, task.getFacilityId());
+					ps.setString(3, task.getSchedule() == null ? null : task.getSchedule().format(getDateTimeFormatter()));
+					ps.setInt(4, task.getRecurrence());
+					ps.setInt(5, task.getDelay());
+					ps.setString(6, task.getStatus().toString());
+					ps.setString(7, task.getStartTime() == null ? null : task.getStartTime().format(getDateTimeFormatter()));
+					ps.setString(8, task.getEndTime() == null ? null : task.getEndTime().format(getDateTimeFormatter()));
+					ps.setInt(9, task.getId());
+				}
+
+				@Override
+				public int getBatchSize() {
+					return tasks.size();
+				}
+			});
+	}
+
 	@Override
 	public void updateTaskEngine(Task task, int engineID) throws InternalErrorException {
 		try {
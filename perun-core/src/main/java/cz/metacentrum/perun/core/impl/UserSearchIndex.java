@@ -0,0 +1,254 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.Holder;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.UserExtSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcPerunTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search index of users (table user_search_index). It holds normalized names, emails and logins of users,
+ * so users can be found by them with one indexed query instead of scanning values of attributes and user ext sources.
+ *
+ * Indexed are:
+ * - names of users (first, middle and last name lower cased, converted to ASCII and without spaces),
+ * - preferred mails of users and mails of members (lower cased),
+ * - logins from user attributes login-namespace:* and from user ext sources.
+ *
+ * Entries are maintained by UsersManagerImpl, MembersManagerImpl and AttributesManagerImpl in the same transaction
+ * as their sources. Whole index can be rebuilt by {@link #rebuild(JdbcPerunTemplate)}.
+ */
+final class UserSearchIndex {
+
+	private final static Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+	/**
+	 * Type of the entry with name of the user.
+	 */
+	static final int NAME = 0;
+
+	/**
+	 * Type of the entry with email.
+	 */
+	static final int MAIL = 1;
+
+	/**
+	 * Type of the entry with login.
+	 */
+	static final int LOGIN = 2;
+
+	static final String PREFERRED_MAIL_ATTRIBUTE = AttributesManager.NS_USER_ATTR_DEF + ":preferredMail";
+	static final String MEMBER_MAIL_ATTRIBUTE = AttributesManager.NS_MEMBER_ATTR_DEF + ":mail";
+	static final String LOGIN_NAMESPACE_PREFIX = "login-namespace:";
+
+	private final static int MAX_ROWS_IN_BATCH = 1000;
+	private final static String INSERT_QUERY = "insert into user_search_index (user_id, search_type, search_value, attr_id, member_id, user_ext_source_id) values (?,?,?,?,?,?)";
+
+	private UserSearchIndex() {
+	}
+
+	/**
+	 * Normalize name the same way as the search string of the search by name.
+	 *
+	 * @param name name or its part
+	 * @return lower cased name converted to ASCII without spaces
+	 */
+	static String normalizeName(String name) {
+		return Utils.utftoasci(name.toLowerCase()).replaceAll(" ", "");
+	}
+
+	/**
+	 * Normalize email, emails are searched case insensitive.
+	 *
+	 * @param mail email
+	 * @return lower cased email
+	 */
+	static String normalizeMail(String mail) {
+		return mail.toLowerCase();
+	}
+
+	/**
+	 * Return type of index entries for values of the attribute.
+	 *
+	 * @param attribute attribute definition
+	 * @return MAIL or LOGIN or null, if the attribute is not indexed
+	 */
+	static Integer getType(AttributeDefinition attribute) {
+		if (!String.class.getName().equals(attribute.getType())) return null;
+		if (PREFERRED_MAIL_ATTRIBUTE.equals(attribute.getName()) || MEMBER_MAIL_ATTRIBUTE.equals(attribute.getName())) return MAIL;
+		if (attribute.getNamespace() != null && attribute.getNamespace().startsWith(AttributesManager.NS_USER_ATTR) && attribute.getFriendlyName() != null &&
+				attribute.getFriendlyName().startsWith(LOGIN_NAMESPACE_PREFIX)) return LOGIN;
+		return null;
+	}
+
+	/**
+	 * Replace indexed name of the user.
+	 *
+	 * @param jdbc jdbc template
+	 * @param user user with current name
+	 */
+	static void indexName(JdbcPerunTemplate jdbc, User user) {
+		jdbc.update("delete from user_search_index where user_id=? and search_type=?", user.getId(), NAME);
+		String name = getName(user.getFirstName(), user.getMiddleName(), user.getLastName());
+		if (!name.isEmpty()) jdbc.update(INSERT_QUERY, user.getId(), NAME, name, null, null, null);
+	}
+
+	/**
+	 * Replace indexed value of the user or member attribute. Nothing is done, if the attribute is not indexed.
+	 *
+	 * @param jdbc jdbc template
+	 * @param attribute attribute definition
+	 * @param holder user or member
+	 * @param value new value or null, if the value was removed
+	 */
+	static void indexAttribute(JdbcPerunTemplate jdbc, AttributeDefinition attribute, Holder holder, Object value) {
+		Integer type = getType(attribute);
+		if (type == null) return;
+		String searchValue = value instanceof String ? normalize(type, (String) value) : null;
+		if (Holder.HolderType.USER.equals(holder.getType())) {
+			jdbc.update("delete from user_search_index where user_id=? and attr_id=?", holder.getId(), attribute.getId());
+			if (searchValue != null) jdbc.update(INSERT_QUERY, holder.getId(), type, searchValue, attribute.getId(), null, null);
+		} else if (Holder.HolderType.MEMBER.equals(holder.getType())) {
+			jdbc.update("delete from user_search_index where member_id=? and attr_id=?", holder.getId(), attribute.getId());
+			if (searchValue != null) {
+				jdbc.update("insert into user_search_index (user_id, search_type, search_value, attr_id, member_id, user_ext_source_id) " +
+						"select user_id, ?, ?, ?, id, null from members where id=?", type, searchValue, attribute.getId(), holder.getId());
+			}
+		}
+	}
+
+	/**
+	 * Remove indexed values of all attributes of the user or member.
+	 *
+	 * @param jdbc jdbc template
+	 * @param holder user or member
+	 */
+	static void removeAttributes(JdbcPerunTemplate jdbc, Holder holder) {
+		if (Holder.HolderType.USER.equals(holder.getType())) {
+			jdbc.update("delete from user_search_index where user_id=? and attr_id is not null and member_id is null", holder.getId());
+		} else if (Holder.HolderType.MEMBER.equals(holder.getType())) {
+			jdbc.update("delete from user_search_index where member_id=?", holder.getId());
+		}
+	}
+
+	/**
+	 * Remove indexed values of the attribute, which is being deleted.
+	 *
+	 * @param jdbc jdbc template
+	 * @param attribute attribute definition
+	 */
+	static void removeAttributeDefinition(JdbcPerunTemplate jdbc, AttributeDefinition attribute) {
+		if (getType(attribute) != null) jdbc.update("delete from user_search_index where attr_id=?", attribute.getId());
+	}
+
+	/**
+	 * Replace indexed login of the user ext source.
+	 *
+	 * @param jdbc jdbc template
+	 * @param userExtSource user ext source with id, user id and current login
+	 */
+	static void indexUserExtSource(JdbcPerunTemplate jdbc, UserExtSource userExtSource) {
+		removeUserExtSource(jdbc, userExtSource.getId());
+		jdbc.update(INSERT_QUERY, userExtSource.getUserId(), LOGIN, userExtSource.getLogin(), null, null, userExtSource.getId());
+	}
+
+	/**
+	 * Remove indexed login of the user ext source.
+	 *
+	 * @param jdbc jdbc template
+	 * @param userExtSourceId id of user ext source
+	 */
+	static void removeUserExtSource(JdbcPerunTemplate jdbc, int userExtSourceId) {
+		jdbc.update("delete from user_search_index where user_ext_source_id=?", userExtSourceId);
+	}
+
+	/**
+	 * Remove indexed logins of all user ext sources of the user.
+	 *
+	 * @param jdbc jdbc template
+	 * @param userId id of user
+	 */
+	static void removeUserExtSources(JdbcPerunTemplate jdbc, int userId) {
+		jdbc.update("delete from user_search_index where user_id=? and user_ext_source_id is not null", userId);
+	}
+
+	/**
+	 * Remove all entries of the member.
+	 *
+	 * @param jdbc jdbc template
+	 * @param memberId id of member
+	 */
+	static void removeMember(JdbcPerunTemplate jdbc, int memberId) {
+		jdbc.update("delete from user_search_index where member_id=?", memberId);
+	}
+
+	/**
+	 * Remove all entries of the user.
+	 *
+	 * @param jdbc jdbc template
+	 * @param userId id of user
+	 */
+	static void removeUser(JdbcPerunTemplate jdbc, int userId) {
+		jdbc.update("delete from user_search_index where user_id=?", userId);
+	}
+
+	/**
+	 * Rebuild whole index from users, their attributes, members' attributes and user ext sources.
+	 *
+	 * @param jdbc jdbc template
+	 * @return number of entries in the index
+	 */
+	static int rebuild(JdbcPerunTemplate jdbc) {
+		jdbc.update("delete from user_search_index");
+		List<Object[]> batch = new ArrayList<>();
+		int[] count = new int[1];
+
+		jdbc.query("select id, first_name, middle_name, last_name from users", rs -> {
+			String name = getName(rs.getString("first_name"), rs.getString("middle_name"), rs.getString("last_name"));
+			if (!name.isEmpty()) addToBatch(jdbc, batch, count, rs.getInt("id"), NAME, name, null, null, null);
+		});
+		jdbc.query("select user_attr_values.user_id, user_attr_values.attr_id, user_attr_values.attr_value, attr_names.attr_name from user_attr_values " +
+				"join attr_names on attr_names.id=user_attr_values.attr_id where attr_names.type=? and user_attr_values.attr_value is not null and " +
+				"(attr_names.attr_name=? or attr_names.friendly_name like ?)", rs -> {
+			int type = PREFERRED_MAIL_ATTRIBUTE.equals(rs.getString("attr_name")) ? MAIL : LOGIN;
+			addToBatch(jdbc, batch, count, rs.getInt("user_id"), type, normalize(type, rs.getString("attr_value")), rs.getInt("attr_id"), null, null);
+		}, String.class.getName(), PREFERRED_MAIL_ATTRIBUTE, LOGIN_NAMESPACE_PREFIX + "%");
+		jdbc.query("select members.user_id, member_attr_values.member_id, member_attr_values.attr_id, member_attr_values.attr_value from member_attr_values " +
+				"join attr_names on attr_names.id=member_attr_values.attr_id join members on members.id=member_attr_values.member_id " +
+				"where attr_names.attr_name=? and member_attr_values.attr_value is not null", rs -> {
+			addToBatch(jdbc, batch, count, rs.getInt("user_id"), MAIL, normalizeMail(rs.getString("attr_value")), rs.getInt("attr_id"), rs.getInt("member_id"), null);
+		}, MEMBER_MAIL_ATTRIBUTE);
+		jdbc.query("select id, user_id, login_ext from user_ext_sources", rs -> {
+			addToBatch(jdbc, batch, count, rs.getInt("user_id"), LOGIN, rs.getString("login_ext"), null, null, rs.getInt("id"));
+		});
+
+		if (!batch.isEmpty()) jdbc.batchUpdate(INSERT_QUERY, batch);
+		log.info("User search index rebuilt with {} entries.", count[0]);
+		return count[0];
+	}
+
+	private static void addToBatch(JdbcPerunTemplate jdbc, List<Object[]> batch, int[] count, int userId, int type, String value,
+	                               Integer attrId, Integer memberId, Integer userExtSourceId) {
+		batch.add(new Object[] {userId, type, value, attrId, memberId, userExtSourceId});
+		count[0]++;
+		if (batch.size() >= MAX_ROWS_IN_BATCH) {
+			jdbc.batchUpdate(INSERT_QUERY, batch);
+			batch.clear();
+		}
+	}
+
+	private static String normalize(int type, String value) {
+		return type == MAIL ? normalizeMail(value) : value;
+	}
+
+	private static String getName(String firstName, String middleName, String lastName) {
+		return normalizeName((firstName == null ? "" : firstName) + (middleName == null ? "" : middleName) + (lastName == null ? "" : lastName));
+	}
+
+}
@@ -4,8 +4,11 @@ import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.ExtSource;
+import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Role;
@@ -69,6 +72,8 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 	// INACTIVE userExtSources are skipped in counting max loa for user
 	private static final int MAX_OLD_OF_ACTIVE_USER_EXTSOURCE = 13;
 
+	private final static int MAX_IDS_IN_QUERY = 1000;
+
 	// Part of the SQL script used for getting the User object
 	protected final static String userMappingSelectQuery = "users.id as users_id, users.first_name as users_first_name, users.last_name as users_last_name, " +
 		"users.middle_name as users_middle_name, users.title_before as users_title_before, users.title_after as users_title_after, " +
@@ -345,6 +350,7 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 		try {
 			// delete all relations like  user -> sponsor -> service
 			jdbc.update("delete from specific_user_users where specific_user_id=? or user_id=?", user.getId(), user.getId());
+			UserSearchIndex.removeUser(jdbc, user.getId());
 			int numAffected = jdbc.update("delete from users where id=?", user.getId());
 			if(numAffected == 0) {
 				if (user.isSpecificUser()) throw new SpecificUserAlreadyRemovedException("SpecificUser: " + user);
@@ -372,6 +378,7 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 					user.getTitleBefore(), user.getTitleAfter(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getActor(), "" + serviceAcc, "" + sponsoredAcc,
 					sess.getPerunPrincipal().getUserId(), sess.getPerunPrincipal().getUserId());
 			user.setId(newId);
+			UserSearchIndex.indexName(jdbc, user);
 
 			return user;
 		} catch (RuntimeException err) {
@@ -429,23 +436,27 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 			if (userDb == null) {
 				throw new ConsistencyErrorException("Updating non existing user");
 			}
+			boolean nameChanged = false;
 
 			if ((user.getFirstName() != null && !user.getFirstName().equals(userDb.getFirstName())) ||
 							(user.getFirstName() == null && userDb.getFirstName() != null)) {
 				jdbc.update("update users set first_name=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + " where id=?",
 						user.getFirstName(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), user.getId());
 				userDb.setFirstName(user.getFirstName());
+				nameChanged = true;
 			}
 			if (user.getLastName() != null && !user.getLastName().equals(userDb.getLastName())) {
 				jdbc.update("update users set last_name=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + " where id=?",
 						user.getLastName(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), user.getId());
 				userDb.setLastName(user.getLastName());
+				nameChanged = true;
 			}
 			if ((user.getMiddleName() != null && !user.getMiddleName().equals(userDb.getMiddleName())) ||
 							(user.getMiddleName() == null && userDb.getMiddleName() != null)) {
 				jdbc.update("update users set middle_name=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + " where id=?",
 						user.getMiddleName(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), user.getId());
 				userDb.setMiddleName(user.getMiddleName());
+				nameChanged = true;
 			}
 			if ((user.getTitleBefore() != null && !user.getTitleBefore().equals(userDb.getTitleBefore())) ||
 							(user.getTitleBefore() == null && userDb.getTitleBefore() != null)) {
@@ -459,6 +470,9 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 						user.getTitleAfter(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), user.getId());
 				userDb.setTitleAfter(user.getTitleAfter());
 			}
+			if (nameChanged) {
+				UserSearchIndex.indexName(jdbc, userDb);
+			}
 
 			return userDb;
 		} catch (RuntimeException err) {
@@ -524,6 +538,8 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 				try {
 					jdbc.update("update user_ext_sources set login_ext=?, modified_by=?, modified_by_uid=?, modified_at=" + Compatibility.getSysdate() + " where id=?",
 							userExtSource.getLogin(), sess.getPerunPrincipal().getActor(), sess.getPerunPrincipal().getUserId(), userExtSource.getId());
+					userExtSourceDb.setLogin(userExtSource.getLogin());
+					UserSearchIndex.indexUserExtSource(jdbc, userExtSourceDb);
 				} catch (DuplicateKeyException ex) {
 					throw new UserExtSourceExistsException("UES with same login already exists: " + userExtSource);
 				}
@@ -555,6 +571,7 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 
 			userExtSource.setId(ueaId);
 			userExtSource.setUserId(user.getId());
+			UserSearchIndex.indexUserExtSource(jdbc, userExtSource);
 
 			return userExtSource;
 		} catch(RuntimeException e) {
@@ -651,6 +668,7 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 	@Override
 	public void removeUserExtSource(PerunSession sess, User user, UserExtSource userExtSource) throws InternalErrorException, UserExtSourceAlreadyRemovedException {
 		try {
+			UserSearchIndex.removeUserExtSource(jdbc, userExtSource.getId());
 			int numAffected = jdbc.update("delete from user_ext_sources where id=?", userExtSource.getId());
 			if(numAffected == 0) throw new UserExtSourceAlreadyRemovedException("User: " + user + " , UserExtSource: " + userExtSource);
 		} catch (RuntimeException e) {
@@ -661,6 +679,7 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 	@Override
 	public void removeAllUserExtSources(PerunSession sess, User user) throws InternalErrorException {
 		try {
+			UserSearchIndex.removeUserExtSources(jdbc, user.getId());
 			jdbc.update("delete from user_ext_sources where user_id=?",user.getId());
 		} catch (RuntimeException err) {
 			throw new InternalErrorException(err);
@@ -727,6 +746,108 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 		}
 	}
 
+	@Override
+	public Map<Integer, Set<Integer>> getVosIdsWhereUsersAreMembers(PerunSession sess, List<User> users) throws InternalErrorException {
+		Map<Integer, Set<Integer>> vosIds = new HashMap<>();
+		List<Integer> usersIds = new ArrayList<>();
+		for (User user : users) {
+			vosIds.putIfAbsent(user.getId(), new HashSet<>());
+			usersIds.add(user.getId());
+		}
+		try {
+			for (int i = 0; i < usersIds.size(); i += MAX_IDS_IN_QUERY) {
+				MapSqlParameterSource parameters = new MapSqlParameterSource();
+				parameters.addValue("ids", usersIds.subList(i, Math.min(i + MAX_IDS_IN_QUERY, usersIds.size())));
+				namedParameterJdbcTemplate.query("select user_id, vo_id from members where user_id in ( :ids )", parameters, rs -> {
+					vosIds.get(rs.getInt("user_id")).add(rs.getInt("vo_id"));
+				});
+			}
+			return vosIds;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	@Override
+	public Map<Integer, List<Member>> getMembersOfUsers(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getOfUsers(users, "select " + MembersManagerImpl.memberMappingSelectQuery + ", members.user_id as bulk_user_id" +
+				" from members where members.user_id in ( :ids )", new MapSqlParameterSource(), MembersManagerImpl.MEMBER_MAPPER);
+	}
+
+	@Override
+	public Map<Integer, List<UserExtSource>> getUserExtSourcesOfUsers(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getOfUsers(users, "select " + userExtSourceMappingSelectQuery + "," + ExtSourcesManagerImpl.extSourceMappingSelectQuery +
+				", user_ext_sources.user_id as bulk_user_id from user_ext_sources left join ext_sources on user_ext_sources.ext_sources_id=ext_sources.id" +
+				" where user_ext_sources.user_id in ( :ids )", new MapSqlParameterSource(), USEREXTSOURCE_MAPPER);
+	}
+
+	@Override
+	public Map<Integer, List<Group>> getGroupsWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getOfUsers(users, "select " + GroupsManagerImpl.groupMappingSelectQuery + ", admins.user_id as bulk_user_id from " +
+				getAdminsOfObjectsQuery("group_id") + " join groups on groups.id=admins.object_id",
+				new MapSqlParameterSource("role", Role.GROUPADMIN.toLowerCase()), GroupsManagerImpl.GROUP_MAPPER);
+	}
+
+	@Override
+	public Map<Integer, List<Vo>> getVosWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getOfUsers(users, "select " + VosManagerImpl.voMappingSelectQuery + ", admins.user_id as bulk_user_id from " +
+				getAdminsOfObjectsQuery("vo_id") + " join vos on vos.id=admins.object_id",
+				new MapSqlParameterSource("role", Role.VOADMIN.toLowerCase()), VosManagerImpl.VO_MAPPER);
+	}
+
+	@Override
+	public Map<Integer, List<Facility>> getFacilitiesWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException {
+		return getOfUsers(users, "select " + FacilitiesManagerImpl.facilityMappingSelectQuery + ", admins.user_id as bulk_user_id from " +
+				getAdminsOfObjectsQuery("facility_id") + " join facilities on facilities.id=admins.object_id",
+				new MapSqlParameterSource("role", Role.FACILITYADMIN.toLowerCase()), FacilitiesManagerImpl.FACILITY_MAPPER);
+	}
+
+	/**
+	 * Return subquery "admins" with pairs of user_id and object_id, where the user (directly or as a member
+	 * of authorized group) has role :role for the object in authz column objectColumn. Users are filtered by :ids.
+	 *
+	 * @param objectColumn column of authz table with id of the object (vo_id, group_id, facility_id)
+	 * @return subquery aliased as admins
+	 */
+	private static String getAdminsOfObjectsQuery(String objectColumn) {
+		return "(select authz.user_id as user_id, authz." + objectColumn + " as object_id from authz" +
+				" where authz.user_id in ( :ids ) and authz.role_id=(select id from roles where name=:role)" +
+				" union select members.user_id as user_id, authz." + objectColumn + " as object_id from authz" +
+				" join groups_members on groups_members.group_id=authz.authorized_group_id" +
+				" join members on members.id=groups_members.member_id" +
+				" where members.user_id in ( :ids ) and authz.role_id=(select id from roles where name=:role)) admins";
+	}
+
+	/**
+	 * Run the query for users by chunks of their ids and group mapped rows by users.
+	 *
+	 * @param users users
+	 * @param query query with parameter :ids and column bulk_user_id
+	 * @param parameters other parameters of the query
+	 * @param mapper mapper of rows
+	 * @param <T> type of returned objects
+	 * @return map of user ids to their objects (empty list for user without objects)
+	 * @throws InternalErrorException
+	 */
+	private <T> Map<Integer, List<T>> getOfUsers(List<User> users, String query, MapSqlParameterSource parameters, RowMapper<T> mapper) throws InternalErrorException {
+		Map<Integer, List<T>> result = new LinkedHashMap<>();
+		List<Integer> usersIds = new ArrayList<>();
+		for (User user : users) {
+			if (result.putIfAbsent(user.getId(), new ArrayList<>()) == null) usersIds.add(user.getId());
+		}
+		try {
+			for (int i = 0; i < usersIds.size(); i += MAX_IDS_IN_QUERY) {
+				parameters.addValue("ids", usersIds.subList(i, Math.min(i + MAX_IDS_IN_QUERY, usersIds.size())));
+				namedParameterJdbcTemplate.query(query, parameters, rs -> {
+					result.get(rs.getInt("bulk_user_id")).add(mapper.mapRow(rs, rs.getRow()));
+				});
+			}
+			return result;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
 	@Override
 	public List<User> getUsersByAttribute(PerunSession sess, Attribute attribute) throws InternalErrorException {
 		try {
@@ -787,39 +908,8 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 
 		log.debug("Searching for users using searchString '{}'", searchString);
 
-		// Search by mail (member)
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-					" from users, members, member_attr_values, attr_names " +
-					"where members.user_id=users.id and members.id=member_attr_values.member_id and member_attr_values.attr_id=attr_names.id and " +
-					"attr_names.attr_name='urn:perun:member:attribute-def:def:mail' and " +
-					"lower(member_attr_values.attr_value)=lower(?)", USER_MAPPER, searchString.toLowerCase()));
-
-		// Search preferred email (user)
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-					" from users, user_attr_values, attr_names " +
-					"where users.id=user_attr_values.user_id and user_attr_values.attr_id=attr_names.id and " +
-					"attr_names.attr_name='urn:perun:user:attribute-def:def:preferredMail' and " +
-					"lower(user_attr_values.attr_value)=lower(?)", USER_MAPPER, searchString.toLowerCase()));
-
-		// Search logins in userExtSources
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-					" from users, user_ext_sources " +
-					"where user_ext_sources.login_ext=? and user_ext_sources.user_id=users.id", USER_MAPPER, searchString));
-
-		// Search logins in attributes: login-namespace:*
-		users.addAll(jdbc.query("select distinct " + userMappingSelectQuery +
-					" from attr_names, user_attr_values, users " +
-					"where attr_names.friendly_name like 'login-namespace:%' and user_attr_values.attr_value=? " +
-					"and attr_names.id=user_attr_values.attr_id and user_attr_values.user_id=users.id",
-					USER_MAPPER, searchString));
-
-		// Search by userId
-		try {
-			int userId = Integer.parseInt(searchString);
-			users.addAll(jdbc.query("select " + userMappingSelectQuery + " from users where id=?", USER_MAPPER, userId));
-		} catch (NumberFormatException e) {
-			// IGNORE
-		}
+		// Search by mails (member, preferred) and logins (userExtSources, login-namespace:* attributes) or userId
+		users.addAll(findUsersInSearchIndex(searchString, false));
 
 		users.addAll(findUsersByName(sess, searchString));
 
@@ -828,47 +918,126 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 
 	@Override
 	public List<User> findUsersByExactMatch(PerunSession sess, String searchString) throws InternalErrorException {
-		Set<User> users = new HashSet<>();
-
 		log.debug("Searching for users using searchString '{}'", searchString);
 
-		// Search by mail (member)
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-				" from users, members, member_attr_values, attr_names " +
-				"where members.user_id=users.id and members.id=member_attr_values.member_id and member_attr_values.attr_id=attr_names.id and " +
-				"attr_names.attr_name='urn:perun:member:attribute-def:def:mail' and " +
-				"lower(member_attr_values.attr_value)=lower(?)", USER_MAPPER, searchString.toLowerCase()));
-
-		// Search preferred email (user)
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-				" from users, user_attr_values, attr_names " +
-				"where users.id=user_attr_values.user_id and user_attr_values.attr_id=attr_names.id and " +
-				"attr_names.attr_name='urn:perun:user:attribute-def:def:preferredMail' and " +
-				"lower(user_attr_values.attr_value)=lower(?)", USER_MAPPER, searchString.toLowerCase()));
-
-		// Search logins in userExtSources
-		users.addAll(jdbc.query("select " + userMappingSelectQuery +
-				" from users, user_ext_sources " +
-				"where user_ext_sources.login_ext=? and user_ext_sources.user_id=users.id", USER_MAPPER, searchString));
-
-		// Search logins in attributes: login-namespace:*
-		users.addAll(jdbc.query("select distinct " + userMappingSelectQuery +
-						" from attr_names, user_attr_values, users " +
-						"where attr_names.friendly_name like 'login-namespace:%' and user_attr_values.attr_value=? " +
-						"and attr_names.id=user_attr_values.attr_id and user_attr_values.user_id=users.id",
-				USER_MAPPER, searchString));
-
-		// Search by userId
-		try {
-			int userId = Integer.parseInt(searchString);
-			users.addAll(jdbc.query("select " + userMappingSelectQuery + " from users where id=?", USER_MAPPER, userId));
-		} catch (NumberFormatException e) {
-			// IGNORE
+		// Search by mails (member, preferred), logins (userExtSources, login-namespace:* attributes), exact name or userId
+		return findUsersInSearchIndex(searchString, true);
+	}
+
+	/**
+	 * Returns users, whose mail or login in the user search index matches the search string or whose id is the search string.
+	 * Mails are matched case insensitive, logins exactly.
+	 *
+	 * @param searchString searched mail, login or id
+	 * @param exactName true if users with exactly matching name should be returned too
+	 * @return list of users
+	 * @throws InternalErrorException
+	 */
+	private List<User> findUsersInSearchIndex(String searchString, boolean exactName) throws InternalErrorException {
+		if (searchString == null || searchString.isEmpty()) {
+			return new ArrayList<>();
 		}
 
-		users.addAll(findUsersByExactName(sess, searchString));
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("mailType", UserSearchIndex.MAIL);
+		parameters.addValue("mail", UserSearchIndex.normalizeMail(searchString));
+		parameters.addValue("loginType", UserSearchIndex.LOGIN);
+		parameters.addValue("login", searchString);
+		StringBuilder condition = new StringBuilder("(user_search_index.search_type=:mailType and user_search_index.search_value=:mail)" +
+				" or (user_search_index.search_type=:loginType and user_search_index.search_value=:login)");
+		if (exactName) {
+			condition.append(" or (user_search_index.search_type=:nameType and user_search_index.search_value=:name)");
+			parameters.addValue("nameType", UserSearchIndex.NAME);
+			parameters.addValue("name", UserSearchIndex.normalizeName(searchString));
+		}
 
-		return new ArrayList<>(users);
+		try {
+			Set<User> users = new HashSet<>(namedParameterJdbcTemplate.query("select distinct " + userMappingSelectQuery +
+					" from user_search_index join users on users.id=user_search_index.user_id where " + condition, parameters, USER_MAPPER));
+			try {
+				int userId = Integer.parseInt(searchString);
+				users.addAll(jdbc.query("select " + userMappingSelectQuery + " from users where id=?", USER_MAPPER, userId));
+			} catch (NumberFormatException e) {
+				// IGNORE
+			}
+			return new ArrayList<>(users);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	@Override
+	public Paginated<User> getUsersPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers) throws InternalErrorException {
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		StringBuilder filter = new StringBuilder("1=1");
+		if (!includedSpecificUsers) {
+			filter.append(" and users.service_acc='0' and users.sponsored_acc='0'");
+		}
+		if (query.getSearchString() != null && !query.getSearchString().isEmpty()) {
+			filter.append(" and ").append(getPageSearchCondition(query, parameters));
+		}
+		try {
+			int totalCount = namedParameterJdbcTemplate.queryForObject("select count(*) from users where " + filter, parameters, Integer.class);
+			List<User> users = namedParameterJdbcTemplate.query("select " + userMappingSelectQuery + " from users where " + filter +
+					getPageOrderAndLimit(query, "users.id", parameters), parameters, USER_MAPPER);
+			return new Paginated<>(users, query.usesKeyset() ? 0 : query.getOffset(), query.getPageSize(), totalCount);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	/**
+	 * Returns SQL condition on table users matching the search string of the page query in users' names or ids.
+	 * Search string is lower cased and converted into the ASCII the same way as in findUsersByName.
+	 *
+	 * @param query page query with non-empty search string
+	 * @param parameters to add parameters of the condition to
+	 * @return SQL condition
+	 */
+	static String getPageSearchCondition(PageQuery query, MapSqlParameterSource parameters) {
+		String condition = "lower(" + Compatibility.convertToAscii("COALESCE(users.first_name,'') || COALESCE(users.middle_name,'') || COALESCE(users.last_name,'')") +
+				") like :search";
+		parameters.addValue("search", "%" + Utils.utftoasci(query.getSearchString().toLowerCase()).replaceAll(" ", "") + "%");
+		try {
+			parameters.addValue("searchId", Integer.parseInt(query.getSearchString().trim()));
+			return "(" + condition + " or users.id=:searchId)";
+		} catch (NumberFormatException e) {
+			return condition;
+		}
+	}
+
+	/**
+	 * Returns end of the select, which orders items by the page query and limits them to the page.
+	 * If keyset pagination is used, condition on id of the item is added too, so it must be appended to the where clause.
+	 *
+	 * @param query page query
+	 * @param idColumn column with id of the item
+	 * @param parameters to add parameters of the select to
+	 * @return SQL with order by, limit and offset
+	 */
+	static String getPageOrderAndLimit(PageQuery query, String idColumn, MapSqlParameterSource parameters) {
+		boolean descending = query.getOrder() == PageQuery.SortingOrder.DESCENDING;
+		String direction = descending ? " desc" : " asc";
+		StringBuilder sql = new StringBuilder();
+		if (query.usesKeyset()) {
+			sql.append(" and ").append(idColumn).append(descending ? "<" : ">").append(":lastId");
+			parameters.addValue("lastId", query.getLastId());
+		}
+		sql.append(" order by ");
+		switch (query.getSortColumn()) {
+			case NAME:
+				sql.append("users.last_name").append(direction).append(", users.first_name").append(direction).append(", ");
+				break;
+			case STATUS:
+				sql.append("members.status").append(direction).append(", ");
+				break;
+			default:
+				break;
+		}
+		sql.append(idColumn).append(direction).append(Compatibility.getLimitAndOffset());
+		parameters.addValue("limit", query.getPageSize());
+		parameters.addValue("offset", query.usesKeyset() ? 0 : query.getOffset());
+		return sql.toString();
 	}
 
 	@Override
@@ -953,39 +1122,23 @@ public class UsersManagerImpl implements UsersManagerImplApi {
 			return new ArrayList<>();
 		}
 
-		// Convert to lower case
-		searchString = searchString.toLowerCase();
-		log.debug("Search string '{}' converted into the lowercase", searchString);
+		// lower cased, converted into the ASCII and without spaces the same way as names in the user search index
+		searchString = UserSearchIndex.normalizeName(searchString);
 
-		// Convert to ASCII
-		searchString = Utils.utftoasci(searchString);
-		log.debug("Search string '{}' converted into the ASCII", searchString);
+		log.debug("Searching users by exact name using searchString '{}'", searchString);
 
-		// remove spaces from the search string
-		searchString = searchString.replaceAll(" ", "");
-
-		log.debug("Searching users by name using searchString '{}'", searchString);
+		try {
+			return jdbc.query("select " + userMappingSelectQuery + " from user_search_index join users on users.id=user_search_index.user_id " +
+					"where user_search_index.search_type=? and user_search_index.search_value=?", USER_MAPPER, UserSearchIndex.NAME, searchString);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
 
-		// the searchString is already lower cased and converted into the ASCII
+	@Override
+	public int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException {
 		try {
-			if (Compatibility.isOracle()) {
-				// Search users' names
-				return (jdbc.query("select " + userMappingSelectQuery + " from users "
-								+ "where lower(" + Compatibility.convertToAscii("users.first_name || users.middle_name || users.last_name") + ")=?",
-						USER_MAPPER, searchString));
-			} else if (Compatibility.isPostgreSql()) {
-				return jdbc.query("select " + userMappingSelectQuery + " from users "
-								+ "where lower(" + Compatibility.convertToAscii("COALESCE(users.first_name,'') || COALESCE(users.middle_name,'') || COALESCE(users.last_name,'')") + ")=?",
-						USER_MAPPER, searchString);
-			} else if (Compatibility.isHSQLDB()) {
-				return jdbc.query("select " + userMappingSelectQuery + "  from users " +
-								"where lower("+Compatibility.convertToAscii("COALESCE(users.first_name,'') || COALESCE(users.middle_name,'') || COALESCE(users.last_name,'')")+")=?",
-						USER_MAPPER, searchString);
-			} else {
-				throw new InternalErrorException("Unsupported db type");
-			}
-		} catch (EmptyResultDataAccessException e) {
-			return new ArrayList<>();
+			return UserSearchIndex.rebuild(jdbc);
 		} catch (RuntimeException e) {
 			throw new InternalErrorException(e);
 		}
@@ -7,8 +7,10 @@ import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Destination;
 import cz.metacentrum.perun.core.api.ExtSource;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Status;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
 import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
@@ -303,6 +305,33 @@ public class Utils {
 		}
 	}
 
+	/**
+	 * Checks whether the page query is valid.
+	 *
+	 * @param query page query
+	 * @param ofMembers TRUE if query is for members (can be sorted and filtered by status)
+	 * @throws IllegalArgumentException when page size is not positive, offset is negative or status is not known
+	 * @throws InternalErrorException when query is null
+	 */
+	public static void checkPageQuery(PageQuery query, boolean ofMembers) throws InternalErrorException {
+		notNull(query, "query");
+		if (query.getPageSize() < 1) throw new IllegalArgumentException("Page size must be positive.");
+		if (query.getOffset() < 0) throw new IllegalArgumentException("Offset can't be negative.");
+		if (query.getSortColumn() == null || query.getOrder() == null) throw new IllegalArgumentException("Sort column and order must be set.");
+		if (!ofMembers && (query.getSortColumn() == PageQuery.SortColumn.STATUS || (query.getStatuses() != null && !query.getStatuses().isEmpty()))) {
+			throw new IllegalArgumentException("Users can't be sorted or filtered by status.");
+		}
+		if (query.getStatuses() != null) {
+			for (String status : query.getStatuses()) {
+				try {
+					Status.valueOf(status);
+				} catch (java.lang.IllegalArgumentException | NullPointerException ex) {
+					throw new IllegalArgumentException("Unknown status of member: " + status, ex);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Define, if some entity contain a diacritic symbol.
 	 *
@@ -0,0 +1,31 @@
+package cz.metacentrum.perun.core.implApi;
+
+import cz.metacentrum.perun.core.impl.AttributesCache;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel which delivers invalidations of the attributes cache between instances of Perun (e.g. several perun-rpc nodes
+ * using the same database), so each instance can drop entries changed by the other ones.
+ *
+ * Invalidations are published after completion of the transaction which caused them. Implementation for a cluster
+ * (e.g. JGroups, message broker or database notifications) can replace the default in-JVM one by redefining
+ * the bean "attributesCacheInvalidationBus".
+ */
+public interface AttributesCacheInvalidationBus {
+
+	/**
+	 * Delivers invalidation to all subscribers of other instances.
+	 *
+	 * @param invalidation invalidation of the cache
+	 */
+	void publish(AttributesCache.Invalidation invalidation);
+
+	/**
+	 * Registers subscriber of invalidations published by all instances. Subscriber has to ignore its own invalidations
+	 * (they have the same origin as the subscribed cache).
+	 *
+	 * @param subscriber consumer of invalidations
+	 */
+	void subscribe(Consumer<AttributesCache.Invalidation> subscriber);
+}
@@ -494,6 +494,108 @@ public interface AttributesManagerImplApi {
 	 */
 	List<Attribute> getVirtualAttributes(PerunSession sess, User user) throws InternalErrorException;
 
+	/**
+	 * Get all <b>non-empty</b> attributes associated with each of the users (virtual attributes are not included).
+	 * Same as calling getAttributes(sess, user) for each user, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Get all attributes associated with each of the users which have name in list attrNames (empty and virtual too).
+	 * Same as calling getAttributes(sess, user, attrNames) for each user, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get all virtual attributes associated with each of the users.
+	 * Same as calling getVirtualAttributes(sess, user) for each user, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersVirtualAttributes(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Get all user-facility attributes of each of the users on the facility which have name in list attrNames (empty and virtual too).
+	 * Same as calling getAttributes(sess, user, facility, attrNames) for each user, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param users to get the attributes from
+	 * @param facility to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of user id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, Facility facility, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get all <b>non-empty</b> attributes associated with each of the members (virtual attributes are not included).
+	 * Same as calling getAttributes(sess, member) for each member, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members) throws InternalErrorException;
+
+	/**
+	 * Get all attributes associated with each of the members which have name in list attrNames (empty and virtual too).
+	 * Same as calling getAttributes(sess, member, attrNames) for each member, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get all virtual attributes associated with each of the members.
+	 * Same as calling getVirtualAttributes(sess, member) for each member, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersVirtualAttributes(PerunSession sess, List<Member> members) throws InternalErrorException;
+
+	/**
+	 * Get all member-resource attributes of each of the members on the resource which have name in list attrNames (empty and virtual too).
+	 * Same as calling getAttributes(sess, member, resource, attrNames) for each member, but uses only few queries.
+	 *
+	 * @param sess perun session
+	 * @param members to get the attributes from
+	 * @param resource to get the attributes from
+	 * @param attrNames list of attributes' names
+	 * @return map of member id to list of its attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<Integer, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, Resource resource, List<String> attrNames) throws InternalErrorException;
+
 	/**
 	 * Get all virtual attributes associated with the UserExtSource.
 	 *
@@ -1271,6 +1373,19 @@ public interface AttributesManagerImplApi {
 	 */
 	HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Resource resource, Service service, List<Member> members) throws InternalErrorException;
 
+	/**
+	 * Get member-group attributes which are required by service for each member in list of members.
+	 *
+	 * @param sess perun session
+	 * @param service attribute required by this service
+	 * @param group you get attributes for this group and the members
+	 * @param members you get attributes for this list of members and the group
+	 * @return map of member and his list of attributes
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Group group, List<Member> members) throws InternalErrorException;
+
 	/**
 	 * Get user-facility attributes which are required by the service for each user in list of users.
 	 *
@@ -0,0 +1,39 @@
+package cz.metacentrum.perun.core.implApi;
+
+import cz.metacentrum.perun.core.api.exceptions.ExtSourceUnsupportedOperationException;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Definition of extSource api for incremental group synchronization.
+ *
+ * ExtSource implementing this api is able to recognize (by some change marker like modification timestamp of the entry
+ * or the row) which subjects of the group were changed since the given time. Group synchronization then processes
+ * only changed and new subjects instead of all subjects of the group.
+ *
+ * Support of change markers is usually configured by extSource attributes, if it is not configured,
+ * ExtSourceUnsupportedOperationException is thrown and group is synchronized in the standard way.
+ */
+public interface ExtSourceChangesApi {
+
+	/**
+	 * Get subjects of the group, which were changed since the given time.
+	 *
+	 * Returns identifiers of all subjects, which are currently in the group. Identifier is unique in the extSource
+	 * (eg. DN of the LDAP entry or login). Identifier is mapped to the subject (map with attr_name-&gt;attr_value
+	 * like in getGroupSubjects) if subject was changed since the given time or if it is not contained in the known subjects.
+	 * Identifier is mapped to null, if the subject is known and wasn't changed.
+	 *
+	 * @param attributes map of attributes used for quering the external source (same as in getGroupSubjects)
+	 * @param knownSubjects identifiers of subjects known from the previous synchronization
+	 * @param since subjects changed at this time or later are returned
+	 * @return map of identifiers of all group subjects to the changed or new subjects (null for not changed known subjects)
+	 * @throws InternalErrorException
+	 * @throws ExtSourceUnsupportedOperationException if change markers are not supported or configured for the extSource
+	 */
+	Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) throws InternalErrorException, ExtSourceUnsupportedOperationException;
+
+}
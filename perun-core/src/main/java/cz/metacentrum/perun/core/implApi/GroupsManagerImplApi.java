@@ -25,6 +25,7 @@ import cz.metacentrum.perun.core.api.exceptions.NotGroupMemberException;
 import cz.metacentrum.perun.core.api.exceptions.ParentGroupNotExistsException;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author  Michal Prochazka
@@ -170,6 +171,20 @@ public interface GroupsManagerImplApi {
 	 */
 	Member addMember(PerunSession perunSession, Group group,  Member member, MembershipType type, int sourceGroupId) throws InternalErrorException, AlreadyMemberException;
 
+	/**
+	 * Adds members of the VO to the group in the same VO in one batch.
+	 *
+	 * @param perunSession perun session
+	 * @param group group
+	 * @param members members to add, their MembershipType and sourceGroupId are set
+	 * @param type type of the membership
+	 * @param sourceGroupId id of a group from which members originate
+	 *
+	 * @throws InternalErrorException
+	 * @throws AlreadyMemberException if any of the members is already in the group from the source group
+	 */
+	void addMembers(PerunSession perunSession, Group group, List<Member> members, MembershipType type, int sourceGroupId) throws InternalErrorException, AlreadyMemberException;
+
 
 	/**
 	 * Removes member form the group. The member object MUST have sourceGroupId parameter.
@@ -183,6 +198,19 @@ public interface GroupsManagerImplApi {
 	 */
 	void removeMember(PerunSession perunSession, Group group, Member member) throws InternalErrorException, NotGroupMemberException;
 
+	/**
+	 * Removes members originating from the source group from the group in one batch.
+	 *
+	 * @param perunSession perun session
+	 * @param group group
+	 * @param members members to remove, their sourceGroupId is set
+	 * @param sourceGroupId id of a group from which members originate
+	 *
+	 * @throws InternalErrorException
+	 * @throws NotGroupMemberException if any of the members is not in the group from the source group
+	 */
+	void removeMembers(PerunSession perunSession, Group group, List<Member> members, int sourceGroupId) throws InternalErrorException, NotGroupMemberException;
+
 	/**
 	 * Return list of assigned groups on the resource.
 	 *
@@ -264,6 +292,17 @@ public interface GroupsManagerImplApi {
 	 */
 	List<Group> getAllGroupsWhereMemberIsActive(PerunSession sess, Member member) throws InternalErrorException;
 
+	/**
+	 * Returns all groups where the members are in active state (are valid there).
+	 * Included members groups.
+	 *
+	 * @param sess perun session
+	 * @param members members to get groups for
+	 * @return map of member ids to groups where the member is in active state (empty list for member without groups)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Group>> getAllGroupsWhereMembersAreActive(PerunSession sess, List<Member> members) throws InternalErrorException;
+
 	/**
 	 * Return group members.
 	 *
@@ -343,6 +382,28 @@ public interface GroupsManagerImplApi {
 	 */
 	List<Group> getSubGroups(PerunSession perunSession, Group parentGroup) throws InternalErrorException;
 
+	/**
+	 * Get all subgroups of the parent group in the whole hierarchy (read from the closure of group hierarchy).
+	 *
+	 * @param perunSession
+	 * @param parentGroup
+	 *
+	 * @throws InternalErrorException
+	 * @return list of groups
+	 */
+	List<Group> getAllSubGroups(PerunSession perunSession, Group parentGroup) throws InternalErrorException;
+
+	/**
+	 * Get all parent groups of the group up to the top-level group (read from the closure of group hierarchy).
+	 *
+	 * @param perunSession
+	 * @param group
+	 *
+	 * @throws InternalErrorException
+	 * @return list of groups ordered from the top-level group to the immediate parent group
+	 */
+	List<Group> getAllParentGroups(PerunSession perunSession, Group group) throws InternalErrorException;
+
 	/** Gets list of all administrators of this group.
 	 * If some group is administrator of the given group, all members are included in the list.
 	 *
@@ -665,6 +726,61 @@ public interface GroupsManagerImplApi {
 	 */
 	List<Integer> getResultGroupsIds(PerunSession sess, int groupId) throws InternalErrorException;
 
+	/**
+	 * Return ids of result groups of requested operand groups.
+	 *
+	 * @param sess perun session
+	 * @param groupsIds ids of operand groups
+	 * @return ids of operand groups mapped to lists of ids of their result groups
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Integer>> getResultGroupsIds(PerunSession sess, List<Integer> groupsIds) throws InternalErrorException;
+
+	/**
+	 * Return ids of requested groups and of all groups, which are result groups of relations with them (transitively).
+	 * Each id is mapped to the length of the longest path of relations from any of requested groups,
+	 * so each group has greater depth than all its operand groups.
+	 *
+	 * @param sess perun session
+	 * @param groupsIds ids of operand groups
+	 * @return ids of result groups mapped to depth
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, Integer> getAllResultGroupsIdsWithDepth(PerunSession sess, List<Integer> groupsIds) throws InternalErrorException;
+
+	/**
+	 * Check if members of the operand group are members of the result group through one or more relations.
+	 *
+	 * @param sess perun session
+	 * @param resultGroupId id of result group
+	 * @param operandGroupId id of operand group
+	 * @return true if there is a path of relations from the operand group to the result group
+	 * @throws InternalErrorException
+	 */
+	boolean isIndirectRelationBetweenGroups(PerunSession sess, int resultGroupId, int operandGroupId) throws InternalErrorException;
+
+	/**
+	 * Lock closures of groups of the VO until the end of the transaction. Changes of group hierarchy and relations
+	 * in the VO are serialized by this lock, so the closures and checks using them (eg. cycle check) are not
+	 * based on data which is being changed by another transaction.
+	 *
+	 * @param sess perun session
+	 * @param voId id of VO of the changed groups
+	 * @throws InternalErrorException
+	 */
+	void lockGroupsClosure(PerunSession sess, int voId) throws InternalErrorException;
+
+	/**
+	 * Compare stored closures of group hierarchy and of relations between groups with closures
+	 * calculated from groups and their relations.
+	 *
+	 * @param sess perun session
+	 * @param repair true if inconsistent closures should be rebuilt
+	 * @return number of missing, wrong or redundant rows of closures
+	 * @throws InternalErrorException
+	 */
+	int checkGroupsClosure(PerunSession sess, boolean repair) throws InternalErrorException;
+
 	/**
 	 * Set status of the member to specified status for indirect relations
 	 * where the given group is the source group.
@@ -676,6 +792,17 @@ public interface GroupsManagerImplApi {
 	 */
 	void setIndirectGroupStatus(PerunSession sess, Member member, Group group, MemberGroupStatus status) throws InternalErrorException;
 
+	/**
+	 * Set status of the members to specified status for indirect relations
+	 * where the given group is the source group in one batch.
+	 *
+	 * @param members members whose status will be changed
+	 * @param group group where members' status will be changed
+	 * @param status status that will be set
+	 * @throws InternalErrorException internal error
+	 */
+	void setIndirectGroupStatus(PerunSession sess, List<Member> members, Group group, MemberGroupStatus status) throws InternalErrorException;
+
 	/**
 	 * Set direct status of the member to specified status in given group.
 	 *
@@ -709,6 +836,18 @@ public interface GroupsManagerImplApi {
 	 */
 	MemberGroupStatus getTotalMemberGroupStatus(PerunSession session, Member member, Group group) throws InternalErrorException;
 
+	/**
+	 * Returns total statuses of the members in given group.
+	 * Members without any relation to the group are not in the result.
+	 *
+	 * @param session session
+	 * @param group group
+	 * @param members members
+	 * @return ids of the members of the group mapped to their total status in the group
+	 * @throws InternalErrorException internal error
+	 */
+	Map<Integer, MemberGroupStatus> getTotalMemberGroupStatuses(PerunSession session, Group group, List<Member> members) throws InternalErrorException;
+
 	/**
 	 * Returns all facilities where given group si FACILITYADMIN.
 	 *
@@ -3,6 +3,8 @@ package cz.metacentrum.perun.core.implApi;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.Status;
@@ -187,6 +189,18 @@ public interface MembersManagerImplApi {
 	 */
 	List<Member> getMembersByUsers(PerunSession sess, List<User> users, Vo vo) throws InternalErrorException;
 
+	/**
+	 * Returns one page of members of the VO selected, ordered and filtered by the page query
+	 * and the number of all members of the VO matching the query.
+	 *
+	 * @param sess
+	 * @param vo
+	 * @param query page query
+	 * @return page of members
+	 * @throws InternalErrorException
+	 */
+	Paginated<Member> getMembersPage(PerunSession sess, Vo vo, PageQuery query) throws InternalErrorException;
+
 	/**
 	 * Returns all members from the VO (with every status).
 	 *
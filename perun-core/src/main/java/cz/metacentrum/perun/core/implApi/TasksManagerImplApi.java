@@ -34,6 +34,13 @@ public interface TasksManagerImplApi {
 
 	void updateTask(Task task);
 
+	/**
+	 * Update state of all given Tasks in one batch.
+	 *
+	 * @param tasks Tasks to update
+	 */
+	void updateTasks(List<Task> tasks);
+
 	void removeTask(int id);
 
 	int countTasks();
@@ -128,6 +135,14 @@ public interface TasksManagerImplApi {
 
 	int insertNewTaskResult(TaskResult taskResult, int engineID) throws InternalErrorException;
 
+	/**
+	 * Insert all given TaskResults of one engine in one batch.
+	 *
+	 * @param taskResults TaskResults to insert
+	 * @param engineID ID of engine which reported TaskResults
+	 */
+	void insertNewTaskResults(List<TaskResult> taskResults, int engineID);
+
 	List<TaskResult> getTaskResults(int engineID);
 
 	TaskResult getTaskResultById(int taskResultId, int engineID);
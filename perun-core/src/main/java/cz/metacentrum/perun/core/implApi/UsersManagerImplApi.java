@@ -3,8 +3,11 @@ package cz.metacentrum.perun.core.implApi;
 import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.ExtSource;
+import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.SpecificUserType;
@@ -25,6 +28,7 @@ import cz.metacentrum.perun.core.implApi.modules.pwdmgr.PasswordManagerModule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * UsersManager can find users.
@@ -502,6 +506,66 @@ public interface UsersManagerImplApi {
 	 */
 	List<Vo> getVosWhereUserIsMember(PerunSession sess, User user) throws InternalErrorException;
 
+	/**
+	 * Returns ids of Vos, where the users are members.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to ids of Vos, where the user is member (empty set for user without membership)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, Set<Integer>> getVosIdsWhereUsersAreMembers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns members of the users.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to their members (empty list for user without membership)
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Member>> getMembersOfUsers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns user ext sources of the users.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to their user ext sources
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<UserExtSource>> getUserExtSourcesOfUsers(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns Groups, where the users are direct Administrators or members of any group which is Administrator of the Group.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to Groups, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Group>> getGroupsWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns VOs, where the users are direct Administrators or members of any group which is Administrator of the VO.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to VOs, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Vo>> getVosWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
+	/**
+	 * Returns Facilities, where the users are direct Administrators or members of any group which is Administrator of the Facility.
+	 *
+	 * @param sess
+	 * @param users
+	 * @return map of user ids to Facilities, where the user is an Administrator
+	 * @throws InternalErrorException
+	 */
+	Map<Integer, List<Facility>> getFacilitiesWhereUsersAreAdmins(PerunSession sess, List<User> users) throws InternalErrorException;
+
 	/**
 	 * Returns list of users who matches the searchString, searching name, email and logins.
 	 *
@@ -522,6 +586,18 @@ public interface UsersManagerImplApi {
 	 */
 	List<User> findUsersByExactMatch(PerunSession sess, String searchString) throws InternalErrorException;
 
+	/**
+	 * Returns one page of users selected, ordered and filtered by the page query
+	 * and the number of all users matching the query.
+	 *
+	 * @param sess
+	 * @param query page query
+	 * @param includedSpecificUsers true if specific users should be included too
+	 * @return page of users
+	 * @throws InternalErrorException
+	 */
+	Paginated<User> getUsersPage(PerunSession sess, PageQuery query, boolean includedSpecificUsers) throws InternalErrorException;
+
 	/**
 	 * Returns list of users who matches the searchString
 	 *
@@ -769,4 +845,13 @@ public interface UsersManagerImplApi {
 	 * Implements search for #UsersManagerBl.findUsersWithExtSourceAttributeValueEnding().
 	 */
 	List<User> findUsersWithExtSourceAttributeValueEnding(PerunSessionImpl sess, String attributeName, String valueEnd, List<String> excludeValueEnds) throws InternalErrorException;
+
+	/**
+	 * Rebuild the user search index from users, their attributes, attributes of their members and their user ext sources.
+	 *
+	 * @param sess perun session
+	 * @return number of entries in the rebuilt index
+	 * @throws InternalErrorException
+	 */
+	int rebuildUserSearchIndex(PerunSession sess) throws InternalErrorException;
 }
@@ -4,6 +4,7 @@ import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityCreated;
 import cz.metacentrum.perun.audit.events.StringMessageEvent;
 import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.AuditMessagesListener;
 import cz.metacentrum.perun.core.api.AuditMessagesManager;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.exceptions.WrongRangeOfCountException;
@@ -11,8 +12,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Integration tests of AuditMessagesManager.
@@ -77,4 +80,45 @@ public class AuditMessagesManagerEntryIntegrationTest extends AbstractPerunInteg
 		perun.getAuditMessagesManager().getMessages(sess, -1);
 	}
 
+	@Test
+	public void testWaitForConsumerMessages() throws Exception {
+		System.out.println(CLASS_NAME + "testWaitForConsumerMessages");
+		int lastProcessedId = perun.getAuditMessagesManager().getLastMessageId(sess);
+		perun.getAuditMessagesManager().createAuditerConsumer(sess, "testWaitForConsumerMessages");
+
+		perun.getAuditer().logWithoutTransaction(sess, new StringMessageEvent("Test wait for consumer messages"));
+
+		List<AuditMessage> messages = perun.getAuditMessagesManager().waitForConsumerMessages(sess, "testWaitForConsumerMessages", lastProcessedId, 1000);
+		assertEquals("waitForConsumerMessages returns wrong count of messages", 1, messages.size());
+		assertEquals(new StringMessageEvent("Test wait for consumer messages").getMessage(), messages.get(0).getEvent().getMessage());
+	}
+
+	@Test
+	public void testWaitForConsumerMessagesTimeout() throws Exception {
+		System.out.println(CLASS_NAME + "testWaitForConsumerMessagesTimeout");
+		perun.getAuditer().logWithoutTransaction(sess, new StringMessageEvent("Test wait for consumer messages timeout"));
+		int lastProcessedId = perun.getAuditMessagesManager().getLastMessageId(sess);
+		perun.getAuditMessagesManager().createAuditerConsumer(sess, "testWaitForConsumerMessagesTimeout");
+
+		List<AuditMessage> messages = perun.getAuditMessagesManager().waitForConsumerMessages(sess, "testWaitForConsumerMessagesTimeout", lastProcessedId, 10);
+		assertTrue("waitForConsumerMessages should return no messages", messages.isEmpty());
+	}
+
+	@Test
+	public void testAuditMessagesListenerIsNotified() throws Exception {
+		System.out.println(CLASS_NAME + "testAuditMessagesListenerIsNotified");
+		AtomicInteger notifications = new AtomicInteger();
+		AuditMessagesListener listener = notifications::incrementAndGet;
+
+		perun.getAuditMessagesManager().addAuditMessagesListener(sess, listener);
+		try {
+			perun.getAuditer().logWithoutTransaction(sess, new StringMessageEvent("Test listener notification"));
+		} finally {
+			perun.getAuditMessagesManager().removeAuditMessagesListener(sess, listener);
+		}
+		perun.getAuditer().logWithoutTransaction(sess, new StringMessageEvent("Test listener notification after removal"));
+
+		assertEquals("Listener should be notified exactly once", 1, notifications.get());
+	}
+
 }
@@ -0,0 +1,230 @@
+package cz.metacentrum.perun.core.entry;
+
+import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.ExtSource;
+import cz.metacentrum.perun.core.api.ExtSourcesManager;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.GroupsManager;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.RichMember;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.bl.AttributesManagerBl;
+import cz.metacentrum.perun.core.bl.ExtSourcesManagerBl;
+import cz.metacentrum.perun.core.bl.GroupsManagerBl;
+import cz.metacentrum.perun.core.blImpl.PerunBlImpl;
+import cz.metacentrum.perun.core.impl.ExtSourceLdap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Integration tests of incremental group synchronization.
+ */
+public class GroupSynchronizationIntegrationTest extends AbstractPerunIntegrationTest {
+	private final static String CLASS_NAME = "GroupsManager.";
+	private static final String EXT_SOURCE_NAME = "IncrementalGroupSyncExtSource";
+
+	//This annotation is used so spied extSourceManagerBl is used in the perun object.
+	@InjectMocks
+	private PerunBlImpl perun;
+
+	private GroupsManagerBl groupsManagerBl;
+	private ExtSourcesManagerBl extSourceManagerBlBackup;
+	private AttributesManagerBl attributesManagerBl;
+
+	@Spy
+	private ExtSourcesManagerBl extSourceManagerBl;
+	//ExtSource simulating changes of subjects in the external group
+	private ChangingExtSource extSource;
+
+	private Group group;
+
+	@Before
+	public void setUpBeforeEveryMethod() throws Exception {
+		//perun from AbstractPerunIntegrationTest need to be assigned to our perun object in which we are injecting mocks.
+		this.perun = (PerunBlImpl) super.perun;
+		//Real extSourceManagerBl has to be set back to the perun after tests finish.
+		extSourceManagerBlBackup = perun.getExtSourcesManagerBl();
+
+		groupsManagerBl = perun.getGroupsManagerBl();
+		extSourceManagerBl = perun.getExtSourcesManagerBl();
+		attributesManagerBl = perun.getAttributesManagerBl();
+
+		Map<String, String> extSourceAttributes = new HashMap<>();
+		extSourceAttributes.put("overwriteUserAttributes", AttributesManager.NS_USER_ATTR_CORE + ":lastName");
+		ExtSource createdExtSource = extSourceManagerBl.createExtSource(sess, new ExtSource(0, EXT_SOURCE_NAME, ExtSourcesManager.EXTSOURCE_LDAP), extSourceAttributes);
+		extSource = new ChangingExtSource(createdExtSource);
+
+		Vo vo = perun.getVosManagerBl().createVo(sess, new Vo(0, "GroupSynchronizationTestVo", "GSTestVo"));
+		extSourceManagerBl.addExtSource(sess, vo, createdExtSource);
+		group = groupsManagerBl.createGroup(sess, vo, new Group("syncedGroup", "synchronized group"));
+		extSourceManagerBl.addExtSource(sess, group, createdExtSource);
+		setGroupAttribute(GroupsManager.GROUPEXTSOURCE_ATTRNAME, EXT_SOURCE_NAME);
+		setGroupAttribute(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME, "cn=syncedGroup,ou=groups");
+
+		MockitoAnnotations.initMocks(this);
+		doReturn(extSource).when(extSourceManagerBl).getExtSourceByName(any(PerunSession.class), any(String.class));
+	}
+
+	@After
+	public void cleanUp() {
+		perun.setExtSourcesManagerBl(extSourceManagerBlBackup);
+		Mockito.reset(extSourceManagerBl);
+	}
+
+	@Test
+	public void incrementalSynchronizationProcessesOnlyChangedSubjects() throws Exception {
+		System.out.println(CLASS_NAME + "incrementalSynchronizationProcessesOnlyChangedSubjects");
+
+		extSource.putSubject("alice", "Alice", "Original");
+		extSource.putSubject("bob", "Bob", "Original");
+		extSource.putSubject("carol", "Carol", "Original");
+		assertTrue(groupsManagerBl.synchronizeGroup(sess, group).isEmpty());
+		assertTrue(extSource.lastKnownSubjects.isEmpty());
+		assertEquals(3, groupsManagerBl.getGroupDirectRichMembers(sess, group).size());
+
+		extSource.putSubject("alice", "Alice", "Changed");
+		// change which is not marked in the extSource is not processed by incremental synchronization
+		extSource.putSubjectSilently("bob", "Bob", "Changed");
+		extSource.removeSubject("carol");
+		extSource.putSubject("dave", "Dave", "Original");
+		assertTrue(groupsManagerBl.synchronizeGroup(sess, group).isEmpty());
+
+		assertEquals(new HashSet<>(Arrays.asList("alice", "bob", "carol")), extSource.lastKnownSubjects);
+		Map<String, String> lastNames = getLastNamesOfMembers();
+		assertEquals(3, lastNames.size());
+		assertEquals("Changed", lastNames.get("Alice"));
+		assertEquals("Original", lastNames.get("Bob"));
+		assertEquals("Original", lastNames.get("Dave"));
+	}
+
+	@Test
+	public void changedConfigurationLeadsToFullSynchronization() throws Exception {
+		System.out.println(CLASS_NAME + "changedConfigurationLeadsToFullSynchronization");
+
+		extSource.putSubject("alice", "Alice", "Original");
+		extSource.putSubject("bob", "Bob", "Original");
+		assertTrue(groupsManagerBl.synchronizeGroup(sess, group).isEmpty());
+
+		extSource.putSubjectSilently("bob", "Bob", "Changed");
+		setGroupAttribute(GroupsManager.GROUPMEMBERSQUERY_ATTRNAME, "cn=renamedGroup,ou=groups");
+		assertTrue(groupsManagerBl.synchronizeGroup(sess, group).isEmpty());
+
+		assertTrue(extSource.lastKnownSubjects.isEmpty());
+		Map<String, String> lastNames = getLastNamesOfMembers();
+		assertEquals("Original", lastNames.get("Alice"));
+		assertEquals("Changed", lastNames.get("Bob"));
+	}
+
+	@Test
+	public void onlySubjectsOfExistingGroupAreKept() throws Exception {
+		System.out.println(CLASS_NAME + "onlySubjectsOfExistingGroupAreKept");
+
+		extSource.putSubject("alice", "Alice", "Original");
+		extSource.putSubject("bob", "Bob", "Original");
+		assertTrue(groupsManagerBl.synchronizeGroup(sess, group).isEmpty());
+
+		Map<?, ?> groupsSubjectsStates = (Map<?, ?>) ReflectionTestUtils.getField(groupsManagerBl, "groupsSubjectsStates");
+		Object subjectsState = groupsSubjectsStates.get(group.getId());
+		// changes processed by the synchronization are not kept
+		assertEquals(2, ((Map<?, ?>) ReflectionTestUtils.getField(subjectsState, "subjectsLogins")).size());
+		assertTrue(((List<?>) ReflectionTestUtils.getField(subjectsState, "changedSubjects")).isEmpty());
+
+		groupsManagerBl.deleteGroup(sess, group, true);
+		assertFalse(groupsSubjectsStates.containsKey(group.getId()));
+	}
+
+	private void setGroupAttribute(String name, String value) throws Exception {
+		Attribute attribute = new Attribute(attributesManagerBl.getAttributeDefinition(sess, name));
+		attribute.setValue(value);
+		attributesManagerBl.setAttribute(sess, group, attribute);
+	}
+
+	private Map<String, String> getLastNamesOfMembers() throws Exception {
+		Map<String, String> lastNames = new TreeMap<>();
+		for (RichMember member : groupsManagerBl.getGroupDirectRichMembers(sess, group)) {
+			lastNames.put(member.getUser().getFirstName(), member.getUser().getLastName());
+		}
+		return lastNames;
+	}
+
+	/**
+	 * ExtSource with subjects identified by their logins, which marks changed subjects like the change markers would.
+	 */
+	private static class ChangingExtSource extends ExtSourceLdap {
+
+		private final Map<String, Map<String, String>> subjects = new LinkedHashMap<>();
+		private final Set<String> changedSubjects = new HashSet<>();
+		private Set<String> lastKnownSubjects;
+
+		ChangingExtSource(ExtSource extSource) {
+			setId(extSource.getId());
+			setName(extSource.getName());
+			setType(extSource.getType());
+		}
+
+		void putSubject(String login, String firstName, String lastName) {
+			putSubjectSilently(login, firstName, lastName);
+			changedSubjects.add(login);
+		}
+
+		void putSubjectSilently(String login, String firstName, String lastName) {
+			Map<String, String> subject = new HashMap<>();
+			subject.put("login", login);
+			subject.put("firstName", firstName);
+			subject.put("lastName", lastName);
+			subjects.put(login, subject);
+		}
+
+		void removeSubject(String login) {
+			subjects.remove(login);
+		}
+
+		@Override
+		public List<Map<String, String>> getGroupSubjects(Map<String, String> attributes) {
+			return new ArrayList<>(subjects.values());
+		}
+
+		@Override
+		public Map<String, Map<String, String>> getGroupSubjectsChanges(Map<String, String> attributes, Set<String> knownSubjects, Date since) {
+			lastKnownSubjects = new HashSet<>(knownSubjects);
+			Map<String, Map<String, String>> changes = new LinkedHashMap<>();
+			for (Map.Entry<String, Map<String, String>> subject : subjects.entrySet()) {
+				boolean unchanged = knownSubjects.contains(subject.getKey()) && !changedSubjects.contains(subject.getKey());
+				changes.put(subject.getKey(), unchanged ? null : new HashMap<>(subject.getValue()));
+			}
+			changedSubjects.clear();
+			return Collections.unmodifiableMap(changes);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -44,8 +44,11 @@ import cz.metacentrum.perun.core.bl.UsersManagerBl;
 import cz.metacentrum.perun.core.implApi.modules.attributes.AbstractMembershipExpirationRulesModule;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcPerunTemplate;
 import org.springframework.util.Assert;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -62,6 +65,7 @@ import java.util.stream.Collectors;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -89,6 +93,9 @@ public class GroupsManagerEntryIntegrationTest extends AbstractPerunIntegrationT
 	private Vo vo;
 	private List<Attribute> attributesList = new ArrayList<>();
 
+	@Autowired
+	private DataSource dataSource;
+
 	// exists before every method
 	private GroupsManager groupsManager;
 	private GroupsManagerBl groupsManagerBl;
@@ -1607,6 +1614,52 @@ public class GroupsManagerEntryIntegrationTest extends AbstractPerunIntegrationT
 
 	}
 
+	@Test
+	public void addAndRemoveMembersThroughDiamondOfRelations() throws Exception {
+		System.out.println(CLASS_NAME + "addAndRemoveMembersThroughDiamondOfRelations");
+
+		vo = setUpVo();
+		Member member1 = setUpMemberWithDifferentParam(vo, 111);
+		Member member2 = setUpMemberWithDifferentParam(vo, 112);
+
+		// group3 is included in group2 directly and through group4, group2 is subgroup of group
+		groupsManager.createGroup(sess, vo, group);
+		groupsManager.createGroup(sess, group, group2);
+		groupsManager.createGroup(sess, vo, group3);
+		groupsManager.createGroup(sess, vo, group4);
+		groupsManager.createGroupUnion(sess, group4, group3);
+		groupsManager.createGroupUnion(sess, group2, group3);
+		groupsManager.createGroupUnion(sess, group2, group4);
+
+		groupsManager.addMembers(sess, group3, Arrays.asList(member1, member2));
+		groupsManagerBl.expireMemberInGroup(sess, member1, group3);
+
+		for (Group g : Arrays.asList(group, group2, group3, group4)) {
+			assertEquals(2, groupsManager.getGroupMembers(sess, g).size());
+			assertEquals(MemberGroupStatus.EXPIRED, groupsManagerBl.getTotalMemberGroupStatus(sess, member1, g));
+			assertEquals(MemberGroupStatus.VALID, groupsManagerBl.getTotalMemberGroupStatus(sess, member2, g));
+		}
+
+		groupsManagerBl.validateMemberInGroup(sess, member1, group3);
+		for (Group g : Arrays.asList(group, group2, group3, group4)) {
+			assertEquals(MemberGroupStatus.VALID, groupsManagerBl.getTotalMemberGroupStatus(sess, member1, g));
+		}
+
+		// member1 stays in group4 and all groups including it
+		groupsManager.addMember(sess, group4, member1);
+
+		groupsManager.removeMembers(sess, group3, Arrays.asList(member1, member2));
+
+		assertTrue(groupsManager.getGroupMembers(sess, group3).isEmpty());
+		for (Group g : Arrays.asList(group, group2, group4)) {
+			List<Member> members = groupsManager.getGroupMembers(sess, g);
+			assertEquals(1, members.size());
+			assertEquals(member1.getId(), members.get(0).getId());
+			assertEquals(MemberGroupStatus.VALID, groupsManagerBl.getTotalMemberGroupStatus(sess, member1, g));
+			assertNull(groupsManagerBl.getTotalMemberGroupStatus(sess, member2, g));
+		}
+	}
+
 	@Test
 	public void removeMemberCorrectMemberGroupsStatusesAreSet() throws Exception {
 		System.out.println(CLASS_NAME + "removeMemberCorrectMemberGroupStatusesAreSet");
@@ -2131,6 +2184,58 @@ public class GroupsManagerEntryIntegrationTest extends AbstractPerunIntegrationT
 		assertTrue(groupsManager.getGroupMembers(sess, group).size() == 0);
 	}
 
+	@Test
+	public void groupsClosureIsConsistentAfterChangesOfGroups() throws Exception {
+		System.out.println(CLASS_NAME + "groupsClosureIsConsistentAfterChangesOfGroups");
+
+		vo = setUpVo();
+		groupsManager.createGroup(sess, vo, group);
+		groupsManager.createGroup(sess, group, group2);
+		groupsManager.createGroup(sess, group2, group3);
+		groupsManager.createGroup(sess, vo, group4);
+		groupsManager.createGroup(sess, vo, group5);
+		groupsManager.createGroupUnion(sess, group5, group3);
+		groupsManager.createGroupUnion(sess, group5, group2);
+
+		assertEquals(Arrays.asList(group2, group3), groupsManager.getAllSubGroups(sess, group));
+		assertEquals(0, groupsManager.checkGroupsClosure(sess, false));
+
+		groupsManager.moveGroup(sess, group4, group2);
+
+		assertTrue(groupsManager.getAllSubGroups(sess, group).isEmpty());
+		assertEquals(Arrays.asList(groupsManager.getGroupById(sess, group2.getId()), groupsManager.getGroupById(sess, group3.getId())),
+				groupsManager.getAllSubGroups(sess, group4));
+		assertEquals(0, groupsManager.checkGroupsClosure(sess, false));
+
+		groupsManager.removeGroupUnion(sess, group5, group3);
+		assertEquals(0, groupsManager.checkGroupsClosure(sess, false));
+
+		groupsManager.deleteGroup(sess, group4, true);
+		assertEquals(0, groupsManager.checkGroupsClosure(sess, false));
+	}
+
+	@Test
+	public void checkGroupsClosureRepairsClosure() throws Exception {
+		System.out.println(CLASS_NAME + "checkGroupsClosureRepairsClosure");
+
+		vo = setUpVo();
+		groupsManager.createGroup(sess, vo, group);
+		groupsManager.createGroup(sess, group, group2);
+		groupsManager.createGroup(sess, group2, group3);
+		groupsManager.createGroup(sess, vo, group4);
+		groupsManager.createGroupUnion(sess, group4, group3);
+
+		new JdbcPerunTemplate(dataSource).update("delete from groups_closure where depth > 0");
+
+		int inconsistencies = groupsManager.checkGroupsClosure(sess, false);
+		assertTrue(inconsistencies > 0);
+		assertTrue(groupsManager.getAllSubGroups(sess, group).isEmpty());
+
+		assertEquals(inconsistencies, groupsManager.checkGroupsClosure(sess, true));
+		assertEquals(0, groupsManager.checkGroupsClosure(sess, false));
+		assertEquals(Arrays.asList(group2, group3), groupsManager.getAllSubGroups(sess, group));
+	}
+
 	@Test
 	public void createGroupUnion() throws Exception {
 		System.out.println("GroupsManager.createGroupUnion");
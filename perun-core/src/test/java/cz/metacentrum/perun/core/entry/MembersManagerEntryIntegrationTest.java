@@ -2,6 +2,7 @@ package cz.metacentrum.perun.core.entry;
 
 import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
 import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.AttributesManager;
 import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Candidate;
@@ -12,6 +13,8 @@ import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.GroupsManager;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MembersManager;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichMember;
@@ -26,6 +29,7 @@ import cz.metacentrum.perun.core.api.VosManager;
 import cz.metacentrum.perun.core.api.exceptions.AlreadyMemberException;
 import cz.metacentrum.perun.core.api.exceptions.AlreadySponsorException;
 import cz.metacentrum.perun.core.api.exceptions.ExtendMembershipException;
+import cz.metacentrum.perun.core.api.exceptions.IllegalArgumentException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.MemberNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.ParseUserNameException;
@@ -45,6 +49,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -311,6 +316,112 @@ public class MembersManagerEntryIntegrationTest extends AbstractPerunIntegration
 		assertTrue(memberAttributes.contains(memberGroupAttribute1));
 	}
 
+	@Test
+	public void convertMembersToRichMembersWithAttributesLoadsSameAttributesAsSingleMember() throws Exception {
+		System.out.println(CLASS_NAME + "convertMembersToRichMembersWithAttributesLoadsSameAttributesAsSingleMember");
+
+		Member secondMember = setUpMember(createdVo);
+		List<Member> members = Arrays.asList(createdMember, secondMember);
+		User user = perun.getUsersManagerBl().getUserByMember(sess, createdMember);
+		Facility facility = perun.getFacilitiesManagerBl().createFacility(sess, new Facility(0, "TESTING Facility", "TESTING Facility"));
+		Resource resource = new Resource(0, "TESTING Resource", "TESTING Resource", facility.getId(), createdVo.getId());
+		resource = perun.getResourcesManagerBl().createResource(sess, resource, createdVo, facility);
+
+		Attribute userAttribute = setUpAttribute(String.class.getName(), "testUserAttribute1", AttributesManager.NS_USER_ATTR_DEF, "TEST VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, user, userAttribute);
+		Attribute memberAttribute = setUpAttribute(Integer.class.getName(), "testMemberAttribute1", AttributesManager.NS_MEMBER_ATTR_DEF, 15);
+		perun.getAttributesManagerBl().setAttribute(sess, secondMember, memberAttribute);
+		Attribute memberResourceAttribute = setUpAttribute(String.class.getName(), "testMemberResourceAttribute1", AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF, "TEST VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, createdMember, resource, memberResourceAttribute);
+		Attribute userFacilityAttribute = setUpAttribute(String.class.getName(), "testUserFacilityAttribute1", AttributesManager.NS_USER_FACILITY_ATTR_DEF, "TEST VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, facility, user, userFacilityAttribute);
+
+		// all attributes
+		List<RichMember> richMembers = perun.getMembersManagerBl().convertMembersToRichMembersWithAttributes(sess,
+				perun.getMembersManagerBl().convertMembersToRichMembers(sess, members));
+		assertEquals(2, richMembers.size());
+		for (RichMember richMember : richMembers) {
+			assertEquals(new HashSet<>(perun.getAttributesManagerBl().getAttributes(sess, richMember.getUser())), new HashSet<>(richMember.getUserAttributes()));
+			assertEquals(new HashSet<>(perun.getAttributesManagerBl().getAttributes(sess, (Member) richMember)), new HashSet<>(richMember.getMemberAttributes()));
+		}
+		assertTrue(richMembers.get(0).getUserAttributes().contains(userAttribute));
+		assertTrue(richMembers.get(1).getMemberAttributes().contains(memberAttribute));
+
+		// selected attributes with resource
+		List<String> attrNames = Arrays.asList(userAttribute.getName(), memberAttribute.getName(), memberResourceAttribute.getName(),
+				userFacilityAttribute.getName(), AttributesManager.NS_MEMBER_ATTR_DEF + ":mail");
+		List<AttributeDefinition> attrsDef = new ArrayList<>();
+		for (String attrName : attrNames) {
+			attrsDef.add(perun.getAttributesManagerBl().getAttributeDefinition(sess, attrName));
+		}
+		richMembers = perun.getMembersManagerBl().convertMembersToRichMembersWithAttributes(sess,
+				perun.getMembersManagerBl().convertMembersToRichMembers(sess, members), resource, attrsDef);
+		assertEquals(2, richMembers.size());
+		for (RichMember richMember : richMembers) {
+			List<Attribute> attributes = new ArrayList<>(richMember.getMemberAttributes());
+			attributes.addAll(richMember.getUserAttributes());
+			assertEquals(new HashSet<>(perun.getAttributesManagerBl().getAttributes(sess, richMember, resource, attrNames, true)), new HashSet<>(attributes));
+			assertEquals(5, attributes.size());
+		}
+	}
+
+	@Test
+	public void getCompleteRichMembersPage() throws Exception {
+		System.out.println(CLASS_NAME + "getCompleteRichMembersPage");
+
+		Member member = setUpMember(createdVo);
+		Member member2 = setUpMember2(createdVo);
+		perun.getMembersManagerBl().setStatus(sess, member2, Status.DISABLED);
+		perun.getMembersManagerBl().setStatus(sess, createdMember, Status.EXPIRED);
+		List<String> attrNames = Collections.singletonList(AttributesManager.NS_MEMBER_ATTR_DEF + ":mail");
+
+		// keyset pagination by id
+		PageQuery query = new PageQuery(2, PageQuery.SortColumn.ID, PageQuery.SortingOrder.ASCENDING);
+		Paginated<RichMember> page = membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, attrNames);
+		assertEquals(3, page.getTotalCount());
+		assertEquals(2, page.getData().size());
+		assertEquals(createdMember.getId(), page.getData().get(0).getId());
+		assertEquals(member.getId(), page.getData().get(1).getId());
+		assertEquals("test@test.test", page.getData().get(1).getMemberAttributes().get(0).getValue());
+
+		query.setLastId(page.getData().get(1).getId());
+		page = membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, attrNames);
+		assertEquals(3, page.getTotalCount());
+		assertEquals(1, page.getData().size());
+		assertEquals(member2.getId(), page.getData().get(0).getId());
+
+		// sorting by name with offset
+		query = new PageQuery(1, PageQuery.SortColumn.NAME, PageQuery.SortingOrder.ASCENDING);
+		query.setOffset(1);
+		query.setStatuses(Arrays.asList(Status.VALID.toString(), Status.DISABLED.toString()));
+		page = membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, null);
+		assertEquals(2, page.getTotalCount());
+		assertEquals(1, page.getData().size());
+		assertEquals(member.getId(), page.getData().get(0).getId());
+		assertFalse(page.getData().get(0).getUserAttributes().isEmpty());
+
+		// filtering by status and name
+		query = new PageQuery(10, PageQuery.SortColumn.STATUS, PageQuery.SortingOrder.DESCENDING);
+		query.setStatuses(Collections.singletonList(Status.DISABLED.toString()));
+		page = membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, attrNames);
+		assertEquals(1, page.getTotalCount());
+		assertEquals(member2.getId(), page.getData().get(0).getId());
+
+		query = new PageQuery(10, PageQuery.SortColumn.ID, PageQuery.SortingOrder.DESCENDING);
+		query.setSearchString("first test");
+		page = membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, attrNames);
+		assertEquals(1, page.getTotalCount());
+		assertEquals(member.getId(), page.getData().get(0).getId());
+
+		query.setStatuses(Collections.singletonList("UNKNOWN"));
+		try {
+			membersManagerEntry.getCompleteRichMembersPage(sess, createdVo, query, attrNames);
+			fail("Unknown status should be rejected.");
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
 	@Test
 	public void findCompleteRichMembers() throws Exception {
 		System.out.println(CLASS_NAME + "findCompleteRichMembers");
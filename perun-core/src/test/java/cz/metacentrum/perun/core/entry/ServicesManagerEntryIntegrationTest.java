@@ -17,6 +17,7 @@ import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Role;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesBuilder;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
@@ -1186,6 +1187,45 @@ public class ServicesManagerEntryIntegrationTest extends AbstractPerunIntegratio
 
 	}
 
+	@Test
+	public void getStreamedDataAreSameAsInMemoryData() throws Exception {
+		System.out.println(CLASS_NAME + "getStreamedDataAreSameAsInMemoryData");
+
+		vo = setUpVo();
+		facility = setUpFacility();
+		resource = setUpResource();
+		service = setUpService();
+		member = setUpMember();
+		group = setUpGroup();
+		perun.getGroupsManager().addMember(sess, group, member);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource);
+
+		perun.getServicesManager().addRequiredAttribute(sess, service, perun.getAttributesManager().getAttributeDefinition(sess, "urn:perun:facility:attribute-def:core:name"));
+		perun.getServicesManager().addRequiredAttribute(sess, service, perun.getAttributesManager().getAttributeDefinition(sess, "urn:perun:resource:attribute-def:core:name"));
+		perun.getServicesManager().addRequiredAttribute(sess, service, perun.getAttributesManager().getAttributeDefinition(sess, "urn:perun:group:attribute-def:core:name"));
+		perun.getServicesManager().addRequiredAttribute(sess, service, perun.getAttributesManager().getAttributeDefinition(sess, "urn:perun:member:attribute-def:core:id"));
+		perun.getServicesManager().addRequiredAttribute(sess, service, perun.getAttributesManager().getAttributeDefinition(sess, "urn:perun:user:attribute-def:core:id"));
+		perun.getResourcesManager().assignService(sess, resource, service);
+
+		// second resource with the same member
+		resource.setName("StreamedDataResource");
+		resource = perun.getResourcesManager().createResource(sess, resource, vo, facility);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource);
+		perun.getResourcesManager().assignService(sess, resource, service);
+
+		ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+		perun.getServicesManager().getHierarchicalData(sess, service, facility, false, builder);
+		assertEquals(toList(perun.getServicesManager().getHierarchicalData(sess, service, facility, false)), toList(builder.getServiceAttributes()));
+
+		builder = new ServiceAttributesBuilder();
+		perun.getServicesManager().getFlatData(sess, service, facility, false, builder);
+		assertEquals(toList(perun.getServicesManager().getFlatData(sess, service, facility, false)), toList(builder.getServiceAttributes()));
+
+		builder = new ServiceAttributesBuilder();
+		perun.getServicesManager().getDataWithGroups(sess, service, facility, false, builder);
+		assertEquals(toList(perun.getServicesManager().getDataWithGroups(sess, service, facility, false)), toList(builder.getServiceAttributes()));
+	}
+
 	@Test
 	public void getHierarchicalDataWithoutExpiredMembers() throws Exception {
 		System.out.println(CLASS_NAME + "getHierarchicalDataWithoutExpiredMembers");
@@ -1530,6 +1570,50 @@ public class ServicesManagerEntryIntegrationTest extends AbstractPerunIntegratio
 		} // end of all resource
 	}
 
+	@Test
+	public void getDataWithGroupsContainsMemberGroupAttributes() throws Exception {
+		System.out.println(CLASS_NAME + "getDataWithGroupsContainsMemberGroupAttributes");
+
+		vo = setUpVo();
+		facility = setUpFacility();
+		resource = setUpResource();
+		service = setUpService();
+		member = setUpMember();
+		group = setUpGroup();
+		perun.getGroupsManager().addMember(sess, group, member);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource);
+
+		Attribute reqMemAttr = perun.getAttributesManager().getAttribute(sess, member, "urn:perun:member:attribute-def:core:id");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqMemAttr);
+
+		AttributeDefinition memGrpAttrDef = new AttributeDefinition();
+		memGrpAttrDef.setFriendlyName("ServicesManagerTestMemberGroupAttribute");
+		memGrpAttrDef.setNamespace(AttributesManager.NS_MEMBER_GROUP_ATTR_DEF);
+		memGrpAttrDef.setType(String.class.getName());
+		memGrpAttrDef = perun.getAttributesManager().createAttribute(sess, memGrpAttrDef);
+		Attribute reqMemGrpAttr = new Attribute(memGrpAttrDef);
+		reqMemGrpAttr.setValue("value");
+		perun.getAttributesManager().setAttribute(sess, member, group, reqMemGrpAttr);
+		perun.getServicesManager().addRequiredAttribute(sess, service, memGrpAttrDef);
+
+		perun.getResourcesManager().assignService(sess, resource, service);
+
+		ServiceAttributes facilityData = perun.getServicesManager().getDataWithGroups(sess, service, facility, false);
+		ServiceAttributes resourceData = facilityData.getChildElements().get(0);
+
+		// members of resource have only member attributes
+		List<Attribute> memAttr = resourceData.getChildElements().get(1).getChildElements().get(0).getAttributes();
+		assertEquals(1, memAttr.size());
+		assertTrue(memAttr.contains(reqMemAttr));
+
+		// members of group have also member-group attributes
+		ServiceAttributes groupData = resourceData.getChildElements().get(0).getChildElements().get(0);
+		List<Attribute> grpMemAttr = groupData.getChildElements().get(1).getChildElements().get(0).getAttributes();
+		assertEquals(2, grpMemAttr.size());
+		assertTrue(grpMemAttr.contains(reqMemAttr));
+		assertTrue(grpMemAttr.contains(reqMemGrpAttr));
+	}
+
 	@Test
 	public void getDataWithGroupsWithoutExpiredMembers() throws Exception {
 		vo = setUpVo();
@@ -2039,4 +2123,16 @@ public class ServicesManagerEntryIntegrationTest extends AbstractPerunIntegratio
 
 	}
 
+	/**
+	 * Converts structure into nested lists, so it can be compared.
+	 */
+	private List<Object> toList(ServiceAttributes serviceAttributes) {
+		List<Object> result = new ArrayList<>();
+		result.add(serviceAttributes.getAttributes());
+		for (ServiceAttributes child : serviceAttributes.getChildElements()) {
+			result.add(toList(child));
+		}
+		return result;
+	}
+
 }
@@ -15,6 +15,8 @@ import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
 import cz.metacentrum.perun.core.api.Owner;
 import cz.metacentrum.perun.core.api.OwnerType;
+import cz.metacentrum.perun.core.api.PageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichUser;
 import cz.metacentrum.perun.core.api.RichUserExtSource;
@@ -33,21 +35,26 @@ import cz.metacentrum.perun.core.api.exceptions.RelationNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.UserExtSourceExistsException;
 import cz.metacentrum.perun.core.api.exceptions.UserExtSourceNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
+import cz.metacentrum.perun.core.bl.UsersManagerBl;
 import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -878,6 +885,47 @@ public class UsersManagerEntryIntegrationTest extends AbstractPerunIntegrationTe
 		assertTrue("created group4 should not be between returned groups and it is", !groups.contains(group4));
 	}
 
+	@Test
+	public void getRelationsOfUsersInBulk() throws Exception {
+		System.out.println(CLASS_NAME + "getRelationsOfUsersInBulk");
+
+		Member member = setUpMember(vo);
+		User memberUser = usersManager.getUserByMember(sess, member);
+		Group group1 = setUpGroup(vo, member, "testGroup1");
+		Group group2 = setUpGroup(vo, member, "testGroup2");
+		perun.getGroupsManager().removeAdmin(sess, group2, memberUser);
+		perun.getGroupsManager().addAdmin(sess, group2, group1);
+		perun.getVosManager().addAdmin(sess, vo, memberUser);
+
+		Facility facility = new Facility();
+		facility.setName("UsersManagerTestFacility");
+		facility = perun.getFacilitiesManager().createFacility(sess, facility);
+		perun.getFacilitiesManager().addAdmin(sess, facility, group1);
+
+		UsersManagerBl usersManagerBl = perun.getUsersManagerBl();
+		List<User> users = Arrays.asList(memberUser, user);
+		Map<Integer, List<Member>> members = usersManagerBl.getMembersOfUsers(sess, users);
+		Map<Integer, List<UserExtSource>> userExtSources = usersManagerBl.getUserExtSourcesOfUsers(sess, users);
+		Map<Integer, List<Group>> adminGroups = usersManagerBl.getGroupsWhereUsersAreAdmins(sess, users);
+		Map<Integer, List<Vo>> adminVos = usersManagerBl.getVosWhereUsersAreAdmins(sess, users);
+		Map<Integer, List<Facility>> adminFacilities = usersManagerBl.getFacilitiesWhereUsersAreAdmins(sess, users);
+		Map<Integer, List<Group>> activeGroups = perun.getGroupsManagerBl().getAllGroupsWhereMembersAreActive(sess, Collections.singletonList(member));
+
+		for (User u : users) {
+			assertEquals(new HashSet<>(perun.getMembersManagerBl().getMembersByUser(sess, u)), new HashSet<>(members.get(u.getId())));
+			assertEquals(new HashSet<>(usersManagerBl.getUserExtSources(sess, u)), new HashSet<>(userExtSources.get(u.getId())));
+			assertEquals(new HashSet<>(usersManagerBl.getGroupsWhereUserIsAdmin(sess, u)), new HashSet<>(adminGroups.get(u.getId())));
+			assertEquals(new HashSet<>(usersManagerBl.getVosWhereUserIsAdmin(sess, u)), new HashSet<>(adminVos.get(u.getId())));
+			assertEquals(new HashSet<>(perun.getFacilitiesManagerBl().getFacilitiesWhereUserIsAdmin(sess, u)), new HashSet<>(adminFacilities.get(u.getId())));
+		}
+		assertEquals(Collections.singletonList(member), members.get(memberUser.getId()));
+		assertTrue(adminGroups.get(memberUser.getId()).containsAll(Arrays.asList(group1, group2)));
+		assertEquals(Collections.singletonList(vo), adminVos.get(memberUser.getId()));
+		assertEquals(Collections.singletonList(facility), adminFacilities.get(memberUser.getId()));
+		assertTrue(adminVos.get(user.getId()).isEmpty());
+		assertEquals(perun.getGroupsManagerBl().getAllGroupsWhereMemberIsActive(sess, member), activeGroups.get(member.getId()));
+	}
+
 	@ Test
 	public void getGroupsWhereUserIsAdminWithSelectedVo() throws Exception {
 		System.out.println(CLASS_NAME + "getGroupsWhereUserIsAdminWithSelectedVo");
@@ -1110,6 +1158,86 @@ public class UsersManagerEntryIntegrationTest extends AbstractPerunIntegrationTe
 
 	}
 
+	@Test
+	public void findUsersByExactMatchUsesMaintainedSearchIndex() throws Exception {
+		System.out.println(CLASS_NAME + "findUsersByExactMatchUsesMaintainedSearchIndex");
+
+		Attribute preferredMail = new Attribute(getOrCreateStringAttributeDefinition(AttributesManager.NS_USER_ATTR_DEF, "preferredMail"));
+		preferredMail.setValue("Mail." + userLastName + "@example.com");
+		perun.getAttributesManagerBl().setAttribute(sess, user, preferredMail);
+		Member member = setUpMember(vo);
+		User memberUser = usersManager.getUserByMember(sess, member);
+		// member mail is copied to empty preferred mail of the user
+		Attribute memberUserPreferredMail = new Attribute(preferredMail);
+		memberUserPreferredMail.setValue("preferred." + userLastName + "@example.com");
+		perun.getAttributesManagerBl().setAttribute(sess, memberUser, memberUserPreferredMail);
+		Attribute memberMail = new Attribute(getOrCreateStringAttributeDefinition(AttributesManager.NS_MEMBER_ATTR_DEF, "mail"));
+		memberMail.setValue("member." + userLastName + "@example.com");
+		perun.getAttributesManagerBl().setAttribute(sess, member, memberMail);
+
+		// mails are matched case insensitive, logins exactly
+		assertTrue(findUsersByExactMatch("mail." + userLastName + "@example.com").contains(user.getId()));
+		assertTrue(findUsersByExactMatch("Member." + userLastName + "@example.com").contains(memberUser.getId()));
+		assertTrue(findUsersByExactMatch(extLogin).contains(user.getId()));
+		// hex encoded random login always contains letters (double in [0,1) starts with "3f")
+		assertFalse(extLogin.equals(extLogin.toUpperCase()));
+		assertFalse(findUsersByExactMatch(extLogin.toUpperCase()).contains(user.getId()));
+
+		// index follows changes of attributes, names and user ext sources
+		preferredMail.setValue("changed." + userLastName + "@example.com");
+		perun.getAttributesManagerBl().setAttribute(sess, user, preferredMail);
+		assertFalse(findUsersByExactMatch("mail." + userLastName + "@example.com").contains(user.getId()));
+		assertTrue(usersManager.findUsers(sess, "changed." + userLastName + "@example.com").contains(user));
+		perun.getAttributesManagerBl().removeAttribute(sess, member, memberMail);
+		assertFalse(findUsersByExactMatch("member." + userLastName + "@example.com").contains(memberUser.getId()));
+
+		user.setLastName(userLastName + "changed");
+		user = usersManager.updateUser(sess, user);
+		assertTrue(usersManager.findUsersByExactName(sess, userFirstName + " " + userLastName + "changed").contains(user));
+		assertFalse(usersManager.findUsersByExactName(sess, userFirstName + userLastName).contains(user));
+
+		usersManager.removeUserExtSource(sess, user, usersManager.getUserExtSourceByExtLogin(sess, userExtSource.getExtSource(), extLogin));
+		assertFalse(findUsersByExactMatch(extLogin).contains(user.getId()));
+
+		// rebuilt index contains the same entries
+		assertTrue(usersManager.rebuildUserSearchIndex(sess) > 0);
+		assertTrue(findUsersByExactMatch("changed." + userLastName + "@example.com").contains(user.getId()));
+		assertTrue(findUsersByExactMatch(userFirstName + userLastName + "changed").contains(user.getId()));
+		assertFalse(findUsersByExactMatch(extLogin).contains(user.getId()));
+	}
+
+	@Test
+	public void getRichUsersWithAttributesPage() throws Exception {
+		System.out.println(CLASS_NAME + "getRichUsersWithAttributesPage");
+
+		int usersCount = perun.getUsersManager().getUsersCount(sess);
+		int specificUsersCount = perun.getUsersManagerBl().getSpecificUsers(sess).size();
+
+		PageQuery query = new PageQuery(1, PageQuery.SortColumn.ID, PageQuery.SortingOrder.DESCENDING);
+		Paginated<RichUser> page = perun.getUsersManager().getRichUsersWithAttributesPage(sess, query, true, null);
+		assertEquals(usersCount, page.getTotalCount());
+		assertEquals(1, page.getData().size());
+		assertEquals(sponsoredUser.getId(), page.getData().get(0).getId());
+
+		// next page by keyset
+		query.setLastId(sponsoredUser.getId());
+		page = perun.getUsersManager().getRichUsersWithAttributesPage(sess, query, true, null);
+		assertEquals(1, page.getData().size());
+		assertTrue(page.getData().get(0).getId() < sponsoredUser.getId());
+
+		page = perun.getUsersManager().getRichUsersWithAttributesPage(sess, query, false, null);
+		assertEquals(usersCount - specificUsersCount, page.getTotalCount());
+
+		query = new PageQuery(10, PageQuery.SortColumn.NAME, PageQuery.SortingOrder.ASCENDING);
+		query.setSearchString(user.getFirstName());
+		List<String> attrNames = Collections.singletonList(AttributesManager.NS_USER_ATTR_CORE + ":firstName");
+		page = perun.getUsersManager().getRichUsersWithAttributesPage(sess, query, false, attrNames);
+		assertEquals(1, page.getTotalCount());
+		assertEquals(user.getId(), page.getData().get(0).getId());
+		assertEquals(1, page.getData().get(0).getUserAttributes().size());
+		assertEquals(user.getFirstName(), page.getData().get(0).getUserAttributes().get(0).getValue());
+	}
+
 	@Test
 	public void getUsersCount() throws Exception {
 		System.out.println(CLASS_NAME + "getUsersCount");
@@ -1422,6 +1550,23 @@ public class UsersManagerEntryIntegrationTest extends AbstractPerunIntegrationTe
 
 	}
 
+	private List<Integer> findUsersByExactMatch(String searchString) throws Exception {
+		return usersManager.findRichUsersWithAttributesByExactMatch(sess, searchString, new ArrayList<>()).stream()
+				.map(User::getId).collect(Collectors.toList());
+	}
+
+	private AttributeDefinition getOrCreateStringAttributeDefinition(String namespace, String friendlyName) throws Exception {
+		try {
+			return perun.getAttributesManagerBl().getAttributeDefinition(sess, namespace + ":" + friendlyName);
+		} catch (AttributeNotExistsException e) {
+			AttributeDefinition attrDef = new AttributeDefinition();
+			attrDef.setNamespace(namespace);
+			attrDef.setFriendlyName(friendlyName);
+			attrDef.setType(String.class.getName());
+			return perun.getAttributesManagerBl().createAttribute(sess, attrDef);
+		}
+	}
+
 	private Vo setUpVo() throws Exception {
 
 		Vo newVo = new Vo(0, "UserManagerTestVo", "UMTestVo");
@@ -0,0 +1,128 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.AttributeValueCodec;
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.exceptions.ConsistencyErrorException;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AttributeValueCodecTest {
+
+	private static final String CLASS_NAME = "AttributeValueCodec.";
+
+	// chars with special meaning in string representation of values
+	private static final char[] ALPHABET = {'\\', ',', ':', '0', 'a', ' '};
+	private static final int ROUNDS = 5000;
+
+	@Test
+	public void roundTripOfRandomLists() throws Exception {
+		System.out.println(CLASS_NAME + "roundTripOfRandomLists");
+
+		Random random = new Random(42);
+		for (int round = 0; round < ROUNDS; round++) {
+			List<String> value = new ArrayList<>();
+			int size = random.nextInt(5);
+			for (int i = 0; i < size; i++) value.add(randomString(random));
+
+			for (AttributeValueCodec codec : Arrays.asList(AttributeValueCodec.ARRAY_LIST, AttributeValueCodec.LARGE_ARRAY_LIST)) {
+				String stringValue = codec.encode(value);
+				assertEquals("Input: " + stringValue, value, codec.decode(stringValue));
+			}
+		}
+	}
+
+	@Test
+	public void roundTripOfRandomMaps() throws Exception {
+		System.out.println(CLASS_NAME + "roundTripOfRandomMaps");
+
+		Random random = new Random(42);
+		for (int round = 0; round < ROUNDS; round++) {
+			Map<String, String> value = new LinkedHashMap<>();
+			int size = random.nextInt(5);
+			for (int i = 0; i < size; i++) value.put(randomString(random), randomString(random));
+
+			String stringValue = AttributeValueCodec.LINKED_HASH_MAP.encode(value);
+			assertEquals("Input: " + stringValue, value, AttributeValueCodec.LINKED_HASH_MAP.decode(stringValue));
+		}
+	}
+
+	@Test
+	public void roundTripOfSimpleTypes() throws Exception {
+		System.out.println(CLASS_NAME + "roundTripOfSimpleTypes");
+
+		for (Object value : Arrays.asList("a,b:\\0", -15, true)) {
+			String stringValue = BeansUtils.attributeValueToString(value, value.getClass().getName());
+			assertEquals(value, BeansUtils.stringToAttributeValue(stringValue, value.getClass().getName()));
+		}
+		assertEquals("text", BeansUtils.stringToAttributeValue("text", BeansUtils.largeStringClassName));
+		assertNull(BeansUtils.stringToAttributeValue("", ArrayList.class.getName()));
+		assertNull(BeansUtils.attributeValueToString(null, ArrayList.class.getName()));
+	}
+
+	@Test
+	public void decodeNullAndEscapedNull() throws Exception {
+		System.out.println(CLASS_NAME + "decodeNullAndEscapedNull");
+
+		assertEquals(Arrays.asList(null, "\\0"), AttributeValueCodec.ARRAY_LIST.decode("\\0,\\\\0,"));
+		assertEquals(Collections.singletonMap(null, "\\0"), AttributeValueCodec.LINKED_HASH_MAP.decode("\\0:\\\\0,"));
+		assertEquals("\\0,\\\\0,", AttributeValueCodec.ARRAY_LIST.encode(Arrays.asList(null, "\\0")));
+	}
+
+	@Test
+	public void decodeCompatibleWithFormerImplementation() throws Exception {
+		System.out.println(CLASS_NAME + "decodeCompatibleWithFormerImplementation");
+
+		// unterminated rest of the value is ignored unless it contains escaped delimiter
+		assertEquals(Collections.singletonList("a"), AttributeValueCodec.ARRAY_LIST.decode("a,b"));
+		assertEquals(Arrays.asList("a", "b,c"), AttributeValueCodec.ARRAY_LIST.decode("a,b\\,c"));
+		assertEquals(Collections.singletonMap("a", "b"), AttributeValueCodec.LINKED_HASH_MAP.decode("a:b,c:d"));
+		assertEquals(Collections.singletonMap("a,b", "c"), AttributeValueCodec.LINKED_HASH_MAP.decode("a\\,b:c"));
+
+		// only escape char and delimiters are unescaped, ':' is not escaped in lists
+		assertEquals(Collections.singletonList("\\a\\:"), AttributeValueCodec.ARRAY_LIST.decode("\\a\\:,"));
+		// first not escaped ':' separates key and value
+		assertEquals(Collections.singletonMap("a:", "b:c"), AttributeValueCodec.LINKED_HASH_MAP.decode("a\\::b:c,"));
+		assertEquals(Collections.singletonMap("a\\", "b"), AttributeValueCodec.LINKED_HASH_MAP.decode("a\\\\:b,"));
+	}
+
+	@Test(expected = ConsistencyErrorException.class)
+	public void decodeMapEntryWithoutDelimiter() throws Exception {
+		System.out.println(CLASS_NAME + "decodeMapEntryWithoutDelimiter");
+
+		AttributeValueCodec.LINKED_HASH_MAP.decode("a:b,c,");
+	}
+
+	@Test(expected = ConsistencyErrorException.class)
+	public void decodeValueEndingWithEscapeChar() throws Exception {
+		System.out.println(CLASS_NAME + "decodeValueEndingWithEscapeChar");
+
+		AttributeValueCodec.ARRAY_LIST.decode("a\\,b\\");
+	}
+
+	@Test(expected = InternalErrorException.class)
+	public void unknownType() throws Exception {
+		System.out.println(CLASS_NAME + "unknownType");
+
+		BeansUtils.stringToAttributeValue("a", "java.util.HashMap");
+	}
+
+	private static String randomString(Random random) {
+		if (random.nextInt(10) == 0) return null;
+		int length = random.nextInt(8);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,277 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.Holder;
+import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AttributesCacheTest {
+
+	private static final String CLASS_NAME = "AttributesCache.";
+
+	private static final Holder FACILITY = new Holder(1, Holder.HolderType.FACILITY);
+	private static final Holder USER = new Holder(2, Holder.HolderType.USER);
+
+	private DefaultCacheManager cacheManager;
+	private LocalAttributesCacheInvalidationBus bus;
+	private AttributesCache cache;
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		cacheManager = new DefaultCacheManager();
+		bus = new LocalAttributesCacheInvalidationBus();
+		cache = new AttributesCache(createCache("attributes", 100), bus);
+	}
+
+	@After
+	public void tearDown() {
+		cacheManager.stop();
+	}
+
+	@Test
+	public void getAttributeLoadsOnceAndReturnsCopies() throws Exception {
+		System.out.println(CLASS_NAME + "getAttributeLoadsOnceAndReturnsCopies");
+
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		Attribute attribute = cache.getAttribute(definition, FACILITY, null, () -> load(definition, "a", "b"));
+		attribute.valueAsList().add("c");
+
+		Attribute cached = cache.getAttribute(definition, FACILITY, null, () -> load(definition, "x"));
+		assertEquals(Arrays.asList("a", "b"), cached.getValue());
+		cached.valueAsList().clear();
+		assertEquals(Arrays.asList("a", "b"), cache.getAttribute(definition, FACILITY, null, () -> load(definition, "x")).getValue());
+		assertEquals(1, loads.get());
+		assertEquals(2, cache.getStats().getHits());
+		assertEquals(1, cache.getStats().getMisses());
+	}
+
+	@Test
+	public void onlyValuesStoredInDBAreCached() throws Exception {
+		System.out.println(CLASS_NAME + "onlyValuesStoredInDBAreCached");
+
+		AttributeDefinition virtual = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_VIRT);
+		AttributeDefinition core = getDefinition(11, AttributesManager.NS_FACILITY_ATTR_CORE);
+		for (int i = 0; i < 2; i++) {
+			cache.getAttribute(virtual, FACILITY, null, () -> load(virtual, "a"));
+			cache.getAttribute(core, FACILITY, null, () -> load(core, "a"));
+		}
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void getAttributeDefinitionByNameAndId() throws Exception {
+		System.out.println(CLASS_NAME + "getAttributeDefinitionByNameAndId");
+
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		for (int i = 0; i < 2; i++) {
+			assertEquals(definition, cache.getAttributeDefinition(definition.getName(), () -> loadDefinition(definition)));
+			assertEquals(definition, cache.getAttributeDefinition(10, () -> loadDefinition(definition)));
+		}
+		assertEquals(2, loads.get());
+
+		// not existing definitions are not cached
+		for (int i = 0; i < 2; i++) {
+			try {
+				cache.getAttributeDefinition(11, () -> {
+					loads.incrementAndGet();
+					throw new AttributeNotExistsException("11");
+				});
+			} catch (AttributeNotExistsException ex) {
+				// expected
+			}
+		}
+		assertEquals(4, loads.get());
+
+		cache.invalidateAll();
+		cache.getAttributeDefinition(10, () -> loadDefinition(definition));
+		assertEquals(5, loads.get());
+	}
+
+	@Test
+	public void invalidateAttributeAndHolders() throws Exception {
+		System.out.println(CLASS_NAME + "invalidateAttributeAndHolders");
+
+		AttributeDefinition facilityAttribute = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		AttributeDefinition userFacilityAttribute = getDefinition(11, AttributesManager.NS_USER_FACILITY_ATTR_DEF);
+		cache.getAttribute(facilityAttribute, FACILITY, null, () -> load(facilityAttribute, "a"));
+		cache.getAttribute(userFacilityAttribute, USER, FACILITY, () -> load(userFacilityAttribute, "a"));
+		assertEquals(2, loads.get());
+
+		cache.invalidateAttribute(facilityAttribute, FACILITY, null);
+		cache.getAttribute(facilityAttribute, FACILITY, null, () -> load(facilityAttribute, "a"));
+		cache.getAttribute(userFacilityAttribute, USER, FACILITY, () -> load(userFacilityAttribute, "a"));
+		assertEquals(3, loads.get());
+
+		// all user-facility attributes of the facility
+		cache.invalidateHolders(null, FACILITY);
+		cache.getAttribute(facilityAttribute, FACILITY, null, () -> load(facilityAttribute, "a"));
+		cache.getAttribute(userFacilityAttribute, USER, FACILITY, () -> load(userFacilityAttribute, "a"));
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void invalidateHoldersUsesIndexOfHolders() throws Exception {
+		System.out.println(CLASS_NAME + "invalidateHoldersUsesIndexOfHolders");
+
+		AttributesCache boundedCache = new AttributesCache(createCache("indexed", 10), bus);
+		AttributeDefinition definition = getDefinition(11, AttributesManager.NS_USER_FACILITY_ATTR_DEF);
+		for (int i = 0; i < 50; i++) {
+			boundedCache.getAttribute(definition, new Holder(i, Holder.HolderType.USER), FACILITY, () -> load(definition, "a"));
+		}
+		// evicted values are removed from the index
+		assertTrue(getIndexedHolders(boundedCache) <= 11);
+
+		boundedCache.invalidateHolders(new Holder(49, Holder.HolderType.USER), null);
+		boundedCache.getAttribute(definition, new Holder(49, Holder.HolderType.USER), FACILITY, () -> load(definition, "a"));
+		assertEquals(51, loads.get());
+
+		boundedCache.invalidateHolders(null, FACILITY);
+		assertEquals(0, boundedCache.getStats().getCurrentNumberOfEntries());
+		assertEquals(0, getIndexedHolders(boundedCache));
+	}
+
+	@Test
+	public void valueReadFromSnapshotIsNotStored() throws Exception {
+		System.out.println(CLASS_NAME + "valueReadFromSnapshotIsNotStored");
+
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		for (int isolationLevel : new int[] {TransactionDefinition.ISOLATION_SERIALIZABLE, TransactionDefinition.ISOLATION_REPEATABLE_READ}) {
+			TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(isolationLevel);
+			try {
+				// snapshot can be older than invalidations made by other transactions
+				cache.getAttribute(definition, FACILITY, null, () -> load(definition, "old"));
+			} finally {
+				TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+			}
+		}
+		assertEquals(Arrays.asList("new"), cache.getAttribute(definition, FACILITY, null, () -> load(definition, "new")).getValue());
+		assertEquals(Arrays.asList("new"), cache.getAttribute(definition, FACILITY, null, () -> load(definition, "x")).getValue());
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void loadedValueIsNotStoredAfterConcurrentInvalidation() throws Exception {
+		System.out.println(CLASS_NAME + "loadedValueIsNotStoredAfterConcurrentInvalidation");
+
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		cache.getAttribute(definition, FACILITY, null, () -> {
+			// value was changed by other transaction after it was read from the DB
+			cache.invalidateAttribute(definition, FACILITY, null);
+			return load(definition, "old");
+		});
+		assertEquals(Arrays.asList("new"), cache.getAttribute(definition, FACILITY, null, () -> load(definition, "new")).getValue());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void invalidationsOfTransactionAreAppliedAndPublishedAfterCompletion() throws Exception {
+		System.out.println(CLASS_NAME + "invalidationsOfTransactionAreAppliedAndPublishedAfterCompletion");
+
+		AttributesCache otherCache = new AttributesCache(createCache("other", 100), bus);
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		cache.getAttribute(definition, FACILITY, null, () -> load(definition, "old"));
+		otherCache.getAttribute(definition, FACILITY, null, () -> load(definition, "old"));
+		assertEquals(2, loads.get());
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.invalidateAttribute(definition, FACILITY, null);
+			// transaction, which changed attributes, reads them from the DB and doesn't store them
+			cache.getAttribute(definition, FACILITY, null, () -> load(definition, "uncommitted"));
+			cache.getAttribute(definition, FACILITY, null, () -> load(definition, "uncommitted"));
+			assertEquals(4, loads.get());
+			// other instance doesn't know about uncommitted changes
+			assertEquals(Arrays.asList("old"), otherCache.getAttribute(definition, FACILITY, null, () -> load(definition, "x")).getValue());
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(Arrays.asList("new"), cache.getAttribute(definition, FACILITY, null, () -> load(definition, "new")).getValue());
+		assertEquals(Arrays.asList("new"), otherCache.getAttribute(definition, FACILITY, null, () -> load(definition, "new")).getValue());
+		assertEquals(6, loads.get());
+	}
+
+	@Test
+	public void cacheIsBounded() throws Exception {
+		System.out.println(CLASS_NAME + "cacheIsBounded");
+
+		AttributesCache boundedCache = new AttributesCache(createCache("bounded", 10), bus);
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_USER_ATTR_DEF);
+		for (int i = 0; i < 50; i++) {
+			boundedCache.getAttribute(definition, new Holder(i, Holder.HolderType.USER), null, () -> load(definition, "a"));
+		}
+		assertTrue(boundedCache.getStats().getCurrentNumberOfEntries() <= 10);
+		assertTrue(boundedCache.getStats().getEvictions() >= 40);
+	}
+
+	@Test
+	public void disabledCache() throws Exception {
+		System.out.println(CLASS_NAME + "disabledCache");
+
+		AttributesCache disabledCache = new AttributesCache(null, bus);
+		AttributeDefinition definition = getDefinition(10, AttributesManager.NS_FACILITY_ATTR_DEF);
+		for (int i = 0; i < 2; i++) {
+			disabledCache.getAttribute(definition, FACILITY, null, () -> load(definition, "a"));
+		}
+		disabledCache.invalidateAll();
+		assertEquals(2, loads.get());
+	}
+
+	private Cache<Object, Object> createCache(String name, int maxEntries) {
+		ConfigurationBuilder builder = new ConfigurationBuilder();
+		builder.memory().evictionType(EvictionType.COUNT).size(maxEntries);
+		builder.jmxStatistics().enable();
+		cacheManager.defineConfiguration(name, builder.build());
+		return cacheManager.getCache(name);
+	}
+
+	private static int getIndexedHolders(AttributesCache attributesCache) {
+		Object holdersIndex = ReflectionTestUtils.getField(attributesCache, "holdersIndex");
+		return ((Map<?, ?>) ReflectionTestUtils.getField(holdersIndex, "keysByHolder")).size();
+	}
+
+	private static AttributeDefinition getDefinition(int id, String namespace) {
+		AttributeDefinition definition = new AttributeDefinition();
+		definition.setId(id);
+		definition.setNamespace(namespace);
+		definition.setFriendlyName("attribute" + id);
+		definition.setType(ArrayList.class.getName());
+		return definition;
+	}
+
+	private Attribute load(AttributeDefinition definition, String... value) {
+		loads.incrementAndGet();
+		return new Attribute(definition, new ArrayList<>(Arrays.asList(value)));
+	}
+
+	private AttributeDefinition loadDefinition(AttributeDefinition definition) {
+		loads.incrementAndGet();
+		return new AttributeDefinition(definition);
+	}
+
+}
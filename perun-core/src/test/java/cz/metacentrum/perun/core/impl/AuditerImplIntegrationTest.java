@@ -1,14 +1,30 @@
 package cz.metacentrum.perun.core.impl;
 
 import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityCreated;
+import cz.metacentrum.perun.audit.events.StringMessageEvent;
 import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
 import cz.metacentrum.perun.core.api.AuditMessage;
 import cz.metacentrum.perun.core.api.Facility;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcPerunTemplate;
 
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -18,6 +34,9 @@ public class AuditerImplIntegrationTest extends AbstractPerunIntegrationTest {
 
 	private Facility facility;      // uses creation of facility to store same system message in Auditer
 
+	@Autowired
+	private DataSource dataSource;
+
 	@Before
 	public void checkAuditerExists() {
 
@@ -72,6 +91,109 @@ public class AuditerImplIntegrationTest extends AbstractPerunIntegrationTest {
 		//assertTrue("Invalid message received.", messages.get(0).getEvent().getMessage().contains("\"message\":\"Facility created Facility:"));
 	}
 
+	@Test
+	public void storeMessagesToDbKeepsOrder() throws Exception {
+		System.out.println("AuditerTest.storeMessagesToDbKeepsOrder");
+
+		List<AuditerMessage> auditerMessages = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			auditerMessages.add(new AuditerMessage(sess, new StringMessageEvent("Test message " + i)));
+		}
+		perun.getAuditer().storeMessagesToDb(auditerMessages);
+
+		List<AuditMessage> messages = perun.getAuditMessagesManagerBl().getMessagesByCount(sess, 3);
+
+		assertEquals("Invalid number of messages.", 3, messages.size());
+		// messages are returned from the newest one
+		for (int i = 0; i < 3; i++) {
+			assertEquals(new StringMessageEvent("Test message " + i).getMessage(), messages.get(2 - i).getEvent().getMessage());
+		}
+	}
+
+	@Test
+	public void storeMessagesToDbConcurrentlyKeepsCommitOrder() throws Exception {
+		System.out.println("AuditerTest.storeMessagesToDbConcurrentlyKeepsCommitOrder");
+
+		final int writers = 8;
+		final int rounds = 20;
+		final int messagesPerRound = 3;
+		// writers and reader don't run in the transaction of the test, they see only committed messages
+		JdbcPerunTemplate jdbc = new JdbcPerunTemplate(dataSource);
+		Integer maxId = jdbc.queryForObject("select max(id) from auditer_log", Integer.class);
+		final int startId = maxId == null ? 0 : maxId;
+
+		ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> writes = new ArrayList<>();
+			for (int writer = 0; writer < writers; writer++) {
+				final int writerId = writer;
+				writes.add(executor.submit(() -> {
+					start.await();
+					for (int round = 0; round < rounds; round++) {
+						List<AuditerMessage> auditerMessages = new ArrayList<>();
+						for (int i = 0; i < messagesPerRound; i++) {
+							auditerMessages.add(new AuditerMessage(sess, new StringMessageEvent("Concurrent writer " + writerId + " round " + round + " message " + i)));
+						}
+						perun.getAuditer().storeMessagesToDb(auditerMessages);
+					}
+					return null;
+				}));
+			}
+
+			// reader reads by ranges of ids like consumers do, it would skip message committed after a message with higher id
+			AtomicBoolean writing = new AtomicBoolean(true);
+			Future<Map<Integer, String>> read = executor.submit(() -> {
+				Map<Integer, String> messages = new LinkedHashMap<>();
+				int lastId = startId;
+				boolean lastRead;
+				do {
+					lastRead = !writing.get();
+					for (Map<String, Object> row : jdbc.queryForList("select id, msg from auditer_log where id > ? order by id", lastId)) {
+						lastId = ((Number) row.get("id")).intValue();
+						messages.put(lastId, (String) row.get("msg"));
+					}
+				} while (!lastRead);
+				return messages;
+			});
+
+			start.countDown();
+			for (Future<?> write : writes) {
+				write.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			Map<Integer, String> readMessages = read.get(60, TimeUnit.SECONDS);
+
+			Map<Integer, String> storedMessages = new LinkedHashMap<>();
+			for (Map<String, Object> row : jdbc.queryForList("select id, msg from auditer_log where id > ? order by id", startId)) {
+				storedMessages.put(((Number) row.get("id")).intValue(), (String) row.get("msg"));
+			}
+			assertEquals("Reader skipped messages committed out of order of their ids.", storedMessages, readMessages);
+
+			// messages of each call are stored together in their order, calls of each writer in order of calls
+			Pattern pattern = Pattern.compile("Concurrent writer (\\d+) round (\\d+) message (\\d+)");
+			Map<Integer, Integer> lastIdOfWriter = new HashMap<>();
+			Map<Integer, Integer> lastPositionOfWriter = new HashMap<>();
+			int count = 0;
+			for (Map.Entry<Integer, String> message : storedMessages.entrySet()) {
+				Matcher matcher = pattern.matcher(message.getValue());
+				if (!matcher.find()) continue;
+				count++;
+				int writer = Integer.parseInt(matcher.group(1));
+				int position = Integer.parseInt(matcher.group(2)) * messagesPerRound + Integer.parseInt(matcher.group(3));
+				assertEquals("Messages of writer " + writer + " are not in order.", lastPositionOfWriter.getOrDefault(writer, -1) + 1, position);
+				if (position % messagesPerRound != 0) {
+					assertEquals("Messages of one call are not stored together.", lastIdOfWriter.get(writer) + 1, (int) message.getKey());
+				}
+				lastPositionOfWriter.put(writer, position);
+				lastIdOfWriter.put(writer, message.getKey());
+			}
+			assertEquals("Invalid number of messages.", writers * rounds * messagesPerRound, count);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	// ------------- private methods ----------------------------------
 
 
@@ -0,0 +1,147 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
+import cz.metacentrum.perun.core.api.ExtSourcesManager;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunClient;
+import cz.metacentrum.perun.core.api.PerunPrincipal;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.RichGroup;
+import cz.metacentrum.perun.core.api.Role;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AuthzRolesCacheIntegrationTest extends AbstractPerunIntegrationTest {
+
+	private static final String CLASS_NAME = "AuthzRolesCache.";
+
+	@Test
+	public void getReturnsCopyOfCachedRoles() throws Exception {
+		System.out.println(CLASS_NAME + "getReturnsCopyOfCachedRoles");
+
+		AuthzRolesCache cache = new AuthzRolesCache(60000);
+		assertNull(cache.get(1));
+		cache.put(1, new AuthzRoles(Role.VOADMIN, "Vo", 10), cache.getVersion(), 1000);
+
+		AuthzRoles roles = cache.get(1);
+		assertNotNull(roles);
+		roles.putAuthzRole(Role.PERUNADMIN);
+		assertFalse(cache.get(1).hasRole(Role.PERUNADMIN));
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getRebuilds());
+	}
+
+	@Test
+	public void putIsIgnoredAfterInvalidation() throws Exception {
+		System.out.println(CLASS_NAME + "putIsIgnoredAfterInvalidation");
+
+		AuthzRolesCache cache = new AuthzRolesCache(60000);
+		long version = cache.getVersion();
+		cache.put(1, new AuthzRoles(Role.VOADMIN), version, 0);
+		cache.put(2, new AuthzRoles(Role.VOADMIN), version, 0);
+		assertNotNull(cache.get(2));
+
+		// roles computed before the invalidation are not stored
+		cache.invalidateUser(1);
+		assertNull(cache.get(1));
+		cache.put(1, new AuthzRoles(Role.VOADMIN), version, 0);
+		assertNull(cache.get(1));
+
+		// transaction changed some roles, so roles computed in it are not stored until its end
+		cache.put(1, new AuthzRoles(Role.VOADMIN), cache.getVersion(), 0);
+		assertNull(cache.get(1));
+		assertNotNull(cache.get(2));
+	}
+
+	@Test
+	public void invalidateObject() throws Exception {
+		System.out.println(CLASS_NAME + "invalidateObject");
+
+		AuthzRolesCache cache = new AuthzRolesCache(60000);
+		Group group = new Group("group", "group");
+		group.setId(5);
+		AuthzRoles groupAdmin = new AuthzRoles();
+		groupAdmin.putAuthzRole(Role.GROUPADMIN, group);
+		cache.put(1, groupAdmin, cache.getVersion(), 0);
+		cache.put(2, new AuthzRoles(Role.GROUPADMIN, "Group", 6), cache.getVersion(), 0);
+		cache.put(3, new AuthzRoles(Role.PERUNADMIN), cache.getVersion(), 0);
+
+		cache.invalidateObject(new RichGroup(group, null));
+		assertNull(cache.get(1));
+		assertNotNull(cache.get(2));
+		assertNotNull(cache.get(3));
+	}
+
+	@Test
+	public void disabledCache() throws Exception {
+		System.out.println(CLASS_NAME + "disabledCache");
+
+		AuthzRolesCache cache = new AuthzRolesCache(0);
+		cache.put(1, new AuthzRoles(Role.VOADMIN), cache.getVersion(), 0);
+		assertNull(cache.get(1));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void refreshAuthzUsesCachedRoles() throws Exception {
+		System.out.println(CLASS_NAME + "refreshAuthzUsesCachedRoles");
+
+		User user = perun.getUsersManagerBl().createUser(sess, new User(0, "Cached", "Roles", null, null, null));
+		PerunSession userSess = getSession(user);
+		AuthzRolesCache cache = AuthzResolverBlImpl.getAuthzRolesCache();
+
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		long hits = cache.getHits();
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		assertEquals(hits + 1, cache.getHits());
+		assertTrue(userSess.getPerunPrincipal().getRoles().hasRole(Role.SELF, user));
+	}
+
+	@Test
+	public void refreshAuthzAfterRoleAndGroupChanges() throws Exception {
+		System.out.println(CLASS_NAME + "refreshAuthzAfterRoleAndGroupChanges");
+
+		Vo vo = perun.getVosManagerBl().createVo(sess, new Vo(0, "AuthzRolesCacheVo", "ARCVo"));
+		User user = perun.getUsersManagerBl().createUser(sess, new User(0, "Cached", "Roles", null, null, null));
+		PerunSession userSess = getSession(user);
+		Group authorizedGroup = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("authorized", "authorized group"));
+		Group group = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("administrated", "administrated group"));
+		AuthzResolverBlImpl.setRole(sess, authorizedGroup, group, Role.GROUPADMIN);
+
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		assertFalse(userSess.getPerunPrincipal().getRoles().hasRole(Role.GROUPADMIN, group));
+
+		// membership in the authorized group
+		Member member = perun.getMembersManagerBl().createMember(sess, vo, user);
+		perun.getGroupsManagerBl().addMember(sess, authorizedGroup, member);
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		assertTrue(userSess.getPerunPrincipal().getRoles().hasRole(Role.SELF, member));
+		assertTrue(userSess.getPerunPrincipal().getRoles().hasRole(Role.GROUPADMIN, group));
+
+		// new subgroup of administrated group
+		Group subgroup = perun.getGroupsManagerBl().createGroup(sess, group, new Group("subgroup", "subgroup"));
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		assertTrue(userSess.getPerunPrincipal().getRoles().hasRole(Role.GROUPADMIN, subgroup));
+
+		// role set directly to the user
+		AuthzResolverBlImpl.setRole(sess, user, vo, Role.VOADMIN);
+		AuthzResolverBlImpl.refreshAuthz(userSess);
+		assertTrue(userSess.getPerunPrincipal().getRoles().hasRole(Role.VOADMIN, vo));
+	}
+
+	private PerunSession getSession(User user) {
+		return new PerunSessionImpl(perun, new PerunPrincipal("authzRolesCacheTest", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL,
+				ExtSourcesManager.EXTSOURCE_INTERNAL, user), new PerunClient());
+	}
+
+}
@@ -0,0 +1,118 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Vo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SynchronizationPoolIntegrationTest extends AbstractPerunIntegrationTest {
+
+	private static final String CLASS_NAME = "SynchronizationPool.";
+
+	private Group group1;
+	private Group group2;
+	private Group group3;
+
+	@Before
+	public void setUp() throws Exception {
+		Vo vo = perun.getVosManagerBl().createVo(sess, new Vo(0, "SynchronizationPoolTestVo", "SyncPoolVo"));
+		group1 = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("group1", "first group"));
+		group2 = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("group2", "second group"));
+		group3 = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("group3", "third group"));
+	}
+
+	@Test
+	public void takeGroupRespectsLimitPerExtSource() throws Exception {
+		System.out.println(CLASS_NAME + "takeGroupRespectsLimitPerExtSource");
+
+		SynchronizationPool pool = new SynchronizationPool(1);
+		Map<Group, String> groups = new LinkedHashMap<>();
+		groups.put(group1, "slowSource");
+		groups.put(group2, "slowSource");
+		groups.put(group3, "healthySource");
+		assertEquals(3, pool.putGroupsToPoolOfWaitingGroups(groups));
+
+		assertEquals(group1, pool.takeGroup((PerunSessionImpl) sess));
+		// group2 has to wait for group1, because they are from the same source
+		assertEquals(group3, pool.takeGroup((PerunSessionImpl) sess));
+		assertEquals(1, pool.getNumberOfWaitingGroups());
+
+		assertTrue(pool.removeGroup(group1));
+		assertEquals(group2, pool.takeGroup((PerunSessionImpl) sess));
+		assertEquals(0, pool.getNumberOfWaitingGroups());
+	}
+
+	@Test
+	public void takeGroupIsWokenUpByRemovedGroup() throws Exception {
+		System.out.println(CLASS_NAME + "takeGroupIsWokenUpByRemovedGroup");
+
+		SynchronizationPool pool = new SynchronizationPool(1);
+		pool.putGroupToPoolOfWaitingGroups(group1, "source", false);
+		pool.putGroupToPoolOfWaitingGroups(group2, "source", false);
+		assertEquals(group1, pool.takeGroup((PerunSessionImpl) sess));
+
+		Thread remover = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				return;
+			}
+			pool.removeGroup(group1);
+		});
+		remover.start();
+
+		long start = System.currentTimeMillis();
+		assertEquals(group2, pool.takeGroup((PerunSessionImpl) sess));
+		// waiting thread is woken up immediately, not after the periodic check
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		remover.join();
+	}
+
+	@Test
+	public void takeGroupByPriority() throws Exception {
+		System.out.println(CLASS_NAME + "takeGroupByPriority");
+
+		SynchronizationPool pool = new SynchronizationPool();
+		// group1 was synchronized successfully recently, group2 was never synchronized successfully
+		pool.getMetrics().recordSynchronization(group1, "source", 10, true);
+		pool.getMetrics().recordSynchronization(group2, "source", 10, false);
+
+		pool.putGroupToPoolOfWaitingGroups(group1, "source", false);
+		pool.putGroupToPoolOfWaitingGroups(group2, "source", false);
+		// forced group goes first
+		pool.putGroupToPoolOfWaitingGroups(group3, "source", true);
+
+		assertEquals(group3, pool.takeGroup((PerunSessionImpl) sess));
+		assertEquals(group2, pool.takeGroup((PerunSessionImpl) sess));
+		assertEquals(group1, pool.takeGroup((PerunSessionImpl) sess));
+	}
+
+	@Test
+	public void recordGroupSynchronization() throws Exception {
+		System.out.println(CLASS_NAME + "recordGroupSynchronization");
+
+		SynchronizationPool pool = new SynchronizationPool();
+		pool.putGroupToPoolOfWaitingGroups(group1, "source", false);
+		assertEquals(group1, pool.takeGroup((PerunSessionImpl) sess));
+		assertEquals(Integer.valueOf(1), pool.getNumberOfRunningGroupsPerExtSource().get("source"));
+
+		pool.recordGroupSynchronization(group1, 100, true);
+		assertTrue(pool.removeGroup(group1));
+
+		assertTrue(pool.getNumberOfRunningGroupsPerExtSource().isEmpty());
+		assertEquals(Long.valueOf(100), pool.getMetrics().getLastDuration(group1));
+		assertTrue(pool.getMetrics().getLastSuccess(group1) > 0);
+		GroupSynchronizationMetrics.ExtSourceStatistics statistics = pool.getMetrics().getExtSourcesStatistics().get("source");
+		assertEquals(1, statistics.getCount());
+		assertEquals(0, statistics.getFailed());
+		assertEquals(100, statistics.getAverageDuration());
+	}
+
+}
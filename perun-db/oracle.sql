@@ -1,4 +1,4 @@
--- database version 3.1.57 (don't forget to update insert statement at the end of file)
+-- database version 3.1.59 (don't forget to update insert statement at the end of file)
 
 create user perunv3 identified by password;
 grant create session to perunv3;
@@ -1344,6 +1344,32 @@ create table groups_groups (
 	constraint grp_grp_ogid_fk foreign key (operand_gid) references groups(id)
 );
 
+-- GROUPS_CLOSURE - transitive closure of group hierarchy (relation_type 0) and of relations between groups (relation_type 1)
+create table groups_closure (
+	ancestor_gid integer not null,    --identifier of parent group / result group (groups.id)
+	descendant_gid integer not null,  --identifier of subgroup / operand group (groups.id)
+	relation_type integer not null,   --0 - hierarchy of groups, 1 - relations between groups (groups_groups)
+	depth integer not null,           --length of paths between groups, 0 for the group itself
+	paths integer not null,           --number of paths of the length between groups
+	constraint grp_clos_pk primary key (ancestor_gid,descendant_gid,relation_type,depth),
+	constraint grp_clos_agid_fk foreign key (ancestor_gid) references groups(id),
+	constraint grp_clos_dgid_fk foreign key (descendant_gid) references groups(id)
+);
+
+-- USER_SEARCH_INDEX - normalized names, emails and logins of users, which are used to search users
+create table user_search_index (
+	user_id integer not null,          --identifier of user (users.id)
+	search_type integer not null,      --0 - name, 1 - email, 2 - login
+	search_value nvarchar2(4000) not null, --name lower cased in ASCII without spaces, lower cased email or login
+	attr_id integer,                   --source attribute of email or login (attr_names.id)
+	member_id integer,                 --source member of email from member attribute (members.id)
+	user_ext_source_id integer,        --source user ext source of login (user_ext_sources.id)
+	constraint usrsrch_usr_fk foreign key (user_id) references users(id),
+	constraint usrsrch_attr_fk foreign key (attr_id) references attr_names(id),
+	constraint usrsrch_mem_fk foreign key (member_id) references members(id),
+	constraint usrsrch_usrex_fk foreign key (user_ext_source_id) references user_ext_sources(id)
+);
+
 -- RES_TAGS - possible resource tags in VO
 create table res_tags (
 	id integer not null,
@@ -1719,6 +1745,12 @@ create index IDX_FK_SPECIFU_U_UI on specific_user_users(user_id);
 create index IDX_FK_SPECIFU_U_SUI on specific_user_users(specific_user_id);
 create index IDX_FK_GRP_GRP_RGID on groups_groups(result_gid);
 create index IDX_FK_GRP_GRP_OGID on groups_groups(operand_gid);
+create index IDX_FK_GRP_CLOS_DGID on groups_closure(descendant_gid);
+create index IDX_USRSRCH_VAL on user_search_index(search_value);
+create index IDX_FK_USRSRCH_USR on user_search_index(user_id);
+create index IDX_FK_USRSRCH_ATTR on user_search_index(attr_id);
+create index IDX_FK_USRSRCH_MEM on user_search_index(member_id);
+create index IDX_FK_USRSRCH_USREX on user_search_index(user_ext_source_id);
 create index IDX_FK_ATTRAUTHZ_ACTIONTYP on attributes_authz(action_type_id);
 create index IDX_FK_ATTRAUTHZ_ROLE on attributes_authz(role_id);
 create index IDX_FK_ATTRAUTHZ_ATTR on attributes_authz(attr_id);
@@ -1753,7 +1785,7 @@ CREATE INDEX ufauv_idx ON user_facility_attr_u_values (user_id, facility_id, att
 CREATE INDEX vauv_idx ON vo_attr_u_values (vo_id, attr_id) ;
 
 -- set initial Perun DB version
-insert into configurations values ('DATABASE VERSION','3.1.57');
+insert into configurations values ('DATABASE VERSION','3.1.59');
 
 -- insert membership types
 insert into membership_types (id, membership_type, description) values (1, 'DIRECT', 'Member is directly added into group');
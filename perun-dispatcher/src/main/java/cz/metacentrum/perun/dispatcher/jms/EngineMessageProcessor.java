@@ -1,5 +1,6 @@
 package cz.metacentrum.perun.dispatcher.jms;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -12,6 +13,8 @@ import javax.jms.JMSException;
 import javax.jms.Session;
 
 import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
+import cz.metacentrum.perun.taskslib.model.EngineMessageBatch;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
 
 import org.hornetq.api.core.TransportConfiguration;
 import org.hornetq.api.jms.HornetQJMSClient;
@@ -249,8 +252,9 @@ public class EngineMessageProcessor {
 	 * Expected message format is:
 	 *
 	 * Register engine message
-	 * register:x
+	 * register:x[:protocol]
 	 * where x is an Integer that represents Engine's ID in the Perun DB.
+	 * protocol is optional name of protocol supported by Engine, see EngineMessageBatch.PROTOCOL
 	 *
 	 * Good bye engine message
 	 * goodbye:x
@@ -268,6 +272,11 @@ public class EngineMessageProcessor {
 	 * where x is an Integer that represents Engine's ID in the Perun
 	 * object is serialized TaskResult object sent from Engine
 	 *
+	 * Batch message
+	 * batch:x:json
+	 * where x is an Integer that represents Engine's ID in the Perun
+	 * json is EngineMessageBatch serialized to JSON, it is sent only after Dispatcher confirmed the protocol
+	 *
 	 * @see EngineMessageConsumer
 	 *
 	 * @param message Message to be parsed a processed
@@ -312,6 +321,16 @@ public class EngineMessageProcessor {
 					createDispatcherQueueForClient(clientID);
 				}
 
+				// confirm batch protocol, if engine supports it, engine uses plain text messages otherwise
+				if (clientIDsplitter.length > 2 && EngineMessageBatch.PROTOCOL.equals(clientIDsplitter[2]) &&
+						Boolean.parseBoolean(dispatcherProperties.getProperty("dispatcher.engine.batch", "true"))) {
+					engineMessageProducer = engineMessageProducerPool.getProducerByClient(clientID);
+					if (engineMessageProducer != null) {
+						engineMessageProducer.sendProtocolMessage(EngineMessageBatch.PROTOCOL);
+						log.debug("Engine {} will send messages in protocol {}.", clientID, EngineMessageBatch.PROTOCOL);
+					}
+				}
+
 			} else if (clientIDsplitter[0].equalsIgnoreCase("goodbye")) {
 
 				// engine is going down, should mark all tasks as failed
@@ -344,6 +363,14 @@ public class EngineMessageProcessor {
 
 				schedulingPool.onTaskDestinationComplete(clientID, clientIDsplitter[2]);
 
+			} else if (clientIDsplitter[0].equalsIgnoreCase("batch")) {
+
+				if(clientIDsplitter.length < 3) {
+					throw new MessageFormatException("Engine sent a malformed message, not enough params [" + message + "]");
+				}
+
+				processBatch(clientID, clientIDsplitter[2]);
+
 			} else {
 				throw new MessageFormatException("Engine sent a malformed message, unknown type of message [" + message + "]");
 			}
@@ -353,6 +380,42 @@ public class EngineMessageProcessor {
 		}
 	}
 
+	/**
+	 * Process batch of Task status changes and TaskResults sent from Engine. Status changes are processed in the order
+	 * Engine reported them, then TaskResults in the order Engine reported them. Order between a status change
+	 * and a TaskResult is not kept, as with plain text messages, which are sent with different priorities.
+	 *
+	 * @see EngineMessageBatch
+	 *
+	 * @param clientID ID of Engine
+	 * @param json Batch serialized to JSON
+	 * @throws MessageFormatException When batch can't be parsed or has unsupported version
+	 */
+	public void processBatch(int clientID, String json) throws MessageFormatException {
+
+		EngineMessageBatch batch;
+		try {
+			batch = EngineMessageBatch.fromJson(json);
+		} catch (IOException e) {
+			throw new MessageFormatException("Engine sent a malformed batch message [" + json + "]", e);
+		}
+		if (batch.getVersion() != EngineMessageBatch.VERSION) {
+			throw new MessageFormatException("Engine sent a batch message of unsupported version " + batch.getVersion());
+		}
+		log.debug("Received {} from Engine {}.", batch, clientID);
+
+		for (EngineMessageBatch.TaskStatusChange statusChange : batch.getStatusChanges()) {
+			if (statusChange.getStatus() == null) {
+				throw new MessageFormatException("Engine sent a batch message with missing Task status [" + statusChange + "]");
+			}
+			schedulingPool.onTaskStatusChange(statusChange.getTaskId(), statusChange.getStatus().toString(),
+					String.valueOf(statusChange.getTimestamp()));
+		}
+		for (TaskResult taskResult : batch.getTaskResults()) {
+			schedulingPool.onTaskDestinationComplete(clientID, taskResult);
+		}
+	}
+
 	/**
 	 * Create JMS queues for all engines (ID passed).
 	 *
@@ -67,10 +67,26 @@ public class EngineMessageProducer {
 	 * @param text Message content
 	 */
 	public void sendMessage(String text) {
+		send("task|" + clientID + "|" + text);
+	}
+
+	/**
+	 * Confirm to the Engine associated with this queue, that Dispatcher accepts messages in the protocol
+	 * it advertised on "register".
+	 *
+	 * @see cz.metacentrum.perun.taskslib.model.EngineMessageBatch#PROTOCOL
+	 *
+	 * @param protocol Name of the accepted protocol
+	 */
+	public void sendProtocolMessage(String protocol) {
+		send("protocol|" + clientID + "|" + protocol);
+	}
+
+	private void send(String text) {
 
 		try {
 			// Step 7. Create a Text Message
-			TextMessage message = session.createTextMessage("task|" + clientID + "|" + text);
+			TextMessage message = session.createTextMessage(text);
 			// Step 8. Send...
 			producer.send(message);
 			if (log.isDebugEnabled()) {
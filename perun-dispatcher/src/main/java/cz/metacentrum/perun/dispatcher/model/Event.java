@@ -16,10 +16,29 @@ import java.util.Objects;
  */
 public class Event {
 
+	private int id;
 	private String header;
 	private AuditEvent data;
 	private long timeStamp;
 
+	/**
+	 * Get ID of audit message the event was parsed from
+	 *
+	 * @return audit message ID
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Set ID of audit message the event was parsed from
+	 *
+	 * @param id audit message ID
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+
 	/**
 	 * Get event data
 	 *
@@ -79,14 +98,15 @@ public class Event {
 		if (this == o) return true;
 		if (!(o instanceof Event)) return false;
 		Event event = (Event) o;
-		return timeStamp == event.timeStamp &&
+		return id == event.id &&
+				timeStamp == event.timeStamp &&
 				Objects.equals(header, event.header) &&
 				Objects.equals(data, event.data);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(header, data, timeStamp);
+		return Objects.hash(id, header, data, timeStamp);
 	}
 
 	@Override
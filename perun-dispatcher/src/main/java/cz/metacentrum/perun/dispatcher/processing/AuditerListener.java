@@ -2,7 +2,7 @@ package cz.metacentrum.perun.dispatcher.processing;
 
 import javax.annotation.Resource;
 
-import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.core.api.AuditMessage;
 import cz.metacentrum.perun.core.api.Perun;
 import cz.metacentrum.perun.core.api.PerunClient;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
@@ -27,6 +27,7 @@ import java.util.concurrent.BlockingQueue;
  *
  * It ensure continuous reading of audit messages and convert them to Events,
  * which are then pushed to EventQueue for further processing by EventProcessor.
+ * Messages are long-polled, so new messages are processed as soon as Auditer stores them.
  *
  * Its started by DispatcherManager when Spring context is initialized.
  *
@@ -101,11 +102,16 @@ public class AuditerListener extends AbstractRunner {
 			}
 
 
+			// max time to wait for new events, events stored by other Perun instances are found at latest after it
+			long waitTimeout = Long.parseLong(dispatcherProperties.getProperty("dispatcher.auditer.wait.timeout", "30000"));
+
 			while (!shouldStop()) {
 				try {
-					for (AuditEvent message : perun.getAuditMessagesManager().pollConsumerEvents(sess, "dispatcher")) {
+					// blocks until auditer signals new events or timeout elapses, DB is not queried while waiting
+					for (AuditMessage message : perun.getAuditMessagesManager().waitForConsumerMessages(sess, "dispatcher", waitTimeout)) {
 						// create event for each message
 						Event event = new Event();
+						event.setId(message.getId());
 						event.setTimeStamp(System.currentTimeMillis());
 						if (whichOfTwoRules) {
 							event.setHeader("portishead");
@@ -114,11 +120,12 @@ public class AuditerListener extends AbstractRunner {
 							event.setHeader("clockworkorange");
 							whichOfTwoRules = true;
 						}
-						event.setData(message);
+						event.setData(message.getEvent());
 						// pass event to queue for further processing
 						eventQueue.put(event);
 					}
-					Thread.sleep(1000);
+					// waiting for events doesn't throw, but preserves interrupted status
+					if (Thread.interrupted()) throw new InterruptedException();
 				} catch (InternalErrorException | PrivilegeException ex) {
 					log.error("AuditerListener couldn't get AuditEvents.", ex);
 					Thread.sleep(1000);
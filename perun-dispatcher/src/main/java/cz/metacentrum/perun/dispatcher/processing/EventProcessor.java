@@ -12,7 +12,6 @@ import cz.metacentrum.perun.core.api.exceptions.FacilityNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
 import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
-import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.dispatcher.exceptions.InvalidEventMessageException;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducerPool;
 import cz.metacentrum.perun.dispatcher.model.Event;
@@ -40,12 +39,15 @@ import java.util.concurrent.BlockingQueue;
  * This class ensure periodic blocking polling of EventQueue with Events parsed from audit messages by AuditerListener.
  *
  * For each Event, Facility and set of affected Services is resolved. If can't be resolved or are empty, Event is discarded.
+ * Destinations and blocking of Services are checked using EventResolutionCache.
  *
  * Each Event is converted to Task if possible and added to pool (if new) or updated in pool (if exists).
- * New Tasks are also planned immediately.
+ * New Tasks are also planned immediately. ID of the Event audit message is kept in the Task as the version of its data,
+ * so engine can skip GEN when the Task is sent again without any new Event.
  *
  * @see cz.metacentrum.perun.dispatcher.model.Event
  * @see cz.metacentrum.perun.dispatcher.processing.AuditerListener
+ * @see cz.metacentrum.perun.dispatcher.processing.EventResolutionCache
  * @see cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool
  *
  * @author Michal Karm Babacek
@@ -61,6 +63,7 @@ public class EventProcessor extends AbstractRunner {
 	private BlockingQueue<Event> eventQueue;
 	private EngineMessageProducerPool engineMessageProducerPool;
 	private EventServiceResolver eventServiceResolver;
+	private EventResolutionCache eventResolutionCache;
 	private SchedulingPool schedulingPool;
 	private Perun perun;
 	private Properties dispatcherProperties;
@@ -95,6 +98,15 @@ public class EventProcessor extends AbstractRunner {
 		this.eventServiceResolver = eventServiceResolver;
 	}
 
+	public EventResolutionCache getEventResolutionCache() {
+		return eventResolutionCache;
+	}
+
+	@Autowired
+	public void setEventResolutionCache(EventResolutionCache eventResolutionCache) {
+		this.eventResolutionCache = eventResolutionCache;
+	}
+
 	public SchedulingPool getSchedulingPool() {
 		return schedulingPool;
 	}
@@ -134,7 +146,7 @@ public class EventProcessor extends AbstractRunner {
 			try {
 				Event event = eventQueue.take();
 				createTaskFromEvent(event);
-				log.debug("Remaining events in a Queue = {}, Engines = {}", eventQueue.size(), engineMessageProducerPool.poolSize());
+				log.debug("Remaining events in a Queue = {}, Engines = {}, {}", eventQueue.size(), engineMessageProducerPool.poolSize(), eventResolutionCache);
 			} catch (Exception e) {
 				log.error(e.getMessage(), e);
 			}
@@ -164,7 +176,7 @@ public class EventProcessor extends AbstractRunner {
 					continue;
 				}
 
-				if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnFacility(service, facility)) {
+				if (eventResolutionCache.isServiceBlockedOnFacility(service, facility)) {
 					log.debug("Service blocked on Facility: {} , {}.", service, facility);
 					continue;
 				}
@@ -186,12 +198,12 @@ public class EventProcessor extends AbstractRunner {
 						continue;
 					}
 
-					List<Destination> destinations = perun.getServicesManager().getDestinations(sess, service, facility);
+					List<Destination> destinations = eventResolutionCache.getDestinations(sess, service, facility);
 					if (destinations != null && !destinations.isEmpty()) {
 						Iterator<Destination> iter = destinations.iterator();
 						while (iter.hasNext()) {
 							Destination dest = iter.next();
-							if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnDestination(service, dest.getId())) {
+							if (eventResolutionCache.isServiceBlockedOnDestination(service, dest.getId())) {
 								iter.remove();
 							}
 						}
@@ -227,6 +239,7 @@ public class EventProcessor extends AbstractRunner {
 					task.setSourceUpdated(true);
 					if (isForced) task.setPropagationForced(true);
 					task.setRecurrence(0);
+					task.setDataFingerprint(getDataVersion(event));
 					log.debug("[{}] Task is already in pool. Re-setting source updated and forced flags, {}.", task.getId(), task);
 				} else {
 					// no such task yet, create one
@@ -239,6 +252,7 @@ public class EventProcessor extends AbstractRunner {
 					task.setSchedule(LocalDateTime.now());
 					task.setSourceUpdated(false);
 					task.setPropagationForced(isForced);
+					task.setDataFingerprint(getDataVersion(event));
 					try {
 						schedulingPool.addToPool(task, null);
 						log.debug("[{}] New Task added to pool. {}.", task.getId(), task);
@@ -251,6 +265,19 @@ public class EventProcessor extends AbstractRunner {
 		}
 	}
 
+	/**
+	 * Return version of service data on facility after the event. It is ID of the audit message, since messages
+	 * are stored in the order of commits and data of the Task can be changed only by events resolved to it.
+	 *
+	 * @param event Event resolved to the Task
+	 * @return version of Task data
+	 */
+	private String getDataVersion(Event event) {
+
+		return String.valueOf(event.getId());
+
+	}
+
 	/**
 	 * Return true if event forces service propagation
 	 *
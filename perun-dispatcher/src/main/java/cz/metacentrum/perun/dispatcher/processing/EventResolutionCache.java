@@ -0,0 +1,116 @@
+package cz.metacentrum.perun.dispatcher.processing;
+
+import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.api.exceptions.FacilityNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.GroupNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
+import cz.metacentrum.perun.core.api.exceptions.ResourceNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cache of Perun structure used to resolve Facility-Service pairs from Events and to create Tasks from them.
+ *
+ * Cached values are loaded from Perun on first use and are invalidated by structural AuditEvents
+ * (e.g. group assigned to resource, service removed from resource, destination added), which
+ * must be passed to {@link #invalidate(AuditEvent)} in the same order as they are processed.
+ * As a safety net, each value is reloaded after max age (property dispatcher.resolution.cache.maxAge in ms).
+ *
+ * Returned lists are copies and can be modified by the caller.
+ *
+ * @see cz.metacentrum.perun.dispatcher.processing.impl.EventResolutionCacheImpl
+ * @see cz.metacentrum.perun.dispatcher.processing.EventServiceResolver
+ * @see cz.metacentrum.perun.dispatcher.processing.EventProcessor
+ */
+public interface EventResolutionCache {
+
+	/**
+	 * Get resources assigned to the group.
+	 */
+	List<Resource> getAssignedResources(PerunSession sess, Group group) throws InternalErrorException, GroupNotExistsException, PrivilegeException;
+
+	/**
+	 * Get resources of the facility.
+	 */
+	List<Resource> getAssignedResources(PerunSession sess, Facility facility) throws InternalErrorException, FacilityNotExistsException, PrivilegeException;
+
+	/**
+	 * Get facility of the resource.
+	 */
+	Facility getFacility(PerunSession sess, Resource resource) throws InternalErrorException, ResourceNotExistsException, PrivilegeException;
+
+	/**
+	 * Get services assigned to the resource.
+	 */
+	List<Service> getAssignedServices(PerunSession sess, Resource resource) throws InternalErrorException, ResourceNotExistsException, PrivilegeException;
+
+	/**
+	 * Get definitions of attributes required by the service.
+	 */
+	Set<AttributeDefinition> getRequiredAttributesDefinition(PerunSession sess, Service service) throws InternalErrorException, ServiceNotExistsException, PrivilegeException;
+
+	/**
+	 * Get destinations of the service on the facility.
+	 */
+	List<Destination> getDestinations(PerunSession sess, Service service, Facility facility) throws InternalErrorException, ServiceNotExistsException, FacilityNotExistsException, PrivilegeException;
+
+	/**
+	 * Return TRUE if the service is blocked on the facility.
+	 */
+	boolean isServiceBlockedOnFacility(Service service, Facility facility) throws InternalErrorException;
+
+	/**
+	 * Return TRUE if the service is blocked on the destination.
+	 */
+	boolean isServiceBlockedOnDestination(Service service, int destinationId) throws InternalErrorException;
+
+	/**
+	 * Remove cached values, which could be changed by the AuditEvent.
+	 *
+	 * @param event processed AuditEvent
+	 */
+	void invalidate(AuditEvent event);
+
+	/**
+	 * Remove all cached values.
+	 */
+	void clear();
+
+	/**
+	 * Record duration of resolving one Event, so it can be reported with the cache statistics.
+	 *
+	 * @param duration duration in nanoseconds
+	 */
+	void recordResolution(long duration);
+
+	/**
+	 * @return number of values found in the cache
+	 */
+	long getHits();
+
+	/**
+	 * @return number of values loaded from Perun
+	 */
+	long getMisses();
+
+	/**
+	 * @return ratio of values found in the cache to all requested values (0 if nothing was requested yet)
+	 */
+	double getHitRatio();
+
+	/**
+	 * @return average duration of resolving one Event in microseconds
+	 */
+	long getAverageResolutionTime();
+
+}
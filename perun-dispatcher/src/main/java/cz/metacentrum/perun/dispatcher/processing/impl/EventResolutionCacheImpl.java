@@ -0,0 +1,342 @@
+package cz.metacentrum.perun.dispatcher.processing.impl;
+
+import cz.metacentrum.perun.audit.events.AttributesManagerEvents.AttributeDeleted;
+import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityDeleted;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.BanServiceOnDestination;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.BanServiceOnFacility;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.FreeAllDenialsOnDestination;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.FreeAllDenialsOnFacility;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.FreeDenialServiceOnDestination;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.FreeDenialServiceOnFacility;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.AllGroupsFromVoDeleted;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.GroupDeleted;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.GroupAssignedToResource;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.GroupRemovedFromResource;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ResourceCreated;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ResourceDeleted;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ServiceAssignedToResource;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ServiceRemovedFromResource;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.AllRequiredAttributesRemovedFromService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.AttributeAddedAsRequiredToService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.AttributesAddedAsRequiredToService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.DestinationAddedToServiceAndFacility;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.DestinationRemovedFromService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.DestinationsRemovedFromAllServices;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.DestinationsRemovedFromService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.RequiredAttributeRemovedFromService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.RequiredAttributesRemovedFromService;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.ServiceDeleted;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.ServiceUpdated;
+import cz.metacentrum.perun.audit.events.VoManagerEvents.VoDeleted;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Pair;
+import cz.metacentrum.perun.core.api.Perun;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.api.exceptions.FacilityNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.GroupNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
+import cz.metacentrum.perun.core.api.exceptions.ResourceNotExistsException;
+import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
+import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.dispatcher.processing.EventResolutionCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of EventResolutionCache.
+ *
+ * Values are kept in maps by ids of the entities. Structural AuditEvents remove only affected values,
+ * if the event contains the affected entity, otherwise they clear whole map of the affected values.
+ *
+ * @see cz.metacentrum.perun.dispatcher.processing.EventResolutionCache
+ */
+@org.springframework.stereotype.Service(value = "eventResolutionCache")
+public class EventResolutionCacheImpl implements EventResolutionCache {
+
+	private static final Logger log = LoggerFactory.getLogger(EventResolutionCacheImpl.class);
+
+	private Properties dispatcherProperties;
+	private Perun perun;
+	private long maxAge = 600000;
+
+	// group id -> assigned resources
+	private final Map<Integer, CachedValue<List<Resource>>> groupResources = new ConcurrentHashMap<>();
+	// facility id -> resources
+	private final Map<Integer, CachedValue<List<Resource>>> facilityResources = new ConcurrentHashMap<>();
+	// resource id -> facility
+	private final Map<Integer, CachedValue<Facility>> resourceFacility = new ConcurrentHashMap<>();
+	// resource id -> assigned services
+	private final Map<Integer, CachedValue<List<Service>>> resourceServices = new ConcurrentHashMap<>();
+	// service id -> required attributes
+	private final Map<Integer, CachedValue<Set<AttributeDefinition>>> serviceRequiredAttributes = new ConcurrentHashMap<>();
+	// service id, facility id -> destinations
+	private final Map<Pair<Integer, Integer>, CachedValue<List<Destination>>> destinations = new ConcurrentHashMap<>();
+	// service id, facility id -> blocked
+	private final Map<Pair<Integer, Integer>, CachedValue<Boolean>> blockedOnFacility = new ConcurrentHashMap<>();
+	// service id, destination id -> blocked
+	private final Map<Pair<Integer, Integer>, CachedValue<Boolean>> blockedOnDestination = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong resolutions = new AtomicLong();
+	private final AtomicLong resolutionsDuration = new AtomicLong();
+
+	// ----- setters -------------------------------------
+
+	public Properties getDispatcherProperties() {
+		return dispatcherProperties;
+	}
+
+	@javax.annotation.Resource(name="dispatcherPropertiesBean")
+	public void setDispatcherProperties(Properties dispatcherProperties) {
+		this.dispatcherProperties = dispatcherProperties;
+		this.maxAge = Long.parseLong(dispatcherProperties.getProperty("dispatcher.resolution.cache.maxAge", "600000"));
+	}
+
+	public Perun getPerun() {
+		return perun;
+	}
+
+	@Autowired
+	public void setPerun(Perun perun) {
+		this.perun = perun;
+	}
+
+	// ----- methods -------------------------------------
+
+	@Override
+	public List<Resource> getAssignedResources(PerunSession sess, Group group) throws InternalErrorException, GroupNotExistsException, PrivilegeException {
+		List<Resource> resources = lookup(groupResources, group.getId());
+		if (resources == null) {
+			resources = store(groupResources, group.getId(), perun.getResourcesManager().getAssignedResources(sess, group));
+		}
+		return new ArrayList<>(resources);
+	}
+
+	@Override
+	public List<Resource> getAssignedResources(PerunSession sess, Facility facility) throws InternalErrorException, FacilityNotExistsException, PrivilegeException {
+		List<Resource> resources = lookup(facilityResources, facility.getId());
+		if (resources == null) {
+			resources = store(facilityResources, facility.getId(), perun.getFacilitiesManager().getAssignedResources(sess, facility));
+		}
+		return new ArrayList<>(resources);
+	}
+
+	@Override
+	public Facility getFacility(PerunSession sess, Resource resource) throws InternalErrorException, ResourceNotExistsException, PrivilegeException {
+		Facility facility = lookup(resourceFacility, resource.getId());
+		if (facility == null) {
+			facility = store(resourceFacility, resource.getId(), perun.getResourcesManager().getFacility(sess, resource));
+		}
+		return facility;
+	}
+
+	@Override
+	public List<Service> getAssignedServices(PerunSession sess, Resource resource) throws InternalErrorException, ResourceNotExistsException, PrivilegeException {
+		List<Service> services = lookup(resourceServices, resource.getId());
+		if (services == null) {
+			services = store(resourceServices, resource.getId(), perun.getResourcesManager().getAssignedServices(sess, resource));
+		}
+		return new ArrayList<>(services);
+	}
+
+	@Override
+	public Set<AttributeDefinition> getRequiredAttributesDefinition(PerunSession sess, Service service) throws InternalErrorException, ServiceNotExistsException, PrivilegeException {
+		Set<AttributeDefinition> attributes = lookup(serviceRequiredAttributes, service.getId());
+		if (attributes == null) {
+			attributes = store(serviceRequiredAttributes, service.getId(), new HashSet<>(perun.getAttributesManager().getRequiredAttributesDefinition(sess, service)));
+		}
+		return new HashSet<>(attributes);
+	}
+
+	@Override
+	public List<Destination> getDestinations(PerunSession sess, Service service, Facility facility) throws InternalErrorException, ServiceNotExistsException, FacilityNotExistsException, PrivilegeException {
+		Pair<Integer, Integer> key = new Pair<>(service.getId(), facility.getId());
+		List<Destination> serviceDestinations = lookup(destinations, key);
+		if (serviceDestinations == null) {
+			serviceDestinations = store(destinations, key, perun.getServicesManager().getDestinations(sess, service, facility));
+		}
+		return new ArrayList<>(serviceDestinations);
+	}
+
+	@Override
+	public boolean isServiceBlockedOnFacility(Service service, Facility facility) throws InternalErrorException {
+		Pair<Integer, Integer> key = new Pair<>(service.getId(), facility.getId());
+		Boolean blocked = lookup(blockedOnFacility, key);
+		if (blocked == null) {
+			blocked = store(blockedOnFacility, key, ((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnFacility(service, facility));
+		}
+		return blocked;
+	}
+
+	@Override
+	public boolean isServiceBlockedOnDestination(Service service, int destinationId) throws InternalErrorException {
+		Pair<Integer, Integer> key = new Pair<>(service.getId(), destinationId);
+		Boolean blocked = lookup(blockedOnDestination, key);
+		if (blocked == null) {
+			blocked = store(blockedOnDestination, key, ((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnDestination(service, destinationId));
+		}
+		return blocked;
+	}
+
+	@Override
+	public void invalidate(AuditEvent event) {
+		if (event instanceof GroupAssignedToResource) {
+			groupResources.remove(((GroupAssignedToResource) event).getGroup().getId());
+		} else if (event instanceof GroupRemovedFromResource) {
+			groupResources.remove(((GroupRemovedFromResource) event).getGroup().getId());
+		} else if (event instanceof GroupDeleted) {
+			groupResources.remove(((GroupDeleted) event).getGroup().getId());
+		} else if (event instanceof AllGroupsFromVoDeleted || event instanceof VoDeleted) {
+			clear();
+		} else if (event instanceof ResourceCreated) {
+			facilityResources.remove(((ResourceCreated) event).getResource().getFacilityId());
+		} else if (event instanceof ResourceDeleted) {
+			Resource resource = ((ResourceDeleted) event).getResource();
+			// resource could be assigned to any group
+			groupResources.clear();
+			facilityResources.remove(resource.getFacilityId());
+			resourceFacility.remove(resource.getId());
+			resourceServices.remove(resource.getId());
+		} else if (event instanceof FacilityDeleted) {
+			facilityResources.remove(((FacilityDeleted) event).getFacility().getId());
+			destinations.clear();
+			blockedOnFacility.clear();
+		} else if (event instanceof ServiceAssignedToResource) {
+			resourceServices.remove(((ServiceAssignedToResource) event).getResource().getId());
+		} else if (event instanceof ServiceRemovedFromResource) {
+			resourceServices.remove(((ServiceRemovedFromResource) event).getResource().getId());
+		} else if (event instanceof ServiceUpdated || event instanceof ServiceDeleted) {
+			// services are cached with their state (e.g. enabled)
+			resourceServices.clear();
+			serviceRequiredAttributes.clear();
+			destinations.clear();
+			blockedOnFacility.clear();
+			blockedOnDestination.clear();
+		} else if (event instanceof AttributeAddedAsRequiredToService) {
+			serviceRequiredAttributes.remove(((AttributeAddedAsRequiredToService) event).getService().getId());
+		} else if (event instanceof AttributesAddedAsRequiredToService) {
+			serviceRequiredAttributes.remove(((AttributesAddedAsRequiredToService) event).getService().getId());
+		} else if (event instanceof RequiredAttributeRemovedFromService) {
+			serviceRequiredAttributes.remove(((RequiredAttributeRemovedFromService) event).getService().getId());
+		} else if (event instanceof RequiredAttributesRemovedFromService) {
+			serviceRequiredAttributes.remove(((RequiredAttributesRemovedFromService) event).getService().getId());
+		} else if (event instanceof AllRequiredAttributesRemovedFromService) {
+			serviceRequiredAttributes.remove(((AllRequiredAttributesRemovedFromService) event).getService().getId());
+		} else if (event instanceof AttributeDeleted) {
+			serviceRequiredAttributes.clear();
+		} else if (event instanceof DestinationAddedToServiceAndFacility || event instanceof DestinationRemovedFromService ||
+				event instanceof DestinationsRemovedFromService || event instanceof DestinationsRemovedFromAllServices) {
+			destinations.clear();
+		} else if (event instanceof BanServiceOnFacility || event instanceof FreeDenialServiceOnFacility ||
+				event instanceof FreeAllDenialsOnFacility) {
+			blockedOnFacility.clear();
+		} else if (event instanceof BanServiceOnDestination || event instanceof FreeDenialServiceOnDestination ||
+				event instanceof FreeAllDenialsOnDestination) {
+			blockedOnDestination.clear();
+		} else {
+			return;
+		}
+		log.debug("Resolution cache invalidated by event {}.", event);
+	}
+
+	@Override
+	public void clear() {
+		groupResources.clear();
+		facilityResources.clear();
+		resourceFacility.clear();
+		resourceServices.clear();
+		serviceRequiredAttributes.clear();
+		destinations.clear();
+		blockedOnFacility.clear();
+		blockedOnDestination.clear();
+	}
+
+	@Override
+	public void recordResolution(long duration) {
+		resolutions.incrementAndGet();
+		resolutionsDuration.addAndGet(duration);
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long requests = hits.get() + misses.get();
+		return requests == 0 ? 0 : (double) hits.get() / requests;
+	}
+
+	@Override
+	public long getAverageResolutionTime() {
+		long count = resolutions.get();
+		return count == 0 ? 0 : resolutionsDuration.get() / count / 1000;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[hits='" + getHits() + "', misses='" + getMisses() +
+				"', hitRatio='" + String.format("%.3f", getHitRatio()) + "', resolutions='" + resolutions.get() +
+				"', averageResolutionTime='" + getAverageResolutionTime() + "us']";
+	}
+
+	/**
+	 * Get cached value if it is present and not older than max age.
+	 *
+	 * @return cached value or null
+	 */
+	private <K, V> V lookup(Map<K, CachedValue<V>> cache, K key) {
+		CachedValue<V> cached = cache.get(key);
+		if (cached != null && System.currentTimeMillis() - cached.loaded < maxAge) {
+			hits.incrementAndGet();
+			return cached.value;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Store value loaded from Perun to the cache.
+	 *
+	 * @return stored value
+	 */
+	private <K, V> V store(Map<K, CachedValue<V>> cache, K key, V value) {
+		if (maxAge > 0) cache.put(key, new CachedValue<>(value));
+		return value;
+	}
+
+	private static class CachedValue<V> {
+
+		private final V value;
+		private final long loaded = System.currentTimeMillis();
+
+		private CachedValue(V value) {
+			this.value = value;
+		}
+	}
+
+}
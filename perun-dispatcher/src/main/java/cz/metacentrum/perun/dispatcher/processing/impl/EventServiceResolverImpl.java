@@ -38,6 +38,7 @@ import cz.metacentrum.perun.core.api.exceptions.ResourceNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
 import cz.metacentrum.perun.dispatcher.exceptions.InvalidEventMessageException;
+import cz.metacentrum.perun.dispatcher.processing.EventResolutionCache;
 import cz.metacentrum.perun.dispatcher.processing.EventServiceResolver;
 
 /**
@@ -55,10 +56,15 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 
 	private static final Logger log = LoggerFactory.getLogger(EventServiceResolverImpl.class);
 
+	// resolution statistics are logged after each this number of resolved events
+	private static final int STATISTICS_INTERVAL = 10000;
+
 	private Properties dispatcherProperties;
 	private Perun perun;
+	private EventResolutionCache eventResolutionCache;
 
 	private PerunSession perunSession = null;
+	private long resolvedEvents = 0;
 
 	// ----- setters -------------------------------------
 
@@ -80,6 +86,15 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 		this.perun = perun;
 	}
 
+	public EventResolutionCache getEventResolutionCache() {
+		return eventResolutionCache;
+	}
+
+	@Autowired
+	public void setEventResolutionCache(EventResolutionCache eventResolutionCache) {
+		this.eventResolutionCache = eventResolutionCache;
+	}
+
 	// ----- methods -------------------------------------
 
 	@Override
@@ -87,6 +102,22 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 
 		log.info("Event - I am going to process event: {}", event);
 
+		// structural changes must be reflected before resolving this and following events
+		eventResolutionCache.invalidate(event);
+
+		long startTime = System.nanoTime();
+		Map<Facility, Set<Service>> result = resolveEventServices(event);
+		eventResolutionCache.recordResolution(System.nanoTime() - startTime);
+
+		if (++resolvedEvents % STATISTICS_INTERVAL == 0) {
+			log.info("Event resolution statistics: {}", eventResolutionCache);
+		}
+
+		return result;
+	}
+
+	private Map<Facility, Set<Service>> resolveEventServices(AuditEvent event) throws InvalidEventMessageException, ServiceNotExistsException, InternalErrorException, PrivilegeException {
+
 		Map<Facility, Set<Service>> result = new HashMap<Facility, Set<Service>>();
 
 		if (event instanceof EngineIgnoreEvent) {
@@ -154,8 +185,7 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 			try {
 				log.debug("Facility found in event. {}.", facility);
 				facilitiesResolvedFromEvent.add(facility);
-				resourcesResolvedFromEvent.addAll(perun.getFacilitiesManager()
-						.getAssignedResources(perunSession, facility));
+				resourcesResolvedFromEvent.addAll(eventResolutionCache.getAssignedResources(perunSession, facility));
 			} catch (FacilityNotExistsException ex) {
 				log.warn("Non-existing facility found while resolving event. id={}", facility.getId());
 			}
@@ -167,8 +197,7 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 				// Try to find GROUP in event
 				if (group != null) {
 					try {
-						resourcesResolvedFromEvent = perun.getResourcesManager()
-								.getAssignedResources(perunSession, group);
+						resourcesResolvedFromEvent = eventResolutionCache.getAssignedResources(perunSession, group);
 					} catch (GroupNotExistsException ex) {
 						log.warn("Non-existing group found while resolving event. id={}", group.getId());
 					}
@@ -197,8 +226,7 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 									log.debug("Host found in event.id= {}.", host.getId());
 									facility = perun.getFacilitiesManager().getFacilityForHost(perunSession, host);
 									facilitiesResolvedFromEvent.add(facility);
-									resourcesResolvedFromEvent.addAll(perun.getFacilitiesManager()
-											.getAssignedResources(perunSession, facility));
+									resourcesResolvedFromEvent.addAll(eventResolutionCache.getAssignedResources(perunSession, facility));
 								} catch (FacilityNotExistsException ex) {
 									log.warn(
 											"Host on non-existing facility found while resolving event. Host id={}",
@@ -247,8 +275,8 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 			Facility facilityResolvedFromEvent;
 			List<Service> servicesResolvedFromResource;
 			try {
-				facilityResolvedFromEvent = perun.getResourcesManager().getFacility(perunSession, r);
-				servicesResolvedFromResource = perun.getResourcesManager().getAssignedServices(perunSession, r);
+				facilityResolvedFromEvent = eventResolutionCache.getFacility(perunSession, r);
+				servicesResolvedFromResource = eventResolutionCache.getAssignedServices(perunSession, r);
 				// process only services resolved from event if any
 				if (!servicesResolvedFromEvent.isEmpty())
 					servicesResolvedFromResource.retainAll(servicesResolvedFromEvent);
@@ -265,8 +293,7 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 					// TODO (CHECKME) This method can raise
 					// ServiceNotExistsException. Is it ok? Or it must be
 					// catch?
-					List<AttributeDefinition> serviceRequiredAttributes = perun
-							.getAttributesManager()
+					Set<AttributeDefinition> serviceRequiredAttributes = eventResolutionCache
 							.getRequiredAttributesDefinition(perunSession, s);
 					if (!serviceRequiredAttributes.contains(attributeDefinition))
 						continue;
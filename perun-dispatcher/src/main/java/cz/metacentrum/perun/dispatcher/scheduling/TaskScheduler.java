@@ -304,7 +304,7 @@ public class TaskScheduler extends AbstractRunner {
 			return ERROR;
 		}
 
-		// task|[engine_id]|[task_id][is_forced][exec_service_id][facility]|[destination_list]|[dependency_list]
+		// task|[engine_id]|[task_id][is_forced][exec_service_id][facility]|[destination_list]|[data_fingerprint]
 		// - the task|[engine_id] part is added by dispatcherQueue
 		List<Destination> destinations = task.getDestinations();
 		if (task.isSourceUpdated() || destinations == null || destinations.isEmpty()) {
@@ -386,13 +386,20 @@ public class TaskScheduler extends AbstractRunner {
 		}
 		destinations_s.append("]");
 
+		// version of data (ID of the last event resolved to the task) lets engine skip GEN, when no event changed them since
+		String fingerprint = null;
+		if (Boolean.parseBoolean(dispatcherProperties.getProperty("dispatcher.task.dataFingerprint", "false"))) {
+			fingerprint = task.getDataFingerprint();
+		}
+
 		// send message async
 
 		engineMessageProducer.sendMessage("[" + task.getId() + "]["
 				+ task.isPropagationForced() + "]|["
 				+ fixStringSeparators(task.getService().serializeToString()) + "]|["
 				+ fixStringSeparators(task.getFacility().serializeToString()) + "]|["
-				+ fixStringSeparators(destinations_s.toString()) + "]");
+				+ fixStringSeparators(destinations_s.toString()) + "]"
+				+ (fingerprint == null ? "" : "|[" + fingerprint + "]"));
 
 		// modify task status and reset forced flag
 
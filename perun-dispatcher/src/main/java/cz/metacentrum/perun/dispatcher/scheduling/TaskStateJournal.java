@@ -0,0 +1,482 @@
+package cz.metacentrum.perun.dispatcher.scheduling;
+
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.bl.TasksManagerBl;
+import cz.metacentrum.perun.taskslib.model.Task;
+import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import cz.metacentrum.perun.taskslib.model.TaskResult.TaskResultStatus;
+import cz.metacentrum.perun.taskslib.runners.impl.AbstractRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.annotation.Resource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Write-behind journal of Task states and TaskResults reported by Engines.
+ *
+ * Changes are appended to the journal file (in dispatcher.datadir) and kept in memory, where
+ * changes of the same Task are coalesced to its last state. Pending changes are written
+ * to the DB in batches by this runner every "dispatcher.task.journal.flushInterval" ms
+ * or sooner, when "dispatcher.task.journal.batchSize" changes are pending. Journal file
+ * is truncated after each successful flush, so changes not written to the DB before
+ * dispatcher restart are loaded from the file and written by reloading of SchedulingPool.
+ *
+ * When runner is not started (e.g. dispatcher is disabled), changes are written to the DB immediately.
+ *
+ * @see cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool
+ */
+@org.springframework.stereotype.Service(value = "taskStateJournal")
+public class TaskStateJournal extends AbstractRunner {
+
+	private final static Logger log = LoggerFactory.getLogger(TaskStateJournal.class);
+
+	private static final String JOURNAL_FILE_NAME = "task-state.journal";
+	private static final byte TASK_RECORD = 'T';
+	private static final byte TASK_RESULT_RECORD = 'R';
+
+	private TasksManagerBl tasksManagerBl;
+	private Properties dispatcherProperties;
+
+	private long flushInterval = 1000;
+	private int batchSize = 1000;
+	private File journalFile;
+
+	// pending changes and journal are guarded by this
+	private final Map<Integer, Task> pendingTasks = new LinkedHashMap<>();
+	private final Map<Integer, List<TaskResult>> pendingTaskResults = new LinkedHashMap<>();
+	private int pendingTaskResultsCount = 0;
+	private long oldestPendingChange = 0;
+	private DataOutputStream journal;
+	private boolean opened = false;
+	private volatile boolean running = false;
+
+	// statistics
+	private long flushes = 0;
+	private long flushedTasks = 0;
+	private long flushedTaskResults = 0;
+	private long lastFlushLag = 0;
+
+	// ----- setters -------------------------------------
+
+	public TasksManagerBl getTasksManagerBl() {
+		return tasksManagerBl;
+	}
+
+	@Autowired
+	public void setTasksManagerBl(TasksManagerBl tasksManagerBl) {
+		this.tasksManagerBl = tasksManagerBl;
+	}
+
+	public Properties getDispatcherProperties() {
+		return dispatcherProperties;
+	}
+
+	@Resource(name="dispatcherPropertiesBean")
+	public void setDispatcherProperties(Properties dispatcherProperties) {
+		this.dispatcherProperties = dispatcherProperties;
+		if (dispatcherProperties != null) {
+			try {
+				flushInterval = Long.parseLong(dispatcherProperties.getProperty("dispatcher.task.journal.flushInterval", "1000"));
+			} catch (NumberFormatException ex) {
+				flushInterval = 1000;
+			}
+			try {
+				batchSize = Integer.parseInt(dispatcherProperties.getProperty("dispatcher.task.journal.batchSize", "1000"));
+			} catch (NumberFormatException ex) {
+				batchSize = 1000;
+			}
+			journalFile = new File(dispatcherProperties.getProperty("dispatcher.datadir", "/tmp/perun-dispatcher-data"), JOURNAL_FILE_NAME);
+		}
+	}
+
+	// ----- methods -------------------------------------
+
+	/**
+	 * This method runs in own thread and periodically flushes pending changes to the DB.
+	 */
+	@Override
+	public void run() {
+
+		running = true;
+		log.debug("TaskStateJournal has started.");
+
+		while (!shouldStop()) {
+			try {
+				synchronized (this) {
+					if (getPendingCount() < batchSize) wait(flushInterval);
+				}
+				flush();
+			} catch (InterruptedException ex) {
+				log.error("Error in TaskStateJournal: {}", ex);
+				break;
+			} catch (Exception ex) {
+				log.error("Unable to flush Task states to DB, will retry: {}", ex);
+			}
+		}
+
+		running = false;
+		try {
+			flush();
+		} catch (Exception ex) {
+			log.error("Unable to flush Task states to DB, they are kept in journal {}: {}", journalFile, ex);
+		}
+		log.debug("TaskStateJournal has stopped.");
+
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Return true if runner is started and changes are written to the DB in batches by it.
+	 *
+	 * @return true if runner is started
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Store state of the Task. Pending state of the same Task is replaced by the new one.
+	 *
+	 * @param task Task to store
+	 */
+	public void updateTask(Task task) {
+		if (!isRunning()) {
+			tasksManagerBl.updateTask(task);
+			return;
+		}
+		synchronized (this) {
+			open();
+			appendTask(task);
+			pendingTasks.put(task.getId(), task);
+			onChange();
+		}
+	}
+
+	/**
+	 * Store TaskResult reported by Engine.
+	 *
+	 * @param taskResult TaskResult to store
+	 * @param engineId ID of Engine
+	 */
+	public void insertTaskResult(TaskResult taskResult, int engineId) {
+		if (!isRunning()) {
+			tasksManagerBl.insertNewTaskResult(taskResult, engineId);
+			return;
+		}
+		synchronized (this) {
+			open();
+			appendTaskResult(taskResult, engineId);
+			pendingTaskResults.computeIfAbsent(engineId, id -> new ArrayList<>()).add(taskResult);
+			pendingTaskResultsCount++;
+			onChange();
+		}
+	}
+
+	/**
+	 * Write all pending changes to the DB in batches and truncate the journal.
+	 * If writing fails, changes are kept and will be written by the next flush.
+	 */
+	public synchronized void flush() {
+
+		open();
+		if (getPendingCount() == 0) return;
+
+		long start = System.currentTimeMillis();
+		int tasks = pendingTasks.size();
+		int taskResults = pendingTaskResultsCount;
+
+		try {
+			tasksManagerBl.updateTasks(new ArrayList<>(pendingTasks.values()));
+			pendingTasks.clear();
+
+			Iterator<Map.Entry<Integer, List<TaskResult>>> iterator = pendingTaskResults.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Integer, List<TaskResult>> entry = iterator.next();
+				insertTaskResults(entry.getValue(), entry.getKey());
+				iterator.remove();
+			}
+			pendingTaskResultsCount = 0;
+		} catch (RuntimeException ex) {
+			// rewrite the journal, so it contains only changes not written to the DB
+			pendingTaskResultsCount = 0;
+			for (List<TaskResult> engineTaskResults : pendingTaskResults.values()) {
+				pendingTaskResultsCount += engineTaskResults.size();
+			}
+			rewriteJournal();
+			throw ex;
+		}
+
+		flushes++;
+		flushedTasks += tasks;
+		flushedTaskResults += taskResults;
+		lastFlushLag = start - oldestPendingChange;
+		oldestPendingChange = 0;
+		rewriteJournal();
+
+		log.debug("Flushed {} Task states and {} TaskResults to DB in {} ms, flush lag was {} ms.",
+				tasks, taskResults, System.currentTimeMillis() - start, lastFlushLag);
+
+	}
+
+	/**
+	 * Load changes left in the journal by previous run of dispatcher and write them with
+	 * all other pending changes to the DB. Called before Tasks are reloaded from the DB.
+	 */
+	public synchronized void replay() {
+		open();
+		flush();
+	}
+
+	/**
+	 * Return how long is the oldest pending change waiting to be written to the DB.
+	 *
+	 * @return flush lag in ms or 0 if there is no pending change
+	 */
+	public synchronized long getFlushLag() {
+		return oldestPendingChange == 0 ? 0 : System.currentTimeMillis() - oldestPendingChange;
+	}
+
+	/**
+	 * @return number of pending changes (Task states and TaskResults)
+	 */
+	public synchronized int getPendingCount() {
+		return pendingTasks.size() + pendingTaskResultsCount;
+	}
+
+	/**
+	 * Return string representation of journal state for reports.
+	 *
+	 * @return journal state
+	 */
+	public synchronized String getReport() {
+		return "Dispatcher TaskStateJournal report:\n" +
+				"  PENDING TASKS: " + pendingTasks.size() +
+				"  PENDING RESULTS: " + pendingTaskResultsCount +
+				"  FLUSH LAG: " + getFlushLag() + " ms" +
+				"  LAST FLUSH LAG: " + lastFlushLag + " ms" +
+				"  FLUSHES: " + flushes +
+				"  FLUSHED TASKS: " + flushedTasks +
+				"  FLUSHED RESULTS: " + flushedTaskResults;
+	}
+
+	/**
+	 * Insert TaskResults of one engine in a batch. If batch fails, TaskResults are inserted one by one
+	 * and those, which can't be inserted (e.g. Task was deleted), are skipped. Inserted TaskResults are removed from the list.
+	 */
+	private void insertTaskResults(List<TaskResult> taskResults, int engineId) {
+		try {
+			tasksManagerBl.insertNewTaskResults(taskResults, engineId);
+			taskResults.clear();
+		} catch (DataIntegrityViolationException ex) {
+			log.warn("Batch of {} TaskResults from Engine {} can't be inserted, inserting them one by one: {}", taskResults.size(), engineId, ex.getMessage());
+			Iterator<TaskResult> iterator = taskResults.iterator();
+			while (iterator.hasNext()) {
+				TaskResult taskResult = iterator.next();
+				try {
+					tasksManagerBl.insertNewTaskResult(taskResult, engineId);
+				} catch (DataIntegrityViolationException e) {
+					log.error("Could not save TaskResult from Engine {}, {}, {}", engineId, taskResult, e.getMessage());
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	private void onChange() {
+		if (oldestPendingChange == 0) oldestPendingChange = System.currentTimeMillis();
+		if (getPendingCount() >= batchSize) notifyAll();
+	}
+
+	/**
+	 * Load changes left in the journal file and open it for appending new changes.
+	 */
+	private void open() {
+		if (opened) return;
+		opened = true;
+		if (journalFile == null) return;
+
+		if (journalFile.exists()) {
+			int records = 0;
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+				while (true) {
+					byte type;
+					try {
+						type = in.readByte();
+					} catch (EOFException ex) {
+						break;
+					}
+					if (type == TASK_RECORD) {
+						Task task = readTask(in);
+						pendingTasks.put(task.getId(), task);
+					} else if (type == TASK_RESULT_RECORD) {
+						int engineId = in.readInt();
+						pendingTaskResults.computeIfAbsent(engineId, id -> new ArrayList<>()).add(readTaskResult(in));
+						pendingTaskResultsCount++;
+					} else {
+						throw new IOException("Unknown record type " + type);
+					}
+					records++;
+				}
+			} catch (IOException ex) {
+				// last record might not be written completely, when dispatcher was killed
+				log.warn("Journal {} was read only partially: {}", journalFile, ex.getMessage());
+			}
+			if (records > 0) {
+				log.info("Loaded {} Task states and {} TaskResults not written to DB from journal {}.", pendingTasks.size(), pendingTaskResultsCount, journalFile);
+				oldestPendingChange = System.currentTimeMillis();
+			}
+		} else if (journalFile.getParentFile() != null) {
+			journalFile.getParentFile().mkdirs();
+		}
+		rewriteJournal();
+	}
+
+	/**
+	 * Truncate the journal file and write all pending changes to it.
+	 */
+	private void rewriteJournal() {
+		if (journalFile == null) return;
+		try {
+			if (journal != null) journal.close();
+			journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, false)));
+			for (Task task : pendingTasks.values()) {
+				writeTask(task);
+			}
+			for (Map.Entry<Integer, List<TaskResult>> entry : pendingTaskResults.entrySet()) {
+				for (TaskResult taskResult : entry.getValue()) {
+					writeTaskResult(taskResult, entry.getKey());
+				}
+			}
+			journal.flush();
+		} catch (IOException ex) {
+			log.error("Unable to write journal {}, pending changes are kept only in memory: {}", journalFile, ex.getMessage());
+			journal = null;
+		}
+	}
+
+	private void appendTask(Task task) {
+		if (journal == null) return;
+		try {
+			writeTask(task);
+			journal.flush();
+		} catch (IOException ex) {
+			log.error("[{}] Unable to write Task state to journal {}: {}", task.getId(), journalFile, ex.getMessage());
+		}
+	}
+
+	private void appendTaskResult(TaskResult taskResult, int engineId) {
+		if (journal == null) return;
+		try {
+			writeTaskResult(taskResult, engineId);
+			journal.flush();
+		} catch (IOException ex) {
+			log.error("[{}] Unable to write TaskResult to journal {}: {}", taskResult.getTaskId(), journalFile, ex.getMessage());
+		}
+	}
+
+	private void writeTask(Task task) throws IOException {
+		journal.writeByte(TASK_RECORD);
+		journal.writeInt(task.getId());
+		journal.writeInt(task.getServiceId());
+		journal.writeInt(task.getFacilityId());
+		journal.writeInt(task.getRecurrence());
+		journal.writeInt(task.getDelay());
+		writeString(task.getStatus().toString());
+		writeString(task.getSchedule() == null ? null : task.getSchedule().toString());
+		writeString(task.getStartTime() == null ? null : task.getStartTime().toString());
+		writeString(task.getEndTime() == null ? null : task.getEndTime().toString());
+	}
+
+	private Task readTask(DataInputStream in) throws IOException {
+		Task task = new Task();
+		task.setId(in.readInt());
+		Service service = new Service();
+		service.setId(in.readInt());
+		task.setService(service);
+		Facility facility = new Facility();
+		facility.setId(in.readInt());
+		task.setFacility(facility);
+		task.setRecurrence(in.readInt());
+		task.setDelay(in.readInt());
+		task.setStatus(TaskStatus.valueOf(readString(in)));
+		String schedule = readString(in);
+		task.setSchedule(schedule == null ? null : LocalDateTime.parse(schedule));
+		String startTime = readString(in);
+		task.setStartTime(startTime == null ? null : LocalDateTime.parse(startTime));
+		String endTime = readString(in);
+		task.setEndTime(endTime == null ? null : LocalDateTime.parse(endTime));
+		return task;
+	}
+
+	private void writeTaskResult(TaskResult taskResult, int engineId) throws IOException {
+		journal.writeByte(TASK_RESULT_RECORD);
+		journal.writeInt(engineId);
+		journal.writeInt(taskResult.getTaskId());
+		journal.writeInt(taskResult.getDestinationId());
+		writeString(taskResult.getStatus().toString());
+		writeString(taskResult.getErrorMessage());
+		writeString(taskResult.getStandardMessage());
+		journal.writeInt(taskResult.getReturnCode());
+		journal.writeLong(taskResult.getTimestamp().getTime());
+	}
+
+	private TaskResult readTaskResult(DataInputStream in) throws IOException {
+		TaskResult taskResult = new TaskResult();
+		taskResult.setTaskId(in.readInt());
+		taskResult.setDestinationId(in.readInt());
+		taskResult.setStatus(TaskResultStatus.valueOf(readString(in)));
+		taskResult.setErrorMessage(readString(in));
+		taskResult.setStandardMessage(readString(in));
+		taskResult.setReturnCode(in.readInt());
+		taskResult.setTimestamp(new Date(in.readLong()));
+		return taskResult;
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			journal.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		journal.writeInt(bytes.length);
+		journal.write(bytes);
+	}
+
+	private String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -20,6 +20,7 @@ import cz.metacentrum.perun.core.bl.TasksManagerBl;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducer;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducerPool;
 import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
+import cz.metacentrum.perun.dispatcher.scheduling.TaskStateJournal;
 import cz.metacentrum.perun.taskslib.exceptions.TaskStoreException;
 import cz.metacentrum.perun.taskslib.model.Task;
 import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
@@ -70,6 +71,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 	private TaskStore taskStore;
 	private TasksManagerBl tasksManagerBl;
 	private EngineMessageProducerPool engineMessageProducerPool;
+	private TaskStateJournal taskStateJournal;
 	private Perun perun;
 
 	public SchedulingPoolImpl() {
@@ -141,6 +143,15 @@ public class SchedulingPoolImpl implements SchedulingPool {
 		this.engineMessageProducerPool = engineMessageProducerPool;
 	}
 
+	public TaskStateJournal getTaskStateJournal() {
+		return taskStateJournal;
+	}
+
+	@Autowired
+	public void setTaskStateJournal(TaskStateJournal taskStateJournal) {
+		this.taskStateJournal = taskStateJournal;
+	}
+
 	public Perun getPerun() {
 		return perun;
 	}
@@ -327,7 +338,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 			task.setGenEndTime((LocalDateTime) null);
 			task.setSendEndTime((LocalDateTime) null);
 
-			tasksManagerBl.updateTask(task);
+			taskStateJournal.updateTask(task);
 
 		}
 
@@ -433,7 +444,8 @@ public class SchedulingPoolImpl implements SchedulingPool {
 				"  SENDING:  " + sending +
 				"  SENDEEROR:  " + senderror +
 				"  DONE: " + done +
-				"  ERROR: " + error;
+				"  ERROR: " + error + "\n" +
+				taskStateJournal.getReport();
 	}
 
 	@Override
@@ -451,6 +463,9 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 		this.clear();
 
+		// write Task states and TaskResults, which were not written to DB before restart
+		taskStateJournal.replay();
+
 		for (Pair<Task, Integer> pair : tasksManagerBl.listAllTasksAndClients()) {
 			Task task = pair.getLeft();
 			EngineMessageProducer queue = engineMessageProducerPool.getProducerByClient(pair.getRight());
@@ -467,7 +482,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 				if (task.getStatus().equals(TaskStatus.WAITING)) {
 					// if were in WAITING, reset timestamp to now
 					task.setSchedule(LocalDateTime.now());
-					tasksManagerBl.updateTask(task);
+					taskStateJournal.updateTask(task);
 				}
 				scheduleTask(task, 0);
 			}
@@ -564,7 +579,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 				break;
 		}
 
-		tasksManagerBl.updateTask(task);
+		taskStateJournal.updateTask(task);
 
 		log.debug("[{}] Task status changed from {} to {} as reported by Engine: {}.", task.getId(), oldStatus, task.getStatus(), task);
 
@@ -595,8 +610,13 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 	@Override
 	public void onTaskDestinationComplete(int clientID, TaskResult taskResult) {
+		if (taskResult.getLatencyHistogram() != null) {
+			log.debug("[{}] Latency histogram of Destination {} reported by Engine {}: {} (bounds in ms: {}).", taskResult.getTaskId(),
+					taskResult.getDestinationId(), clientID, Arrays.toString(taskResult.getLatencyHistogram()),
+					Arrays.toString(TaskResult.LATENCY_HISTOGRAM_BOUNDS));
+		}
 		try {
-			tasksManagerBl.insertNewTaskResult(taskResult, clientID);
+			taskStateJournal.insertTaskResult(taskResult, clientID);
 		} catch (Exception e) {
 			log.error("Could not save TaskResult from Engine {}, {}, {}", clientID, taskResult, e.getMessage());
 		}
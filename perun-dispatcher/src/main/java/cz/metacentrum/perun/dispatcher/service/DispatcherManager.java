@@ -84,6 +84,16 @@ public interface DispatcherManager {
 	 */
 	void stopPropagationMaintaining();
 
+	/**
+	 * Start periodical writing of Task states and TaskResults to the DB in batches.
+	 */
+	void startFlushingTaskStates();
+
+	/**
+	 * Stop periodical writing of Task states and TaskResults and write all pending changes to the DB.
+	 */
+	void stopFlushingTaskStates();
+
 	/**
 	 * Remove all TasksResults older than 3 days.
 	 * Last one TaskResult per facility/service/destination is always kept, even if older than 3 days.
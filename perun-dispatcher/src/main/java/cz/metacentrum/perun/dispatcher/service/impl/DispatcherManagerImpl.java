@@ -12,6 +12,7 @@ import cz.metacentrum.perun.dispatcher.processing.SmartMatcher;
 import cz.metacentrum.perun.dispatcher.scheduling.PropagationMaintainer;
 import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
 import cz.metacentrum.perun.dispatcher.scheduling.TaskScheduler;
+import cz.metacentrum.perun.dispatcher.scheduling.TaskStateJournal;
 import cz.metacentrum.perun.dispatcher.service.DispatcherManager;
 
 import org.slf4j.Logger;
@@ -48,6 +49,7 @@ public class DispatcherManagerImpl implements DispatcherManager {
 	private AuditerListener auditerListener;
 	private Properties dispatcherProperties;
 	private PropagationMaintainer propagationMaintainer;
+	private TaskStateJournal taskStateJournal;
 
 	// allow cleaning of old TaskResults
 	private boolean cleanTaskResultsJobEnabled = true;
@@ -164,6 +166,15 @@ public class DispatcherManagerImpl implements DispatcherManager {
 		this.propagationMaintainer = propagationMaintainer;
 	}
 
+	public TaskStateJournal getTaskStateJournal() {
+		return taskStateJournal;
+	}
+
+	@Autowired
+	public void setTaskStateJournal(TaskStateJournal taskStateJournal) {
+		this.taskStateJournal = taskStateJournal;
+	}
+
 	public boolean isCleanTaskResultsJobEnabled() {
 		return cleanTaskResultsJobEnabled;
 	}
@@ -263,6 +274,25 @@ public class DispatcherManagerImpl implements DispatcherManager {
 		propagationMaintainer.stop();
 	}
 
+	@Override
+	public void startFlushingTaskStates() {
+		try {
+			taskExecutor.execute(taskStateJournal);
+		} catch (Exception ex) {
+			log.error("Unable to start TaskStateJournal thread.");
+		}
+	}
+
+	@Override
+	public void stopFlushingTaskStates() {
+		taskStateJournal.stop();
+		try {
+			taskStateJournal.flush();
+		} catch (Exception ex) {
+			log.error("Unable to flush Task states to DB on shutdown: {}", ex);
+		}
+	}
+
 	@Override
 	public void cleanOldTaskResults() {
 		if (cleanTaskResultsJobEnabled) {
@@ -305,6 +335,8 @@ public class DispatcherManagerImpl implements DispatcherManager {
 			prefetchRulesAndDispatcherQueues();
 			// Reload tasks from database
 			loadSchedulingPool();
+			// Start writing Task states to database in batches
+			startFlushingTaskStates();
 			// Start listening to Audit messages
 			startAuditerListener();
 			// Start Event Processor
@@ -335,6 +367,7 @@ public class DispatcherManagerImpl implements DispatcherManager {
 		stopTaskScheduling();
 		stopPropagationMaintaining();
 		stopProcessingSystemMessages();
+		stopFlushingTaskStates();
 		stopPerunHornetQServer();
 	}
 
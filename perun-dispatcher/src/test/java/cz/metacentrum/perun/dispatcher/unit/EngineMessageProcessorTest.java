@@ -1,11 +1,26 @@
 package cz.metacentrum.perun.dispatcher.unit;
 
+import cz.metacentrum.perun.core.api.Destination;
 import cz.metacentrum.perun.dispatcher.AbstractDispatcherTest;
+import cz.metacentrum.perun.dispatcher.exceptions.MessageFormatException;
+import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducer;
+import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
+import cz.metacentrum.perun.taskslib.model.EngineMessageBatch;
+import cz.metacentrum.perun.taskslib.model.Task;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import org.junit.After;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProcessor;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 /**
  *
  * @author Michal Voců
@@ -13,8 +28,17 @@ import cz.metacentrum.perun.dispatcher.jms.EngineMessageProcessor;
  */
 public class EngineMessageProcessorTest extends AbstractDispatcherTest {
 
+	private final static String CLASS_NAME = "EngineMessageProcessor.";
+
 	@Autowired
 	private EngineMessageProcessor engineMessageProcessor;
+	@Autowired
+	private SchedulingPool schedulingPool;
+
+	@After
+	public void cleanup() {
+		schedulingPool.clear();
+	}
 
 	@Test
 	public void processDispatcherQueueAndMatchingRuleTest() {
@@ -24,4 +48,55 @@ public class EngineMessageProcessorTest extends AbstractDispatcherTest {
 		String testMessage_goodbye = "";
 	}
 
+	@Test
+	public void processBatchTest() throws Exception {
+		System.out.println(CLASS_NAME + "processBatch");
+
+		Destination destination = new Destination(1, "par_dest1", "host", "PARALLEL");
+		Task task = new Task();
+		task.setId(1);
+		task.setService(service1);
+		task.setFacility(facility1);
+		task.setDestinations(Collections.singletonList(destination));
+		task.setStatus(Task.TaskStatus.PLANNED);
+		task.setSchedule(LocalDateTime.now());
+		schedulingPool.addToPool(task, new EngineMessageProducer(1, "test-queue"));
+
+		TaskResult taskResult = new TaskResult();
+		taskResult.setTaskId(task.getId());
+		taskResult.setDestinationId(destination.getId());
+		taskResult.setDestination(destination);
+		taskResult.setService(service1);
+		taskResult.setStatus(TaskResult.TaskResultStatus.DONE);
+		taskResult.setTimestamp(new Date());
+		taskResult.setStandardMessage("std: \"out\"");
+		taskResult.setLatencyHistogram(new long[] {1, 0, 0, 0, 0, 0});
+
+		EngineMessageBatch batch = new EngineMessageBatch();
+		batch.getStatusChanges().add(new EngineMessageBatch.TaskStatusChange(task.getId(), Task.TaskStatus.GENERATING, 1000));
+		batch.getStatusChanges().add(new EngineMessageBatch.TaskStatusChange(task.getId(), Task.TaskStatus.GENERATED, 2000));
+		batch.getTaskResults().add(taskResult);
+
+		String json = batch.toJson();
+		EngineMessageBatch parsed = EngineMessageBatch.fromJson(json);
+		assertEquals(EngineMessageBatch.VERSION, parsed.getVersion());
+		assertEquals(2, parsed.getStatusChanges().size());
+		assertEquals(Task.TaskStatus.GENERATED, parsed.getStatusChanges().get(1).getStatus());
+		assertEquals(taskResult, parsed.getTaskResults().get(0));
+		assertEquals(service1, parsed.getTaskResults().get(0).getService());
+
+		// status changes are applied in order
+		engineMessageProcessor.processBatch(1, json);
+		assertEquals(Task.TaskStatus.GENERATED, task.getStatus());
+		assertNotNull(task.getGenStartTime());
+		assertNotNull(task.getGenEndTime());
+
+		try {
+			engineMessageProcessor.processBatch(1, json.replaceFirst("\"version\":1", "\"version\":2"));
+			throw new AssertionError("Batch of unsupported version was processed.");
+		} catch (MessageFormatException ex) {
+			// expected
+		}
+	}
+
 }
@@ -41,6 +41,7 @@ public class EventProcessorTest extends AbstractDispatcherTest {
 		LinkedBlockingQueue<Event> mockQueue = new LinkedBlockingQueue<>();
 
 		Event event = new Event();
+		event.setId(42);
 		event.setTimeStamp(System.currentTimeMillis());
 		event.setHeader("portishead");
 		event.setData(new DirectMemberAddedToGroup(member1, group1));
@@ -61,6 +62,7 @@ public class EventProcessorTest extends AbstractDispatcherTest {
 					"task service is different");
 			Assert.isTrue(facility1.equals(task.getFacility()), "task Facility is different");
 			Assert.isTrue(task.getStatus().equals(TaskStatus.WAITING), "task status is not waiting");
+			Assert.isTrue("42".equals(task.getDataFingerprint()), "task data version is not ID of the event");
 		}
 	}
 
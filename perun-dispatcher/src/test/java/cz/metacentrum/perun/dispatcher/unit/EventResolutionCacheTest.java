@@ -0,0 +1,70 @@
+package cz.metacentrum.perun.dispatcher.unit;
+
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.GroupAssignedToResource;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ServiceRemovedFromResource;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.dispatcher.AbstractDispatcherTest;
+import cz.metacentrum.perun.dispatcher.processing.EventResolutionCache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+public class EventResolutionCacheTest extends AbstractDispatcherTest {
+
+	@Autowired
+	private PerunBl perun;
+	@Autowired
+	private EventResolutionCache eventResolutionCache;
+
+	@Before
+	public void clearCache() {
+		eventResolutionCache.clear();
+	}
+
+	@Test
+	public void cachedResourcesAreInvalidatedByEvent() throws Exception {
+		System.out.println("EventResolutionCache.cachedResourcesAreInvalidatedByEvent()");
+
+		long hits = eventResolutionCache.getHits();
+		long misses = eventResolutionCache.getMisses();
+
+		Assert.assertEquals(1, eventResolutionCache.getAssignedResources(sess, group1).size());
+		Assert.assertEquals(1, eventResolutionCache.getAssignedResources(sess, group1).size());
+		Assert.assertEquals(hits + 1, eventResolutionCache.getHits());
+		Assert.assertEquals(misses + 1, eventResolutionCache.getMisses());
+
+		Resource resource2 = new Resource(0, "testResource2", "test resource", facility1.getId(), vo1.getId());
+		resource2 = perun.getResourcesManager().createResource(sess, resource2, vo1, facility1);
+		perun.getResourcesManager().assignGroupToResource(sess, group1, resource2);
+
+		// change is visible after the event is processed
+		Assert.assertEquals(1, eventResolutionCache.getAssignedResources(sess, group1).size());
+		eventResolutionCache.invalidate(new GroupAssignedToResource(group1, resource2));
+		Assert.assertEquals(2, eventResolutionCache.getAssignedResources(sess, group1).size());
+	}
+
+	@Test
+	public void cachedServicesAreInvalidatedByEvent() throws Exception {
+		System.out.println("EventResolutionCache.cachedServicesAreInvalidatedByEvent()");
+
+		List<Service> services = eventResolutionCache.getAssignedServices(sess, resource1);
+		Assert.assertEquals(2, services.size());
+		// returned list is a copy
+		services.clear();
+		Assert.assertEquals(2, eventResolutionCache.getAssignedServices(sess, resource1).size());
+
+		perun.getResourcesManager().removeService(sess, resource1, service2);
+		eventResolutionCache.invalidate(new ServiceRemovedFromResource(service2, resource1));
+
+		services = eventResolutionCache.getAssignedServices(sess, resource1);
+		Assert.assertEquals(1, services.size());
+		Assert.assertTrue(services.contains(service1));
+		Assert.assertTrue(eventResolutionCache.getHitRatio() > 0);
+	}
+
+}
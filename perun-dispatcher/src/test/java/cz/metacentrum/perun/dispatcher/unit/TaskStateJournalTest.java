@@ -0,0 +1,142 @@
+package cz.metacentrum.perun.dispatcher.unit;
+
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.core.bl.TasksManagerBl;
+import cz.metacentrum.perun.dispatcher.AbstractDispatcherTest;
+import cz.metacentrum.perun.dispatcher.scheduling.TaskStateJournal;
+import cz.metacentrum.perun.taskslib.model.Task;
+import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import cz.metacentrum.perun.taskslib.model.TaskResult.TaskResultStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Properties;
+
+public class TaskStateJournalTest extends AbstractDispatcherTest {
+
+	@Autowired
+	private PerunBl perun;
+	@Autowired
+	private TasksManagerBl tasksManagerBl;
+
+	private File dataDir;
+	private Task task;
+	private Destination destination;
+
+	@Before
+	public void setUp() throws Exception {
+		dataDir = Files.createTempDirectory("perun-dispatcher-journal").toFile();
+
+		task = new Task();
+		task.setId(1000);
+		task.setService(service1);
+		task.setFacility(facility1);
+		task.setStatus(TaskStatus.PLANNED);
+		task.setSchedule(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+		tasksManagerBl.insertTask(task, 1);
+
+		destination = perun.getServicesManagerBl().addDestination(sess, service1, facility1, new Destination(0, "journal.test", "host", "PARALLEL"));
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dataDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dataDir.delete();
+	}
+
+	@Test
+	public void changesAreCoalescedAndFlushedInBatch() throws Exception {
+		System.out.println("TaskStateJournal.changesAreCoalescedAndFlushedInBatch()");
+
+		TaskStateJournal journal = createJournal();
+
+		task.setStatus(TaskStatus.ERROR);
+		journal.updateTask(task);
+		task.setStatus(TaskStatus.DONE);
+		task.setStartTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+		journal.updateTask(task);
+		journal.insertTaskResult(createTaskResult(), 1);
+
+		// both states of the same Task are coalesced
+		Assert.assertEquals(2, journal.getPendingCount());
+		Assert.assertEquals(TaskStatus.PLANNED, tasksManagerBl.getTaskById(task.getId()).getStatus());
+		Assert.assertTrue(tasksManagerBl.getTaskResultsByTask(task.getId()).isEmpty());
+
+		journal.flush();
+
+		Assert.assertEquals(0, journal.getPendingCount());
+		Assert.assertEquals(0, journal.getFlushLag());
+		Assert.assertEquals(TaskStatus.DONE, tasksManagerBl.getTaskById(task.getId()).getStatus());
+		Assert.assertEquals(1, tasksManagerBl.getTaskResultsByTask(task.getId()).size());
+		Assert.assertTrue(journal.getReport().contains("FLUSHES: 1"));
+	}
+
+	@Test
+	public void pendingChangesAreReplayedFromJournal() throws Exception {
+		System.out.println("TaskStateJournal.pendingChangesAreReplayedFromJournal()");
+
+		TaskStateJournal journal = createJournal();
+		task.setStatus(TaskStatus.DONE);
+		task.setEndTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+		journal.updateTask(task);
+		journal.insertTaskResult(createTaskResult(), 1);
+		Assert.assertEquals(2, journal.getPendingCount());
+
+		// journal is not flushed, restarted dispatcher loads changes from the file
+		TaskStateJournal restartedJournal = createJournal();
+		restartedJournal.replay();
+
+		Assert.assertEquals(0, restartedJournal.getPendingCount());
+		Task storedTask = tasksManagerBl.getTaskById(task.getId());
+		Assert.assertEquals(TaskStatus.DONE, storedTask.getStatus());
+		Assert.assertEquals(task.getEndTime(), storedTask.getEndTime());
+		TaskResult storedTaskResult = tasksManagerBl.getTaskResultsByTask(task.getId()).get(0);
+		Assert.assertEquals(destination.getId(), storedTaskResult.getDestinationId());
+		Assert.assertEquals("output", storedTaskResult.getStandardMessage());
+	}
+
+	private TaskStateJournal createJournal() {
+		TaskStateJournal journal = new TaskStateJournal() {
+			@Override
+			public boolean isRunning() {
+				// flushed only explicitly by the test
+				return true;
+			}
+		};
+		journal.setTasksManagerBl(tasksManagerBl);
+		Properties properties = new Properties();
+		properties.setProperty("dispatcher.datadir", dataDir.getAbsolutePath());
+		properties.setProperty("dispatcher.task.journal.batchSize", "100");
+		journal.setDispatcherProperties(properties);
+		return journal;
+	}
+
+	private TaskResult createTaskResult() {
+		TaskResult taskResult = new TaskResult();
+		taskResult.setTaskId(task.getId());
+		taskResult.setDestinationId(destination.getId());
+		taskResult.setDestination(destination);
+		taskResult.setService(service1);
+		taskResult.setStatus(TaskResultStatus.DONE);
+		taskResult.setStandardMessage("output");
+		taskResult.setReturnCode(0);
+		taskResult.setTimestamp(new Date());
+		return taskResult;
+	}
+
+}
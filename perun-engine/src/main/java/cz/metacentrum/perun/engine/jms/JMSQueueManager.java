@@ -1,8 +1,13 @@
 package cz.metacentrum.perun.engine.jms;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -24,12 +29,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.task.TaskExecutor;
 
 import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.taskslib.model.EngineMessageBatch;
 import cz.metacentrum.perun.taskslib.model.Task;
 import cz.metacentrum.perun.taskslib.model.TaskResult;
 
 /**
  * Class used to send messages through JMS to Dispatcher and also to initiate/close the needed connection.
  *
+ * Engine advertises EngineMessageBatch.PROTOCOL in its "register" message. Once Dispatcher confirms it,
+ * Task states and TaskResults are queued and sent by a background thread in batches (all messages queued
+ * since the last send, up to "engine.messages.batch.max"), otherwise each of them is sent as a text message.
+ *
  * @author Michal Karm Babacek
  * @author Pavel Zlámal <zlamal@cesnet.cz>
  */
@@ -51,6 +61,9 @@ public class JMSQueueManager {
 	private Connection connection = null;
 	private boolean needToConnect = true;
 	private int waitTime = 0;
+	private volatile boolean batchProtocol = false;
+	private final BlockingQueue<Object> pendingMessages = new LinkedBlockingQueue<>();
+	private Thread batchSender = null;
 
 	/**
 	 *
@@ -116,8 +129,13 @@ public class JMSQueueManager {
 			// Step 6. Create a JMS Message Producer
 			producer = session.createProducer(queue);
 
-			TextMessage message = session.createTextMessage("register:"
-					+ propertiesBean.getProperty("engine.unique.id"));
+			// use plain text messages until dispatcher confirms the protocol again
+			batchProtocol = false;
+			String register = "register:" + propertiesBean.getProperty("engine.unique.id");
+			if (Boolean.parseBoolean(propertiesBean.getProperty("engine.messages.batch", "true"))) {
+				register += ":" + EngineMessageBatch.PROTOCOL;
+			}
+			TextMessage message = session.createTextMessage(register);
 
 			// Step 8. Send the Message
 			producer.send(message);
@@ -162,7 +180,42 @@ public class JMSQueueManager {
 
 	}
 
+	/**
+	 * Switch protocol of messages sent to Dispatcher. Called when Dispatcher confirms protocol advertised on "register".
+	 *
+	 * @param protocol Name of protocol accepted by Dispatcher
+	 */
+	public synchronized void setProtocol(String protocol) {
+		if (!EngineMessageBatch.PROTOCOL.equals(protocol)) {
+			log.warn("Dispatcher confirmed unknown protocol {}, plain text messages will be used.", protocol);
+			return;
+		}
+		if (batchSender == null) {
+			batchSender = new Thread(this::sendBatches, "engineMessageBatchSender");
+			batchSender.setDaemon(true);
+			batchSender.start();
+		}
+		batchProtocol = true;
+		log.info("Dispatcher accepted protocol {}, Task states and TaskResults will be sent in batches.", protocol);
+	}
+
 	public void reportTaskResult(TaskResult taskResult) throws JMSException {
+		if (batchProtocol) {
+			pendingMessages.add(taskResult);
+			return;
+		}
+		sendTaskResult(taskResult);
+	}
+
+	public void reportTaskStatus(int id, Task.TaskStatus status, long miliseconds) throws JMSException {
+		if (batchProtocol) {
+			pendingMessages.add(new EngineMessageBatch.TaskStatusChange(id, status, miliseconds));
+			return;
+		}
+		sendTaskStatus(id, status, miliseconds);
+	}
+
+	private void sendTaskResult(TaskResult taskResult) throws JMSException {
 		TextMessage message = session.createTextMessage("taskresult:" + propertiesBean.getProperty("engine.unique.id")
 				+ ":" + taskResult.serializeToString());
 		synchronized(producer) {
@@ -172,7 +225,7 @@ public class JMSQueueManager {
 				taskResult.getDestinationId());
 	}
 
-	public void reportTaskStatus(int id, Task.TaskStatus status, long miliseconds) throws JMSException {
+	private void sendTaskStatus(int id, Task.TaskStatus status, long miliseconds) throws JMSException {
 		TextMessage message = session.createTextMessage("task:"
 				+ propertiesBean.getProperty("engine.unique.id") + ":"
 				+ id + ":" + status + ":" + miliseconds);
@@ -180,7 +233,76 @@ public class JMSQueueManager {
 		log.info("[{}] Task state {} sent to dispatcher.", id, status);
 	}
 
+	/**
+	 * Send queued messages in batches until interrupted. Batch contains all messages queued while the previous one
+	 * was sent, so it grows with the load and single messages are sent without delay.
+	 */
+	private void sendBatches() {
+		int batchMax = Integer.parseInt(propertiesBean.getProperty("engine.messages.batch.max", "1000"));
+		while (true) {
+			List<Object> messages = new ArrayList<>();
+			try {
+				messages.add(pendingMessages.take());
+			} catch (InterruptedException e) {
+				log.error("Sending of batches to dispatcher was interrupted.", e);
+				return;
+			}
+			pendingMessages.drainTo(messages, batchMax - 1);
+			sendPendingMessages(messages);
+		}
+	}
+
+	private void sendPendingMessages(List<Object> messages) {
+		if (!batchProtocol) {
+			// engine is registering again, dispatcher might not accept batches anymore
+			sendSeparately(messages);
+			return;
+		}
+
+		EngineMessageBatch batch = new EngineMessageBatch();
+		for (Object pendingMessage : messages) {
+			if (pendingMessage instanceof TaskResult) {
+				batch.getTaskResults().add((TaskResult) pendingMessage);
+			} else {
+				batch.getStatusChanges().add((EngineMessageBatch.TaskStatusChange) pendingMessage);
+			}
+		}
+		try {
+			TextMessage message = session.createTextMessage("batch:" + propertiesBean.getProperty("engine.unique.id")
+					+ ":" + batch.toJson());
+			synchronized(producer) {
+				producer.send(message, DeliveryMode.PERSISTENT, 6, 0);
+			}
+			log.info("Batch of {} Task states and {} TaskResults sent to dispatcher.", batch.getStatusChanges().size(),
+					batch.getTaskResults().size());
+		} catch (JMSException | IOException e) {
+			log.warn("Error trying to send {} to dispatcher, sending its messages one by one.", batch, e);
+			sendSeparately(messages);
+		}
+	}
+
+	private void sendSeparately(List<Object> messages) {
+		for (Object pendingMessage : messages) {
+			try {
+				if (pendingMessage instanceof TaskResult) {
+					sendTaskResult((TaskResult) pendingMessage);
+				} else {
+					EngineMessageBatch.TaskStatusChange statusChange = (EngineMessageBatch.TaskStatusChange) pendingMessage;
+					sendTaskStatus(statusChange.getTaskId(), statusChange.getStatus(), statusChange.getTimestamp());
+				}
+			} catch (JMSException e) {
+				log.error("Error trying to send {} to dispatcher.", pendingMessage, e);
+			}
+		}
+	}
+
 	public void sendGoodByeAndClose() {
+		// send what is queued before dispatcher closes our tasks
+		List<Object> messages = new ArrayList<>();
+		pendingMessages.drainTo(messages);
+		if (!messages.isEmpty()) {
+			sendPendingMessages(messages);
+		}
 		try {
 			TextMessage message = session.createTextMessage("goodbye:"
 					+ propertiesBean.getProperty("engine.unique.id"));
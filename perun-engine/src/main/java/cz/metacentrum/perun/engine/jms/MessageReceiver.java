@@ -46,6 +46,8 @@ public class MessageReceiver implements Runnable {
 	private EventProcessor eventProcessor;
 	@Autowired
 	private TaskExecutor taskExecutorMessageProcess;
+	@Autowired
+	private JMSQueueManager jmsQueueManager;
 
 	public MessageReceiver() {
 	}
@@ -114,6 +116,14 @@ public class MessageReceiver implements Runnable {
 							// a separate thread at the moment, however it is
 							// very likely to be so in a future.
 							commandProcessor.receiveCommand(message);
+						} else if (messageType.equalsIgnoreCase("protocol")) {
+							// dispatcher confirmed protocol advertised on register: protocol|engineId|name
+							String[] parts = message.split("\\|", 3);
+							if (parts.length < 3) {
+								log.error("Malformed protocol message {}, plain text messages will be used.", message);
+							} else {
+								jmsQueueManager.setProtocol(parts[2].trim());
+							}
 						} else {
 							throw new UnknownMessageTypeException(
 									"UNKNOWN TYPE[" + messageType + "]");
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import cz.metacentrum.perun.engine.job.PerunEngineJob;
+import cz.metacentrum.perun.engine.model.Statistics;
 import cz.metacentrum.perun.engine.scheduling.PropagationMaintainer;
 
 /**
@@ -19,12 +20,15 @@ public class PropagationMaintainerJob implements PerunEngineJob {
 
 	@Autowired
 	private PropagationMaintainer propagationMaintainer;
+	@Autowired
+	private Statistics statistics;
 
 	@Override
 	public void doTheJob() {
 		log.debug("Beginning cleanup of stuck Tasks.");
 		propagationMaintainer.endStuckTasks();
 		log.info("Stuck Tasks cleanup finished.");
+		log.info(statistics.getStats());
 	}
 
 	public PropagationMaintainer getPropagationMaintainer() {
@@ -1,22 +1,48 @@
 package cz.metacentrum.perun.engine.model;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * 
- * @author Michal Karm Babacek JavaDoc coming soon...
- * 
+ * Counters of Engine processing since its start.
+ *
+ * Methods in this class are thread safe.
+ *
+ * @author Michal Karm Babacek
  */
 public class Statistics {
+
+	private final AtomicLong genExecuted = new AtomicLong();
+	private final AtomicLong genSkipped = new AtomicLong();
+
+	/**
+	 * Count GEN script, which was executed.
+	 */
+	public void genExecuted() {
+		genExecuted.incrementAndGet();
+	}
+
 	/**
-	 * To be defined
+	 * Count GEN, which was skipped, since its data were already generated.
 	 */
-	private String stats;
+	public void genSkipped() {
+		genSkipped.incrementAndGet();
+	}
+
+	public long getGenExecuted() {
+		return genExecuted.get();
+	}
+
+	public long getGenSkipped() {
+		return genSkipped.get();
+	}
 
 	public String getStats() {
-		return stats;
+		return "Engine statistics: GEN executed: " + getGenExecuted() + ", GEN skipped: " + getGenSkipped();
 	}
 
-	public void setStats(String stats) {
-		this.stats = stats;
+	@Override
+	public String toString() {
+		return getStats();
 	}
 
 }
@@ -40,12 +40,12 @@ public class EventParserImpl implements EventParser {
 
 		/*
 		 * Expected string format:
-		 * "task|[engine_id]|[task_id][is_forced]|[service]|[facility]|[destination_list]|[dependency_list]"
+		 * "task|[engine_id]|[task_id][is_forced]|[service]|[facility]|[destination_list]" optionally followed by "|[data_fingerprint]"
 		 *
 		 *  String eventParsingPattern =
 		 * "^event\\|([0-9]{1,6})\\|\\[([a-zA-Z0-9: ]+)\\]\\[([^\\]]+)\\]\\[(.*)\\]$";
 		 */
-		String eventParsingPattern = "^task\\|([0-9]{1,6})\\|\\[([0-9]+)\\]\\[([^\\]]+)\\]\\|\\[([^\\|]+)\\]\\|\\[([^\\|]+)\\]\\|\\[([^\\|]+)\\]$";
+		String eventParsingPattern = "^task\\|([0-9]{1,6})\\|\\[([0-9]+)\\]\\[([^\\]]+)\\]\\|\\[([^\\|]+)\\]\\|\\[([^\\|]+)\\]\\|\\[([^\\|]+)\\](?:\\|\\[([0-9a-f]+)\\])?$";
 		Pattern pattern = Pattern.compile(eventParsingPattern);
 		Matcher matcher = pattern.matcher(event);
 		boolean matchFound = matcher.find();
@@ -70,6 +70,7 @@ public class EventParserImpl implements EventParser {
 			String eventService = matcher.group(4);
 			String eventFacility = matcher.group(5);
 			String eventDestinationList = matcher.group(6);
+			String eventDataFingerprint = matcher.group(7);
 
 			// check possible enconding
 			if (!eventService.startsWith("Service")) {
@@ -137,6 +138,7 @@ public class EventParserImpl implements EventParser {
 			task.setDelay(service.getDelay());
 			task.setRecurrence(service.getRecurrence());
 			task.setPropagationForced(Boolean.parseBoolean(eventIsForced));
+			task.setDataFingerprint(eventDataFingerprint);
 
 			return task;
 
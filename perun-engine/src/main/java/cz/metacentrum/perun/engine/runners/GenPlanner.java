@@ -1,6 +1,8 @@
 package cz.metacentrum.perun.engine.runners;
 
 import cz.metacentrum.perun.engine.jms.JMSQueueManager;
+import cz.metacentrum.perun.engine.model.Statistics;
+import cz.metacentrum.perun.engine.scheduling.GenDataCache;
 import cz.metacentrum.perun.engine.scheduling.GenWorker;
 import cz.metacentrum.perun.engine.scheduling.SchedulingPool;
 import cz.metacentrum.perun.engine.scheduling.impl.BlockingGenExecutorCompletionService;
@@ -44,6 +46,10 @@ public class GenPlanner extends AbstractRunner {
 	private BlockingGenExecutorCompletionService genCompletionService;
 	@Autowired
 	private JMSQueueManager jmsQueueManager;
+	@Autowired
+	private GenDataCache genDataCache;
+	@Autowired
+	private Statistics statistics;
 	private File directory;
 
 	public GenPlanner() {}
@@ -66,7 +72,7 @@ public class GenPlanner extends AbstractRunner {
 				because we might be waiting on blockingSubmit() here !!
 				*/
 				task.setStatus(GENERATING);
-				GenWorker worker = new GenWorkerImpl(task, directory);
+				GenWorker worker = new GenWorkerImpl(task, directory, genDataCache, statistics);
 				genCompletionService.blockingSubmit(worker);
 				try {
 					jmsQueueManager.reportTaskStatus(task.getId(), task.getStatus(), task.getGenStartTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
@@ -133,7 +133,8 @@ public class SendCollector extends AbstractRunner {
 			try {
 
 				// report TaskResult to Dispatcher for this SendTask (Destination)
-				jmsQueueManager.reportTaskResult(schedulingPool.createTaskResult(task.getId(), destination.getId(), stderr, stdout, returnCode, service));
+				jmsQueueManager.reportTaskResult(schedulingPool.createTaskResult(task.getId(), destination.getId(), stderr, stdout, returnCode, service,
+						sendCompletionService.getLatencyHistogram(destination)));
 
 			} catch (JMSException e1) {
 				log.error("[{}] Error trying to reportTaskResult for Destination: {} to Dispatcher: {}", task.getId(), destination, e1);
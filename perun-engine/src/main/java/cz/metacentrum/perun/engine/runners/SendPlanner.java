@@ -28,7 +28,7 @@ import static cz.metacentrum.perun.taskslib.model.SendTask.SendTaskStatus.SENDIN
  *
  * It takes all GENERATED Tasks from generatedTasks blocking queue provided by GenCollector
  * and creates SendTask and SendWorker for each Destination and put them to BlockingSendExecutorCompletionService.
- * Processing waits on call of blockingSubmit() for each SendWorker.
+ * SendWorkers wait there for their turn, processing waits on call of blockingSubmit() only if too many of them are waiting.
  *
  * Expected Task status change GENERATED -> SENDING is reported to Dispatcher.
  * For Tasks without any Destination, status changes GENERATED -> ERROR and Task is removed from SchedulingPool (Engine).
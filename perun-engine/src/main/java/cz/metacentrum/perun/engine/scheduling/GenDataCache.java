@@ -0,0 +1,38 @@
+package cz.metacentrum.perun.engine.scheduling;
+
+import cz.metacentrum.perun.taskslib.model.Task;
+
+/**
+ * Remembers fingerprints of data generated by the last successful GEN of each service and facility.
+ * GEN output stays in the spool of GEN scripts, so when dispatcher sends Task with the same fingerprint
+ * again, GEN can be skipped and data can be sent right away.
+ *
+ * @see Task#getDataFingerprint()
+ * @see cz.metacentrum.perun.engine.scheduling.impl.GenWorkerImpl
+ */
+public interface GenDataCache {
+
+	/**
+	 * Check, whether data of the Task were already generated. It is never true for Tasks without fingerprint
+	 * and for forced propagations.
+	 *
+	 * @param task Task to check
+	 * @return TRUE if GEN of the Task can be skipped / FALSE otherwise
+	 */
+	boolean isGenerated(Task task);
+
+	/**
+	 * Forget data of the Task service and facility, since they are going to be overwritten by GEN.
+	 *
+	 * @param task Task, which GEN is starting
+	 */
+	void invalidate(Task task);
+
+	/**
+	 * Remember fingerprint of the Task data after successful GEN.
+	 *
+	 * @param task Task, which GEN finished successfully
+	 */
+	void generated(Task task);
+
+}
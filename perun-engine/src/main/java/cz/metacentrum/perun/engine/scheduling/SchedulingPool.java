@@ -48,4 +48,12 @@ public interface SchedulingPool extends TaskStore {
 	TaskResult createTaskResult (int taskId, int destinationId, String stderr, String stdout, int returnCode,
 	                             Service service);
 
+	/**
+	 * Create TaskResult of SEND to the destination including latency histogram of the destination.
+	 *
+	 * @see TaskResult#getLatencyHistogram()
+	 */
+	TaskResult createTaskResult (int taskId, int destinationId, String stderr, String stdout, int returnCode,
+	                             Service service, long[] latencyHistogram);
+
 }
@@ -1,5 +1,6 @@
 package cz.metacentrum.perun.engine.scheduling.impl;
 
+import cz.metacentrum.perun.core.api.Destination;
 import cz.metacentrum.perun.engine.exceptions.TaskExecutionException;
 import cz.metacentrum.perun.engine.scheduling.BlockingCompletionService;
 import cz.metacentrum.perun.engine.scheduling.EngineWorker;
@@ -8,7 +9,12 @@ import cz.metacentrum.perun.taskslib.model.SendTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 
 import static cz.metacentrum.perun.taskslib.model.SendTask.SendTaskStatus.SENDING;
@@ -19,9 +25,14 @@ import static cz.metacentrum.perun.taskslib.model.SendTask.SendTaskStatus.SENDIN
  * It provides blocking methods and size limit to javas CompletionService, which itself run SendWorkers.
  * Tasks are managed by separate threads SendPlanner and SendCollector.
  *
+ * Submitted SendWorkers wait in a queue and are started once there is a free place for them both globally
+ * and in SendConcurrencyLimiter (per destination host and per service). Waiting SendWorkers are started
+ * round-robin across Tasks, so Task with many destinations (or with slow destinations) doesn't hold back others.
+ *
  * @see BlockingCompletionService
  * @see SendWorker
  * @see SendWorkerImpl
+ * @see SendConcurrencyLimiter
  * @see cz.metacentrum.perun.engine.runners.SendPlanner
  * @see cz.metacentrum.perun.engine.runners.SendCollector
  *
@@ -31,14 +42,21 @@ import static cz.metacentrum.perun.taskslib.model.SendTask.SendTaskStatus.SENDIN
 public class BlockingSendExecutorCompletionService implements BlockingCompletionService<SendTask> {
 
 	private final static Logger log = LoggerFactory.getLogger(BlockingSendExecutorCompletionService.class);
-	private CompletionService<SendTask> completionService;
+	private final ExecutorService executor;
+	private final BlockingQueue<Future<SendTask>> completedSendTasks = new LinkedBlockingQueue<>();
 	private ConcurrentMap<Future<SendTask>, SendTask> executingSendTasks = new ConcurrentHashMap<>();
 	/**
-	 * Provide blocking-waiting behavior to SEND Tasks, which are not started, until semaphore is acquired.
-	 * When job is cancelled or done, semaphore is released. Semaphore shares limit for concurrently running
-	 * SEND Tasks with javas ExecutorCompletionService.
+	 * Limit for concurrently running SEND Tasks. Semaphore is acquired when SEND Task is started.
+	 * When job is cancelled or done, semaphore is released.
 	 */
 	private Semaphore semaphore;
+	private final SendConcurrencyLimiter limiter;
+	/**
+	 * SEND Tasks waiting to be started grouped by their Task (in round-robin order), guarded by itself.
+	 */
+	private final Map<Integer, Deque<SendFuture>> waitingSendTasks = new LinkedHashMap<>();
+	private final int waitingLimit;
+	private int waitingCount = 0;
 
 	/**
 	 * Create new blocking CompletionService for SEND Tasks with specified limit
@@ -46,31 +64,107 @@ public class BlockingSendExecutorCompletionService implements BlockingCompletion
 	 * @param limit Limit for processing SEND Tasks
 	 */
 	public BlockingSendExecutorCompletionService(int limit) {
-		this.completionService = new ExecutorCompletionService<SendTask>(Executors.newFixedThreadPool(limit), new LinkedBlockingQueue<Future<SendTask>>());
+		this(limit, new SendConcurrencyLimiter(limit, 0, Long.MAX_VALUE), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create new blocking CompletionService for SEND Tasks with specified limits
+	 *
+	 * @param limit Limit for processing SEND Tasks
+	 * @param limiter Limiter of SEND Tasks per destination host and service
+	 * @param waitingLimit Limit for SEND Tasks waiting to be started, submitting more of them blocks
+	 */
+	public BlockingSendExecutorCompletionService(int limit, SendConcurrencyLimiter limiter, int waitingLimit) {
+		this.executor = Executors.newFixedThreadPool(limit);
 		this.semaphore = new Semaphore(limit);
+		this.limiter = limiter;
+		this.waitingLimit = waitingLimit;
 	}
 
 	@Override
 	public Future<SendTask> blockingSubmit(EngineWorker<SendTask> taskWorker) throws InterruptedException {
-		semaphore.acquire();
-		Future<SendTask> future = null;
-		try {
-			SendWorker sendWorker = (SendWorker) taskWorker;
-			sendWorker.getSendTask().setStartTime(new Date(System.currentTimeMillis()));
-			sendWorker.getSendTask().setStatus(SENDING);
-			future = completionService.submit(sendWorker);
-			executingSendTasks.put(future, sendWorker.getSendTask());
-		} catch (Exception ex) {
-			semaphore.release();
-			throw ex;
+		SendFuture future = new SendFuture((SendWorker) taskWorker);
+		synchronized (waitingSendTasks) {
+			while (waitingCount >= waitingLimit) {
+				waitingSendTasks.wait();
+			}
+			waitingSendTasks.computeIfAbsent(future.sendTask.getTask().getId(), id -> new ArrayDeque<>()).add(future);
+			waitingCount++;
 		}
+		startWaitingSendTasks();
 		return future;
 	}
 
+	/**
+	 * Start waiting SEND Tasks while there is a free place for them.
+	 */
+	private void startWaitingSendTasks() {
+		synchronized (waitingSendTasks) {
+			while (waitingCount > 0 && semaphore.tryAcquire()) {
+				SendFuture future = pollStartableSendTask();
+				if (future == null) {
+					// all waiting SEND Tasks are limited by their host or service
+					semaphore.release();
+					return;
+				}
+				future.sendTask.setStartTime(new Date(System.currentTimeMillis()));
+				future.sendTask.setStatus(SENDING);
+				future.startTime = System.currentTimeMillis();
+				executingSendTasks.put(future, future.sendTask);
+				try {
+					executor.execute(future);
+				} catch (RejectedExecutionException ex) {
+					log.error("[{}] SendTask for Destination {} could not be started: {}", future.sendTask.getTask().getId(), future.sendTask.getDestination(), ex);
+					future.cancel(false);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Take first waiting SEND Task allowed by the limiter, trying Tasks in round-robin order.
+	 * Called with lock on waitingSendTasks.
+	 *
+	 * @return SEND Task to start or null if there is none
+	 */
+	private SendFuture pollStartableSendTask() {
+		Iterator<Map.Entry<Integer, Deque<SendFuture>>> tasks = waitingSendTasks.entrySet().iterator();
+		while (tasks.hasNext()) {
+			Map.Entry<Integer, Deque<SendFuture>> task = tasks.next();
+			Iterator<SendFuture> sendTasks = task.getValue().iterator();
+			while (sendTasks.hasNext()) {
+				SendFuture future = sendTasks.next();
+				if (limiter.tryAcquire(future.sendTask)) {
+					sendTasks.remove();
+					waitingCount--;
+					waitingSendTasks.notifyAll();
+					// move Task to the end of round-robin order
+					tasks.remove();
+					if (!task.getValue().isEmpty()) {
+						waitingSendTasks.put(task.getKey(), task.getValue());
+					}
+					return future;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return latency histogram of the destination observed by the limiter.
+	 *
+	 * @see SendConcurrencyLimiter#getLatencyHistogram(Destination)
+	 * @param destination destination
+	 * @return counts of latencies in buckets or null
+	 */
+	public long[] getLatencyHistogram(Destination destination) {
+		return limiter.getLatencyHistogram(destination);
+	}
+
 	@Override
 	public SendTask blockingTake() throws InterruptedException, TaskExecutionException {
 
-		Future<SendTask> taskFuture = completionService.take();
+		Future<SendTask> taskFuture = completedSendTasks.take();
 
 		try {
 			// .get() throws CancellationException if Task processing was cancelled from outside
@@ -136,6 +230,35 @@ public class BlockingSendExecutorCompletionService implements BlockingCompletion
 			// release semaphore only if future was really in a map
 			// because it could change during processing
 			semaphore.release();
+			startWaitingSendTasks();
+		}
+	}
+
+	/**
+	 * Future of SEND Task, which releases its place in the limiter and passes itself to SendCollector on completion.
+	 */
+	private class SendFuture extends FutureTask<SendTask> {
+
+		private final SendTask sendTask;
+		private long startTime;
+
+		SendFuture(SendWorker worker) {
+			super(worker);
+			this.sendTask = worker.getSendTask();
+		}
+
+		@Override
+		protected void done() {
+			boolean success;
+			try {
+				get();
+				success = true;
+			} catch (ExecutionException | CancellationException | InterruptedException e) {
+				success = false;
+			}
+			limiter.release(sendTask, System.currentTimeMillis() - startTime, success);
+			completedSendTasks.add(this);
+			startWaitingSendTasks();
 		}
 	}
 
@@ -0,0 +1,101 @@
+package cz.metacentrum.perun.engine.scheduling.impl;
+
+import cz.metacentrum.perun.engine.scheduling.GenDataCache;
+import cz.metacentrum.perun.taskslib.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.File;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of GenDataCache, which keeps fingerprints in memory (after restart, each Task runs GEN again).
+ *
+ * Generated data are considered stale, when the GEN script was modified after they were generated or when they are older
+ * than "engine.gencache.maxAge" milliseconds (0 disables the cache).
+ */
+@org.springframework.stereotype.Service(value = "genDataCache")
+public class GenDataCacheImpl implements GenDataCache {
+
+	private final static Logger log = LoggerFactory.getLogger(GenDataCacheImpl.class);
+
+	private final ConcurrentMap<String, GeneratedData> generatedData = new ConcurrentHashMap<>();
+	private File directory;
+	private long maxAge = 86400000;
+
+	public GenDataCacheImpl() {
+	}
+
+	public GenDataCacheImpl(File directory, long maxAge) {
+		this.directory = directory;
+		this.maxAge = maxAge;
+	}
+
+	@Override
+	public boolean isGenerated(Task task) {
+		if (maxAge <= 0 || task.getDataFingerprint() == null || task.isPropagationForced()) return false;
+		GeneratedData data = generatedData.get(getKey(task));
+		if (data == null) return false;
+		if (!Objects.equals(data.fingerprint, task.getDataFingerprint())) return false;
+		if (data.scriptModified != getScriptModified(task)) {
+			log.debug("[{}] GEN script was modified since data were generated.", task.getId());
+			return false;
+		}
+		return System.currentTimeMillis() - data.timestamp < maxAge;
+	}
+
+	@Override
+	public void invalidate(Task task) {
+		generatedData.remove(getKey(task));
+	}
+
+	@Override
+	public void generated(Task task) {
+		if (maxAge <= 0 || task.getDataFingerprint() == null) return;
+		generatedData.put(getKey(task), new GeneratedData(task.getDataFingerprint(), getScriptModified(task), System.currentTimeMillis()));
+	}
+
+	private String getKey(Task task) {
+		return task.getServiceId() + ":" + task.getFacilityId();
+	}
+
+	/**
+	 * Return last modification time of the Task GEN script (relative paths are resolved the same way as by GenWorker)
+	 * or 0 if it can't be determined.
+	 */
+	private long getScriptModified(Task task) {
+		String script = task.getService().getScript();
+		if (script == null) return 0;
+		File file = new File(script);
+		if (!file.isAbsolute() && directory != null) {
+			file = new File(directory, script);
+		}
+		return file.lastModified();
+	}
+
+	@Autowired
+	public void setPropertiesBean(Properties propertiesBean) {
+		if (propertiesBean != null) {
+			directory = new File(propertiesBean.getProperty("engine.genscript.path"));
+			maxAge = Long.parseLong(propertiesBean.getProperty("engine.gencache.maxAge", "86400000"));
+		}
+	}
+
+	private static class GeneratedData {
+
+		private final String fingerprint;
+		private final long scriptModified;
+		private final long timestamp;
+
+		GeneratedData(String fingerprint, long scriptModified, long timestamp) {
+			this.fingerprint = fingerprint;
+			this.scriptModified = scriptModified;
+			this.timestamp = timestamp;
+		}
+	}
+
+}
@@ -2,6 +2,8 @@ package cz.metacentrum.perun.engine.scheduling.impl;
 
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.engine.exceptions.TaskExecutionException;
+import cz.metacentrum.perun.engine.model.Statistics;
+import cz.metacentrum.perun.engine.scheduling.GenDataCache;
 import cz.metacentrum.perun.engine.scheduling.GenWorker;
 import cz.metacentrum.perun.taskslib.model.Task;
 import org.slf4j.Logger;
@@ -17,6 +19,8 @@ import java.time.LocalDateTime;
  * Implementation of GenWorker, which is used for starting GEN scripts.
  * On completion, genEndTime is set.
  *
+ * GEN is skipped, when GenDataCache knows, that data with the same fingerprint were already generated.
+ *
  * Workers are created by GenPlanner, done/error workers are collected by GenCollector.
  *
  * @see cz.metacentrum.perun.engine.runners.GenPlanner
@@ -31,10 +35,18 @@ public class GenWorkerImpl extends AbstractWorker<Task> implements GenWorker {
 
 	private final static Logger log = LoggerFactory.getLogger(GenWorkerImpl.class);
 	private Task task;
+	private GenDataCache genDataCache;
+	private Statistics statistics;
 
 	public GenWorkerImpl(Task task, File directory) {
+		this(task, directory, null, null);
+	}
+
+	public GenWorkerImpl(Task task, File directory, GenDataCache genDataCache, Statistics statistics) {
 		if (task == null) throw new IllegalArgumentException("Task to execute can't be null.");
 		this.task = task;
+		this.genDataCache = genDataCache;
+		this.statistics = statistics;
 		setDirectory(directory);
 	}
 
@@ -44,6 +56,18 @@ public class GenWorkerImpl extends AbstractWorker<Task> implements GenWorker {
 		getTask().setGenStartTime(LocalDateTime.now());
 		Service service = getTask().getService();
 
+		if (genDataCache != null) {
+			if (genDataCache.isGenerated(getTask())) {
+				getTask().setGenEndTime(LocalDateTime.now());
+				if (statistics != null) statistics.genSkipped();
+				log.info("[{}] GEN skipped for Task with Service ID: {} and Facility ID: {}, data with fingerprint {} are already generated.",
+						getTask().getId(), getTask().getServiceId(), getTask().getFacilityId(), getTask().getDataFingerprint());
+				return getTask();
+			}
+			// previously generated data are going to be overwritten
+			genDataCache.invalidate(getTask());
+		}
+
 		log.info("[{}] Executing GEN worker for Task with Service ID: {} and Facility ID: {}.",
 				getTask().getId(), getTask().getServiceId(), getTask().getFacilityId());
 
@@ -56,6 +80,7 @@ public class GenWorkerImpl extends AbstractWorker<Task> implements GenWorker {
 
 			// set gen end time
 			getTask().setGenEndTime(LocalDateTime.now());
+			if (statistics != null) statistics.genExecuted();
 
 			if (getReturnCode() != 0) {
 
@@ -69,6 +94,8 @@ public class GenWorkerImpl extends AbstractWorker<Task> implements GenWorker {
 				log.info("[{}] GEN worker finished for Task. Ret code {}, STDOUT: {}, STDERR: {}",
 						getTask().getId(), getReturnCode(), getStdout(), getStderr());
 
+				if (genDataCache != null) genDataCache.generated(getTask());
+
 				return getTask();
 
 			}
@@ -205,6 +205,14 @@ public class SchedulingPoolImpl implements SchedulingPool {
 		return taskResult;
 	}
 
+	@Override
+	public TaskResult createTaskResult(int taskId, int destinationId, String stderr, String stdout, int returnCode,
+	                                   Service service, long[] latencyHistogram) {
+		TaskResult taskResult = createTaskResult(taskId, destinationId, stderr, stdout, returnCode, service);
+		taskResult.setLatencyHistogram(latencyHistogram);
+		return taskResult;
+	}
+
 	private String printListWithWhitespace(List<Task> list) {
 
 		if (list == null) return "[]";
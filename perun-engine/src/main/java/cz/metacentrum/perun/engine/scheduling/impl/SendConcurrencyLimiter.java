@@ -0,0 +1,175 @@
+package cz.metacentrum.perun.engine.scheduling.impl;
+
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.taskslib.model.SendTask;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits number of concurrently running SEND Tasks per destination host and per service.
+ *
+ * Limit of each host adapts to its observed behaviour (additive increase, multiplicative decrease):
+ * it is halved after each failed or slow SEND and increased by one after the number of successful SENDs equal
+ * to the current limit, up to the configured maximum. So one slow or unreachable host (or many destinations
+ * behind it) can't occupy all SEND threads of the Engine.
+ *
+ * It also keeps latency histogram of each destination, which is reported to the Dispatcher with TaskResult.
+ *
+ * Methods in this class are thread safe.
+ *
+ * @see BlockingSendExecutorCompletionService
+ */
+public class SendConcurrencyLimiter {
+
+	private final static Logger log = LoggerFactory.getLogger(SendConcurrencyLimiter.class);
+
+	private final int hostLimit;
+	private final int serviceLimit;
+	private final long slowThreshold;
+
+	private final Map<String, HostState> hosts = new HashMap<>();
+	private final Map<Integer, Integer> runningPerService = new HashMap<>();
+	private final Map<Integer, long[]> latencyHistograms = new HashMap<>();
+
+	/**
+	 * Create new limiter.
+	 *
+	 * @param hostLimit maximal number of concurrently running SEND Tasks per destination host
+	 * @param serviceLimit maximal number of concurrently running SEND Tasks per service, 0 = unlimited
+	 * @param slowThreshold SEND Task running longer (in milliseconds) lowers the limit of its host the same way as failure
+	 */
+	public SendConcurrencyLimiter(int hostLimit, int serviceLimit, long slowThreshold) {
+		if (hostLimit < 1) throw new IllegalArgumentException("Limit of SEND Tasks per host must be positive.");
+		this.hostLimit = hostLimit;
+		this.serviceLimit = serviceLimit;
+		this.slowThreshold = slowThreshold;
+	}
+
+	/**
+	 * Reserve place for the SEND Task, if neither its host nor its service reached their limit.
+	 *
+	 * @param sendTask SEND Task to be started
+	 * @return TRUE if SEND Task can be started / FALSE otherwise
+	 */
+	public synchronized boolean tryAcquire(SendTask sendTask) {
+		HostState host = hosts.computeIfAbsent(getHost(sendTask.getDestination()), h -> new HostState(hostLimit));
+		int serviceId = sendTask.getTask().getServiceId();
+		int runningOfService = runningPerService.getOrDefault(serviceId, 0);
+		if (host.running >= host.limit || (serviceLimit > 0 && runningOfService >= serviceLimit)) {
+			return false;
+		}
+		host.running++;
+		runningPerService.put(serviceId, runningOfService + 1);
+		return true;
+	}
+
+	/**
+	 * Release place of finished SEND Task and adapt limit of its host.
+	 *
+	 * @param sendTask finished SEND Task
+	 * @param latency how long SEND Task was running (in milliseconds)
+	 * @param success TRUE if SEND Task finished successfully
+	 */
+	public synchronized void release(SendTask sendTask, long latency, boolean success) {
+		String hostName = getHost(sendTask.getDestination());
+		HostState host = hosts.get(hostName);
+		if (host != null) {
+			host.running--;
+			if (!success || latency > slowThreshold) {
+				host.limit = Math.max(1, host.limit / 2);
+				host.successes = 0;
+				log.debug("Limit of SEND Tasks to host {} lowered to {}.", hostName, host.limit);
+			} else if (host.limit < hostLimit && ++host.successes >= host.limit) {
+				host.limit++;
+				host.successes = 0;
+			}
+			if (host.running == 0 && host.limit == hostLimit) {
+				// forget hosts, which behave well
+				hosts.remove(hostName);
+			}
+		}
+
+		int serviceId = sendTask.getTask().getServiceId();
+		int runningOfService = runningPerService.getOrDefault(serviceId, 1) - 1;
+		if (runningOfService > 0) {
+			runningPerService.put(serviceId, runningOfService);
+		} else {
+			runningPerService.remove(serviceId);
+		}
+
+		long[] histogram = latencyHistograms.computeIfAbsent(sendTask.getDestination().getId(),
+				id -> new long[TaskResult.LATENCY_HISTOGRAM_BOUNDS.length + 1]);
+		int bucket = 0;
+		while (bucket < TaskResult.LATENCY_HISTOGRAM_BOUNDS.length && latency > TaskResult.LATENCY_HISTOGRAM_BOUNDS[bucket]) {
+			bucket++;
+		}
+		histogram[bucket]++;
+	}
+
+	/**
+	 * Return current limit of SEND Tasks to the host of the destination.
+	 *
+	 * @param destination destination
+	 * @return limit of the destination host
+	 */
+	public synchronized int getLimit(Destination destination) {
+		HostState host = hosts.get(getHost(destination));
+		return host == null ? hostLimit : host.limit;
+	}
+
+	/**
+	 * Return copy of latency histogram of all SEND Tasks to the destination since Engine start.
+	 *
+	 * @see TaskResult#LATENCY_HISTOGRAM_BOUNDS
+	 * @param destination destination
+	 * @return counts of latencies in buckets or null, if nothing was sent to the destination yet
+	 */
+	public synchronized long[] getLatencyHistogram(Destination destination) {
+		long[] histogram = latencyHistograms.get(destination.getId());
+		return histogram == null ? null : histogram.clone();
+	}
+
+	/**
+	 * Return host of the destination, so all destinations on the same machine (with different users, ports or URLs)
+	 * share the limit. Destinations, which are not host based, are limited by themselves.
+	 *
+	 * @param destination destination
+	 * @return host name of the destination
+	 */
+	static String getHost(Destination destination) {
+		String host = destination.getDestination();
+		if (host == null) return "";
+		if (host.contains("://")) {
+			try {
+				String uriHost = URI.create(host).getHost();
+				if (uriHost != null) return uriHost;
+			} catch (IllegalArgumentException ex) {
+				// not valid URI, use it as it is
+			}
+			return host;
+		}
+		// user@host:port
+		int at = host.lastIndexOf('@');
+		if (at >= 0) host = host.substring(at + 1);
+		int colon = host.indexOf(':');
+		if (colon >= 0 && colon == host.lastIndexOf(':')) host = host.substring(0, colon);
+		return host;
+	}
+
+	private static class HostState {
+
+		private int limit;
+		private int running;
+		private int successes;
+
+		HostState(int limit) {
+			this.limit = limit;
+		}
+	}
+
+}
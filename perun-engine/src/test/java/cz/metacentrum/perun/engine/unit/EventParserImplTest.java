@@ -47,4 +47,25 @@ public class EventParserImplTest extends AbstractEngineTest {
 
 	}
 
+	@Test
+	public void parseEventWithDataFingerprintTest() throws Exception {
+		System.out.println("EventParserImpl.parseEventWithDataFingerprintTest");
+
+		String testEvent = "task|"+engineId+"|[" + task1.getId() + "][false]|["
+				+ task1.getService().serializeToString() + "]|["
+				+ task1.getFacility().serializeToString() + "]|[Destinations [";
+
+		for (Destination destination : task1.getDestinations()) {
+			testEvent = testEvent.concat(destination.serializeToString() + ", ");
+		}
+		testEvent = testEvent.concat("]]|[0123456789abcdef]");
+
+		Task task2 = eventParser.parseEvent(testEvent);
+
+		Assert.isTrue(task1.equals(task2), "task1 equals task2");
+		Assert.isTrue("0123456789abcdef".equals(task2.getDataFingerprint()), "fingerprint is parsed");
+		Assert.isTrue(task2.getDestinations().size() == task1.getDestinations().size(), "destinations are parsed");
+
+	}
+
 }
@@ -2,7 +2,10 @@ package cz.metacentrum.perun.engine.unit;
 
 import cz.metacentrum.perun.engine.AbstractEngineTest;
 import cz.metacentrum.perun.engine.exceptions.TaskExecutionException;
+import cz.metacentrum.perun.engine.model.Statistics;
+import cz.metacentrum.perun.engine.scheduling.GenDataCache;
 import cz.metacentrum.perun.engine.scheduling.GenWorker;
+import cz.metacentrum.perun.engine.scheduling.impl.GenDataCacheImpl;
 import cz.metacentrum.perun.engine.scheduling.impl.GenWorkerImpl;
 import cz.metacentrum.perun.taskslib.model.Task;
 import org.junit.Test;
@@ -38,4 +41,40 @@ public class GenWorkerImplTest extends AbstractEngineTest {
 			fail("Unexpected exception caught " + e);
 		}
 	}
+
+	@Test
+	public void testGenWorkerSkipsAlreadyGeneratedData() throws Exception {
+		GenDataCache genDataCache = new GenDataCacheImpl(null, 60000);
+		Statistics statistics = new Statistics();
+		task1.setDataFingerprint("0a1b");
+
+		new GenWorkerImpl(task1, null, genDataCache, statistics).call();
+		new GenWorkerImpl(task1, null, genDataCache, statistics).call();
+		assertEquals(1, statistics.getGenExecuted());
+		assertEquals(1, statistics.getGenSkipped());
+
+		// data changed
+		task1.setDataFingerprint("2c3d");
+		new GenWorkerImpl(task1, null, genDataCache, statistics).call();
+		assertEquals(2, statistics.getGenExecuted());
+
+		// forced propagation always runs GEN
+		task1.setPropagationForced(true);
+		new GenWorkerImpl(task1, null, genDataCache, statistics).call();
+		assertEquals(3, statistics.getGenExecuted());
+		assertEquals(1, statistics.getGenSkipped());
+
+		// failed GEN isn't remembered
+		task2.setDataFingerprint("0a1b");
+		for (int i = 0; i < 2; i++) {
+			try {
+				new GenWorkerImpl(task2, null, genDataCache, statistics).call();
+				fail("TaskExecutionException should be thrown.");
+			} catch (TaskExecutionException e) {
+				assertEquals(1, e.getReturnCode());
+			}
+		}
+		assertEquals(5, statistics.getGenExecuted());
+		assertEquals(1, statistics.getGenSkipped());
+	}
 }
@@ -0,0 +1,105 @@
+package cz.metacentrum.perun.engine.unit;
+
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.engine.AbstractEngineTest;
+import cz.metacentrum.perun.engine.exceptions.TaskExecutionException;
+import cz.metacentrum.perun.engine.scheduling.impl.BlockingSendExecutorCompletionService;
+import cz.metacentrum.perun.engine.scheduling.impl.SendConcurrencyLimiter;
+import cz.metacentrum.perun.engine.scheduling.impl.SendWorkerImpl;
+import cz.metacentrum.perun.taskslib.model.SendTask;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of SendConcurrencyLimiter and its usage by BlockingSendExecutorCompletionService.
+ */
+public class SendConcurrencyLimiterTest extends AbstractEngineTest {
+
+	@Test
+	public void hostLimitAdaptsToFailures() throws Exception {
+		System.out.println("SendConcurrencyLimiter.hostLimitAdaptsToFailures");
+
+		SendConcurrencyLimiter limiter = new SendConcurrencyLimiter(4, 0, 60000);
+		SendTask otherUserOnSameHost = new SendTask(task1, new Destination(0, "root@par_dest1:22", "user@host:port", "PARALLEL"));
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(limiter.tryAcquire(i % 2 == 0 ? sendTask1 : otherUserOnSameHost));
+		}
+		assertFalse(limiter.tryAcquire(sendTask1));
+		assertTrue(limiter.tryAcquire(sendTask2));
+
+		// failure and slow SEND halve the limit
+		limiter.release(sendTask1, 100, false);
+		assertEquals(2, limiter.getLimit(sendTask1.getDestination()));
+		limiter.release(sendTask1, 120000, true);
+		assertEquals(1, limiter.getLimit(sendTask1.getDestination()));
+		assertFalse(limiter.tryAcquire(sendTask1));
+
+		// limit grows back after successes
+		limiter.release(sendTask1, 100, true);
+		limiter.release(sendTask1, 100, true);
+		assertEquals(2, limiter.getLimit(sendTask1.getDestination()));
+		for (int i = 0; i < 2; i++) {
+			assertTrue(limiter.tryAcquire(sendTask1));
+		}
+		assertFalse(limiter.tryAcquire(otherUserOnSameHost));
+		for (int i = 0; i < 2; i++) {
+			limiter.release(sendTask1, 100, true);
+		}
+		assertEquals(3, limiter.getLimit(sendTask1.getDestination()));
+
+		// 5x 100 ms, 1x 2 minutes from all releases above
+		assertArrayEquals(new long[] {5, 0, 0, 1, 0, 0}, limiter.getLatencyHistogram(sendTask1.getDestination()));
+		assertNull(limiter.getLatencyHistogram(sendTask3.getDestination()));
+	}
+
+	@Test
+	public void serviceLimit() throws Exception {
+		System.out.println("SendConcurrencyLimiter.serviceLimit");
+
+		SendConcurrencyLimiter limiter = new SendConcurrencyLimiter(4, 2, 60000);
+		assertTrue(limiter.tryAcquire(sendTask1));
+		assertTrue(limiter.tryAcquire(sendTask2));
+		assertFalse(limiter.tryAcquire(sendTask3));
+		// other service
+		assertTrue(limiter.tryAcquire(sendTaskFalse));
+		limiter.release(sendTask1, 100, true);
+		assertTrue(limiter.tryAcquire(sendTask3));
+	}
+
+	@Test
+	public void sendTasksAreStartedRoundRobinAcrossTasks() throws Exception {
+		System.out.println("SendConcurrencyLimiter.sendTasksAreStartedRoundRobinAcrossTasks");
+
+		BlockingSendExecutorCompletionService sendCompletionService =
+				new BlockingSendExecutorCompletionService(1, new SendConcurrencyLimiter(1, 0, 60000), 100);
+		List<SendTask> submitted = Arrays.asList(sendTask1, sendTask2, sendTask3, sendTaskFalse);
+		for (SendTask sendTask : submitted) {
+			sendCompletionService.blockingSubmit(new SendWorkerImpl(sendTask, null));
+		}
+
+		List<SendTask> completed = new ArrayList<>();
+		for (int i = 0; i < submitted.size(); i++) {
+			try {
+				completed.add(sendCompletionService.blockingTake());
+			} catch (TaskExecutionException e) {
+				// SEND of the second task always fails
+				completed.add(sendTaskFalse);
+			}
+		}
+		assertEquals(Arrays.asList(sendTask1, sendTask2, sendTaskFalse, sendTask3), completed);
+		assertTrue(sendCompletionService.getRunningTasks().isEmpty());
+		// both tasks were sent to the first destination
+		assertEquals(2, sendCompletionService.getLatencyHistogram(sendTask1.getDestination())[0]);
+	}
+
+}
@@ -9,12 +9,14 @@ public class LdapProperties {
 	private String ldapBase;
 	private String ldapLoginNamespace;
 	private String ldapStateFile;
+	private long ldapPollTimeout;
 
-	public LdapProperties(String ldapConsumerName, String ldapBase, String ldapLoginNamespace, String ldapStateFile) {
+	public LdapProperties(String ldapConsumerName, String ldapBase, String ldapLoginNamespace, String ldapStateFile, long ldapPollTimeout) {
 		this.ldapConsumerName = ldapConsumerName;
 		this.ldapBase = ldapBase;
 		this.ldapLoginNamespace = ldapLoginNamespace;
 		this.ldapStateFile = ldapStateFile;
+		this.ldapPollTimeout = ldapPollTimeout;
 	}
 
 	public boolean propsLoaded() {
@@ -36,4 +38,14 @@ public class LdapProperties {
 	public String getLdapStateFile() {
 		return ldapStateFile;
 	}
+
+	/**
+	 * Maximum time in milliseconds to wait for new audit messages. LDAPc usually runs in its own JVM,
+	 * where it isn't notified about messages stored by Perun, so it must poll them often.
+	 *
+	 * @return poll timeout in milliseconds
+	 */
+	public long getLdapPollTimeout() {
+		return ldapPollTimeout;
+	}
 }
@@ -0,0 +1,318 @@
+package cz.metacentrum.perun.ldapc.beans;
+
+import cz.metacentrum.perun.core.api.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.ldap.CommunicationException;
+import org.springframework.ldap.NamingException;
+import org.springframework.ldap.ServiceUnavailableException;
+import org.springframework.ldap.core.DirContextAdapter;
+import org.springframework.ldap.core.DirContextOperations;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.naming.Name;
+import javax.naming.NamingEnumeration;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.ModificationItem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buffer of modifications of LDAP entries.
+ *
+ * Buffering is enabled only for the thread which called {@link #begin()}, other threads (e.g. full synchronization)
+ * write to LDAP directly. While buffering, entries are looked up only once and all their modifications are applied
+ * to the buffered copy, so following lookups see them. On {@link #flush()}, each modified entry gets one modify
+ * request with the difference between its state in LDAP and the buffered state. Entries are flushed in order
+ * of their first lookup. Creating and deleting entries flushes the buffer first.
+ *
+ * Modifications are remembered together with id of the message which caused them (see {@link #setMessageId(int)}).
+ * When LDAP rejects the merged modify request of an entry, modifications of each message are written separately,
+ * so only modifications of the failed message are lost, and its id is reported by {@link #flush()}.
+ */
+@Component
+public class LdapWriteBuffer {
+
+	private final static Logger log = LoggerFactory.getLogger(LdapWriteBuffer.class);
+
+	/**
+	 * Max number of buffered entries, when reached the buffer should be flushed.
+	 */
+	public final static int MAX_ENTRIES = 1000;
+
+	/**
+	 * Max time in milliseconds for which modifications are buffered.
+	 */
+	public final static long MAX_DELAY = 1000;
+
+	@Autowired
+	private LdapTemplate ldapTemplate;
+
+	private final ThreadLocal<Buffer> buffers = new ThreadLocal<>();
+
+	private static class BufferedEntry {
+
+		// entry as it is in LDAP
+		final DirContextOperations original;
+		// entry with all buffered modifications
+		final DirContextAdapter current;
+		// buffered modifications by ids of messages which caused them
+		final List<Pair<Integer, ModificationItem[]>> modifications = new ArrayList<>();
+
+		BufferedEntry(DirContextOperations original) {
+			this.original = original;
+			this.current = new DirContextAdapter(original.getAttributes(), original.getDn());
+		}
+	}
+
+	private static class Buffer {
+
+		final Map<Name, BufferedEntry> entries = new LinkedHashMap<>();
+		long firstModificationTime = 0;
+		int messageId = 0;
+		// lowest id of message whose modifications failed since the last flush()
+		int failedMessageId = 0;
+	}
+
+	/**
+	 * Start buffering of modifications made by the current thread.
+	 */
+	public void begin() {
+		if (buffers.get() == null) buffers.set(new Buffer());
+	}
+
+	/**
+	 * Stop buffering of modifications made by the current thread. Modifications which were not flushed are dropped.
+	 */
+	public void end() {
+		Buffer buffer = buffers.get();
+		if (buffer != null && !buffer.entries.isEmpty()) {
+			log.warn("Dropping buffered modifications of {} LDAP entries", buffer.entries.size());
+		}
+		buffers.remove();
+	}
+
+	/**
+	 * Set id of the message, whose modifications made by the current thread follow.
+	 *
+	 * @param messageId id of the message
+	 */
+	public void setMessageId(int messageId) {
+		Buffer buffer = buffers.get();
+		if (buffer != null) buffer.messageId = messageId;
+	}
+
+	/**
+	 * Return TRUE if the buffer of the current thread should be flushed, because it holds too many entries
+	 * or its oldest modification is older than MAX_DELAY.
+	 *
+	 * @return TRUE if buffer should be flushed / FALSE otherwise
+	 */
+	public boolean shouldFlush() {
+		Buffer buffer = buffers.get();
+		if (buffer == null) return false;
+		return buffer.entries.size() >= MAX_ENTRIES ||
+				(buffer.firstModificationTime > 0 && System.currentTimeMillis() - buffer.firstModificationTime >= MAX_DELAY);
+	}
+
+	/**
+	 * Lookup entry. If buffering, the returned entry contains all buffered modifications.
+	 *
+	 * @param dn DN of the entry relative to the base
+	 * @return entry in update mode
+	 */
+	public DirContextOperations lookupContext(Name dn) {
+		Buffer buffer = buffers.get();
+		if (buffer == null) return ldapTemplate.lookupContext(dn);
+
+		BufferedEntry entry = buffer.entries.get(dn);
+		if (entry == null) {
+			entry = new BufferedEntry(ldapTemplate.lookupContext(dn));
+			buffer.entries.put(dn, entry);
+		}
+		DirContextAdapter context = new DirContextAdapter(entry.current.getAttributes(), dn);
+		context.setUpdateMode(true);
+		return context;
+	}
+
+	/**
+	 * Modify entry. If buffering, modifications are applied to the buffered entry and written to LDAP on flush.
+	 *
+	 * @param context modified entry
+	 */
+	public void modifyAttributes(DirContextOperations context) {
+		Buffer buffer = buffers.get();
+		BufferedEntry entry = buffer == null ? null : buffer.entries.get(context.getDn());
+		if (entry == null) {
+			// entry was not looked up through the buffer
+			if (buffer != null) write(buffer);
+			ldapTemplate.modifyAttributes(context);
+			return;
+		}
+
+		ModificationItem[] items = context.getModificationItems();
+		if (items.length == 0) return;
+		for (ModificationItem item : items) {
+			apply(entry.current, item);
+		}
+		entry.modifications.add(new Pair<>(buffer.messageId, items));
+		if (buffer.firstModificationTime == 0) buffer.firstModificationTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Create entry. Buffer is flushed first.
+	 *
+	 * @param context new entry
+	 */
+	public void bind(DirContextOperations context) {
+		Buffer buffer = buffers.get();
+		if (buffer != null) write(buffer);
+		ldapTemplate.bind(context);
+	}
+
+	/**
+	 * Delete entry. Buffer is flushed first.
+	 *
+	 * @param dn DN of the entry relative to the base
+	 */
+	public void unbind(Name dn) {
+		Buffer buffer = buffers.get();
+		if (buffer != null) write(buffer);
+		ldapTemplate.unbind(dn);
+	}
+
+	/**
+	 * Write all buffered modifications of the current thread to LDAP, one modify request per entry.
+	 *
+	 * When modification of an entry fails, modifications of its messages are written one by one and those which
+	 * fail again are logged. Other entries are written. If LDAP is not reachable, the exception is thrown
+	 * and remaining modifications are dropped.
+	 *
+	 * @return lowest id of message whose modifications were not written (including modifications written before
+	 * creating or deleting entries since the previous flush), 0 if all modifications were written
+	 */
+	public int flush() {
+		Buffer buffer = buffers.get();
+		if (buffer == null) return 0;
+
+		write(buffer);
+		int failedMessageId = buffer.failedMessageId;
+		buffer.failedMessageId = 0;
+		return failedMessageId;
+	}
+
+	private void write(Buffer buffer) {
+		if (buffer.entries.isEmpty()) return;
+
+		int modifiedEntries = 0;
+		try {
+			for (BufferedEntry entry : buffer.entries.values()) {
+				if (entry.modifications.isEmpty()) continue;
+				ModificationItem[] items = getDifference(entry.original, entry.current);
+				if (items.length == 0) continue;
+				try {
+					ldapTemplate.modifyAttributes(entry.original.getDn(), items);
+					modifiedEntries++;
+				} catch (CommunicationException | ServiceUnavailableException e) {
+					throw e;
+				} catch (NamingException e) {
+					log.warn("Error modifying LDAP entry {}, writing modifications of {} messages separately", entry.original.getDn(), entry.modifications.size(), e);
+					writeSeparately(buffer, entry);
+				}
+			}
+		} finally {
+			log.debug("Flushed buffered modifications of {} LDAP entries ({} looked up)", modifiedEntries, buffer.entries.size());
+			buffer.entries.clear();
+			buffer.firstModificationTime = 0;
+		}
+	}
+
+	/**
+	 * Write modifications of the entry message by message, as if they were not buffered.
+	 */
+	private void writeSeparately(Buffer buffer, BufferedEntry entry) {
+		for (Pair<Integer, ModificationItem[]> modification : entry.modifications) {
+			try {
+				ldapTemplate.modifyAttributes(entry.original.getDn(), modification.getRight());
+			} catch (CommunicationException | ServiceUnavailableException e) {
+				throw e;
+			} catch (NamingException e) {
+				log.error("Error modifying LDAP entry {} by message {}", entry.original.getDn(), modification.getLeft(), e);
+				if (buffer.failedMessageId == 0 || modification.getLeft() < buffer.failedMessageId) {
+					buffer.failedMessageId = modification.getLeft();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Apply modification to the buffered entry (not in update mode).
+	 */
+	static void apply(DirContextAdapter entry, ModificationItem item) {
+		Attribute attribute = item.getAttribute();
+		String id = attribute.getID();
+		Object[] values;
+		try {
+			values = Collections.list(attribute.getAll()).toArray();
+		} catch (javax.naming.NamingException e) {
+			throw new IllegalStateException("Can't read values of LDAP attribute " + id, e);
+		}
+
+		switch (item.getModificationOp()) {
+			case DirContext.ADD_ATTRIBUTE:
+				for (Object value : values) entry.addAttributeValue(id, value);
+				break;
+			case DirContext.REMOVE_ATTRIBUTE:
+				if (values.length == 0) {
+					removeAttribute(entry, id);
+				} else {
+					for (Object value : values) entry.removeAttributeValue(id, value);
+					Attribute remaining = entry.getAttributes().get(id);
+					if (remaining != null && remaining.size() == 0) removeAttribute(entry, id);
+				}
+				break;
+			case DirContext.REPLACE_ATTRIBUTE:
+				if (values.length == 0) {
+					removeAttribute(entry, id);
+				} else {
+					entry.setAttributeValues(id, values);
+				}
+				break;
+		}
+	}
+
+	private static void removeAttribute(DirContextAdapter entry, String id) {
+		// attributes of the adapter are stored by lower cased IDs, but remove() doesn't lower case the ID
+		entry.getAttributes().remove(id.toLowerCase());
+	}
+
+	/**
+	 * Return modifications which change the original entry to the current (buffered) state.
+	 */
+	static ModificationItem[] getDifference(DirContextOperations original, DirContextAdapter current) {
+		DirContextAdapter difference = new DirContextAdapter(original.getAttributes(), original.getDn());
+		difference.setUpdateMode(true);
+
+		Set<String> ids = new LinkedHashSet<>();
+		try {
+			for (NamingEnumeration<String> e = original.getAttributes().getIDs(); e.hasMore(); ) ids.add(e.next());
+			for (NamingEnumeration<String> e = current.getAttributes().getIDs(); e.hasMore(); ) ids.add(e.next());
+			for (String id : ids) {
+				Attribute attribute = current.getAttributes().get(id);
+				difference.setAttributeValues(id, attribute == null ? null : Collections.list(attribute.getAll()).toArray());
+			}
+		} catch (javax.naming.NamingException e) {
+			throw new IllegalStateException("Can't read attributes of LDAP entry " + original.getDn(), e);
+		}
+		return difference.getModificationItems();
+	}
+
+}
@@ -4,6 +4,7 @@ import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Status;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
@@ -17,52 +18,68 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import javax.naming.Name;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.stream.Collectors;
+
+/**
+ * Full synchronization of users to LDAP.
+ *
+ * Users are loaded from Perun in batches, all their relations (attributes, memberships, ext sources and admin roles)
+ * are loaded for the whole batch by set-based queries. Loaded users are passed through a bounded queue to the writers,
+ * each of them with its own PerunUser. When the queue is full, loading waits for the writers.
+ */
 @Component
 public class UserSynchronizer extends AbstractSynchronizer implements ApplicationContextAware {
 
 	private final static Logger log = LoggerFactory.getLogger(UserSynchronizer.class);
 
+	// number of users loaded from Perun at once
+	private final static int USERS_IN_BATCH = 500;
+	// number of threads writing users to LDAP
+	private final static int WRITERS = 5;
+	// max number of loaded users waiting for the writers
+	private final static int QUEUE_CAPACITY = 2 * USERS_IN_BATCH;
+	// interval of progress reports in milliseconds
+	private final static long PROGRESS_INTERVAL = 30000;
+
 	private ApplicationContext context;
 
-	private PerunUser[] perunUser = new PerunUser[5];
-
-	private static AtomicInteger taskCount;
-
-	private static boolean wasThreadException = false;
-
-	private class SyncUsersWorker implements Runnable {
-
-		public int poolIndex;
-		public User user;
-		public List<Attribute> attrs;
-		public Set<Integer> voIds;
-		public List<Group> groups;
-		List<UserExtSource> userExtSources;
-		List<Group> admin_groups;
-		List<Vo> admin_vos;
-		List<Facility> admin_facilities;
-
-		public SyncUsersWorker(
-				int poolIndex,
-				User user,
-				List<Attribute> attrs,
-				Set<Integer> voIds,
-				List<Group> groups,
-				List<UserExtSource> userExtSources,
-				List<Group> admin_groups,
-				List<Vo> admin_vos,
-				List<Facility> admin_facilities) {
-			this.poolIndex = poolIndex;
+	/**
+	 * User with everything needed to write the user to LDAP.
+	 */
+	private static class UserData {
+
+		final User user;
+		final List<Attribute> attrs;
+		final Set<Integer> voIds;
+		final List<Group> groups;
+		final List<UserExtSource> userExtSources;
+		final List<Group> admin_groups;
+		final List<Vo> admin_vos;
+		final List<Facility> admin_facilities;
+
+		UserData(User user,
+		         List<Attribute> attrs,
+		         Set<Integer> voIds,
+		         List<Group> groups,
+		         List<UserExtSource> userExtSources,
+		         List<Group> admin_groups,
+		         List<Vo> admin_vos,
+		         List<Facility> admin_facilities) {
 			this.user = user;
 			this.attrs = attrs;
 			this.voIds = voIds;
@@ -72,132 +89,103 @@ public class UserSynchronizer extends AbstractSynchronizer implements Applicatio
 			this.admin_vos = admin_vos;
 			this.admin_facilities = admin_facilities;
 		}
+	}
+
+	// marks end of the queue for one writer
+	private final static UserData END_OF_USERS = new UserData(null, null, null, null, null, null, null, null);
+
+	private static class SyncUsersWriter implements Runnable {
+
+		private final PerunUser perunUser;
+		private final BlockingQueue<UserData> queue;
+		private final AtomicInteger synchronizedUsers;
+		private final AtomicBoolean wasThreadException;
+
+		SyncUsersWriter(PerunUser perunUser, BlockingQueue<UserData> queue, AtomicInteger synchronizedUsers, AtomicBoolean wasThreadException) {
+			this.perunUser = perunUser;
+			this.queue = queue;
+			this.synchronizedUsers = synchronizedUsers;
+			this.wasThreadException = wasThreadException;
+		}
 
 		public void run() {
-			try {
-				log.debug("Synchronizing user {} with {} attrs", user, attrs.size());
-				//perunUser[poolIndex].synchronizeEntry(user, attrs);
-				log.debug("Synchronizing user {} with {} VOs and {} groups", user.getId(), voIds.size(), groups.size());
-				//perunUser[poolIndex].synchronizeMembership(user, voIds, groups);
-				log.debug("Synchronizing user {} with {} extSources", user.getId(), userExtSources.size());
-				//perunUser[poolIndex].synchronizePrincipals(user, userExtSources);
-				log.debug("Synchronizing user {} as admin of {} groups, {} VOs and {} facilities", user.getId(), admin_groups.size(), admin_vos.size(), admin_facilities.size());
-				perunUser[poolIndex].synchronizeUser(user, attrs, voIds, groups, userExtSources, admin_groups, admin_vos, admin_facilities);
-			} catch (PerunRuntimeException e) {
-				log.error("Error synchronizing user", e);
-				UserSynchronizer.wasThreadException = true;
-
-			} catch (Exception e) {
-				log.error("Error synchronizing user", e);
-				UserSynchronizer.wasThreadException = true;
-
-			} finally {
-				taskCount.decrementAndGet();
+			while (true) {
+				UserData data;
+				try {
+					data = queue.take();
+				} catch (InterruptedException e) {
+					log.warn("Writer of users was interrupted");
+					wasThreadException.set(true);
+					return;
+				}
+				if (data == END_OF_USERS) return;
+				try {
+					log.debug("Synchronizing user {} with {} attrs, {} VOs, {} groups and {} extSources", data.user.getId(), data.attrs.size(),
+							data.voIds.size(), data.groups.size(), data.userExtSources.size());
+					log.debug("Synchronizing user {} as admin of {} groups, {} VOs and {} facilities", data.user.getId(),
+							data.admin_groups.size(), data.admin_vos.size(), data.admin_facilities.size());
+					perunUser.synchronizeUser(data.user, data.attrs, data.voIds, data.groups, data.userExtSources,
+							data.admin_groups, data.admin_vos, data.admin_facilities);
+				} catch (Exception e) {
+					log.error("Error synchronizing user", e);
+					wasThreadException.set(true);
+				} finally {
+					synchronizedUsers.incrementAndGet();
+				}
 			}
 		}
-
 	}
 
-
 	public void synchronizeUsers() throws InternalErrorException {
 
 		PerunBl perun = (PerunBl) ldapcManager.getPerunBl();
-
-		ThreadPoolTaskExecutor syncExecutor = new ThreadPoolTaskExecutor();
-		int poolIndex;
 		boolean shouldWriteExceptionLog = true;
 
-		for (poolIndex = 0; poolIndex < perunUser.length; poolIndex++) {
-			perunUser[poolIndex] = context.getBean("perunUser", PerunUser.class);
+		BlockingQueue<UserData> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		AtomicInteger synchronizedUsers = new AtomicInteger(0);
+		AtomicBoolean wasThreadException = new AtomicBoolean(false);
+		ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+		PerunUser perunUser = context.getBean("perunUser", PerunUser.class);
+		for (int i = 0; i < WRITERS; i++) {
+			writers.execute(new SyncUsersWriter(context.getBean("perunUser", PerunUser.class), queue, synchronizedUsers, wasThreadException));
 		}
 
+		Set<Name> presentUsers = new HashSet<>();
+		int usersCount = 0;
+		int loadedUsers = 0;
+		long startTime = System.currentTimeMillis();
+		long lastReportTime = startTime;
+		boolean allUsersLoaded = false;
+
 		try {
 
 			log.debug("Getting list of users");
 			List<User> users = perun.getUsersManagerBl().getUsers(ldapcManager.getPerunSession());
-			Set<Name> presentUsers = new HashSet<Name>(users.size());
-
-			syncExecutor.setCorePoolSize(5);
-			syncExecutor.setMaxPoolSize(8);
-			//syncExecutor.setQueueCapacity(30);
-			syncExecutor.initialize();
-
-			poolIndex = 0;
-			taskCount = new AtomicInteger(0);
+			usersCount = users.size();
+			List<String> attrNames = fillPerunAttributeNames(perunUser.getPerunAttributeNames());
+			log.info("Synchronizing {} users with attributes {}", usersCount, attrNames);
 
-			for (User user : users) {
-
-				presentUsers.add(perunUser[0].getEntryDN(String.valueOf(user.getId())));
-
-				log.debug("Getting list of attributes for user {}", user.getId());
-				List<Attribute> attrs = new ArrayList<Attribute>();
-				List<String> attrNames = fillPerunAttributeNames(perunUser[poolIndex].getPerunAttributeNames());
+			for (int i = 0; i < usersCount; i += USERS_IN_BATCH) {
+				List<UserData> batch;
 				try {
-					//log.debug("Getting attribute {} for user {}", attrName, user.getId());
-					attrs.addAll(perun.getAttributesManagerBl().getAttributes(ldapcManager.getPerunSession(), user, attrNames));
-						/* very chatty
-						if(attr == null) {
-							log.debug("Got null for attribute {}", attrName);
-						} else if (attr.getValue() == null) {
-							log.debug("Got attribute {} with null value", attrName);
-						} else {
-							log.debug("Got attribute {} with value {}", attrName, attr.getValue().toString());
-						}
-						*/
+					batch = loadUsers(perun, users.subList(i, Math.min(i + USERS_IN_BATCH, usersCount)), attrNames);
 				} catch (PerunRuntimeException e) {
-					log.warn("Couldn't get attributes {} for user {}: {}", attrNames, user.getId(), e.getMessage());
+					log.error("Error getting data of users", e);
 					shouldWriteExceptionLog = false;
 					throw new InternalErrorException(e);
 				}
-				log.debug("Got attributes {}", attrNames.toString());
-
-				try {
-					//log.debug("Synchronizing user {} with {} attrs", user, attrs.size());
-					//perunUser.synchronizeEntry(user, attrs);
-
-					log.debug("Getting list of member groups for user {}", user.getId());
-					Set<Integer> voIds = new HashSet<>();
-					List<Member> members = perun.getMembersManagerBl().getMembersByUser(ldapcManager.getPerunSession(), user);
-					List<Group> groups = new ArrayList<Group>();
-					for (Member member : members) {
-						if (member.getStatus().equals(Status.VALID)) {
-							voIds.add(member.getVoId());
-							groups.addAll(perun.getGroupsManagerBl().getAllGroupsWhereMemberIsActive(ldapcManager.getPerunSession(), member));
-						}
-					}
-
-					//log.debug("Synchronizing user {} with {} VOs and {} groups", user.getId(), voIds.size(), groups.size());
-					//perunUser.synchronizeMembership(user, voIds, groups);
-
-					log.debug("Getting list of extSources for user {}", user.getId());
-					List<UserExtSource> userExtSources = perun.getUsersManagerBl().getUserExtSources(ldapcManager.getPerunSession(), user);
-
-					List<Group> admin_groups = perun.getUsersManagerBl().getGroupsWhereUserIsAdmin(ldapcManager.getPerunSession(), user);
-					List<Vo> admin_vos = perun.getUsersManagerBl().getVosWhereUserIsAdmin(ldapcManager.getPerunSession(), user);
-					List<Facility> admin_facilities = perun.getFacilitiesManagerBl().getFacilitiesWhereUserIsAdmin(ldapcManager.getPerunSession(), user);
-
-					//log.debug("Synchronizing user {} with {} extSources", user.getId(), userExtSources.size());
-					//perunUser.synchronizePrincipals(user, userExtSources);
-
-					syncExecutor.execute(new SyncUsersWorker(poolIndex, user, attrs, voIds, groups, userExtSources, admin_groups, admin_vos, admin_facilities));
-					taskCount.incrementAndGet();
-
-				} catch (PerunRuntimeException e) {
-					log.error("Error synchronizing user", e);
-					shouldWriteExceptionLog = false;
-					throw new InternalErrorException(e);
+				for (UserData data : batch) {
+					presentUsers.add(perunUser.getEntryDN(String.valueOf(data.user.getId())));
+					queue.put(data);
 				}
+				loadedUsers += batch.size();
 
-				poolIndex = (poolIndex + 1) % perunUser.length;
-			}
-
-			try {
-				removeOldEntries(perunUser[0], presentUsers, log);
-			} catch (InternalErrorException e) {
-				log.error("Error removing old user entries", e);
-				shouldWriteExceptionLog = false;
-				throw new InternalErrorException(e);
+				if (System.currentTimeMillis() - lastReportTime >= PROGRESS_INTERVAL) {
+					lastReportTime = System.currentTimeMillis();
+					logProgress(usersCount, loadedUsers, synchronizedUsers.get(), startTime, queue.size());
+				}
 			}
+			allUsersLoaded = true;
 
 		} catch (PerunRuntimeException e) {
 			if (shouldWriteExceptionLog) {
@@ -205,34 +193,104 @@ public class UserSynchronizer extends AbstractSynchronizer implements Applicatio
 			}
 			throw new InternalErrorException(e);
 
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InternalErrorException("Synchronization of users was interrupted", e);
+
 		} finally {
-			// wait for all the tasks to get executed
-			while (!syncExecutor.getThreadPoolExecutor().getQueue().isEmpty()) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					break;
-				}
-			}
-			// wait for all the tasks to complete (for at most 10 seconds)
-			for (int i = 0; i < 10 && taskCount.get() > 0; i++) {
+			stopWriters(writers, queue, allUsersLoaded);
+			while (!writers.isTerminated()) {
 				try {
-					Thread.sleep(1000);
+					if (!writers.awaitTermination(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS)) {
+						logProgress(usersCount, loadedUsers, synchronizedUsers.get(), startTime, queue.size());
+					}
 				} catch (InterruptedException e) {
+					writers.shutdownNow();
+					Thread.currentThread().interrupt();
 					break;
 				}
 			}
-			syncExecutor.shutdown();
-			for (poolIndex = 0; poolIndex < perunUser.length; poolIndex++) {
-				perunUser[poolIndex] = null;
-			}
 		}
-		if (wasThreadException) {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InternalErrorException("Synchronization of users was interrupted");
+		}
+		logProgress(usersCount, loadedUsers, synchronizedUsers.get(), startTime, queue.size());
+
+		try {
+			removeOldEntries(perunUser, presentUsers, log);
+		} catch (InternalErrorException e) {
+			log.error("Error removing old user entries", e);
+			throw new InternalErrorException(e);
+		}
+
+		if (wasThreadException.get()) {
 			throw new InternalErrorException("Error synchronizing user in executed thread");
 		}
 
 	}
 
+	/**
+	 * Load users with all their relations needed in LDAP.
+	 *
+	 * @param perun perun
+	 * @param users users to load
+	 * @param attrNames names of the user attributes
+	 * @return users with their data in the same order
+	 * @throws InternalErrorException
+	 */
+	private List<UserData> loadUsers(PerunBl perun, List<User> users, List<String> attrNames) throws InternalErrorException {
+		PerunSession sess = ldapcManager.getPerunSession();
+
+		Map<Integer, List<Attribute>> attrs = perun.getAttributesManagerBl().getUsersAttributes(sess, users, attrNames);
+		Map<Integer, List<Member>> members = perun.getUsersManagerBl().getMembersOfUsers(sess, users);
+		List<Member> validMembers = members.values().stream()
+				.flatMap(List::stream)
+				.filter(member -> Status.VALID.equals(member.getStatus()))
+				.collect(Collectors.toList());
+		Map<Integer, List<Group>> groups = perun.getGroupsManagerBl().getAllGroupsWhereMembersAreActive(sess, validMembers);
+		Map<Integer, List<UserExtSource>> userExtSources = perun.getUsersManagerBl().getUserExtSourcesOfUsers(sess, users);
+		Map<Integer, List<Group>> admin_groups = perun.getUsersManagerBl().getGroupsWhereUsersAreAdmins(sess, users);
+		Map<Integer, List<Vo>> admin_vos = perun.getUsersManagerBl().getVosWhereUsersAreAdmins(sess, users);
+		Map<Integer, List<Facility>> admin_facilities = perun.getUsersManagerBl().getFacilitiesWhereUsersAreAdmins(sess, users);
+
+		List<UserData> result = new ArrayList<>(users.size());
+		for (User user : users) {
+			Set<Integer> voIds = new HashSet<>();
+			List<Group> groupsOfUser = new ArrayList<>();
+			for (Member member : members.get(user.getId())) {
+				if (Status.VALID.equals(member.getStatus())) {
+					voIds.add(member.getVoId());
+					groupsOfUser.addAll(groups.get(member.getId()));
+				}
+			}
+			result.add(new UserData(user, attrs.get(user.getId()), voIds, groupsOfUser, userExtSources.get(user.getId()),
+					admin_groups.get(user.getId()), admin_vos.get(user.getId()), admin_facilities.get(user.getId())));
+		}
+		return result;
+	}
+
+	/**
+	 * Let the writers finish. If all users were loaded, writers process the rest of the queue,
+	 * otherwise the queue is dropped.
+	 */
+	private void stopWriters(ExecutorService writers, BlockingQueue<UserData> queue, boolean allUsersLoaded) {
+		if (!allUsersLoaded) queue.clear();
+		try {
+			for (int i = 0; i < WRITERS; i++) {
+				queue.put(END_OF_USERS);
+			}
+			writers.shutdown();
+		} catch (InterruptedException e) {
+			writers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void logProgress(int usersCount, int loadedUsers, int synchronizedUsers, long startTime, int queueSize) {
+		long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+		log.info("Users synchronization: {} of {} loaded, {} synchronized ({} users/s), {} waiting in queue", loadedUsers, usersCount,
+				synchronizedUsers, synchronizedUsers * 1000L / elapsed, queueSize);
+	}
 
 	@Override
 	public void setApplicationContext(ApplicationContext context) throws BeansException {
@@ -6,6 +6,7 @@ import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.ldapc.beans.LdapProperties;
+import cz.metacentrum.perun.ldapc.beans.LdapWriteBuffer;
 import cz.metacentrum.perun.ldapc.beans.PerunAttributeConfigurer;
 import cz.metacentrum.perun.ldapc.model.PerunAttribute;
 import cz.metacentrum.perun.ldapc.model.PerunEntry;
@@ -55,6 +56,8 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	@Autowired
 	protected LdapTemplate ldapTemplate;
 	@Autowired
+	protected LdapWriteBuffer ldapWriteBuffer;
+	@Autowired
 	protected LdapProperties ldapProperties;
 
 	private List<PerunAttribute<T>> attributeDescriptions;
@@ -89,7 +92,7 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	public void addEntry(T bean) throws InternalErrorException {
 		DirContextOperations context = new DirContextAdapter(buildDN(bean));
 		mapToContext(bean, context);
-		ldapTemplate.bind(context);
+		ldapWriteBuffer.bind(context);
 	}
 
 	@Override
@@ -113,7 +116,7 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	protected void modifyEntry(T bean, Iterable<PerunAttribute<T>> attrs, List<String> attrNames) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(bean));
 		mapToContext(bean, entry, findAttributeDescriptionsByLdapName(attrs, attrNames));
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -129,14 +132,14 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 		for (PerunAttribute<T> attrDef : attrDefs) {
 			mapToContext(bean, entry, attrDef, attr);
 		}
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
 	public void modifyEntry(T bean, PerunAttribute<T> attrDef, AttributeDefinition attr) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(bean));
 		mapToContext(bean, entry, attrDef, attr);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	/* (non-Javadoc)
@@ -151,7 +154,7 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	@Override
 	public void deleteEntry(Name dn) throws InternalErrorException {
 		try {
-			ldapTemplate.unbind(dn);
+			ldapWriteBuffer.unbind(dn);
 		} catch (NameNotFoundException e) {
 			throw new InternalErrorException(e);
 		}
@@ -210,9 +213,9 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	@Override
 	public void commitSyncOperation(SyncOperation op) throws InternalErrorException {
 		if (op.isNew()) {
-			ldapTemplate.bind(op.getEntry());
+			ldapWriteBuffer.bind(op.getEntry());
 		} else {
-			ldapTemplate.modifyAttributes(op.getEntry());
+			ldapWriteBuffer.modifyAttributes(op.getEntry());
 		}
 	}
 
@@ -230,15 +233,15 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 	public DirContextOperations findByDN(Name dn) {
 		Name baseDN = LdapNameBuilder.newInstance(this.getBaseDN()).build();
 		if (dn.startsWith(baseDN)) {
-			return ldapTemplate.lookupContext(dn.getSuffix(baseDN.size()));
+			return ldapWriteBuffer.lookupContext(dn.getSuffix(baseDN.size()));
 		}
-		return ldapTemplate.lookupContext(dn);
+		return ldapWriteBuffer.lookupContext(dn);
 	}
 
 
 	@Override
 	public DirContextOperations findById(String... id) {
-		return ldapTemplate.lookupContext(getEntryDN(id));
+		return ldapWriteBuffer.lookupContext(getEntryDN(id));
 	}
 
 	abstract public Name getEntryDN(String... id);
@@ -265,7 +268,7 @@ public abstract class AbstractPerunEntry<T extends PerunBean> implements Initial
 			}
 		}
 		if (entry.getModificationItems().length > 0) {
-			ldapTemplate.modifyAttributes(entry);
+			ldapWriteBuffer.modifyAttributes(entry);
 		}
 	}
 
@@ -112,7 +112,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 			for (String memberDN : uniqueMembers) {
 				DirContextOperations memberEntry = user.findByDN(LdapNameBuilder.newInstance(memberDN).build());
 				memberEntry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrMemberOf, fullGroupDN.toString());
-				ldapTemplate.modifyAttributes(memberEntry);
+				ldapWriteBuffer.modifyAttributes(memberEntry);
 			}
 
 		deleteEntry(group);
@@ -132,7 +132,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		if (isMember(groupEntry, fullMemberDN)) return;
 
 		groupEntry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrUniqueMember, fullMemberDN.toString());
-		ldapTemplate.modifyAttributes(groupEntry);
+		ldapWriteBuffer.modifyAttributes(groupEntry);
 
 		//Add member to vo if this group is membersGroup
 		if (group.getName().equals(VosManager.MEMBERS_GROUP) && group.getParentGroupId() == null) {
@@ -143,7 +143,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		// user->add('memberOf' => groupDN)
 		DirContextOperations userEntry = findByDN(memberDN);
 		userEntry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrMemberOf, addBaseDN(groupDN).toString());
-		ldapTemplate.modifyAttributes(userEntry);
+		ldapWriteBuffer.modifyAttributes(userEntry);
 	}
 
 	public void removeMemberFromGroup(Member member, Group group) throws InternalErrorException {
@@ -155,7 +155,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		if (!isMember(groupEntry, fullMemberDN)) return;
 
 		groupEntry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrUniqueMember, fullMemberDN.toString());
-		ldapTemplate.modifyAttributes(groupEntry);
+		ldapWriteBuffer.modifyAttributes(groupEntry);
 
 		//Remove member from vo if this group is membersGroup
 		if (group.getName().equals(VosManager.MEMBERS_GROUP) && group.getParentGroupId() == null) {
@@ -165,7 +165,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		//Remove group info from member
 		DirContextOperations userEntry = findByDN(memberDN);
 		userEntry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrMemberOf, addBaseDN(groupDN).toString());
-		ldapTemplate.modifyAttributes(userEntry);
+		ldapWriteBuffer.modifyAttributes(userEntry);
 	}
 
 	@Override
@@ -173,7 +173,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name voDN = addBaseDN(perunVO.getEntryDN(String.valueOf(vo.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfVo, voDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -181,7 +181,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name voDN = addBaseDN(perunVO.getEntryDN(String.valueOf(vo.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfVo, voDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -189,7 +189,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name groupDN = addBaseDN(getEntryDN(String.valueOf(group2.getVoId()), String.valueOf(group2.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfGroup, groupDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -197,7 +197,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name groupDN = addBaseDN(getEntryDN(String.valueOf(group2.getVoId()), String.valueOf(group2.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfGroup, groupDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -205,7 +205,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name facilityDN = addBaseDN(perunFacility.getEntryDN(String.valueOf(facility.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfFacility, facilityDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -213,7 +213,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 		DirContextOperations entry = findByDN(buildDN(group));
 		Name facilityDN = addBaseDN(perunFacility.getEntryDN(String.valueOf(facility.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfFacility, facilityDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	protected void doSynchronizeMembers(DirContextOperations groupEntry, List<Member> members) {
@@ -260,7 +260,7 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 	public void synchronizeMembers(Group group, List<Member> members) {
 		DirContextOperations groupEntry = findByDN(buildDN(group));
 		doSynchronizeMembers(groupEntry, members);
-		ldapTemplate.modifyAttributes(groupEntry);
+		ldapWriteBuffer.modifyAttributes(groupEntry);
 		// user attributes are set when synchronizing users
 	}
 
@@ -268,14 +268,14 @@ public class PerunGroupImpl extends AbstractPerunEntry<Group> implements PerunGr
 	public void synchronizeResources(Group group, List<Resource> resources) {
 		DirContextOperations groupEntry = findByDN(buildDN(group));
 		doSynchronizeResources(groupEntry, resources);
-		ldapTemplate.modifyAttributes(groupEntry);
+		ldapWriteBuffer.modifyAttributes(groupEntry);
 	}
 
 	@Override
 	public void synchronizeAdminRoles(Group group, List<Group> admin_groups, List<Vo> admin_vos, List<Facility> admin_facilities) {
 		DirContextOperations groupEntry = findByDN(buildDN(group));
 		doSynchronizeAdminRoles(groupEntry, admin_groups, admin_vos, admin_facilities);
-		ldapTemplate.modifyAttributes(groupEntry);
+		ldapWriteBuffer.modifyAttributes(groupEntry);
 	}
 
 	public boolean isMember(Member member, Group group) {
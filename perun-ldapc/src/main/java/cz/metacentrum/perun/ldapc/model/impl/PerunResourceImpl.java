@@ -92,20 +92,20 @@ public class PerunResourceImpl extends AbstractPerunEntry<Resource> implements P
 	public void assignGroup(Resource resource, Group group) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(resource));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAssignedGroupId, String.valueOf(group.getId()));
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 		entry = perunGroup.findById(String.valueOf(group.getVoId()), String.valueOf(group.getId()));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAssignedToResourceId, String.valueOf(resource.getId()));
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
 	public void removeGroup(Resource resource, Group group) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(resource));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAssignedGroupId, String.valueOf(group.getId()));
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 		entry = perunGroup.findById(String.valueOf(group.getVoId()), String.valueOf(group.getId()));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAssignedToResourceId, String.valueOf(resource.getId()));
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	protected void doSynchronizeGroups(DirContextOperations entry, List<Group> assignedGroups) {
@@ -127,7 +127,7 @@ public class PerunResourceImpl extends AbstractPerunEntry<Resource> implements P
 	public void synchronizeGroups(Resource resource, List<Group> assignedGroups) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(resource));
 		doSynchronizeGroups(entry, assignedGroups);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -132,14 +132,14 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 	public void addPrincipal(User user, String login) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(user));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrEduPersonPrincipalNames, login);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
 	public void removePrincipal(User user, String login) throws InternalErrorException {
 		DirContextOperations entry = findByDN(buildDN(user));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrEduPersonPrincipalNames, login);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -147,7 +147,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name voDN = addBaseDN(perunVO.getEntryDN(String.valueOf(vo.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfVo, voDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -155,7 +155,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name voDN = addBaseDN(perunVO.getEntryDN(String.valueOf(vo.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfVo, voDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -163,7 +163,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name groupDN = addBaseDN(perunGroup.getEntryDN(String.valueOf(group.getVoId()), String.valueOf(group.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfGroup, groupDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -171,7 +171,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name groupDN = addBaseDN(perunGroup.getEntryDN(String.valueOf(group.getVoId()), String.valueOf(group.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfGroup, groupDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -179,7 +179,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name facilityDN = addBaseDN(perunFacility.getEntryDN(String.valueOf(facility.getId())));
 		entry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfFacility, facilityDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -187,7 +187,7 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 		DirContextOperations entry = findByDN(buildDN(user));
 		Name facilityDN = addBaseDN(perunFacility.getEntryDN(String.valueOf(facility.getId())));
 		entry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrAdminOfFacility, facilityDN.toString());
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	protected void doSynchronizeMembership(DirContextOperations entry, Set<Integer> voIds, List<Group> groups) {
@@ -245,21 +245,21 @@ public class PerunUserImpl extends AbstractPerunEntry<User> implements PerunUser
 	public void synchronizeMembership(User user, Set<Integer> voIds, List<Group> groups) {
 		DirContextOperations entry = findByDN(buildDN(user));
 		doSynchronizeMembership(entry, voIds, groups);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
 	public void synchronizePrincipals(User user, List<UserExtSource> extSources) {
 		DirContextOperations entry = findByDN(buildDN(user));
 		doSynchronizePrincipals(entry, extSources);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
 	public void synchronizeAdminRoles(User user, List<Group> admin_groups, List<Vo> admin_vos, List<Facility> admin_facilities) {
 		DirContextOperations entry = findByDN(buildDN(user));
 		doSynchronizeAdminRoles(entry, admin_groups, admin_vos, admin_facilities);
-		ldapTemplate.modifyAttributes(entry);
+		ldapWriteBuffer.modifyAttributes(entry);
 	}
 
 	@Override
@@ -84,10 +84,10 @@ public class PerunVOImpl extends AbstractPerunEntry<Vo> implements PerunVO {
 		DirContextOperations voEntry = findById(String.valueOf(voId));
 		Name memberDN = user.getEntryDN(String.valueOf(member.getUserId()));
 		voEntry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrUniqueMember, addBaseDN(memberDN).toString());
-		ldapTemplate.modifyAttributes(voEntry);
+		ldapWriteBuffer.modifyAttributes(voEntry);
 		DirContextOperations userEntry = findByDN(memberDN);
 		userEntry.addAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrMemberOfPerunVo, String.valueOf(voId));
-		ldapTemplate.modifyAttributes(userEntry);
+		ldapWriteBuffer.modifyAttributes(userEntry);
 	}
 
 	@Override
@@ -95,10 +95,10 @@ public class PerunVOImpl extends AbstractPerunEntry<Vo> implements PerunVO {
 		DirContextOperations voEntry = findById(String.valueOf(voId));
 		Name memberDN = user.getEntryDN(String.valueOf(member.getUserId()));
 		voEntry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrUniqueMember, addBaseDN(memberDN).toString());
-		ldapTemplate.modifyAttributes(voEntry);
+		ldapWriteBuffer.modifyAttributes(voEntry);
 		DirContextOperations userEntry = findByDN(memberDN);
 		userEntry.removeAttributeValue(PerunAttribute.PerunAttributeNames.ldapAttrMemberOfPerunVo, String.valueOf(voId));
-		ldapTemplate.modifyAttributes(userEntry);
+		ldapWriteBuffer.modifyAttributes(userEntry);
 	}
 
 	protected void doSynchronizeMembers(DirContextOperations voEntry, List<Member> members) {
@@ -120,7 +120,7 @@ public class PerunVOImpl extends AbstractPerunEntry<Vo> implements PerunVO {
 	public void synchronizeMembers(Vo vo, List<Member> members) {
 		DirContextOperations voEntry = findByDN(buildDN(vo));
 		doSynchronizeMembers(voEntry, members);
-		ldapTemplate.modifyAttributes(voEntry);
+		ldapWriteBuffer.modifyAttributes(voEntry);
 		// user attributes are set when synchronizing users
 	}
 
@@ -159,7 +159,7 @@ public class PerunVOImpl extends AbstractPerunEntry<Vo> implements PerunVO {
 						.where("objectclass").not().is(PerunAttribute.PerunAttributeNames.objectClassPerunVO),
 				getNameMapper());
 		for (Name entrydn : subentries) {
-			ldapTemplate.unbind(entrydn);
+			ldapWriteBuffer.unbind(entrydn);
 		}
 		// then remove this entry
 		super.deleteEntry(dn);
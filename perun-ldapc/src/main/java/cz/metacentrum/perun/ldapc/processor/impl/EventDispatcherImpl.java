@@ -17,6 +17,7 @@ import cz.metacentrum.perun.core.api.UserExtSource;
 import cz.metacentrum.perun.core.api.Vo;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.ldapc.beans.LdapProperties;
+import cz.metacentrum.perun.ldapc.beans.LdapWriteBuffer;
 import cz.metacentrum.perun.ldapc.processor.EventDispatcher;
 import cz.metacentrum.perun.ldapc.processor.EventProcessor;
 import cz.metacentrum.perun.ldapc.service.LdapcManager;
@@ -49,9 +50,17 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 	private LdapProperties ldapProperties;
 	@Autowired
 	private LdapcManager ldapcManager;
+	@Autowired
+	private LdapWriteBuffer ldapWriteBuffer;
 
 	private int lastProcessedIdNumber;
 
+	// id of the last message whose LDAP modifications were written, it is saved to the state file
+	private int lastWrittenIdNumber;
+
+	// id of the first message whose LDAP modifications failed since the last successful write, messages from it on are not marked as written
+	private int failedIdNumber;
+
 	private boolean running = false;
 
 	private List<Pair<DispatchEventCondition, EventProcessor>> registeredProcessors;
@@ -217,6 +226,9 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 			if (lastProcessedIdNumber == 0) {
 				loadLastProcessedId();
 			}
+			lastWrittenIdNumber = lastProcessedIdNumber;
+			failedIdNumber = 0;
+			ldapWriteBuffer.begin();
 
 			//If running is true, then this process will be continuously
 			while (running) {
@@ -226,8 +238,9 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 				//Waiting for new messages. If consumer failed in some internal case, waiting until it will be repaired (waiting time is increases by each attempt)
 				do {
 					try {
-						//IMPORTANT STEP1: Get new bulk of messages
-						messages = perun.getAuditMessagesManager().pollConsumerMessages(perunSession, ldapProperties.getLdapConsumerName(), lastProcessedIdNumber);
+						//IMPORTANT STEP1: Get new bulk of messages, blocks until new messages are stored or poll timeout elapses
+						//messages stored by Perun in other JVM are found only when timeout elapses, so it must be short
+						messages = perun.getAuditMessagesManager().waitForConsumerMessages(perunSession, ldapProperties.getLdapConsumerName(), lastProcessedIdNumber, ldapProperties.getLdapPollTimeout());
 						// Rpc.AuditMessagesManager.pollConsumerMessages(ldapcManager.getRpcCaller(), ldapProperties.getLdapConsumerName());
 					} catch (InternalErrorException ex) {
 						log.error("Consumer failed due to {}. Sleeping for {} ms.", ex, sleepTime);
@@ -251,14 +264,19 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 					lastProcessedIdNumber = message.getId();
 					//IMPORTANT STEP2: Resolve next message
 					MessageBeans presentBeans = this.resolveMessage(message.getEvent().getMessage(), message.getId());
+					ldapWriteBuffer.setMessageId(message.getId());
 					this.dispatchEvent(message.getEvent().getMessage(), presentBeans);
+					//IMPORTANT STEP3: Write buffered modifications, if there are too many of them or they are too old
+					if (ldapWriteBuffer.shouldFlush()) {
+						flushModifications();
+					}
 				}
-				//After all messages has been resolved, test interrupting of thread and if its ok, wait and go for another bulk of messages
+				flushModifications();
+				//After all messages has been resolved, test interrupting of thread and if its ok, go for another bulk of messages
 				if (Thread.interrupted()) {
 					running = false;
 				} else {
 					saveLastProcessedId();
-					Thread.sleep(5000);
 				}
 			}
 			//If ldapc is interrupted
@@ -273,10 +291,29 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 			log.error("Last message has ID='" + ((message != null) ? message.getId() : 0) + "' and was bad PARSED or EXECUTE at " + DATE_FORMAT.format(date) + " due to exception " + e.toString());
 			throw new RuntimeException(e);
 		} finally {
+			// modifications which were not written are not saved as processed, they will be processed again
+			ldapWriteBuffer.end();
 			saveLastProcessedId();
 		}
 	}
 
+	/**
+	 * Write buffered LDAP modifications and mark all messages processed so far as written. If modifications of any message
+	 * failed, only messages before the first failed one are marked as written until the next successful write, so it is
+	 * processed again when LDAPc stops in the meantime. After the next successful write, failed messages are skipped.
+	 */
+	protected void flushModifications() {
+		int failedId = ldapWriteBuffer.flush();
+		if (failedId > 0) {
+			log.error("LDAP modifications of message {} failed, it is skipped unless LDAPc stops before next successful write.", failedId);
+			if (failedIdNumber == 0 || failedId < failedIdNumber) failedIdNumber = failedId;
+			lastWrittenIdNumber = failedIdNumber - 1;
+		} else {
+			failedIdNumber = 0;
+			lastWrittenIdNumber = lastProcessedIdNumber;
+		}
+	}
+
 	@Override
 	public void registerProcessor(EventProcessor processor, DispatchEventCondition condition) {
 		if (registeredProcessors == null)
@@ -341,6 +378,7 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 
 	public void setLastProcessedIdNumber(int lastProcessedIdNumber) {
 		this.lastProcessedIdNumber = lastProcessedIdNumber;
+		this.lastWrittenIdNumber = lastProcessedIdNumber;
 	}
 
 	protected void loadLastProcessedId() {
@@ -350,6 +388,7 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 			int lastId = id_s.isEmpty() ? 0 : Integer.parseInt(id_s.get(0));
 			if (lastId > 0) {
 				this.lastProcessedIdNumber = lastId;
+				this.lastWrittenIdNumber = lastId;
 			} else {
 				log.error("Wrong number for last processed message id {}, exiting.", id_s);
 				System.exit(-1);
@@ -364,7 +403,7 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 	protected void saveLastProcessedId() {
 		Path file = FileSystems.getDefault().getPath(ldapProperties.getLdapStateFile());
 		try {
-			Files.write(file, String.valueOf(lastProcessedIdNumber).getBytes());
+			Files.write(file, String.valueOf(lastWrittenIdNumber).getBytes());
 		} catch (IOException e) {
 			log.error("Error writing last processed message id to file {}", ldapProperties.getLdapStateFile(), e);
 		}
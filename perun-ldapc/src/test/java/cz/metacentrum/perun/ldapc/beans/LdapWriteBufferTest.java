@@ -0,0 +1,253 @@
+package cz.metacentrum.perun.ldapc.beans;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ldap.SchemaViolationException;
+import org.springframework.ldap.core.DirContextAdapter;
+import org.springframework.ldap.core.DirContextOperations;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.support.LdapUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.naming.Name;
+import javax.naming.NamingException;
+import javax.naming.directory.BasicAttribute;
+import javax.naming.directory.BasicAttributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.ModificationItem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of merging buffered modifications of LDAP entries, computing their difference and reporting failed writes
+ * (no LDAP server is needed).
+ */
+public class LdapWriteBufferTest {
+
+	private final static String CLASS_NAME = "LdapWriteBuffer.";
+
+	private DirContextAdapter original;
+	private DirContextAdapter current;
+
+	@Before
+	public void setUp() {
+		BasicAttributes attributes = new BasicAttributes(true);
+		attributes.put(new BasicAttribute("cn", "name"));
+		BasicAttribute memberOf = new BasicAttribute("memberOf");
+		memberOf.add("perunGroupId=1");
+		memberOf.add("perunGroupId=2");
+		attributes.put(memberOf);
+		BasicAttribute uniqueMember = new BasicAttribute("uniqueMember");
+		uniqueMember.add("perunUserId=1");
+		uniqueMember.add("perunUserId=2");
+		attributes.put(uniqueMember);
+
+		original = new DirContextAdapter(attributes, LdapUtils.newLdapName("perunGroupId=10"));
+		current = new DirContextAdapter(original.getAttributes(), original.getDn());
+	}
+
+	@Test
+	public void applyAddAndRemove() {
+		System.out.println(CLASS_NAME + "applyAddAndRemove");
+
+		LdapWriteBuffer.apply(current, item(DirContext.ADD_ATTRIBUTE, "memberOf", "perunGroupId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "memberOf", "perunGroupId=1"));
+		assertEquals(values("perunGroupId=2", "perunGroupId=3"), values(current, "memberOf"));
+
+		// removing the last value removes the attribute
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "memberOf", "perunGroupId=2", "perunGroupId=3"));
+		assertNull(current.getAttributes().get("memberOf"));
+
+		// removing attribute without values removes all of them
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "uniqueMember"));
+		assertNull(current.getAttributes().get("uniqueMember"));
+
+		// original entry is not affected
+		assertEquals(values("perunGroupId=1", "perunGroupId=2"), values(original, "memberOf"));
+	}
+
+	@Test
+	public void applyReplace() {
+		System.out.println(CLASS_NAME + "applyReplace");
+
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "first"));
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "second"));
+		assertEquals(values("second"), values(current, "cn"));
+
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "description", "new"));
+		assertEquals(values("new"), values(current, "description"));
+
+		// replacing by no values removes the attribute
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn"));
+		assertNull(current.getAttributes().get("cn"));
+	}
+
+	@Test
+	public void getDifferenceOfMultiValuedAttributes() {
+		System.out.println(CLASS_NAME + "getDifferenceOfMultiValuedAttributes");
+
+		// modifications of several messages
+		LdapWriteBuffer.apply(current, item(DirContext.ADD_ATTRIBUTE, "memberOf", "perunGroupId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.ADD_ATTRIBUTE, "uniqueMember", "perunUserId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "memberOf", "perunGroupId=1"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "uniqueMember", "perunUserId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "uniqueMember", "perunUserId=1"));
+
+		ModificationItem[] difference = LdapWriteBuffer.getDifference(original, current);
+
+		// only net changes are written, values are added and removed (not replaced)
+		Set<String> changes = new HashSet<>();
+		for (ModificationItem item : difference) {
+			assertFalse(item.getModificationOp() == DirContext.REPLACE_ATTRIBUTE);
+			for (Object value : values(item)) {
+				changes.add(item.getModificationOp() + ":" + item.getAttribute().getID() + ":" + value);
+			}
+		}
+		assertEquals(values(DirContext.ADD_ATTRIBUTE + ":memberOf:perunGroupId=3", DirContext.REMOVE_ATTRIBUTE + ":memberOf:perunGroupId=1",
+				DirContext.REMOVE_ATTRIBUTE + ":uniqueMember:perunUserId=1"), changes);
+
+		// difference changes the original entry to the buffered one
+		DirContextAdapter written = new DirContextAdapter(original.getAttributes(), original.getDn());
+		for (ModificationItem item : difference) {
+			LdapWriteBuffer.apply(written, item);
+		}
+		assertEquals(values(current, "memberOf"), values(written, "memberOf"));
+		assertEquals(values(current, "uniqueMember"), values(written, "uniqueMember"));
+		assertEquals(values(current, "cn"), values(written, "cn"));
+	}
+
+	@Test
+	public void getDifferenceWhenChangesCancelOut() {
+		System.out.println(CLASS_NAME + "getDifferenceWhenChangesCancelOut");
+
+		LdapWriteBuffer.apply(current, item(DirContext.ADD_ATTRIBUTE, "memberOf", "perunGroupId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "memberOf", "perunGroupId=3"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "uniqueMember", "perunUserId=2"));
+		LdapWriteBuffer.apply(current, item(DirContext.ADD_ATTRIBUTE, "uniqueMember", "perunUserId=2"));
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "other"));
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "name"));
+
+		assertArrayEquals(new ModificationItem[0], LdapWriteBuffer.getDifference(original, current));
+	}
+
+	@Test
+	public void getDifferenceOfReplacedAndRemovedAttributes() {
+		System.out.println(CLASS_NAME + "getDifferenceOfReplacedAndRemovedAttributes");
+
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "first"));
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "cn", "second"));
+		LdapWriteBuffer.apply(current, item(DirContext.REPLACE_ATTRIBUTE, "description", "new"));
+		LdapWriteBuffer.apply(current, item(DirContext.REMOVE_ATTRIBUTE, "memberOf"));
+
+		ModificationItem[] difference = LdapWriteBuffer.getDifference(original, current);
+		DirContextAdapter written = new DirContextAdapter(original.getAttributes(), original.getDn());
+		for (ModificationItem item : difference) {
+			LdapWriteBuffer.apply(written, item);
+		}
+		assertEquals(values("second"), values(written, "cn"));
+		assertEquals(values("new"), values(written, "description"));
+		assertNull(written.getAttributes().get("memberOf"));
+		assertEquals(values("perunUserId=1", "perunUserId=2"), values(written, "uniqueMember"));
+		assertTrue(difference.length > 0);
+	}
+
+	@Test
+	public void flushReportsFailedMessage() {
+		System.out.println(CLASS_NAME + "flushReportsFailedMessage");
+
+		RejectingLdapTemplate ldapTemplate = new RejectingLdapTemplate();
+		LdapWriteBuffer ldapWriteBuffer = new LdapWriteBuffer();
+		ReflectionTestUtils.setField(ldapWriteBuffer, "ldapTemplate", ldapTemplate);
+
+		ldapWriteBuffer.begin();
+		try {
+			ldapWriteBuffer.setMessageId(1);
+			DirContextOperations context = ldapWriteBuffer.lookupContext(original.getDn());
+			context.addAttributeValue("memberOf", "perunGroupId=3");
+			ldapWriteBuffer.modifyAttributes(context);
+			ldapWriteBuffer.setMessageId(2);
+			context = ldapWriteBuffer.lookupContext(original.getDn());
+			context.setAttributeValue("description", "rejected");
+			ldapWriteBuffer.modifyAttributes(context);
+			ldapWriteBuffer.setMessageId(3);
+			context = ldapWriteBuffer.lookupContext(original.getDn());
+			context.removeAttributeValue("uniqueMember", "perunUserId=1");
+			ldapWriteBuffer.modifyAttributes(context);
+
+			assertEquals(2, ldapWriteBuffer.flush());
+			// merged modification was rejected, then modifications of the messages were written one by one
+			assertEquals(4, ldapTemplate.requests);
+			assertEquals(2, ldapTemplate.written.size());
+			assertEquals(DirContext.ADD_ATTRIBUTE + ":memberOf", ldapTemplate.written.get(0));
+			assertEquals(DirContext.REMOVE_ATTRIBUTE + ":uniqueMember", ldapTemplate.written.get(1));
+
+			// failure is reported only once
+			assertEquals(0, ldapWriteBuffer.flush());
+		} finally {
+			ldapWriteBuffer.end();
+		}
+	}
+
+	/**
+	 * Template which returns the original entry and rejects modifications of its description.
+	 */
+	private class RejectingLdapTemplate extends LdapTemplate {
+
+		int requests = 0;
+		final List<String> written = new ArrayList<>();
+
+		@Override
+		public DirContextOperations lookupContext(Name dn) {
+			return new DirContextAdapter(original.getAttributes(), dn);
+		}
+
+		@Override
+		public void modifyAttributes(Name dn, ModificationItem[] items) {
+			requests++;
+			for (ModificationItem item : items) {
+				if (item.getAttribute().getID().equals("description")) {
+					throw new SchemaViolationException(new javax.naming.directory.SchemaViolationException("description"));
+				}
+			}
+			for (ModificationItem item : items) {
+				written.add(item.getModificationOp() + ":" + item.getAttribute().getID());
+			}
+		}
+	}
+
+	private static ModificationItem item(int operation, String id, String... values) {
+		BasicAttribute attribute = new BasicAttribute(id);
+		for (String value : values) {
+			attribute.add(value);
+		}
+		return new ModificationItem(operation, attribute);
+	}
+
+	private static Set<Object> values(Object... values) {
+		return new HashSet<>(Arrays.asList(values));
+	}
+
+	private static Set<Object> values(DirContextAdapter entry, String id) {
+		Object[] values = entry.getObjectAttributes(id);
+		return values == null ? null : values(values);
+	}
+
+	private static Set<Object> values(ModificationItem item) {
+		try {
+			return values(Collections.list(item.getAttribute().getAll()).toArray());
+		} catch (NamingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package cz.metacentrum.perun.ldapc.processor.impl;
+
+import cz.metacentrum.perun.ldapc.beans.LdapWriteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of marking messages as written after flushing buffered LDAP modifications (no LDAP server is needed).
+ */
+public class EventDispatcherImplTest {
+
+	private final static String CLASS_NAME = "EventDispatcherImpl.";
+
+	private EventDispatcherImpl eventDispatcher;
+	private FailingLdapWriteBuffer ldapWriteBuffer;
+
+	@Before
+	public void setUp() {
+		eventDispatcher = new EventDispatcherImpl();
+		ldapWriteBuffer = new FailingLdapWriteBuffer();
+		ReflectionTestUtils.setField(eventDispatcher, "ldapWriteBuffer", ldapWriteBuffer);
+		eventDispatcher.setLastProcessedIdNumber(10);
+	}
+
+	@Test
+	public void flushModifications() {
+		System.out.println(CLASS_NAME + "flushModifications");
+
+		eventDispatcher.setLastProcessedIdNumber(12);
+		eventDispatcher.flushModifications();
+		assertEquals(12, getLastWrittenIdNumber());
+	}
+
+	@Test
+	public void flushModificationsOfFailedMessage() {
+		System.out.println(CLASS_NAME + "flushModificationsOfFailedMessage");
+
+		// messages from the failed one on are not written until the next successful flush
+		ldapWriteBuffer.failedIds(13, 15, 0);
+		process(14);
+		assertEquals(12, getLastWrittenIdNumber());
+		process(16);
+		assertEquals(12, getLastWrittenIdNumber());
+		process(18);
+		assertEquals(18, getLastWrittenIdNumber());
+	}
+
+	@Test
+	public void flushModificationsOfMessageWhichKeepsFailing() {
+		System.out.println(CLASS_NAME + "flushModificationsOfMessageWhichKeepsFailing");
+
+		ldapWriteBuffer.failedIds(12);
+		process(14);
+		assertEquals(11, getLastWrittenIdNumber());
+
+		// after restart, the message is processed again and fails again
+		eventDispatcher = new EventDispatcherImpl();
+		ReflectionTestUtils.setField(eventDispatcher, "ldapWriteBuffer", ldapWriteBuffer);
+		eventDispatcher.setLastProcessedIdNumber(11);
+		ldapWriteBuffer.failedIds(12, 0);
+		process(14);
+		assertEquals(11, getLastWrittenIdNumber());
+
+		// checkpoint moves past it with the next successful flush
+		process(15);
+		assertEquals(15, getLastWrittenIdNumber());
+	}
+
+	private void process(int lastProcessedId) {
+		ReflectionTestUtils.setField(eventDispatcher, "lastProcessedIdNumber", lastProcessedId);
+		eventDispatcher.flushModifications();
+	}
+
+	private int getLastWrittenIdNumber() {
+		return (Integer) ReflectionTestUtils.getField(eventDispatcher, "lastWrittenIdNumber");
+	}
+
+	/**
+	 * Buffer which reports given failed messages by subsequent flushes, then reports no failures.
+	 */
+	private static class FailingLdapWriteBuffer extends LdapWriteBuffer {
+
+		private final Deque<Integer> failedIds = new ArrayDeque<>();
+
+		void failedIds(Integer... ids) {
+			failedIds.clear();
+			failedIds.addAll(Arrays.asList(ids));
+		}
+
+		@Override
+		public int flush() {
+			return failedIds.isEmpty() ? 0 : failedIds.poll();
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import cz.metacentrum.perun.notif.entities.PerunNotifTemplate;
 import cz.metacentrum.perun.notif.exceptions.NotExistsException;
 import cz.metacentrum.perun.notif.exceptions.NotifRegexAlreadyExistsException;
 import cz.metacentrum.perun.notif.exceptions.PerunNotifRegexUsedException;
+import cz.metacentrum.perun.notif.utils.PerunNotifRegexMatcher;
 import java.util.ArrayList;
 
 @Service
@@ -40,12 +41,15 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 
 	private Set<PerunNotifRegex> allRegex = null;
 	private Set<PerunNotifObject> allObjects = null;
+	// all regexes compiled for matching, rebuilt on every change of allRegex
+	private volatile PerunNotifRegexMatcher regexMatcher = null;
 
 	@PostConstruct
 	private void init() {
 
 		allRegex = Collections.synchronizedSet(new HashSet<PerunNotifRegex>());
 		allRegex.addAll(perunNotifRegexDao.getAll());
+		compileRegexes();
 
 		allObjects = Collections.synchronizedSet(new HashSet<PerunNotifObject>());
 		allObjects.addAll(perunNotifObjectDao.getAll());
@@ -67,19 +71,17 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 
 		Set<Integer> result = new HashSet<Integer>();
 
-		for (PerunNotifRegex regex : allRegex) {
-			if (auditMessage.getMessage().matches(regex.getRegex())) {
-				//We test whether message has all objects
-				boolean matches = true;
-				for (PerunNotifObject object : regex.getObjects()) {
-					if (!setOfObjects.contains(object)) {
-						matches = false;
-					}
-				}
-				if (matches) {
-					result.add(regex.getId());
+		for (PerunNotifRegex regex : regexMatcher.getMatchingRegexes(auditMessage.getMessage())) {
+			//We test whether message has all objects
+			boolean matches = true;
+			for (PerunNotifObject object : regex.getObjects()) {
+				if (!setOfObjects.contains(object)) {
+					matches = false;
 				}
 			}
+			if (matches) {
+				result.add(regex.getId());
+			}
 		}
 
 		return result;
@@ -117,6 +119,7 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 		}
 
 		allRegex.add(regex);
+		compileRegexes();
 
 		return perunNotifRegex;
 	}
@@ -147,6 +150,7 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 		for (PerunNotifRegex regexToUpdate : allRegex) {
 			if (regexToUpdate.getId().equals(updatedRegex.getId())) {
 				regexToUpdate.update(updatedRegex);
+				compileRegexes();
 				return updatedRegex;
 			}
 		}
@@ -171,6 +175,7 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 		perunNotifRegexDao.removePerunNotifRegexById(id);
 
 		allRegex.remove(regex);
+		compileRegexes();
 	}
 
 	@Override
@@ -205,6 +210,16 @@ public class PerunNotifRegexManagerImpl implements PerunNotifRegexManager {
 		}
 	}
 
+	/**
+	 * Compile all cached regexes to the matcher used for audit messages.
+	 */
+	private void compileRegexes() {
+		synchronized (allRegex) {
+			regexMatcher = PerunNotifRegexMatcher.compile(allRegex);
+		}
+		logger.debug("Compiled {} regexes, {} of them with prefilter.", regexMatcher.size(), regexMatcher.getPrefilteredSize());
+	}
+
 	@Override
 	public void addObjectToCache(PerunNotifObject object) {
 		if (!allObjects.add(object)) {
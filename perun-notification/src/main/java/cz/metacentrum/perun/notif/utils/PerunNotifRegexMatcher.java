@@ -0,0 +1,290 @@
+package cz.metacentrum.perun.notif.utils;
+
+import cz.metacentrum.perun.notif.entities.PerunNotifRegex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matcher of audit messages against all notification regexes.
+ *
+ * Regexes are compiled once, when the matcher is created (after regexes are loaded or changed). For each regex
+ * the longest literal text, which has to be part of every matching message (e.g. "Member:[" or " added to
+ * Group:["), is extracted. Messages without this literal are rejected without evaluation of the regex. Regexes
+ * with the same literal share one check of the message.
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class PerunNotifRegexMatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(PerunNotifRegexMatcher.class);
+
+	private final CompiledRegex[] regexes;
+	private final Literal[] literals;
+
+	private PerunNotifRegexMatcher(CompiledRegex[] regexes, Literal[] literals) {
+		this.regexes = regexes;
+		this.literals = literals;
+	}
+
+	/**
+	 * Compile all regexes. Invalid regexes are logged and never match any message.
+	 *
+	 * @param perunNotifRegexes regexes to compile
+	 * @return matcher of the regexes
+	 */
+	public static PerunNotifRegexMatcher compile(Collection<PerunNotifRegex> perunNotifRegexes) {
+		List<CompiledRegex> regexes = new ArrayList<>();
+		Map<Literal, Integer> literals = new LinkedHashMap<>();
+		for (PerunNotifRegex perunNotifRegex : perunNotifRegexes) {
+			if (perunNotifRegex.getRegex() == null) continue;
+			Pattern pattern;
+			try {
+				pattern = Pattern.compile(perunNotifRegex.getRegex());
+			} catch (PatternSyntaxException ex) {
+				logger.error("Regex {} can't be compiled, it will never match any message.", perunNotifRegex, ex);
+				continue;
+			}
+			Literal literal = getRequiredLiteral(perunNotifRegex.getRegex());
+			int literalIndex = -1;
+			if (literal != null) {
+				literalIndex = literals.computeIfAbsent(literal, key -> literals.size());
+			}
+			regexes.add(new CompiledRegex(perunNotifRegex, pattern, literalIndex));
+		}
+		return new PerunNotifRegexMatcher(regexes.toArray(new CompiledRegex[0]), literals.keySet().toArray(new Literal[0]));
+	}
+
+	/**
+	 * Get regexes, which match whole message.
+	 *
+	 * @param message audit message
+	 * @return matching regexes
+	 */
+	public List<PerunNotifRegex> getMatchingRegexes(String message) {
+		// result of the check of each literal: 0 - not checked yet, 1 - message contains literal, 2 - it doesn't
+		byte[] literalChecks = new byte[literals.length];
+		List<PerunNotifRegex> result = new ArrayList<>();
+		for (CompiledRegex regex : regexes) {
+			if (regex.literalIndex >= 0) {
+				if (literalChecks[regex.literalIndex] == 0) {
+					literalChecks[regex.literalIndex] = literals[regex.literalIndex].isContainedIn(message) ? (byte) 1 : (byte) 2;
+				}
+				if (literalChecks[regex.literalIndex] == 2) continue;
+			}
+			if (regex.pattern.matcher(message).matches()) result.add(regex.perunNotifRegex);
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of compiled regexes
+	 */
+	public int size() {
+		return regexes.length;
+	}
+
+	/**
+	 * @return number of regexes with literal used to reject not matching messages
+	 */
+	public int getPrefilteredSize() {
+		int prefiltered = 0;
+		for (CompiledRegex regex : regexes) {
+			if (regex.literalIndex >= 0) prefiltered++;
+		}
+		return prefiltered;
+	}
+
+	/**
+	 * Extract the longest literal text, which is part of every string matched by the whole regex.
+	 *
+	 * Only simple regexes are analyzed - literal chars are collected from the top level of the regex, content
+	 * of groups and character classes is skipped. Regexes with alternation on the top level, inline flags or
+	 * escapes with variable meaning (e.g. \Q, \x, \p, back references) have no literal.
+	 *
+	 * @param regex valid regex
+	 * @return required literal or null if there is no such literal
+	 */
+	static Literal getRequiredLiteral(String regex) {
+		String best = "";
+		boolean bestIsPrefix = false;
+		StringBuilder run = new StringBuilder();
+		boolean runIsPrefix = true;
+
+		int i = regex.startsWith("^") ? 1 : 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			int literal = -1;
+			if (c == '\\') {
+				char escaped = regex.charAt(i + 1);
+				if (Character.isLetterOrDigit(escaped)) {
+					// predefined character classes and boundaries, other escapes are not analyzed
+					if ("dDsSwWhHvVbBAGZzR".indexOf(escaped) < 0) return null;
+				} else {
+					literal = escaped;
+				}
+				i += 2;
+			} else if (c == '|') {
+				return null;
+			} else if (c == '(') {
+				if (regex.startsWith("(?", i) && !regex.startsWith("(?:", i)) return null;
+				i = skipGroup(regex, i);
+				if (i < 0) return null;
+			} else if (c == '[') {
+				i = skipCharacterClass(regex, i);
+				if (i < 0) return null;
+			} else if (c == '.' || c == '^' || c == '$' || c == '*' || c == '+' || c == '?' || c == '{') {
+				i = skipQuantifier(regex, i);
+			} else {
+				literal = c;
+				i++;
+			}
+
+			if (literal >= 0) {
+				char next = i < regex.length() ? regex.charAt(i) : 0;
+				// literal char is optional
+				if (next == '*' || next == '?' || next == '{') literal = -1;
+				else run.append((char) literal);
+				// literal char can repeat
+				if (next == '+') literal = -1;
+			}
+			if (literal < 0) {
+				if (run.length() > best.length()) {
+					best = run.toString();
+					bestIsPrefix = runIsPrefix;
+				}
+				run.setLength(0);
+				runIsPrefix = false;
+			}
+		}
+		if (run.length() > best.length()) {
+			best = run.toString();
+			bestIsPrefix = runIsPrefix;
+		}
+		return best.isEmpty() ? null : new Literal(best, bestIsPrefix);
+	}
+
+	/**
+	 * @return index after the quantifier (including lazy or possessive suffix) or after other char at the index
+	 */
+	private static int skipQuantifier(String regex, int i) {
+		char c = regex.charAt(i);
+		if (c == '{') {
+			int end = regex.indexOf('}', i);
+			i = end < 0 ? regex.length() : end + 1;
+		} else {
+			i++;
+			if (c == '.' || c == '^' || c == '$') return i;
+		}
+		if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) i++;
+		return i;
+	}
+
+	/**
+	 * @return index after the group starting at the index, -1 if the group is not closed
+	 */
+	private static int skipGroup(String regex, int i) {
+		int depth = 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i += 2;
+				continue;
+			} else if (c == '[') {
+				i = skipCharacterClass(regex, i);
+				if (i < 0) return -1;
+				continue;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) return i + 1;
+			}
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return index after the character class starting at the index, -1 if the class is not closed
+	 */
+	private static int skipCharacterClass(String regex, int i) {
+		i++;
+		if (i < regex.length() && regex.charAt(i) == '^') i++;
+		// ']' right after opening bracket is literal
+		if (i < regex.length() && regex.charAt(i) == ']') i++;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == '[') {
+				i = skipCharacterClass(regex, i);
+				if (i < 0) return -1;
+			} else if (c == ']') {
+				return i + 1;
+			} else {
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Literal text required in the message, optionally at the start of the message.
+	 */
+	static final class Literal {
+
+		private final String text;
+		private final boolean prefix;
+
+		Literal(String text, boolean prefix) {
+			this.text = text;
+			this.prefix = prefix;
+		}
+
+		String getText() {
+			return text;
+		}
+
+		boolean isPrefix() {
+			return prefix;
+		}
+
+		boolean isContainedIn(String message) {
+			return prefix ? message.startsWith(text) : message.contains(text);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Literal)) return false;
+			Literal literal = (Literal) o;
+			return prefix == literal.prefix && text.equals(literal.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * text.hashCode() + (prefix ? 1 : 0);
+		}
+	}
+
+	private static final class CompiledRegex {
+
+		private final PerunNotifRegex perunNotifRegex;
+		private final Pattern pattern;
+		private final int literalIndex;
+
+		private CompiledRegex(PerunNotifRegex perunNotifRegex, Pattern pattern, int literalIndex) {
+			this.perunNotifRegex = perunNotifRegex;
+			this.pattern = pattern;
+			this.literalIndex = literalIndex;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package cz.metacentrum.perun.notif.utils;
+
+import cz.metacentrum.perun.notif.entities.PerunNotifRegex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PerunNotifRegexMatcherTest {
+
+	private static final String CLASS_NAME = "PerunNotifRegexMatcher.";
+
+	private static final List<String> REGEXES = Arrays.asList(
+		"Member:\\[.*\\] created\\.",
+		"^Member:\\[.*\\] validated\\.$",
+		".*added to Group:\\[.*\\]\\.",
+		"(Member|User):\\[.*\\] (created|deleted)\\.",
+		"Member:\\[.*status=<(VALID|INVALID)>.*\\].*",
+		"Members?:\\[.*",
+		"a+b.*",
+		"[]x]Group:\\[.*",
+		"\\QMember:[\\E.*",
+		"(?i)member:\\[.*",
+		".*\\d+ x{2}.*",
+		"Facility:\\[id=<\\d+>.*"
+	);
+
+	private static final List<String> MESSAGES = Arrays.asList(
+		"Member:[id=<1>, userId=<2>, voId=<3>, status=<VALID>] created.",
+		"Member:[id=<1>, userId=<2>, voId=<3>, status=<INVALID>] validated.",
+		"Member:[id=<1>] added to Group:[id=<5>].",
+		"User:[id=<2>] deleted.",
+		"Members:[]",
+		"aaab",
+		"]Group:[id=<5>]",
+		"member:[id=<1>]",
+		"Facility:[id=<12>, name=<cluster>] 42 xx",
+		"Resource:[id=<1>] created."
+	);
+
+	@Test
+	public void getRequiredLiteral() throws Exception {
+		System.out.println(CLASS_NAME + "getRequiredLiteral");
+
+		assertLiteral("Member:[", true, "Member:\\[.*");
+		assertLiteral("] created.", false, "Member:\\[.*\\] created\\.");
+		assertLiteral("Member:[", true, "^Member:\\[.*\\]$");
+		assertLiteral("added to Group:[", false, ".*added to Group:\\[.*\\]\\.");
+		assertLiteral(":[", false, "(Member|User):\\[.*\\] (created|deleted)\\.");
+		assertLiteral("Member", true, "Members?:\\[.*");
+		assertLiteral(":[", false, "(?:Member|User):\\[.*");
+		assertLiteral("a", true, "a+b.*");
+		assertLiteral("Group:[", false, "[]x]Group:\\[.*");
+		assertLiteral(" ", false, ".*\\d+ x{2}.*");
+
+		assertNull(PerunNotifRegexMatcher.getRequiredLiteral("Member:\\[.*|User:\\[.*"));
+		assertNull(PerunNotifRegexMatcher.getRequiredLiteral("\\QMember:[\\E.*"));
+		assertNull(PerunNotifRegexMatcher.getRequiredLiteral("(?i)member:\\[.*"));
+		assertNull(PerunNotifRegexMatcher.getRequiredLiteral("\\x41.*"));
+		assertNull(PerunNotifRegexMatcher.getRequiredLiteral(".*"));
+	}
+
+	@Test
+	public void getMatchingRegexesLikeWholeRegexMatch() throws Exception {
+		System.out.println(CLASS_NAME + "getMatchingRegexesLikeWholeRegexMatch");
+
+		List<PerunNotifRegex> regexes = new ArrayList<>();
+		for (int i = 0; i < REGEXES.size(); i++) regexes.add(getRegex(i, REGEXES.get(i)));
+		PerunNotifRegexMatcher matcher = PerunNotifRegexMatcher.compile(regexes);
+		assertEquals(REGEXES.size(), matcher.size());
+
+		for (String message : MESSAGES) {
+			List<PerunNotifRegex> expected = new ArrayList<>();
+			for (PerunNotifRegex regex : regexes) {
+				if (message.matches(regex.getRegex())) expected.add(regex);
+			}
+			assertEquals("Message: " + message, expected, matcher.getMatchingRegexes(message));
+		}
+	}
+
+	@Test
+	public void invalidRegexNeverMatches() throws Exception {
+		System.out.println(CLASS_NAME + "invalidRegexNeverMatches");
+
+		PerunNotifRegexMatcher matcher = PerunNotifRegexMatcher.compile(Arrays.asList(getRegex(1, "Member:[.*"), getRegex(2, "Member:\\[.*")));
+		assertEquals(1, matcher.size());
+		assertEquals(Collections.singletonList(2), getIds(matcher.getMatchingRegexes("Member:[id=<1>]")));
+		assertTrue(matcher.getMatchingRegexes("Group:[id=<1>]").isEmpty());
+	}
+
+	private static void assertLiteral(String text, boolean prefix, String regex) {
+		PerunNotifRegexMatcher.Literal literal = PerunNotifRegexMatcher.getRequiredLiteral(regex);
+		assertEquals("Regex: " + regex, text, literal.getText());
+		if (prefix) assertTrue("Regex: " + regex, literal.isPrefix());
+		else assertFalse("Regex: " + regex, literal.isPrefix());
+	}
+
+	private static PerunNotifRegex getRegex(int id, String regex) {
+		PerunNotifRegex perunNotifRegex = new PerunNotifRegex();
+		perunNotifRegex.setId(id);
+		perunNotifRegex.setRegex(regex);
+		return perunNotifRegex;
+	}
+
+	private static List<Integer> getIds(List<PerunNotifRegex> regexes) {
+		List<Integer> ids = new ArrayList<>();
+		for (PerunNotifRegex regex : regexes) ids.add(regex.getId());
+		return ids;
+	}
+
+}
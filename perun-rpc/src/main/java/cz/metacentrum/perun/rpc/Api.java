@@ -11,6 +11,7 @@ import cz.metacentrum.perun.core.api.ExtSourcesManager;
 import cz.metacentrum.perun.core.api.PerunClient;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunRequest;
+import cz.metacentrum.perun.core.api.ServiceAttributesBuilder;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.PerunException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
@@ -26,6 +27,7 @@ import cz.metacentrum.perun.rpc.serializer.PdfSerializer;
 import cz.metacentrum.perun.rpc.serializer.JsonSerializer;
 import cz.metacentrum.perun.rpc.serializer.JsonSerializerJSONP;
 import cz.metacentrum.perun.rpc.serializer.JsonSerializerJSONSIMPLE;
+import cz.metacentrum.perun.rpc.serializer.JsonServiceAttributesWriter;
 import cz.metacentrum.perun.rpc.serializer.Serializer;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -39,6 +41,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.security.cert.CertificateParsingException;
@@ -58,6 +61,7 @@ import java.util.Properties;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
@@ -501,6 +505,7 @@ public class Api extends HttpServlet {
 		caller = (ApiCaller) req.getSession(true).getAttribute(APICALLER);
 
 		OutputStream out = resp.getOutputStream();
+		GZIPOutputStream gzipOut = null;
 
 		// init pending request in HTTP session
 		if (req.getSession().getAttribute(PERUNREQUESTS) == null) {
@@ -721,14 +726,33 @@ public class Api extends HttpServlet {
 				printWriter.flush();
 			} else {
 				//Save only exceptions from caller to result
+				boolean written = false;
 				try {
 					result = caller.call(manager, method, des);
+					if (result instanceof ServiceAttributesStream) {
+						if (ser instanceof JsonSerializer) {
+							if (acceptsGzip(req)) {
+								// everything including the possible error is sent compressed from now
+								resp.setHeader("Content-Encoding", "gzip");
+								gzipOut = new GZIPOutputStream(out, true);
+								ser = new JsonSerializer(gzipOut);
+							}
+							writeServiceAttributesStream((ServiceAttributesStream) result, gzipOut != null ? gzipOut : out);
+							result = null;
+							written = true;
+						} else {
+							// other formats can't be written continuously
+							ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+							((ServiceAttributesStream) result).writeTo(builder);
+							result = builder.getServiceAttributes();
+						}
+					}
 					if (perunRequest != null) perunRequest.setResult(result);
 				} catch (Exception ex) {
 					result = ex;
 					throw ex;
 				}
-				ser.write(result);
+				if (!written) ser.write(result);
 			}
 		} catch (PerunException pex) {
 			// If the output is JSONP, it cannot send the HTTP 400 code, because the web browser wouldn't accept this
@@ -778,7 +802,12 @@ public class Api extends HttpServlet {
 			if (printWriter != null) printWriter.close();
 		}
 
-		out.close();
+		if (gzipOut != null) {
+			// finishes the compressed stream and closes the request
+			gzipOut.close();
+		} else {
+			out.close();
+		}
 
 		if (Objects.equals(manager,"authzResolver") && Objects.equals(method, "keepAlive")) {
 			log.trace("Method {}.{} called by {} from {}, duration {} ms.", manager, method, caller.getSession().getPerunPrincipal().getActor(), caller.getSession().getPerunPrincipal().getExtSourceName(), (System.currentTimeMillis() - timeStart));
@@ -788,6 +817,31 @@ public class Api extends HttpServlet {
 
 	}
 
+	/**
+	 * Writes structure generated by the stream as JSON directly to the output.
+	 * If an error occurs once any data were written, HTTP status can't be changed anymore
+	 * and the client will receive invalid (truncated) JSON followed by the serialized error.
+	 *
+	 * @param stream generator of the structure
+	 * @param out output to write to
+	 */
+	private void writeServiceAttributesStream(ServiceAttributesStream stream, OutputStream out) throws PerunException, IOException {
+		try {
+			stream.writeTo(new JsonServiceAttributesWriter(out));
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * @param req HTTP request
+	 * @return true if the client accepts gzip content encoding
+	 */
+	private static boolean acceptsGzip(HttpServletRequest req) {
+		String acceptEncoding = req.getHeader("Accept-Encoding");
+		return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+	}
+
 	private Serializer selectSerializer(String format, String manager, String method, OutputStream out,
 	                                    HttpServletRequest req, HttpServletResponse resp) throws IOException, RpcException {
 		Serializer serializer;
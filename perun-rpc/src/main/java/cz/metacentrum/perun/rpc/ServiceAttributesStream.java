@@ -0,0 +1,24 @@
+package cz.metacentrum.perun.rpc;
+
+import cz.metacentrum.perun.core.api.ServiceAttributesWriter;
+import cz.metacentrum.perun.core.api.exceptions.PerunException;
+
+/**
+ * Result of the manager method, which generates ServiceAttributes structure only when it is written.
+ * Api writes such result to the response continuously as it is generated instead of serializing
+ * the whole structure at once.
+ *
+ * @see ManagerMethod
+ */
+@FunctionalInterface
+public interface ServiceAttributesStream {
+
+	/**
+	 * Generates the structure and passes it to the writer.
+	 *
+	 * @param writer receiver of the structure
+	 * @throws PerunException when the structure can't be generated
+	 */
+	void writeTo(ServiceAttributesWriter writer) throws PerunException;
+
+}
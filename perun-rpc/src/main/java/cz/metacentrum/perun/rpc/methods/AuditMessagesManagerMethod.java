@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.rpc.methods;
 
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.AuditMessagesManager;
 import cz.metacentrum.perun.core.api.exceptions.PerunException;
 import cz.metacentrum.perun.rpc.ApiCaller;
 import cz.metacentrum.perun.rpc.ManagerMethod;
@@ -60,6 +61,32 @@ public enum AuditMessagesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Returns list of AuditMessages from audit log with IDs > lastProcessedId for registered auditer consumer
+	 * specified by consumerName param. If there are no such messages, call blocks until new messages are stored
+	 * or until the timeout elapses (long-poll).
+	 *
+	 * @param consumerName String Consumer to get messages for
+	 * @return List<AuditMessage> List of Audit Messages, empty if there were no new messages before the timeout
+	 */
+	/*#
+	 * Returns list of AuditMessages from audit log with IDs > lastProcessedId for registered auditer consumer
+	 * specified by consumerName param. If there are no such messages, call blocks until new messages are stored
+	 * or until the timeout elapses (long-poll).
+	 *
+	 * @param consumerName String Consumer to get messages for
+	 * @param timeout int Maximum time to wait for new messages in milliseconds, can't be longer than 30000
+	 * @return List<AuditMessage> List of Audit Messages, empty if there were no new messages before the timeout
+	 */
+	waitForConsumerMessages {
+		@Override
+		public List<AuditMessage> call(ApiCaller ac, Deserializer parms) throws PerunException {
+			long timeout = AuditMessagesManager.DEFAULT_WAIT_TIMEOUT;
+			if (parms.contains("timeout")) timeout = Math.min(parms.readInt("timeout"), timeout);
+			return ac.getAuditMessagesManager().waitForConsumerMessages(ac.getSession(), parms.readString("consumerName"), timeout);
+		}
+	},
+
 	/*#
 	 * Set ID of last processed message for specified consumer.
 	 *
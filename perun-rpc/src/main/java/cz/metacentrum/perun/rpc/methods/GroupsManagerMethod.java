@@ -1689,5 +1689,29 @@ public enum GroupsManagerMethod implements ManagerMethod {
 					ac.getGroupById(parms.readInt("group")),
 					status);
 		}
+	},
+
+	/*#
+	 * Checks consistency of closures of group hierarchy and of relations between groups, which are used to get
+	 * all subgroups, parent groups and result groups of relations by a single query.
+	 *
+	 * @return int Number of missing, wrong or redundant rows of closures, 0 if closures are consistent
+	 */
+	/*#
+	 * Checks consistency of closures of group hierarchy and of relations between groups, which are used to get
+	 * all subgroups, parent groups and result groups of relations by a single query. Inconsistent closures
+	 * can be rebuilt (e.g. after direct modification of groups in the DB).
+	 *
+	 * @param repair boolean If true, inconsistent closures are rebuilt
+	 * @return int Number of missing, wrong or redundant rows of closures, 0 if closures are consistent
+	 */
+	checkGroupsClosure {
+		@Override
+		public Integer call(ApiCaller ac, Deserializer parms) throws PerunException {
+			boolean repair = parms.contains("repair") && parms.readBoolean("repair");
+			if (repair) ac.stateChangingCheck();
+
+			return ac.getGroupsManager().checkGroupsClosure(ac.getSession(), repair);
+		}
 	};
 }
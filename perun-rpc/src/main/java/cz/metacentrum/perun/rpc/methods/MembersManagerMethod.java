@@ -720,6 +720,40 @@ public enum MembersManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Get one page of RichMembers of the VO with attributes specific for list of attrsNames.
+	 * Members are selected, ordered and filtered by the query. Only attributes of members on the page are loaded.
+	 * If attrsNames is empty or null return all attributes for specific richMembers.
+	 *
+	 * If members are sorted by ID, next page is requested by setting lastId of the query to the id of the last member
+	 * of the previous page, otherwise by the offset.
+	 *
+	 * @param vo int Vo <code>id</code>
+	 * @param query PageQuery Query with pageSize, offset, lastId, sortColumn (ID | NAME | STATUS), order (ASCENDING | DESCENDING), searchString and statuses
+	 * @param attrsNames List<String> Attribute names
+	 * @return Paginated<RichMember> Page of richMembers with total count of members matching the query
+	 */
+	/*#
+	 * Get one page of RichMembers of the VO with all attributes.
+	 * Members are selected, ordered and filtered by the query. Only attributes of members on the page are loaded.
+	 *
+	 * If members are sorted by ID, next page is requested by setting lastId of the query to the id of the last member
+	 * of the previous page, otherwise by the offset.
+	 *
+	 * @param vo int Vo <code>id</code>
+	 * @param query PageQuery Query with pageSize, offset, lastId, sortColumn (ID | NAME | STATUS), order (ASCENDING | DESCENDING), searchString and statuses
+	 * @return Paginated<RichMember> Page of richMembers with total count of members matching the query
+	 */
+	getCompleteRichMembersPage {
+		@Override
+		public Paginated<RichMember> call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getMembersManager().getCompleteRichMembersPage(ac.getSession(),
+					ac.getVoById(parms.readInt("vo")),
+					parms.read("query", PageQuery.class),
+					parms.contains("attrsNames") ? parms.readList("attrsNames", String.class) : null);
+		}
+	},
+
 	/*#
  	 * Get RichMembers with Attributes but only with selected attributes from list attrsDef for vo.
  	 *
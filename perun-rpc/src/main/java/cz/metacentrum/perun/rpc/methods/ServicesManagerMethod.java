@@ -6,6 +6,7 @@ import java.util.List;
 import cz.metacentrum.perun.controller.model.ServiceForGUI;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
@@ -15,6 +16,7 @@ import cz.metacentrum.perun.core.api.exceptions.PerunException;
 import cz.metacentrum.perun.core.api.exceptions.RpcException;
 import cz.metacentrum.perun.rpc.ApiCaller;
 import cz.metacentrum.perun.rpc.ManagerMethod;
+import cz.metacentrum.perun.rpc.ServiceAttributesStream;
 import cz.metacentrum.perun.rpc.deserializer.Deserializer;
 
 public enum ServicesManagerMethod implements ManagerMethod {
@@ -452,6 +454,7 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	 * @param service int Service <code>id</code>
 	 * @param facility int Facility <code>id</code>. You will get attributes for this facility, resources associated with it and members assigned to the resources.
 	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean If true, the structure is written to the response continuously as it is generated (JSON format only). Response can be compressed by gzip, if the client accepts it.
 	 * @return List<ServiceAttributes> Attributes in special structure. Facility is in the root, facility children are resources. And resource children are members.
 	 <pre>
 	 Facility
@@ -510,8 +513,13 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	getHierarchicalData {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
-			if (parms.contains("filterExpiredMembers")) {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) writer -> ac.getServicesManager().getHierarchicalData(ac.getSession(), service, facility, filterExpiredMembers, writer);
+			} else if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getHierarchicalData(ac.getSession(),
 					ac.getServiceById(parms.readInt("service")),
 					ac.getFacilityById(parms.readInt("facility")),
@@ -531,6 +539,7 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	 * @param service int Service <code>id</code>. You will get attributes required by this service
 	 * @param facility int Facility <code>id</code>. You will get attributes for this facility, resources associated with it and members assigned to the resources
 	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean If true, the structure is written to the response continuously as it is generated (JSON format only). Response can be compressed by gzip, if the client accepts it.
 	 * @return ServiceAttributes Attributes in special structure. The facility is in the root. Facility first children is abstract node which contains no attributes and it's children are all resources. Facility second child is abstract node with no attribute and it's children are all users.
 	 <pre>
 	 Facility
@@ -587,8 +596,13 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	getFlatData {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
-			if (parms.contains("filterExpiredMembers")) {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) writer -> ac.getServicesManager().getFlatData(ac.getSession(), service, facility, filterExpiredMembers, writer);
+			} else if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getFlatData(ac.getSession(),
 						ac.getServiceById(parms.readInt("service")),
 						ac.getFacilityById(parms.readInt("facility")),
@@ -608,6 +622,7 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	 * @param service int Service <code>id</code>. You will get attributes reuqired by this service
 	 * @param facility int Facility <code>id</code>. You will get attributes for this facility, resources associated with it and members assigned to the resources
 	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean If true, the structure is written to the response continuously as it is generated (JSON format only). Response can be compressed by gzip, if the client accepts it.
 	 * @return ServiceAttributes Attributes in special structure. Facility is in the root, facility children are resources.
 	 *         Resource first chil is abstract structure which children are groups.
 	 *         Resource  second chi is abstract structure which children are members.
@@ -756,8 +771,13 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	getDataWithGroups {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
-			if (parms.contains("filterExpiredMembers")) {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) writer -> ac.getServicesManager().getDataWithGroups(ac.getSession(), service, facility, filterExpiredMembers, writer);
+			} else if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getDataWithGroups(ac.getSession(),
 					ac.getServiceById(parms.readInt("service")),
 					ac.getFacilityById(parms.readInt("facility")),
@@ -330,6 +330,39 @@ public enum UsersManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Get one page of richUsers with or without specificUsers with selected attributes.
+	 * Users are selected, ordered and filtered by the query. Only attributes of users on the page are loaded.
+	 *
+	 * If users are sorted by ID, next page is requested by setting lastId of the query to the id of the last user
+	 * of the previous page, otherwise by the offset.
+	 *
+	 * @param query PageQuery Query with pageSize, offset, lastId, sortColumn (ID | NAME), order (ASCENDING | DESCENDING) and searchString
+	 * @param includedSpecificUsers boolean if you want to or don't want to get specificUsers too
+	 * @param attrsNames List<String> list of attributes name
+	 * @return Paginated<RichUser> Page of RichUsers with total count of users matching the query
+	 */
+	/*#
+	 * Get one page of richUsers with or without specificUsers with all non-empty attributes.
+	 * Users are selected, ordered and filtered by the query. Only attributes of users on the page are loaded.
+	 *
+	 * If users are sorted by ID, next page is requested by setting lastId of the query to the id of the last user
+	 * of the previous page, otherwise by the offset.
+	 *
+	 * @param query PageQuery Query with pageSize, offset, lastId, sortColumn (ID | NAME), order (ASCENDING | DESCENDING) and searchString
+	 * @param includedSpecificUsers boolean if you want to or don't want to get specificUsers too
+	 * @return Paginated<RichUser> Page of RichUsers with total count of users matching the query
+	 */
+	getRichUsersWithAttributesPage {
+		@Override
+		public Paginated<RichUser> call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getUsersManager().getRichUsersWithAttributesPage(ac.getSession(),
+					parms.read("query", PageQuery.class),
+					parms.readBoolean("includedSpecificUsers"),
+					parms.contains("attrsNames") ? parms.readList("attrsNames", String.class) : null);
+		}
+	},
+
 	/*#
 	 * Returns list of RichUsers with attributes who matches the searchString
 	 *
@@ -1415,6 +1448,21 @@ public enum UsersManagerMethod implements ManagerMethod {
 			}
 
 		}
+	},
+
+	/*#
+	 * Rebuilds the user search index, which holds normalized names, emails and logins of users and is used
+	 * to find users (e.g. after direct modification of users, their attributes or user ext sources in the DB).
+	 *
+	 * @return int Number of entries in the rebuilt index
+	 */
+	rebuildUserSearchIndex {
+		@Override
+		public Integer call(ApiCaller ac, Deserializer parms) throws PerunException {
+			ac.stateChangingCheck();
+
+			return ac.getUsersManager().rebuildUserSearchIndex(ac.getSession());
+		}
 	}
 
 }